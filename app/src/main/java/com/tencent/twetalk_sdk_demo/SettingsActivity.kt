@@ -6,6 +6,7 @@ import android.os.Bundle
 import android.widget.Toast
 import androidx.appcompat.app.AlertDialog
 import androidx.appcompat.app.AppCompatActivity
+import com.tencent.twetalk_audio.config.AudioProfile
 import com.tencent.twetalk_sdk_demo.databinding.ActivitySettingsBinding
 import androidx.core.content.edit
 
@@ -58,6 +59,11 @@ class SettingsActivity : AppCompatActivity() {
         binding.switchAutoSend.isChecked = sharedPreferences.getBoolean(KEY_AUTO_SEND, true)
         binding.switchPlaySound.isChecked = sharedPreferences.getBoolean(KEY_PLAY_SOUND, true)
         binding.switchUseTRTCRecord.isChecked = sharedPreferences.getBoolean(KEY_USE_TRTC_RECORD, false)
+        binding.switchLowPowerListening.isChecked = sharedPreferences.getBoolean(KEY_LOW_POWER_LISTENING, false)
+        binding.switchEndpointer.isChecked = sharedPreferences.getBoolean(KEY_ENDPOINTER, false)
+        binding.switchAdaptiveUplink.isChecked = sharedPreferences.getBoolean(KEY_ADAPTIVE_UPLINK, false)
+        binding.switchBackgroundSession.isChecked = sharedPreferences.getBoolean(KEY_BACKGROUND_SESSION, false)
+        binding.switchPerformanceHud.isChecked = sharedPreferences.getBoolean(KEY_PERFORMANCE_HUD, false)
     }
 
     private fun setupClickListeners() {
@@ -76,15 +82,14 @@ class SettingsActivity : AppCompatActivity() {
             exportChatHistory()
         }
 
-        // 音频质量滑块监听
+        // 音频档位滑块监听
         binding.sliderAudioQuality.addOnChangeListener { _, value, _ ->
-            val qualityText = when (value.toInt()) {
-                1 -> "低质量"
-                2 -> "中等质量"
-                3 -> "高质量"
-                else -> "中等质量"
+            val profileText = when (AudioProfile.fromLevel(value.toInt())) {
+                AudioProfile.BANDWIDTH_SAVER -> "省流量（60ms 帧，低码率 + DTX）"
+                AudioProfile.ULTRA_LOW_LATENCY -> "超低延迟（20ms 帧，低延迟编码）"
+                else -> "均衡（60ms 帧）"
             }
-            Toast.makeText(this, "音频质量: $qualityText", Toast.LENGTH_SHORT).show()
+            Toast.makeText(this, "音频档位: $profileText", Toast.LENGTH_SHORT).show()
         }
     }
 
@@ -112,6 +117,11 @@ class SettingsActivity : AppCompatActivity() {
             putBoolean(KEY_AUTO_SEND, binding.switchAutoSend.isChecked)
             putBoolean(KEY_PLAY_SOUND, binding.switchPlaySound.isChecked)
             putBoolean(KEY_USE_TRTC_RECORD, binding.switchUseTRTCRecord.isChecked)
+            putBoolean(KEY_LOW_POWER_LISTENING, binding.switchLowPowerListening.isChecked)
+            putBoolean(KEY_ENDPOINTER, binding.switchEndpointer.isChecked)
+            putBoolean(KEY_ADAPTIVE_UPLINK, binding.switchAdaptiveUplink.isChecked)
+            putBoolean(KEY_BACKGROUND_SESSION, binding.switchBackgroundSession.isChecked)
+            putBoolean(KEY_PERFORMANCE_HUD, binding.switchPerformanceHud.isChecked)
         }
 
         Toast.makeText(this, "设置已保存", Toast.LENGTH_SHORT).show()
@@ -151,6 +161,11 @@ class SettingsActivity : AppCompatActivity() {
         private const val KEY_AUTO_SEND = "auto_send"
         private const val KEY_PLAY_SOUND = "play_sound"
         private const val KEY_USE_TRTC_RECORD = "use_trtc_record"
+        private const val KEY_LOW_POWER_LISTENING = "low_power_listening"
+        private const val KEY_ENDPOINTER = "endpointer"
+        private const val KEY_ADAPTIVE_UPLINK = "adaptive_uplink"
+        private const val KEY_BACKGROUND_SESSION = "background_session"
+        private const val KEY_PERFORMANCE_HUD = "performance_hud"
 
         fun getDefaultConnectionType(context: Context): String {
             val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
@@ -177,6 +192,13 @@ class SettingsActivity : AppCompatActivity() {
             return prefs.getFloat(KEY_AUDIO_QUALITY, 2f)
         }
 
+        /**
+         * 音频质量滑块对应的音频档位（1=省流量，2=均衡，3=超低延迟）
+         */
+        fun getAudioProfile(context: Context): AudioProfile {
+            return AudioProfile.fromLevel(getAudioQuality(context).toInt())
+        }
+
         fun isAutoSendEnabled(context: Context): Boolean {
             val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
             return prefs.getBoolean(KEY_AUTO_SEND, true)
@@ -191,5 +213,36 @@ class SettingsActivity : AppCompatActivity() {
             val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
             return prefs.getBoolean(KEY_USE_TRTC_RECORD, false)
         }
+
+        fun isLowPowerListeningEnabled(context: Context): Boolean {
+            val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+            return prefs.getBoolean(KEY_LOW_POWER_LISTENING, false)
+        }
+
+        fun isEndpointerEnabled(context: Context): Boolean {
+            val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+            return prefs.getBoolean(KEY_ENDPOINTER, false)
+        }
+
+        fun isAdaptiveUplinkEnabled(context: Context): Boolean {
+            val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+            return prefs.getBoolean(KEY_ADAPTIVE_UPLINK, false)
+        }
+
+        /**
+         * 后台保持对话：对话由前台服务持有，离开页面不断开
+         */
+        fun isBackgroundSessionEnabled(context: Context): Boolean {
+            val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+            return prefs.getBoolean(KEY_BACKGROUND_SESSION, false)
+        }
+
+        /**
+         * 对话页面显示性能浮层：SDK 指标、播放队列和对话时延
+         */
+        fun isPerformanceHudEnabled(context: Context): Boolean {
+            val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+            return prefs.getBoolean(KEY_PERFORMANCE_HUD, false)
+        }
     }
 }
\ No newline at end of file
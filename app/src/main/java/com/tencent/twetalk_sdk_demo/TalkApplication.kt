@@ -5,6 +5,8 @@ import android.content.SharedPreferences
 import android.util.Log
 import androidx.preference.PreferenceManager
 import com.tencent.twetalk.mqtt.MqttManager
+import com.tencent.twetalk_audio.AudioWarmUp
+import com.tencent.twetalk_audio.session.SharedAudioEngine
 import com.tencent.twetalk_sdk_demo.data.Constants
 
 class TalkApplication : Application() {
@@ -19,11 +21,27 @@ class TalkApplication : Application() {
 
     private lateinit var sharedPreferences: SharedPreferences
 
+    /**
+     * 进程级共享音频引擎
+     * AI 对话、微信通话等页面各自打开会话，页面切换只切换数据路由，不重建采集播放设备
+     */
+    val audioEngine: SharedAudioEngine by lazy {
+        SharedAudioEngine(this).apply {
+            // 音频异常只在开始时回调一次，记录下来便于对照卡顿反馈的时间点
+            setOnGlitchListener { type, _, detail ->
+                Log.w("Metric", "Audio glitch: type=$type, detail=$detail")
+            }
+        }
+    }
+
     override fun onCreate() {
         super.onCreate()
         instance = this
         sharedPreferences = PreferenceManager.getDefaultSharedPreferences(this)
 
+        // 后台预加载 opus_jni、读取设备能力缓存，进入对话时无需再承担冷启动开销
+        AudioWarmUp.warmUpAsync(this)
+
         // 如果已有设备配置，自动初始化 MQTT
         initializeMqttIfConfigured()
     }
@@ -131,6 +149,7 @@ class TalkApplication : Application() {
     override fun onTerminate() {
         super.onTerminate()
         releaseMqtt()
+        audioEngine.release()
     }
 
     companion object {
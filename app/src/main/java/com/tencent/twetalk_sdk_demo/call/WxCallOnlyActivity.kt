@@ -30,19 +30,20 @@ import com.tencent.twetalk.protocol.TweCallMessage
 import com.tencent.twetalk.transport.WebSocketTransport
 import com.tencent.twetalk_sdk_demo.BaseActivity
 import com.tencent.twetalk_sdk_demo.R
-import com.tencent.twetalk_audio.TalkAudioController
+import com.tencent.twetalk_sdk_demo.SettingsActivity
+import com.tencent.twetalk_sdk_demo.TalkApplication
 import com.tencent.twetalk_audio.config.AudioConfig
 import com.tencent.twetalk_audio.config.AudioFormatType
-import com.tencent.twetalk_audio.config.FrameDurationType
 import com.tencent.twetalk_audio.listener.OnRecordDataListener
+import com.tencent.twetalk_audio.session.AudioSession
 import com.tencent.twetalk_sdk_demo.data.Constants
 import com.tencent.twetalk_sdk_demo.databinding.ActivityWxCallBinding
 import com.tencent.twetalk_sdk_demo.utils.PermissionHelper
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.delay
 import kotlinx.coroutines.launch
 import java.util.Locale
+import java.util.concurrent.CompletableFuture
 
 /**
  * 仅通话页面 (MQTT 在线，WebSocket 离线时的来电场景)
@@ -75,9 +76,10 @@ class WxCallOnlyActivity : BaseActivity<ActivityWxCallBinding>(), TWeTalkClientL
     // MQTT 回调
     private lateinit var mqttCallback: MqttManager.MqttConnectionCallback
 
-    // 统一音频控制器
-    private var audioController: TalkAudioController? = null
-    @Volatile private var isAudioControllerInitialized = false
+    // 共享音频引擎上的会话，从 AI 对话进入时复用已打开的采集播放设备
+    // 打开在引擎线程异步完成，录音启停排在打开之后执行
+    private var audioSessionFuture: CompletableFuture<AudioSession>? = null
+    @Volatile private var audioSession: AudioSession? = null
 
     // 通话计时
     private var callStartTime: Long = 0
@@ -230,36 +232,42 @@ class WxCallOnlyActivity : BaseActivity<ActivityWxCallBinding>(), TWeTalkClientL
     }
 
     private fun initAudioController() {
-        lifecycleScope.launch(Dispatchers.IO) {
-            try {
-                val audioConfig = AudioConfig().apply {
-                    frameDuration = FrameDurationType.MS_60
-                    formatType = AudioFormatType.OPUS
-                }
+        val audioConfig = AudioConfig.fromProfile(SettingsActivity.getAudioProfile(this)).apply {
+            formatType = AudioFormatType.OPUS
+        }
 
-                audioController = TalkAudioController(this@WxCallOnlyActivity, audioConfig).also { controller ->
-                    controller.setOnRecordDataListener(object : OnRecordDataListener {
-                        override fun onPcmData(data: ByteArray, size: Int) {
-                            // PCM 数据回调（不使用）
-                        }
+        audioSessionFuture = TalkApplication.getInstance().audioEngine
+            .openSessionAsync(TAG, audioConfig)
+            .thenApply { session ->
+                session.setOnRecordDataListener(object : OnRecordDataListener {
+                    override fun onPcmData(data: ByteArray, size: Int) {
+                        // PCM 数据回调（不使用）
+                    }
 
-                        override fun onOpusData(data: ByteArray, size: Int) {
-                            // Opus 数据回调
-                            if (isWebSocketConnected && callState == CallState.IN_PROGRESS) {
-                                client?.sendCustomAudioData(data, audioConfig.sampleRate, audioConfig.channelCount)
-                            }
+                    override fun onOpusData(data: ByteArray, size: Int) {
+                        // Opus 数据回调
+                        if (isWebSocketConnected && callState == CallState.IN_PROGRESS) {
+                            client?.sendCustomAudioData(data, audioConfig.sampleRate, audioConfig.channelCount)
                         }
+                    }
 
-                        override fun onRecordError(errorCode: Int, message: String) {
-                            Log.e(TAG, "录音错误[$errorCode]: $message")
-                        }
-                    })
+                    override fun onRecordError(errorCode: Int, message: String) {
+                        Log.e(TAG, "录音错误[$errorCode]: $message")
+                    }
+                })
 
-                    controller.init()
-                    isAudioControllerInitialized = true
-                }
-            } catch (e: Exception) {
-                Log.e(TAG, "TalkAudioController init failed", e)
+                session.setMicMute(isMuted)
+
+                // 接听前提前创建解码器和 AudioTrack，接通后首包即可播放
+                session.warmUpPlayback(audioConfig.sampleRate, audioConfig.channelCount, AudioFormatType.OPUS)
+
+                audioSession = session
+                session
+            }
+
+        audioSessionFuture?.whenComplete { _, error ->
+            if (error != null) {
+                Log.e(TAG, "open audio session failed", error)
             }
         }
     }
@@ -425,8 +433,9 @@ class WxCallOnlyActivity : BaseActivity<ActivityWxCallBinding>(), TWeTalkClientL
         isMuted = !isMuted
         updateMuteUI()
 
-        // 使用 TalkAudioController 的静音功能
-        audioController?.setMicMute(isMuted)
+        // 使用音频会话的静音功能
+        val muted = isMuted
+        audioSessionFuture?.thenAccept { it.setMicMute(muted) }
     }
 
     private fun updateMuteUI() {
@@ -518,13 +527,13 @@ class WxCallOnlyActivity : BaseActivity<ActivityWxCallBinding>(), TWeTalkClientL
     }
 
     private fun startRecording() {
-        if (isAudioControllerInitialized && !isMuted) {
-            audioController?.startRecord()
+        if (!isMuted) {
+            audioSessionFuture?.thenCompose { it.startRecord() }
         }
     }
 
     private fun stopRecording() {
-        audioController?.stopRecord()
+        audioSessionFuture?.thenCompose { it.stopRecord() }
     }
 
     private fun startCallTimer() {
@@ -605,7 +614,7 @@ class WxCallOnlyActivity : BaseActivity<ActivityWxCallBinding>(), TWeTalkClientL
         val ch = if (channels > 0) channels else 1
         val isPcm = format == AudioFormat.PCM
         val formatType = if (isPcm) AudioFormatType.PCM else AudioFormatType.OPUS
-        audioController?.play(audio, sr, ch, formatType)
+        audioSession?.play(audio, sr, ch, formatType)
     }
 
     override fun onRecvTalkMessage(type: TWeTalkMessage.TWeTalkMessageType, text: String?) {
@@ -636,8 +645,10 @@ class WxCallOnlyActivity : BaseActivity<ActivityWxCallBinding>(), TWeTalkClientL
         client = null
         stopRecording()
         stopVibration()
-        audioController?.release()
-        audioController = null
+        // 会话仍在打开时，关闭排在打开之后执行
+        audioSessionFuture?.thenCompose { it.close() }
+        audioSessionFuture = null
+        audioSession = null
         window.clearFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON)
     }
 }
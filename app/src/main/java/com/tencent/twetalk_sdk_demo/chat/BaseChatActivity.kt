@@ -12,6 +12,7 @@ import android.view.View
 import android.view.animation.Animation
 import android.view.animation.AnimationUtils
 import androidx.activity.result.contract.ActivityResultContracts
+import androidx.activity.viewModels
 import androidx.appcompat.app.AlertDialog
 import androidx.appcompat.content.res.AppCompatResources
 import androidx.core.content.ContextCompat
@@ -20,74 +21,56 @@ import androidx.lifecycle.Lifecycle
 import androidx.lifecycle.lifecycleScope
 import androidx.lifecycle.repeatOnLifecycle
 import androidx.recyclerview.widget.LinearLayoutManager
-import com.tencent.twetalk.protocol.AudioFormat
-import com.tencent.twetalk.protocol.CallStream
-import com.tencent.twetalk.protocol.CallSubType
-import com.tencent.twetalk.protocol.ImageMessage
-import com.tencent.twetalk.protocol.TWeTalkMessage
-import com.tencent.twetalk.protocol.TweCallMessage
 import com.tencent.twetalk_sdk_demo.BaseActivity
 import com.tencent.twetalk_sdk_demo.R
+import com.tencent.twetalk_sdk_demo.SettingsActivity
 import com.tencent.twetalk_sdk_demo.adapter.ChatMessageAdapter
-import com.tencent.twetalk_audio.TalkAudioController
-import com.tencent.twetalk_audio.config.AudioConfig
-import com.tencent.twetalk_audio.config.AudioFormatType
-import com.tencent.twetalk_audio.config.FrameDurationType
-import com.tencent.twetalk_audio.listener.OnRecordDataListener
-import com.tencent.twetalk_sdk_demo.call.CallAction
-import com.tencent.twetalk_sdk_demo.call.CallConfigManager
-import com.tencent.twetalk_sdk_demo.call.CallState
 import com.tencent.twetalk_sdk_demo.call.CallType
 import com.tencent.twetalk_sdk_demo.call.WxCallActivity
-import com.tencent.twetalk_sdk_demo.call.WxCallManager
 import com.tencent.twetalk_sdk_demo.data.ChatMessage
 import com.tencent.twetalk_sdk_demo.data.Constants
 import com.tencent.twetalk_sdk_demo.data.MessageStatus
 import com.tencent.twetalk_sdk_demo.databinding.ActivityChatBinding
 import com.tencent.twetalk_sdk_demo.utils.PermissionHelper
 import com.tencent.twetalk_sdk_demo.video.VideoChatCameraManager
-import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.withContext
 
+/**
+ * 对话页面
+ * 连接、音频和对话状态都在 ConversationSession 中，页面只做绑定展示；
+ * 配置变更重建页面时复用同一个会话，不断开连接、不重建音频
+ */
 abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
     companion object {
         private val TAG = BaseChatActivity::class.simpleName
+
+        // 性能浮层刷新间隔
+        private const val HUD_REFRESH_MS = 500L
     }
 
     private lateinit var messageAdapter: ChatMessageAdapter
     private val handler = Handler(Looper.getMainLooper())
-    private var isRecording = false
-    private var connectionType: String = ""
-    private var audioFormatStr: String = ""
-    protected var isConnected = false
-    protected var isVideoMode = false
-    protected var isPushToTalkMode = false  // 按键说话模式
-    protected var cameraManager: VideoChatCameraManager? = null
+    private val viewModel: ConversationViewModel by viewModels()
+    protected val session: ConversationSession by lazy {
+        viewModel.getOrCreate { obtainSession(intent.getBundleExtra(Constants.KEY_CHAT_BUNDLE)) }
+    }
 
-    // 统一音频控制器
-    private var audioController: TalkAudioController? = null
-    @Volatile private var isAudioControllerInitialized = false
+    protected val isVideoMode: Boolean
+        get() = session.isVideoMode
+    protected val isPushToTalkMode: Boolean
+        get() = session.isPushToTalkMode
+    protected var cameraManager: VideoChatCameraManager? = null
 
-    // 通话状态
-    protected var isCalling = false  // 正在来电/呼叫中
-    protected var isInProgress = false  // 正在通话状态
-    protected var currentCallType: CallType? = null
-    protected var currentCallOpenId: String? = null
-    protected var currentCallNickname: String? = null
-    protected var currentCallRoomId: String? = null
+    // 当前页面展示的录音状态
+    private var recordingShown = false
 
     // 通话页面启动器
     protected val callActivityLauncher = registerForActivityResult(
         ActivityResultContracts.StartActivityForResult()
     ) { result ->
         // 通话页面返回，重置通话状态
-        isCalling = false
-        isInProgress = false
-        currentCallType = null
-        currentCallOpenId = null
-        currentCallNickname = null
-        currentCallRoomId = null
+        session.onCallFinished()
     }
 
     protected val reqPermissions = registerForActivityResult(
@@ -100,8 +83,7 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
             isVideoMode -> {
                 if ((audioGranted && cameraGranted) || PermissionHelper.hasPermissions(this,
                         PermissionHelper.VIDEO_MODE_PERMISSIONS)) {
-                    startChat()
-                    initAudioController()
+                    startSession()
                 } else {
                     val deniedPermissions = mutableListOf<String>()
                     if (!audioGranted) deniedPermissions.add("麦克风")
@@ -113,9 +95,9 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
             }
 
             else -> {
-                if (audioGranted) {
-                    startChat()
-                    initAudioController()
+                if (audioGranted || PermissionHelper.hasPermissions(this,
+                        PermissionHelper.AUDIO_MODE_PERMISSIONS)) {
+                    startSession()
                 } else {
                     showToast("麦克风权限被拒绝")
                     finish()
@@ -127,13 +109,6 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
     override fun getViewBinding() = ActivityChatBinding.inflate(layoutInflater)
 
     override fun initView() {
-        isVideoMode = intent.getBundleExtra(Constants.KEY_CHAT_BUNDLE)
-            ?.getBoolean(Constants.KEY_VIDEO_MODE) ?: false
-        isPushToTalkMode = intent.getBundleExtra(Constants.KEY_CHAT_BUNDLE)
-            ?.getBoolean(Constants.KEY_PUSH_TO_TALK) ?: false
-
-        loadConnectionInfo()
-
         if (isVideoMode) {
             showVideoUI()
             setupVideoUI()
@@ -158,13 +133,11 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
             this,
             binding.videoChat.previewView
         ) { imgMsg ->
-            onImageCaptured(imgMsg)
+            session.onImageCaptured(imgMsg)
         }
 
         binding.videoChat.fabEndCall.setOnClickListener {
-            stopRecording()
-            audioController?.stopPlay()
-            stopChat()
+            session.endChat()
         }
 
         binding.videoChat.fabSwitchCamera.setOnClickListener {
@@ -174,24 +147,60 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
 
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
-        initClient()
-        ensurePermissionsAndStart()
+
+        if (intent.getBundleExtra(Constants.KEY_CHAT_BUNDLE) == null) {
+            showToast("没有读取到连接配置")
+            finish()
+            return
+        }
+
+        // 配置变更重建时会话已在进行，无需重新连接
+        if (!session.isStarted) {
+            ensurePermissionsAndStart()
+        }
+
         bindCollector()
+        bindPerformanceHud()
+    }
+
+    /**
+     * 创建对话会话，仅在首次进入页面时调用
+     */
+    abstract fun createSession(bundle: Bundle?): ConversationSession
+
+    /**
+     * 后台服务持有同类对话时直接复用，返回页面无需重新连接；否则结束后台对话并新建会话
+     */
+    private fun obtainSession(bundle: Bundle?): ConversationSession {
+        val hosted = ConversationService.hostedSession
+        if (hosted != null) {
+            if (hosted.matches(bundle)) {
+                return hosted
+            }
+
+            ConversationService.stop(this)
+        }
+
+        return createSession(bundle)
     }
 
-    abstract fun initClient()
-    abstract fun startChat()
-    abstract fun stopChat()
-    abstract fun onAudioData(audioData: ByteArray, sampleRate: Int, channels: Int)
-    abstract fun onImageCaptured(imgMsg: ImageMessage)
+    /**
+     * 开始对话，开启后台保持对话时交给前台服务持有
+     */
+    private fun startSession() {
+        session.start()
 
-    // 通话相关抽象方法，子类需要实现
-    abstract fun sendDeviceAnswerMessage(roomId: String)
-    abstract fun sendDeviceRejectMessage(roomId: String)
-    abstract fun sendDeviceHangupForIncomingMessage(roomId: String)
-    abstract fun sendDeviceHangupForOutgoingMessage()
+        if (SettingsActivity.isBackgroundSessionEnabled(this)) {
+            if (!PermissionHelper.hasPermissions(this, PermissionHelper.BACKGROUND_SESSION_PERMISSIONS)) {
+                showToast("通知权限被拒绝，后台对话时将不显示通知")
+            }
+            ConversationService.host(this, session, intent)
+        }
+    }
 
     protected fun updateConnectState() {
+        val isConnected = session.isConnected.value
+
         // 更新状态显示
         lifecycleScope.launch {
             if (isVideoMode) {
@@ -255,90 +264,16 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
         }
     }
 
-    private fun initAudioController() {
-        // TODO 修改适配一下,如果是使用 TRTC 采集音频的情况
-        if (isTRTCConnected()) {
-            return
-        }
-
-        lifecycleScope.launch(Dispatchers.IO) {
-            try {
-                val audioConfig = if (audioFormatStr.equals("OPUS", true)) {
-                    AudioConfig().apply {
-                        formatType = AudioFormatType.OPUS
-                    }
-                } else {
-                    AudioConfig()
-                }
-
-                audioController = TalkAudioController(this@BaseChatActivity, audioConfig).also { controller ->
-                    controller.setOnRecordDataListener(object : OnRecordDataListener {
-                        override fun onPcmData(data: ByteArray, size: Int) {
-                            // PCM 数据回调（如果需要）
-                        }
-
-                        override fun onOpusData(data: ByteArray, size: Int) {
-                            // Opus 数据回调
-                            if (audioConfig.formatType == AudioFormatType.OPUS) {
-                                onAudioData(data, audioConfig.sampleRate, audioConfig.channelCount)
-                            }
-                        }
-
-                        override fun onRecordError(errorCode: Int, message: String) {
-                            Log.e(TAG, "录音错误[$errorCode]: $message")
-                        }
-                    })
-
-                    // 如果是 PCM 格式，需要在 onPcmData 中回调
-                    if (audioConfig.formatType == AudioFormatType.PCM) {
-                        controller.setOnRecordDataListener(object : OnRecordDataListener {
-                            override fun onPcmData(data: ByteArray, size: Int) {
-                                onAudioData(data, audioConfig.sampleRate, audioConfig.channelCount)
-                            }
-
-                            override fun onOpusData(data: ByteArray, size: Int) {}
-
-                            override fun onRecordError(errorCode: Int, message: String) {
-                                Log.e(TAG, "录音错误[$errorCode]: $message")
-                            }
-                        })
-                    }
-
-                    controller.init()
-                    isAudioControllerInitialized = true
-                    Log.d(TAG, "TalkAudioController 初始化完成")
-                }
-            } catch (e: Exception) {
-                Log.e(TAG, "TalkAudioController init failed", e)
-
-                lifecycleScope.launch(Dispatchers.Main) {
-                    showToast("音频控制器初始化失败: ${e.message}")
-                }
-            }
-        }
-    }
-
-    private fun loadConnectionInfo() {
-        val bundle = intent.getBundleExtra(Constants.KEY_CHAT_BUNDLE)
-
-        bundle?.run {
-            connectionType = getString(Constants.KEY_CONNECTION_TYPE, "WEBSOCKET")
-            audioFormatStr = getString(Constants.KEY_AUDIO_TYPE, "PCM") ?: "PCM"
-        } ?: run {
-            showToast("没有读取到配置")
-        }
-    }
-
     private fun setupToolbar() {
         setSupportActionBar(binding.toolbar)
         supportActionBar?.setDisplayHomeAsUpEnabled(true)
         supportActionBar?.setDisplayShowHomeEnabled(true)
-        
+
         binding.toolbar.setNavigationOnClickListener {
             AlertDialog.Builder(this@BaseChatActivity)
                 .setTitle("结束对话")
                 .setMessage("是否要结束对话？")
-                .setPositiveButton("确定") { _,_ -> stopChat() }
+                .setPositiveButton("确定") { _,_ -> session.stopChat() }
                 .setNegativeButton("取消", null)
                 .show()
         }
@@ -365,13 +300,13 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
     private fun setupAudioConnectionInfo() {
         updateConnectState()
 
-        if (isTRTCConnected()) {
+        if (session.isTRTCConnected()) {
             binding.chipAudioFormat.isVisible = false
         }
 
-        binding.chipAudioFormat.text = audioFormatStr
+        binding.chipAudioFormat.text = session.audioFormat.value
         binding.btnEndChat.setOnClickListener {
-            stopChat()
+            session.stopChat()
         }
     }
 
@@ -386,15 +321,15 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
             binding.fabRecord.setOnTouchListener { v, event ->
                 when (event.action) {
                     MotionEvent.ACTION_DOWN -> {
-                        if (!isRecording) {
-                            startRecording()
+                        if (!session.isRecording.value) {
+                            session.startRecording()
                         }
                         true
                     }
 
                     MotionEvent.ACTION_UP, MotionEvent.ACTION_CANCEL -> {
-                        if (isRecording) {
-                            stopRecording()
+                        if (session.isRecording.value) {
+                            session.stopRecording()
                         }
                         true
                     }
@@ -402,19 +337,19 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
                     else -> false
                 }
             }
-            
+
             // 更新提示文本
             binding.tvRecordHint.text = getString(R.string.hold_to_speak)
         } else {
             // 非按键说话模式：点击切换录音状态
             binding.fabRecord.setOnClickListener {
-                if (isRecording) {
-                    stopRecording()
+                if (session.isRecording.value) {
+                    session.stopRecording()
                 } else {
-                    startRecording()
+                    session.startRecording()
                 }
             }
-            
+
             // 更新提示文本
             binding.tvRecordHint.text = getString(R.string.start_recording)
         }
@@ -432,6 +367,73 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
                 }
             }
         }
+
+        // 会话状态随页面重建重新绑定，重建前的状态会立即同步到新页面
+        lifecycleScope.launch {
+            launch {
+                session.isConnected.collect(this@BaseChatActivity::onConnectedChanged)
+            }
+
+            launch {
+                session.loading.collect { tips -> showLoading(tips != null, tips ?: "") }
+            }
+
+            launch {
+                session.isRecording.collect(this@BaseChatActivity::onRecordingChanged)
+            }
+
+            launch {
+                session.audioFormat.collect { binding.chipAudioFormat.text = it }
+            }
+
+            launch {
+                session.events.collect(this@BaseChatActivity::onConversationEvent)
+            }
+        }
+    }
+
+    /**
+     * 性能浮层：仅在设置中开启且页面可见时按固定间隔刷新，指标回调本身不触发界面更新
+     */
+    private fun bindPerformanceHud() {
+        if (!SettingsActivity.isPerformanceHudEnabled(this)) {
+            return
+        }
+
+        binding.tvPerformanceHud.isVisible = true
+        lifecycleScope.launch {
+            repeatOnLifecycle(Lifecycle.State.STARTED) {
+                // 页面可见期间订阅音频指标（开启分配统计），不可见时取消
+                session.setPerformanceHudActive(true)
+                try {
+                    while (true) {
+                        binding.tvPerformanceHud.text = session.performanceSummary()
+                        delay(HUD_REFRESH_MS)
+                    }
+                } finally {
+                    session.setPerformanceHudActive(false)
+                }
+            }
+        }
+    }
+
+    private fun onConnectedChanged(isConnected: Boolean) {
+        updateConnectState()
+
+        // 相机绑定在页面生命周期上，每个页面实例连接后各自开启
+        if (isConnected && isVideoMode) {
+            cameraManager?.startCamera()
+        }
+    }
+
+    private fun onConversationEvent(event: ConversationEvent) {
+        when (event) {
+            is ConversationEvent.Toast -> showToast(event.message)
+            is ConversationEvent.Finish -> finish()
+            is ConversationEvent.CaptureImage -> cameraManager?.captureImage()
+            is ConversationEvent.LaunchCall ->
+                launchCallActivity(event.callType, event.nickname, event.openId, event.roomId)
+        }
     }
 
     private fun showAudioUI() {
@@ -441,7 +443,7 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
             statusBar.visibility = View.VISIBLE
             recyclerViewMessages.visibility = View.VISIBLE
 
-            if (isTRTCConnected()) {
+            if (session.isTRTCConnected()) {
                 audioControlPanel.visibility = View.GONE
             } else {
                 audioControlPanel.visibility = View.VISIBLE
@@ -494,110 +496,59 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
         } else {
             PermissionHelper.AUDIO_MODE_PERMISSIONS
         }
-        
-        if (PermissionHelper.hasPermissions(this, requiredPermissions)) {
-            startChat()
-            initAudioController()
-        } else {
-            // 请求缺失的权限
-            val missingPermissions = PermissionHelper.getMissingPermissions(this, requiredPermissions)
-            reqPermissions.launch(missingPermissions.toTypedArray())
-        }
-    }
-
-    protected fun startRecording() {
-        if (isRecording) {
-            return
-        }
 
-        if (isAudioControllerInitialized) {
-            performRecording()
-            return
+        // 后台保持对话时一并申请通知权限，在前台服务启动前申请
+        val permissions = if (SettingsActivity.isBackgroundSessionEnabled(this)) {
+            requiredPermissions + PermissionHelper.BACKGROUND_SESSION_PERMISSIONS
+        } else {
+            requiredPermissions
         }
 
-        lifecycleScope.launch {
-            // 如果没有完成初始化则等待
-            withContext(Dispatchers.IO) {
-                val startTime = System.currentTimeMillis()
-                val timeout = 5000L // 5秒超时
-
-                while (!isAudioControllerInitialized && (System.currentTimeMillis() - startTime) < timeout) {
-                    Thread.sleep(50)
-                }
-
-                if (!isAudioControllerInitialized) {
-                    Log.e(TAG, "TalkAudioController initialization timeout")
-
-                    withContext(Dispatchers.Main) {
-                        showToast("音频控制器初始化超时，请重试")
-                    }
-
-                    return@withContext
-                }
-            }
-
-            withContext(Dispatchers.Main) {
-                performRecording()
-            }
+        val missingPermissions = PermissionHelper.getMissingPermissions(this, permissions)
+        if (missingPermissions.isEmpty()) {
+            startSession()
+        } else {
+            // 请求缺失的权限
+            reqPermissions.launch(missingPermissions.toTypedArray())
         }
     }
 
-    private fun performRecording() {
-        if (audioController == null) {
-            Log.e(TAG, "TalkAudioController is null")
-            showToast("音频控制器未就绪，请重试")
-            return
-        }
-        
-        if (isRecording) {
+    /**
+     * 录音状态变化（主线程），通话中不更新对话页面
+     */
+    private fun onRecordingChanged(recording: Boolean) {
+        if (recording == recordingShown || isVideoMode || !session.isNotInCall()) {
             return
         }
 
-        isRecording = true
-        audioController?.startRecord()
+        recordingShown = recording
+        updateRecordingUI(recording)
 
-        if (!isVideoMode && isNotInCall()) {
-            lifecycleScope.launch {
-                updateRecordingUI(true)
-                if (isPushToTalkMode) {
-                    binding.tvRecordHint.text = getString(R.string.release_to_send)
-                } else {
-                    binding.tvRecordHint.text = getString(R.string.stop_recording)
-                }
-
-                animateRecording()
+        if (recording) {
+            if (isPushToTalkMode) {
+                binding.tvRecordHint.text = getString(R.string.release_to_send)
+            } else {
+                binding.tvRecordHint.text = getString(R.string.stop_recording)
             }
-        }
-    }
-
-    protected fun stopRecording() {
-        if (!isRecording) {
-            return
-        }
-        
-        isRecording = false
-        audioController?.stopRecord()
 
-        if (!isVideoMode && isNotInCall()) {
-            lifecycleScope.launch {
-                updateRecordingUI(false)
-                if (isPushToTalkMode) {
-                    binding.tvRecordHint.text = getString(R.string.hold_to_speak)
-                } else {
-                    binding.tvRecordHint.text = getString(R.string.start_recording)
-                }
-                binding.tvAudioStatus.text = getString(R.string.processing)
+            animateRecording()
+        } else {
+            if (isPushToTalkMode) {
+                binding.tvRecordHint.text = getString(R.string.hold_to_speak)
+            } else {
+                binding.tvRecordHint.text = getString(R.string.start_recording)
             }
+            binding.tvAudioStatus.text = getString(R.string.processing)
         }
     }
 
     private fun updateRecordingUI(recording: Boolean) {
         if (recording) {
-            binding.fabRecord.backgroundTintList = 
+            binding.fabRecord.backgroundTintList =
                 ContextCompat.getColorStateList(this, R.color.error_red)
             binding.fabRecord.setImageResource(R.drawable.ic_mic_recording)
         } else {
-            binding.fabRecord.backgroundTintList = 
+            binding.fabRecord.backgroundTintList =
                 ContextCompat.getColorStateList(this, R.color.primary_blue)
             binding.fabRecord.setImageResource(R.drawable.ic_mic)
         }
@@ -605,7 +556,7 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
 
     private fun animateRecording() {
         // 简单的录音动画效果
-        if (isRecording) {
+        if (session.isRecording.value) {
             binding.tvAudioStatus.alpha = if (binding.tvAudioStatus.alpha == 1f) 0.5f else 1f
             handler.postDelayed({ animateRecording() }, 500)
         } else {
@@ -613,208 +564,6 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
         }
     }
 
-    /**
-     * 处理音频数据回调
-     */
-    protected fun handleRecvAudio(audio: ByteArray, sampleRate: Int, channels: Int, format: AudioFormat) {
-        // 如果来电或呼叫，先不播放 AI 音频
-        if (isCalling) return
-
-        val sr = if (sampleRate > 0) sampleRate else 16000
-        val ch = if (channels > 0) channels else 1
-        val isPcm = format == AudioFormat.PCM
-        val formatType = if (isPcm) AudioFormatType.PCM else AudioFormatType.OPUS
-        audioController?.play(audio, sr, ch, formatType)
-    }
-
-    /**
-     * 处理对话消息回调
-     */
-    protected fun handleRecvTalkMessage(type: TWeTalkMessage.TWeTalkMessageType, text: String?) {
-        when (type) {
-            TWeTalkMessage.TWeTalkMessageType.BOT_READY -> {}
-            TWeTalkMessage.TWeTalkMessageType.ERROR -> {}
-            TWeTalkMessage.TWeTalkMessageType.REQUEST_IMAGE -> {
-                // 服务端请求图片，捕获相机并发送
-                cameraManager?.captureImage()
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.USER_LLM_TEXT -> {
-                // 打断机器人的话
-                ConversationManager.interruptAssistant()
-                audioController?.stopPlay()
-                // 通知用户对话
-                ConversationManager.onUserLLMText(text ?: "")
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.BOT_LLM_STARTED -> {
-                ConversationManager.onBotLLMStarted()
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.BOT_LLM_TEXT -> {
-                ConversationManager.onBotLLMText(text ?: "")
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.BOT_LLM_STOPPED -> {
-                ConversationManager.onBotLLMStopped()
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.USER_STARTED_SPEAKING -> {
-                Log.d("Metric", "User start speaking...")
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.USER_STOPPED_SPEAKING -> {
-                Log.d("Metric", "User stop speaking.")
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.BOT_STARTED_SPEAKING -> {
-                Log.d("Metric", "Bot start speaking...")
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.BOT_STOPPED_SPEAKING -> {
-                Log.d("Metric", "Bot stop speaking.")
-            }
-
-            TWeTalkMessage.TWeTalkMessageType.BOT_TRANSCRIPTION -> {
-                // 暂不处理
-            }
-
-            // 其余消息根据情况处理
-            TWeTalkMessage.TWeTalkMessageType.USER_TRANSCRIPTION,
-            TWeTalkMessage.TWeTalkMessageType.BOT_TTS_TEXT,
-            TWeTalkMessage.TWeTalkMessageType.BOT_TTS_STARTED,
-            TWeTalkMessage.TWeTalkMessageType.BOT_TTS_STOPPED -> {
-                // 暂不处理
-            }
-        }
-    }
-
-    /**
-     * 处理通话消息回调
-     */
-    protected fun handleRecvCallMessage(
-        stream: CallStream,
-        subType: CallSubType,
-        data: TweCallMessage.TweCallData
-    ) {
-        Log.d(TAG, "handleRecvCallMessage: stream=$stream, subType=$subType, data=$data")
-
-        when (stream) {
-            CallStream.DEVICE_TO_USER -> {
-                // 设备呼叫小程序的响应
-                handleDeviceToUserMessage(subType, data)
-            }
-            CallStream.USER_TO_DEVICE -> {
-                // 小程序呼叫设备的响应 (通过 WebSocket)
-                handleUserToDeviceMessage(subType, data)
-            }
-        }
-    }
-
-    /**
-     * 处理设备呼叫小程序时收到的消息
-     */
-    private fun handleDeviceToUserMessage(subType: CallSubType, data: TweCallMessage.TweCallData) {
-        when (subType) {
-            CallSubType.USER_CALLING -> {
-                if (isNotInCall()) {
-                    // 正在呼叫，跳转到呼叫页面
-                    currentCallType = CallType.OUTGOING
-                    currentCallOpenId = data.openId
-                    currentCallNickname = data.called
-                    updateCallState(CallState.CALLING)
-                    launchCallActivity(CallType.OUTGOING, data.called ?: "", data.openId ?: "", "")
-                }
-            }
-
-            CallSubType.USER_ANSWERED -> {
-                // 小程序已接听
-                startRecording()
-                updateCallState(CallState.IN_PROGRESS)
-            }
-
-            CallSubType.USER_REJECT -> {
-                // 小程序拒接
-                updateCallState(CallState.REJECTED)
-            }
-
-            CallSubType.USER_TIMEOUT -> {
-                // 呼叫超时
-                updateCallState(CallState.TIMEOUT)
-            }
-
-            CallSubType.USER_BUSY -> {
-                // 小程序占线
-                updateCallState(CallState.BUSY)
-            }
-
-            CallSubType.USER_ERROR -> {
-                // 呼叫出错
-                updateCallState(CallState.ERROR)
-            }
-
-            CallSubType.USER_HANGUP -> {
-                // 小程序挂断
-                updateCallState(CallState.ENDED)
-            }
-        }
-    }
-
-    /**
-     * 处理小程序呼叫设备时收到的消息 (通过 WebSocket)
-     */
-    private fun handleUserToDeviceMessage(subType: CallSubType, data: TweCallMessage.TweCallData) {
-        when (subType) {
-            CallSubType.USER_HANGUP -> {
-                // 小程序挂断
-                updateCallState(CallState.ENDED)
-            }
-
-            CallSubType.USER_ANSWERED -> {
-                // 小程序呼叫设备 -> 设备同意时，发现也会同步这条消息
-                updateCallState(CallState.IN_PROGRESS)
-            }
-
-            else -> {
-                // 其他类型暂不处理
-            }
-        }
-    }
-
-    /**
-     * 处理来电 (通过 MQTT)
-     */
-    protected fun handleIncomingCall(roomId: String, openId: String) {
-        // 检查是否正在通话中
-        if (!isNotInCall()) {
-            // 设备占线，发送拒接消息
-            sendDeviceRejectMessage(roomId)
-            return
-        }
-
-        // 查找昵称
-        val nickname = CallConfigManager.findNicknameByOpenId(this, openId) ?: ""
-
-        currentCallType = CallType.INCOMING
-        currentCallOpenId = openId
-        currentCallNickname = nickname
-        currentCallRoomId = roomId
-        updateCallState(CallState.INCOMING)
-
-        runOnUiThread {
-            launchCallActivity(CallType.INCOMING, nickname, openId, roomId)
-        }
-    }
-
-    /**
-     * 处理小程序取消呼叫 (通过 MQTT)
-     */
-    protected fun handleCallCancelled(roomId: String?) {
-        if (roomId == currentCallRoomId) {
-            updateCallState(CallState.ENDED)
-        }
-    }
-
     /**
      * 启动通话页面
      */
@@ -830,105 +579,11 @@ abstract class BaseChatActivity : BaseActivity<ActivityChatBinding>() {
         callActivityLauncher.launch(intent)
     }
 
-    /**
-     * 更新通话状态
-     */
-    protected fun updateCallState(state: CallState) {
-        WxCallManager.updateCallState(state, currentCallRoomId)
-        Log.d(TAG, "updateCallState: $state")
-
-        when (state) {
-            CallState.IDLE -> {}
-
-            CallState.CALLING, CallState.INCOMING -> {
-                isCalling = true
-                isInProgress = false
-            }
-
-            CallState.IN_PROGRESS -> {
-                isCalling = false
-                isInProgress = true
-            }
-
-            CallState.REJECTED, CallState.TIMEOUT,
-            CallState.BUSY, CallState.ERROR, CallState.ENDED -> {
-                stopRecording()
-                isCalling = false
-                isInProgress = false
-            }
-        }
-    }
-
-    /**
-     * 监听通话操作 (从 WxCallActivity 发送)
-     */
-    protected fun observeCallActions() {
-        lifecycleScope.launch {
-            WxCallManager.callActionFlow.collect { event ->
-                handleCallAction(event.action, event.roomId)
-            }
-        }
-    }
-
-    /**
-     * 处理通话操作
-     */
-    private fun handleCallAction(action: CallAction, roomId: String?) {
-        when (action) {
-            CallAction.ANSWER -> {
-                // 接听来电
-                if (roomId != null) {
-                    startRecording()
-                    sendDeviceAnswerMessage(roomId)
-                }
-            }
-
-            CallAction.REJECT -> {
-                // 拒接来电
-                if (roomId != null) {
-                    sendDeviceRejectMessage(roomId)
-                }
-            }
-
-            CallAction.HANGUP -> {
-                // 挂断
-                if (currentCallType == CallType.INCOMING) {
-                    if (roomId != null) {
-                        sendDeviceHangupForIncomingMessage(roomId)
-                    }
-                } else {
-                    sendDeviceHangupForOutgoingMessage()
-                }
-
-                stopRecording()
-            }
-
-            CallAction.MUTE -> {
-                stopRecording()
-            }
-
-            CallAction.UNMUTE -> {
-                startRecording()
-            }
-        }
-    }
-
-    protected fun isNotInCall(): Boolean = !isCalling && !isInProgress
-
-    protected fun isTRTCConnected(): Boolean = connectionType == "TRTC"
-
-    private fun releaseInternal() {
-        isAudioControllerInitialized = false
-        audioController?.release()
-        audioController = null
-        cameraManager?.release()
-        cameraManager = null
-    }
-
     override fun onDestroy() {
         super.onDestroy()
         handler.removeCallbacksAndMessages(null)
-        ConversationManager.clearMessage()
-        releaseInternal()
+        // 会话由 ConversationViewModel 在页面真正结束时释放，这里只释放与页面绑定的相机
+        cameraManager?.release()
+        cameraManager = null
     }
 }
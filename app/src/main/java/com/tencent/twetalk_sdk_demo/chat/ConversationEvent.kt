@@ -0,0 +1,26 @@
+package com.tencent.twetalk_sdk_demo.chat
+
+import com.tencent.twetalk_sdk_demo.call.CallType
+
+/**
+ * 对话会话发给页面的一次性事件
+ * 页面重建期间产生的事件会缓存，由新页面接收
+ */
+sealed class ConversationEvent {
+    /** 提示信息 */
+    data class Toast(val message: String) : ConversationEvent()
+
+    /** 对话已结束，关闭页面 */
+    object Finish : ConversationEvent()
+
+    /** 服务端请求图片，由页面拍照后回传会话 */
+    object CaptureImage : ConversationEvent()
+
+    /** 打开通话页面 */
+    data class LaunchCall(
+        val callType: CallType,
+        val nickname: String,
+        val openId: String,
+        val roomId: String
+    ) : ConversationEvent()
+}
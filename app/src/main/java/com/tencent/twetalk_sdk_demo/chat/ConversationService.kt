@@ -0,0 +1,146 @@
+package com.tencent.twetalk_sdk_demo.chat
+
+import android.app.NotificationChannel
+import android.app.NotificationManager
+import android.app.PendingIntent
+import android.app.Service
+import android.content.Context
+import android.content.Intent
+import android.content.pm.ServiceInfo
+import android.os.Build
+import android.os.IBinder
+import android.util.Log
+import androidx.core.app.NotificationCompat
+import androidx.core.app.ServiceCompat
+import androidx.core.content.ContextCompat
+import com.tencent.twetalk_sdk_demo.R
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.launch
+
+/**
+ * 后台对话前台服务（麦克风类型）
+ * 开启“后台保持对话”后由服务持有对话会话，离开对话页面、切换应用或熄屏时连接和采集播放不中断，
+ * 返回时页面直接绑定已有会话；对话结束后服务自动停止并释放会话
+ */
+class ConversationService : Service() {
+    companion object {
+        private val TAG = ConversationService::class.simpleName
+        private const val CHANNEL_ID = "conversation"
+        private const val NOTIFICATION_ID = 1001
+
+        // 服务持有的会话（进程级），页面重新进入时优先复用
+        @Volatile
+        var hostedSession: ConversationSession? = null
+            private set
+
+        // 点击通知返回的页面
+        private var contentIntent: Intent? = null
+
+        /**
+         * 将已开始的会话交给前台服务持有，需在页面可见且已获得录音权限时调用
+         */
+        fun host(context: Context, session: ConversationSession, activityIntent: Intent) {
+            if (hostedSession === session) {
+                return
+            }
+
+            hostedSession?.release()
+            hostedSession = session
+            contentIntent = Intent(activityIntent).addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP)
+            ContextCompat.startForegroundService(context, Intent(context, ConversationService::class.java))
+        }
+
+        fun isHosting(session: ConversationSession?): Boolean = session != null && hostedSession === session
+
+        /**
+         * 结束后台对话并释放会话
+         */
+        fun stop(context: Context) {
+            hostedSession?.release()
+            hostedSession = null
+            contentIntent = null
+            context.stopService(Intent(context, ConversationService::class.java))
+        }
+    }
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Main)
+
+    override fun onBind(intent: Intent?): IBinder? = null
+
+    override fun onStartCommand(intent: Intent?, flags: Int, startId: Int): Int {
+        val session = hostedSession
+        if (session == null) {
+            stopSelf()
+            return START_NOT_STICKY
+        }
+
+        try {
+            ServiceCompat.startForeground(
+                this,
+                NOTIFICATION_ID,
+                buildNotification(),
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) ServiceInfo.FOREGROUND_SERVICE_TYPE_MICROPHONE else 0
+            )
+        } catch (e: Exception) {
+            // 后台无法启动麦克风前台服务时退回页面持有会话
+            Log.e(TAG, "startForeground failed", e)
+            hostedSession = null
+            stopSelf()
+            return START_NOT_STICKY
+        }
+
+        // 对话结束（主动挂断、连接关闭、设备断开）后停止服务
+        scope.launch {
+            session.isEnded.first { it }
+            if (hostedSession === session) {
+                stop(this@ConversationService)
+            }
+        }
+
+        // 进程被杀后会话已不存在，无需重启
+        return START_NOT_STICKY
+    }
+
+    override fun onDestroy() {
+        super.onDestroy()
+        scope.cancel()
+        hostedSession?.release()
+        hostedSession = null
+    }
+
+    private fun buildNotification() = NotificationCompat.Builder(this, ensureChannel())
+        .setSmallIcon(R.drawable.ic_mic)
+        .setContentTitle(getString(R.string.conversation_notification_title))
+        .setContentText(getString(R.string.conversation_notification_text))
+        .setOngoing(true)
+        .setCategory(NotificationCompat.CATEGORY_CALL)
+        .apply {
+            contentIntent?.let {
+                setContentIntent(
+                    PendingIntent.getActivity(
+                        this@ConversationService, 0, it,
+                        PendingIntent.FLAG_UPDATE_CURRENT or PendingIntent.FLAG_IMMUTABLE
+                    )
+                )
+            }
+        }
+        .build()
+
+    private fun ensureChannel(): String {
+        val manager = getSystemService(NOTIFICATION_SERVICE) as NotificationManager
+        if (manager.getNotificationChannel(CHANNEL_ID) == null) {
+            manager.createNotificationChannel(
+                NotificationChannel(
+                    CHANNEL_ID,
+                    getString(R.string.conversation_channel_name),
+                    NotificationManager.IMPORTANCE_LOW
+                )
+            )
+        }
+        return CHANNEL_ID
+    }
+}
@@ -0,0 +1,846 @@
+package com.tencent.twetalk_sdk_demo.chat
+
+import android.content.Context
+import android.net.ConnectivityManager
+import android.os.Bundle
+import android.util.Log
+import com.tencent.twetalk.metrics.MetricEvent
+import com.tencent.twetalk.mqtt.MqttManager
+import com.tencent.twetalk.protocol.AudioFormat
+import com.tencent.twetalk.protocol.CallStream
+import com.tencent.twetalk.protocol.CallSubType
+import com.tencent.twetalk.protocol.ImageMessage
+import com.tencent.twetalk.protocol.TWeTalkMessage
+import com.tencent.twetalk.protocol.TweCallMessage
+import com.tencent.twetalk_audio.config.AudioConfig
+import com.tencent.twetalk_audio.config.AudioFormatType
+import com.tencent.twetalk_audio.listener.OnPlayStateListener
+import com.tencent.twetalk_audio.listener.OnRecordDataListener
+import com.tencent.twetalk_audio.metrics.AudioMetrics
+import com.tencent.twetalk_audio.metrics.AudioTrace
+import com.tencent.twetalk_audio.listener.SimpleVoiceActivityListener
+import com.tencent.twetalk_audio.session.AudioSession
+import com.tencent.twetalk_audio.uplink.UplinkFormatPolicy
+import com.tencent.twetalk_sdk_demo.R
+import com.tencent.twetalk_sdk_demo.SettingsActivity
+import com.tencent.twetalk_sdk_demo.TalkApplication
+import com.tencent.twetalk_sdk_demo.call.CallAction
+import com.tencent.twetalk_sdk_demo.call.CallConfigManager
+import com.tencent.twetalk_sdk_demo.call.CallState
+import com.tencent.twetalk_sdk_demo.call.CallType
+import com.tencent.twetalk_sdk_demo.call.WxCallManager
+import com.tencent.twetalk_sdk_demo.data.Constants
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.receiveAsFlow
+import kotlinx.coroutines.launch
+import java.io.File
+import java.util.Locale
+import java.util.concurrent.CompletableFuture
+
+/**
+ * 对话会话
+ * 持有连接、音频会话和对话状态，由 ConversationViewModel 保留在页面之外，
+ * 旋转屏幕、切换深色模式等配置变更重建页面时不断开连接、不重建音频；页面只负责绑定展示
+ */
+abstract class ConversationSession(
+    protected val context: Context,
+    bundle: Bundle?
+) {
+    companion object {
+        private val TAG = ConversationSession::class.simpleName
+
+        // trace 区间：交给 SDK 发送、收到下行音频
+        private const val TRACE_SEND = "Chat.sendAudio"
+        private const val TRACE_RECV = "Chat.recvAudio"
+
+        // 性能浮层订阅音频指标的周期
+        private const val HUD_METRICS_PERIOD_MS = 1000L
+    }
+
+    protected val scope = CoroutineScope(SupervisorJob() + Dispatchers.Main)
+
+    // 全局 mqtt
+    protected val mqttManager: MqttManager?
+        get() = TalkApplication.getInstance().mqttManager
+
+    val connectionType: String = bundle?.getString(Constants.KEY_CONNECTION_TYPE, "WEBSOCKET") ?: "WEBSOCKET"
+    val isVideoMode: Boolean = bundle?.getBoolean(Constants.KEY_VIDEO_MODE) ?: false
+    val isPushToTalkMode: Boolean = bundle?.getBoolean(Constants.KEY_PUSH_TO_TALK) ?: false  // 按键说话模式
+
+    // 连接状态
+    private val _isConnected = MutableStateFlow(false)
+    val isConnected: StateFlow<Boolean> = _isConnected
+
+    // 加载提示，null 表示不显示
+    private val _loading = MutableStateFlow<String?>(null)
+    val loading: StateFlow<String?> = _loading
+
+    // 录音状态
+    private val _isRecording = MutableStateFlow(false)
+    val isRecording: StateFlow<Boolean> = _isRecording
+
+    // 当前上行音频格式，开启上行格式自适应时在连接前按网络协商一次，会话中不再切换
+    private val _audioFormat = MutableStateFlow(bundle?.getString(Constants.KEY_AUDIO_TYPE, "PCM") ?: "PCM")
+    val audioFormat: StateFlow<String> = _audioFormat
+
+    // 一次性事件
+    private val _events = Channel<ConversationEvent>(Channel.BUFFERED)
+    val events: Flow<ConversationEvent> = _events.receiveAsFlow()
+
+    // 对话是否已结束（连接关闭或设备断开），后台服务据此停止
+    private val _isEnded = MutableStateFlow(false)
+    val isEnded: StateFlow<Boolean> = _isEnded
+
+    // 是否已开始对话（页面重建或从后台返回时不再重复连接）
+    var isStarted = false
+        private set
+    private var isReleased = false
+
+    // 共享音频引擎上的会话，打开在引擎线程异步完成，录音启停等操作链在 future 之后
+    private var audioSessionFuture: CompletableFuture<AudioSession>? = null
+    @Volatile private var audioSession: AudioSession? = null
+
+    // 对话轮次时延追踪，会话释放时导出报告
+    val latencyTracer = TurnLatencyTracer()
+
+    // SDK 上报的各类 MetricEvent 的滑动窗口统计（isMetricOpen 开启时）
+    val metricStats = RollingMetricStats()
+    @Volatile private var metricValueWarned = false
+
+    // 性能浮层显示期间按区间统计的采集 / 播放线程每帧 CPU 和分配（仅在指标上报线程更新）
+    @Volatile private var audioResourceSummary = ""
+    @Volatile private var lastAudioSnapshot: AudioMetrics.Snapshot? = null
+
+    // 通话状态
+    protected var isCalling = false  // 正在来电/呼叫中
+    protected var isInProgress = false  // 正在通话状态
+    protected var currentCallType: CallType? = null
+    protected var currentCallOpenId: String? = null
+    protected var currentCallNickname: String? = null
+    protected var currentCallRoomId: String? = null
+    private var callActionJob: Job? = null
+
+    abstract fun initClient()
+    abstract fun startChat()
+    abstract fun stopChat()
+    abstract fun onAudioData(audioData: ByteArray, sampleRate: Int, channels: Int)
+    abstract fun onImageCaptured(imgMsg: ImageMessage)
+
+    /**
+     * 释放连接（仅在对话开始后调用）
+     */
+    protected abstract fun releaseClient()
+
+    // 通话相关抽象方法，子类需要实现
+    abstract fun sendDeviceAnswerMessage(roomId: String)
+    abstract fun sendDeviceRejectMessage(roomId: String)
+    abstract fun sendDeviceHangupForIncomingMessage(roomId: String)
+    abstract fun sendDeviceHangupForOutgoingMessage()
+
+    /**
+     * 开始对话：连接服务端并打开音频会话，仅在首次调用时生效
+     */
+    fun start() {
+        if (isStarted) {
+            return
+        }
+
+        isStarted = true
+        negotiateAudioFormat()
+        initClient()
+        startChat()
+        initAudioController()
+    }
+
+    /**
+     * 结束对话：停止录音和播放并断开连接，断开后通过 Finish 事件关闭页面
+     */
+    fun endChat() {
+        stopRecording()
+        audioSession?.stopPlay()
+        stopChat()
+    }
+
+    protected fun setConnected(connected: Boolean) {
+        _isConnected.value = connected
+    }
+
+    protected fun showLoading(isShow: Boolean, tips: String = context.getString(R.string.connecting)) {
+        _loading.value = if (isShow) tips else null
+    }
+
+    protected fun showToast(msg: String) {
+        _events.trySend(ConversationEvent.Toast(msg))
+    }
+
+    protected fun finish() {
+        _isEnded.value = true
+        _events.trySend(ConversationEvent.Finish)
+    }
+
+    private fun initAudioController() {
+        // 帧时长、编码参数、播放缓冲统一由设置页的音频档位决定
+        val audioConfig = AudioConfig.fromProfile(SettingsActivity.getAudioProfile(context))
+        if (_audioFormat.value.equals("OPUS", true)) {
+            audioConfig.formatType = AudioFormatType.OPUS
+        }
+
+        // 持续对话模式下可开启低功耗监听，按键说话模式无需 VAD
+        if (!isPushToTalkMode && SettingsActivity.isLowPowerListeningEnabled(context)) {
+            audioConfig.enableLowPowerListening = true
+        }
+
+        // 本地端点检测：按键说话模式下说完自动停止录音；持续对话模式下服务端靠静音判断说完，
+        // 只有传输方式能把端点通知给服务端时才停发静音，否则服务端会一直等不到静音
+        if (SettingsActivity.isEndpointerEnabled(context)) {
+            audioConfig.enableEndpointer = true
+            audioConfig.endpointDropSilence = !isPushToTalkMode && signalsEndOfUtterance
+        }
+
+        // 传输方式对采集格式有要求时（如 TRTC 自定义采集）由子类调整
+        configureAudio(audioConfig)
+
+        // 连接内不切换格式，只发送协商格式的数据
+        val uplinkFormat = audioConfig.formatType
+
+        // 设备初始化在引擎线程完成，监听器在会话打开后、任何录音请求执行前设置
+        audioSessionFuture = TalkApplication.getInstance().audioEngine
+            .openSessionAsync(TAG, audioConfig)
+            .thenApply { session ->
+                // 按上行格式选择发送 PCM 还是 Opus 数据
+                session.setOnRecordDataListener(object : OnRecordDataListener {
+                    override fun onPcmData(data: ByteArray, size: Int) {
+                        if (uplinkFormat == AudioFormatType.PCM) {
+                            sendAudio(data, audioConfig)
+                        }
+                    }
+
+                    override fun onOpusData(data: ByteArray, size: Int) {
+                        if (uplinkFormat == AudioFormatType.OPUS) {
+                            sendAudio(data, audioConfig)
+                        }
+                    }
+
+                    override fun onRecordError(errorCode: Int, message: String) {
+                        Log.e(TAG, "录音错误[$errorCode]: $message")
+                    }
+                })
+
+                session.setOnPlayStateListener(object : OnPlayStateListener {
+                    override fun onPlayError(errorCode: Int, message: String) {
+                        Log.e(TAG, "播放错误[$errorCode]: $message")
+                    }
+
+                    override fun onFirstSampleRendered(firstWriteNs: Long, renderedNs: Long) {
+                        latencyTracer.onFirstSampleRendered(firstWriteNs, renderedNs)
+                    }
+                })
+
+                session.setOnVoiceActivityListener(object : SimpleVoiceActivityListener() {
+                    override fun onEndOfUtterance(reason: Int, utteranceMs: Long) {
+                        scope.launch { handleEndOfUtterance(reason, utteranceMs) }
+                    }
+                })
+
+                // 提前创建解码器和 AudioTrack，首包到达即可播放（下行格式与上行一致）
+                if (playsDownlinkAudio) {
+                    session.warmUpPlayback(audioConfig.sampleRate, audioConfig.channelCount, audioConfig.formatType)
+                }
+
+                audioSession = session
+                Log.d(TAG, "音频会话已打开")
+                session
+            }
+
+        audioSessionFuture?.whenComplete { _, error ->
+            if (error != null) {
+                Log.e(TAG, "open audio session failed", error)
+                showToast("音频控制器初始化失败: ${error.cause?.message ?: error.message}")
+            }
+        }
+    }
+
+    /**
+     * 调整音频会话配置，在打开音频会话前调用
+     */
+    protected open fun configureAudio(audioConfig: AudioConfig) {}
+
+    /**
+     * 是否由本地音频会话播放下行音频，传输方式自行播放时返回 false
+     */
+    protected open val playsDownlinkAudio: Boolean = true
+
+    /**
+     * 上行格式自适应：连接前按系统估计的上行带宽选择 PCM / Opus
+     * 音频格式在连接鉴权时确定，连接内逐包发送的数据不带格式，因此只在连接前选择一次，不在对话中切换
+     */
+    private fun negotiateAudioFormat() {
+        if (!SettingsActivity.isAdaptiveUplinkEnabled(context)) {
+            return
+        }
+
+        val connectivityManager = context.getSystemService(Context.CONNECTIVITY_SERVICE) as ConnectivityManager
+        val upstreamKbps = try {
+            connectivityManager.getNetworkCapabilities(connectivityManager.activeNetwork)
+                ?.linkUpstreamBandwidthKbps ?: 0
+        } catch (e: Exception) {
+            Log.e(TAG, "获取网络能力失败", e)
+            0
+        }
+
+        val audioConfig = AudioConfig.fromProfile(SettingsActivity.getAudioProfile(context))
+        val pcmBitrate = audioConfig.sampleRate * audioConfig.channelCount * 16
+        val preferred = if (_audioFormat.value.equals("OPUS", true)) AudioFormatType.OPUS else AudioFormatType.PCM
+        val format = UplinkFormatPolicy.chooseFormat(pcmBitrate, upstreamKbps * 1000, preferred)
+        Log.d("Metric", "Uplink format negotiated, format=$format, upstreamKbps=$upstreamKbps, preferred=$preferred")
+        _audioFormat.value = format.name
+    }
+
+    /**
+     * 本地端点检测到用户说完（主线程）
+     */
+    private fun handleEndOfUtterance(reason: Int, utteranceMs: Long) {
+        Log.d("Metric", "Local end of utterance, reason=$reason, utteranceMs=$utteranceMs")
+        latencyTracer.onLocalEndOfUtterance()
+
+        // 按键说话模式下无需等用户松手，说完即停止采集
+        if (isPushToTalkMode && isNotInCall()) {
+            stopRecording()
+        }
+
+        onEndOfUtterance(reason, utteranceMs)
+    }
+
+    /**
+     * 本地端点检测回调，子类可在此立即通知服务端用户已说完
+     * 覆盖时须同时令 signalsEndOfUtterance 返回 true，持续对话模式才会停发说完后的静音
+     */
+    protected open fun onEndOfUtterance(reason: Int, utteranceMs: Long) {}
+
+    /**
+     * 传输方式能否在 onEndOfUtterance 中通知服务端用户已说完；目前 SDK 未提供该消息，均为 false
+     */
+    protected open val signalsEndOfUtterance: Boolean = false
+
+    fun startRecording() {
+        if (_isRecording.value) {
+            return
+        }
+
+        val future = audioSessionFuture
+        if (future == null) {
+            Log.e(TAG, "AudioSession is null")
+            showToast("音频控制器未就绪，请重试")
+            return
+        }
+
+        _isRecording.value = true
+        // 排在会话打开之后执行，打开失败时恢复状态
+        future.thenCompose { it.startRecord() }.whenComplete { _, error ->
+            if (error != null) {
+                Log.e(TAG, "start record failed", error)
+                scope.launch {
+                    if (_isRecording.value) {
+                        stopRecording()
+                        showToast("音频控制器未就绪，请重试")
+                    }
+                }
+            }
+        }
+    }
+
+    fun stopRecording() {
+        if (!_isRecording.value) {
+            return
+        }
+
+        _isRecording.value = false
+        audioSessionFuture?.thenCompose { it.stopRecord() }
+    }
+
+    /**
+     * 上行一帧交给 SDK 发送（采集线程）
+     */
+    private fun sendAudio(data: ByteArray, audioConfig: AudioConfig) {
+        val traced = AudioTrace.begin(TRACE_SEND)
+        try {
+            onAudioData(data, audioConfig.sampleRate, audioConfig.channelCount)
+        } finally {
+            AudioTrace.end(traced)
+        }
+        latencyTracer.onUplinkFrame()
+    }
+
+    /**
+     * 处理 SDK 性能指标回调，按类型聚合
+     */
+    protected fun handleMetrics(metrics: MetricEvent?) {
+        val type = metrics?.type ?: return
+        if (type == MetricEvent.Type.RTT) {
+            Log.d(TAG, "onMetrics: $metrics")
+        }
+
+        metricValue(metrics)?.let { metricStats.record(type.name, it) }
+    }
+
+    /**
+     * 处理音频数据回调
+     */
+    protected fun handleRecvAudio(audio: ByteArray, sampleRate: Int, channels: Int, format: AudioFormat) {
+        // 如果来电或呼叫，先不播放 AI 音频
+        if (isCalling || !playsDownlinkAudio) return
+
+        latencyTracer.onBotAudioReceived()
+
+        val sr = if (sampleRate > 0) sampleRate else 16000
+        val ch = if (channels > 0) channels else 1
+        val isPcm = format == AudioFormat.PCM
+        val formatType = if (isPcm) AudioFormatType.PCM else AudioFormatType.OPUS
+        val traced = AudioTrace.begin(TRACE_RECV)
+        audioSession?.play(audio, sr, ch, formatType)
+        AudioTrace.end(traced)
+    }
+
+    /**
+     * 处理对话消息回调
+     */
+    protected fun handleRecvTalkMessage(type: TWeTalkMessage.TWeTalkMessageType, text: String?) {
+        when (type) {
+            TWeTalkMessage.TWeTalkMessageType.BOT_READY -> {}
+            TWeTalkMessage.TWeTalkMessageType.ERROR -> {}
+            TWeTalkMessage.TWeTalkMessageType.REQUEST_IMAGE -> {
+                // 服务端请求图片，由页面捕获相机并回传
+                _events.trySend(ConversationEvent.CaptureImage)
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.USER_LLM_TEXT -> {
+                // 打断机器人的话
+                ConversationManager.interruptAssistant()
+                audioSession?.stopPlay()
+                latencyTracer.onUserText()
+                // 通知用户对话
+                ConversationManager.onUserLLMText(text ?: "")
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.BOT_LLM_STARTED -> {
+                latencyTracer.onBotLlmStarted()
+                ConversationManager.onBotLLMStarted()
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.BOT_LLM_TEXT -> {
+                latencyTracer.onBotLlmText()
+                ConversationManager.onBotLLMText(text ?: "")
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.BOT_LLM_STOPPED -> {
+                ConversationManager.onBotLLMStopped()
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.USER_STARTED_SPEAKING -> {
+                Log.d("Metric", "User start speaking...")
+                latencyTracer.onUserStartedSpeaking()
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.USER_STOPPED_SPEAKING -> {
+                Log.d("Metric", "User stop speaking.")
+                latencyTracer.onUserStoppedSpeaking()
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.BOT_STARTED_SPEAKING -> {
+                Log.d("Metric", "Bot start speaking...")
+                latencyTracer.onBotStartedSpeaking()
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.BOT_STOPPED_SPEAKING -> {
+                Log.d("Metric", "Bot stop speaking.")
+                latencyTracer.onBotStoppedSpeaking()
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.BOT_TRANSCRIPTION -> {
+                // 暂不处理
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.USER_TRANSCRIPTION -> {
+                latencyTracer.onUserText()
+            }
+
+            TWeTalkMessage.TWeTalkMessageType.BOT_TTS_STARTED -> {
+                latencyTracer.onBotTtsStarted()
+            }
+
+            // 其余消息根据情况处理
+            TWeTalkMessage.TWeTalkMessageType.BOT_TTS_TEXT,
+            TWeTalkMessage.TWeTalkMessageType.BOT_TTS_STOPPED -> {
+                // 暂不处理
+            }
+        }
+    }
+
+    /**
+     * 处理通话消息回调
+     */
+    protected fun handleRecvCallMessage(
+        stream: CallStream,
+        subType: CallSubType,
+        data: TweCallMessage.TweCallData
+    ) {
+        Log.d(TAG, "handleRecvCallMessage: stream=$stream, subType=$subType, data=$data")
+
+        when (stream) {
+            CallStream.DEVICE_TO_USER -> {
+                // 设备呼叫小程序的响应
+                handleDeviceToUserMessage(subType, data)
+            }
+            CallStream.USER_TO_DEVICE -> {
+                // 小程序呼叫设备的响应 (通过 WebSocket)
+                handleUserToDeviceMessage(subType, data)
+            }
+        }
+    }
+
+    /**
+     * 处理设备呼叫小程序时收到的消息
+     */
+    private fun handleDeviceToUserMessage(subType: CallSubType, data: TweCallMessage.TweCallData) {
+        when (subType) {
+            CallSubType.USER_CALLING -> {
+                if (isNotInCall()) {
+                    // 正在呼叫，跳转到呼叫页面
+                    currentCallType = CallType.OUTGOING
+                    currentCallOpenId = data.openId
+                    currentCallNickname = data.called
+                    updateCallState(CallState.CALLING)
+                    _events.trySend(
+                        ConversationEvent.LaunchCall(CallType.OUTGOING, data.called ?: "", data.openId ?: "", "")
+                    )
+                }
+            }
+
+            CallSubType.USER_ANSWERED -> {
+                // 小程序已接听
+                startRecording()
+                updateCallState(CallState.IN_PROGRESS)
+            }
+
+            CallSubType.USER_REJECT -> {
+                // 小程序拒接
+                updateCallState(CallState.REJECTED)
+            }
+
+            CallSubType.USER_TIMEOUT -> {
+                // 呼叫超时
+                updateCallState(CallState.TIMEOUT)
+            }
+
+            CallSubType.USER_BUSY -> {
+                // 小程序占线
+                updateCallState(CallState.BUSY)
+            }
+
+            CallSubType.USER_ERROR -> {
+                // 呼叫出错
+                updateCallState(CallState.ERROR)
+            }
+
+            CallSubType.USER_HANGUP -> {
+                // 小程序挂断
+                updateCallState(CallState.ENDED)
+            }
+        }
+    }
+
+    /**
+     * 处理小程序呼叫设备时收到的消息 (通过 WebSocket)
+     */
+    private fun handleUserToDeviceMessage(subType: CallSubType, data: TweCallMessage.TweCallData) {
+        when (subType) {
+            CallSubType.USER_HANGUP -> {
+                // 小程序挂断
+                updateCallState(CallState.ENDED)
+            }
+
+            CallSubType.USER_ANSWERED -> {
+                // 小程序呼叫设备 -> 设备同意时，发现也会同步这条消息
+                updateCallState(CallState.IN_PROGRESS)
+            }
+
+            else -> {
+                // 其他类型暂不处理
+            }
+        }
+    }
+
+    /**
+     * 处理来电 (通过 MQTT)
+     */
+    protected fun handleIncomingCall(roomId: String, openId: String) {
+        // 检查是否正在通话中
+        if (!isNotInCall()) {
+            // 设备占线，发送拒接消息
+            sendDeviceRejectMessage(roomId)
+            return
+        }
+
+        // 查找昵称
+        val nickname = CallConfigManager.findNicknameByOpenId(context, openId) ?: ""
+
+        currentCallType = CallType.INCOMING
+        currentCallOpenId = openId
+        currentCallNickname = nickname
+        currentCallRoomId = roomId
+        updateCallState(CallState.INCOMING)
+
+        _events.trySend(ConversationEvent.LaunchCall(CallType.INCOMING, nickname, openId, roomId))
+    }
+
+    /**
+     * 处理小程序取消呼叫 (通过 MQTT)
+     */
+    protected fun handleCallCancelled(roomId: String?) {
+        if (roomId == currentCallRoomId) {
+            updateCallState(CallState.ENDED)
+        }
+    }
+
+    /**
+     * 通话页面返回，重置通话状态
+     */
+    fun onCallFinished() {
+        isCalling = false
+        isInProgress = false
+        currentCallType = null
+        currentCallOpenId = null
+        currentCallNickname = null
+        currentCallRoomId = null
+    }
+
+    /**
+     * 更新通话状态
+     */
+    protected fun updateCallState(state: CallState) {
+        WxCallManager.updateCallState(state, currentCallRoomId)
+        Log.d(TAG, "updateCallState: $state")
+
+        when (state) {
+            CallState.IDLE -> {}
+
+            CallState.CALLING, CallState.INCOMING -> {
+                isCalling = true
+                isInProgress = false
+            }
+
+            CallState.IN_PROGRESS -> {
+                isCalling = false
+                isInProgress = true
+            }
+
+            CallState.REJECTED, CallState.TIMEOUT,
+            CallState.BUSY, CallState.ERROR, CallState.ENDED -> {
+                stopRecording()
+                isCalling = false
+                isInProgress = false
+            }
+        }
+    }
+
+    /**
+     * 监听通话操作 (从 WxCallActivity 发送)，重连后再次连接成功不重复监听
+     */
+    protected fun observeCallActions() {
+        if (callActionJob?.isActive == true) {
+            return
+        }
+
+        callActionJob = scope.launch {
+            WxCallManager.callActionFlow.collect { event ->
+                handleCallAction(event.action, event.roomId)
+            }
+        }
+    }
+
+    /**
+     * 处理通话操作
+     */
+    private fun handleCallAction(action: CallAction, roomId: String?) {
+        when (action) {
+            CallAction.ANSWER -> {
+                // 接听来电
+                if (roomId != null) {
+                    startRecording()
+                    sendDeviceAnswerMessage(roomId)
+                }
+            }
+
+            CallAction.REJECT -> {
+                // 拒接来电
+                if (roomId != null) {
+                    sendDeviceRejectMessage(roomId)
+                }
+            }
+
+            CallAction.HANGUP -> {
+                // 挂断
+                if (currentCallType == CallType.INCOMING) {
+                    if (roomId != null) {
+                        sendDeviceHangupForIncomingMessage(roomId)
+                    }
+                } else {
+                    sendDeviceHangupForOutgoingMessage()
+                }
+
+                stopRecording()
+            }
+
+            CallAction.MUTE -> {
+                stopRecording()
+            }
+
+            CallAction.UNMUTE -> {
+                startRecording()
+            }
+        }
+    }
+
+    fun isNotInCall(): Boolean = !isCalling && !isInProgress
+
+    /**
+     * 是否与页面参数对应同一种对话（连接方式、视频模式、按键说话模式一致）
+     */
+    fun matches(bundle: Bundle?): Boolean {
+        return connectionType == (bundle?.getString(Constants.KEY_CONNECTION_TYPE, "WEBSOCKET") ?: "WEBSOCKET")
+                && isVideoMode == (bundle?.getBoolean(Constants.KEY_VIDEO_MODE) ?: false)
+                && isPushToTalkMode == (bundle?.getBoolean(Constants.KEY_PUSH_TO_TALK) ?: false)
+    }
+
+    fun isTRTCConnected(): Boolean = connectionType == "TRTC"
+
+    /**
+     * 释放会话（页面真正结束时由 ViewModel 调用，后台对话时由 ConversationService 调用）
+     */
+    fun release() {
+        if (isReleased) {
+            return
+        }
+
+        isReleased = true
+        exportLatencyReport()
+        scope.cancel()
+        _events.close()
+        if (isStarted) {
+            releaseClient()
+        }
+        // 会话仍在打开时，关闭排在打开之后执行
+        audioSessionFuture?.thenCompose { it.close() }
+        audioSessionFuture = null
+        audioSession = null
+        ConversationManager.clearMessage()
+    }
+
+    private fun exportLatencyReport() {
+        if (latencyTracer.lastTurn() == null) {
+            return
+        }
+        Log.d("Metric", latencyTracer.report())
+        latencyTracer.exportReport(File(context.filesDir, "latency"))?.let {
+            Log.d(TAG, "时延报告已导出: ${it.absolutePath}")
+        }
+    }
+
+    /**
+     * 性能浮层文本：SDK 指标（窗口内 min/p50/p95/max）、本地播放队列和对话时延
+     */
+    fun performanceSummary(): String = buildString {
+        for (s in metricStats.summaries()) {
+            append(s.name).append(' ')
+                .append(formatMetric(s.min)).append('/')
+                .append(formatMetric(s.p50)).append('/')
+                .append(formatMetric(s.p95)).append('/')
+                .append(formatMetric(s.max))
+                .append(" n=").append(s.count).append('\n')
+        }
+
+        val audio = TalkApplication.getInstance().audioEngine.metrics
+        append("queue ").append(audio.getGauge(AudioMetrics.GAUGE_PLAYBACK_QUEUE_MS))
+            .append("ms max ").append(audio.getGauge(AudioMetrics.GAUGE_PLAYBACK_QUEUE_MAX_MS)).append("ms\n")
+        append("underrun ").append(audio.getCounter(AudioMetrics.COUNTER_RENDER_UNDERRUNS))
+            .append(" drop ").append(audio.getCounter(AudioMetrics.COUNTER_PLAYBACK_DROPS))
+            .append(" lost ").append(audio.getCounter(AudioMetrics.COUNTER_PLAYBACK_LOST))
+            .append(" gap ").append(audio.getCounter(AudioMetrics.COUNTER_RENDER_GAPS)).append('\n')
+        append("mic zero ").append(audio.getCounter(AudioMetrics.COUNTER_CAPTURE_SILENT_FRAMES))
+            .append(" repeat ").append(audio.getCounter(AudioMetrics.COUNTER_CAPTURE_REPEATED_FRAMES))
+            .append(" clip ").append(audio.getCounter(AudioMetrics.COUNTER_CAPTURE_CLIPPING_RUNS))
+            .append(" jump ").append(audio.getCounter(AudioMetrics.COUNTER_CAPTURE_DISCONTINUITIES)).append('\n')
+
+        append(audioResourceSummary)
+
+        append("turn ").append(latencyTracer.lastTurn()?.stagesMs?.get(TurnLatencyTracer.STAGE_TOTAL) ?: -1)
+            .append("ms p50 ").append(latencyTracer.percentile(TurnLatencyTracer.STAGE_TOTAL, 50.0))
+            .append("ms p95 ").append(latencyTracer.percentile(TurnLatencyTracer.STAGE_TOTAL, 95.0)).append("ms")
+    }
+
+    /**
+     * 性能浮层显示时订阅音频指标，订阅期间音频库开启线程分配统计；浮层隐藏时取消，避免常驻开销
+     */
+    fun setPerformanceHudActive(active: Boolean) {
+        val engine = TalkApplication.getInstance().audioEngine
+        if (active) {
+            engine.setOnMetricsListener({ snapshot -> updateAudioResourceSummary(snapshot) }, HUD_METRICS_PERIOD_MS)
+        } else {
+            engine.setOnMetricsListener(null, 0)
+            // 取消期间不统计分配，下次订阅从新的快照开始计算区间
+            lastAudioSnapshot = null
+        }
+    }
+
+    /**
+     * 指标上报线程回调：与上次快照相减，得到区间内每帧的 CPU 时间和分配字节数
+     */
+    private fun updateAudioResourceSummary(snapshot: AudioMetrics.Snapshot) {
+        val delta = snapshot.minus(lastAudioSnapshot)
+        lastAudioSnapshot = snapshot
+        audioResourceSummary = buildString {
+            appendResourceLine("cap", delta, AudioMetrics.COUNTER_FRAMES_EMITTED,
+                AudioMetrics.COUNTER_CAPTURE_CPU_NS, AudioMetrics.COUNTER_CAPTURE_ALLOC_BYTES)
+            appendResourceLine("play", delta, AudioMetrics.COUNTER_PLAYBACK_FRAMES,
+                AudioMetrics.COUNTER_PLAYBACK_CPU_NS, AudioMetrics.COUNTER_PLAYBACK_ALLOC_BYTES)
+        }
+    }
+
+    private fun StringBuilder.appendResourceLine(
+        name: String, delta: AudioMetrics.Snapshot, framesCounter: Int, cpuCounter: Int, allocCounter: Int
+    ) {
+        val frames = delta.getCounter(framesCounter)
+        if (frames <= 0) {
+            return
+        }
+        append(name).append(" cpu ").append(delta.getCounter(cpuCounter) / frames / 1000)
+            .append("us alloc ").append(delta.getCounter(allocCounter) / frames).append("B /frame\n")
+    }
+
+    private fun formatMetric(value: Double): String =
+        if (value == Math.floor(value) && Math.abs(value) < 1e9) value.toLong().toString()
+        else String.format(Locale.US, "%.1f", value)
+
+    /**
+     * 取 MetricEvent 的数值，非数值的事件不参与统计，首次遇到时打印一次告警
+     */
+    private fun metricValue(metrics: MetricEvent): Double? {
+        val value = metrics.value
+        if (value is Number) {
+            return value.toDouble()
+        }
+        if (!metricValueWarned) {
+            metricValueWarned = true
+            Log.w(TAG, "MetricEvent 数值不可用，指标统计已跳过: type=${metrics.type}, value=$value")
+        }
+        return null
+    }
+}
@@ -0,0 +1,22 @@
+package com.tencent.twetalk_sdk_demo.chat
+
+import androidx.lifecycle.ViewModel
+
+/**
+ * 保留对话会话，配置变更重建页面时复用，页面结束时释放
+ * 会话由 ConversationService 持有时交给服务释放
+ */
+class ConversationViewModel : ViewModel() {
+    private var session: ConversationSession? = null
+
+    fun getOrCreate(factory: () -> ConversationSession): ConversationSession {
+        return session ?: factory().also { session = it }
+    }
+
+    override fun onCleared() {
+        if (!ConversationService.isHosting(session)) {
+            session?.release()
+        }
+        session = null
+    }
+}
@@ -0,0 +1,85 @@
+package com.tencent.twetalk_sdk_demo.chat
+
+import android.os.SystemClock
+
+/**
+ * 按名称聚合的滑动窗口统计，保留最近 windowMs 内、最多 capacity 个样本
+ * 记录只写环形数组，统计时才排序，适合指标回调频繁、展示低频的场景；各方法可在任意线程调用
+ * @param clock 毫秒时钟，默认开机时长，单元测试可替换
+ */
+class RollingMetricStats(
+    private val windowMs: Long = 10_000,
+    private val capacity: Int = 256,
+    private val clock: () -> Long = SystemClock::elapsedRealtime
+) {
+    /**
+     * 一项指标在窗口内的统计
+     */
+    class Summary(
+        val name: String,
+        val count: Int,
+        val min: Double,
+        val p50: Double,
+        val p95: Double,
+        val max: Double,
+        val last: Double
+    )
+
+    private class Series(capacity: Int) {
+        val times = LongArray(capacity)
+        val values = DoubleArray(capacity)
+        var next = 0
+        var size = 0
+    }
+
+    // 按首次出现的顺序展示
+    private val series = LinkedHashMap<String, Series>()
+
+    @Synchronized
+    fun record(name: String, value: Double) {
+        val s = series.getOrPut(name) { Series(capacity) }
+        s.times[s.next] = clock()
+        s.values[s.next] = value
+        s.next = (s.next + 1) % capacity
+        if (s.size < capacity) s.size++
+    }
+
+    /**
+     * 窗口内有样本的各项指标统计
+     */
+    @Synchronized
+    fun summaries(): List<Summary> {
+        val since = clock() - windowMs
+        val result = ArrayList<Summary>(series.size)
+        for ((name, s) in series) {
+            val values = DoubleArray(s.size)
+            var count = 0
+            var last = 0.0
+            // 从最旧的样本开始遍历，last 为最新值
+            for (i in 0 until s.size) {
+                val idx = (s.next - s.size + i + capacity) % capacity
+                if (s.times[idx] >= since) {
+                    values[count++] = s.values[idx]
+                    last = s.values[idx]
+                }
+            }
+            if (count == 0) {
+                continue
+            }
+            values.sort(0, count)
+            result.add(Summary(name, count, values[0], rank(values, count, 50),
+                rank(values, count, 95), values[count - 1], last))
+        }
+        return result
+    }
+
+    @Synchronized
+    fun clear() {
+        series.clear()
+    }
+
+    private fun rank(sorted: DoubleArray, count: Int, percentile: Int): Double {
+        val rank = (count * percentile + 99) / 100
+        return sorted[(rank - 1).coerceIn(0, count - 1)]
+    }
+}
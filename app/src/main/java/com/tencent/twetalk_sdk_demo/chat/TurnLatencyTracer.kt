@@ -0,0 +1,264 @@
+package com.tencent.twetalk_sdk_demo.chat
+
+import android.util.Log
+import java.io.File
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+
+/**
+ * 对话轮次时延追踪
+ * 将服务端对话事件（到达客户端的时间）与本地事件（最后一帧上行、首个下行音频包、首个样本实际播出）
+ * 放在同一时间轴（System.nanoTime）上，按轮次拆分各阶段耗时，保留最近若干轮的分位数，会话结束时导出报告
+ *
+ * 一轮从用户开始说话到机器人说完；服务端事件的时间为客户端收到的时间，包含下行网络时延
+ * 各方法可在任意线程调用
+ */
+class TurnLatencyTracer(private val window: Int = 100) {
+    companion object {
+        private const val TAG = "Metric"
+
+        // 阶段下标
+        const val STAGE_ASR = 0            // 用户说完（最后一帧上行）-> 识别结果
+        const val STAGE_LLM = 1            // 识别结果 -> LLM 首个 token
+        const val STAGE_TTS = 2            // LLM 首个 token -> 首个下行音频包
+        const val STAGE_BUFFERING = 3      // 首个下行音频包 -> 首个样本写入输出设备（解码、排队）
+        const val STAGE_OUTPUT = 4         // 写入输出设备 -> 实际播出
+        const val STAGE_TOTAL = 5          // 用户说完 -> 首个样本实际播出
+        const val STAGE_COUNT = 6
+
+        private val STAGE_NAMES = arrayOf("asr", "llm", "tts", "buffering", "output", "total")
+    }
+
+    /**
+     * 一轮对话的各阶段耗时（毫秒），缺少对应事件时为 -1
+     */
+    class TurnBreakdown(
+        val index: Int,
+        val stagesMs: LongArray,
+        val interrupted: Boolean
+    ) {
+        override fun toString(): String = buildString {
+            append("turn#").append(index)
+            for (i in 0 until STAGE_COUNT) {
+                append(' ').append(STAGE_NAMES[i]).append('=').append(stagesMs[i])
+            }
+            if (interrupted) {
+                append(" interrupted")
+            }
+        }
+    }
+
+    private class Turn(val index: Int, val userStartNs: Long) {
+        var userStopNs = 0L
+        var lastUplinkNs = 0L          // 用户说完时最后一帧上行的时间
+        var userTextNs = 0L
+        var llmStartNs = 0L
+        var llmFirstTokenNs = 0L
+        var ttsStartNs = 0L
+        var audioRecvNs = 0L
+        var firstWriteNs = 0L
+        var renderedNs = 0L
+        var botStartNs = 0L
+    }
+
+    private val startedAt = System.currentTimeMillis()
+
+    // 最后一帧上行的时间，采集线程每帧更新
+    @Volatile private var lastUplinkNs = 0L
+
+    private var turnCount = 0
+    private var current: Turn? = null
+    private val recent = ArrayDeque<TurnBreakdown>()
+    private var completedTurns = 0
+    private var interruptedTurns = 0
+
+    /**
+     * 上行发送一帧
+     */
+    fun onUplinkFrame() {
+        lastUplinkNs = System.nanoTime()
+    }
+
+    @Synchronized
+    fun onUserStartedSpeaking() {
+        // 上一轮机器人未说完即被打断
+        current?.let { finishTurn(it, interrupted = true) }
+        current = Turn(++turnCount, System.nanoTime())
+    }
+
+    @Synchronized
+    fun onUserStoppedSpeaking() {
+        val turn = current ?: return
+        if (turn.userStopNs == 0L) {
+            turn.userStopNs = System.nanoTime()
+            turn.lastUplinkNs = lastUplinkNs.takeIf { it > 0 } ?: turn.userStopNs
+        }
+    }
+
+    /**
+     * 本地端点检测判定用户说完，作为上行结束时间（比服务端 VAD 更早到达）
+     */
+    @Synchronized
+    fun onLocalEndOfUtterance() {
+        val turn = current ?: return
+        if (turn.lastUplinkNs == 0L) {
+            turn.lastUplinkNs = lastUplinkNs.takeIf { it > 0 } ?: System.nanoTime()
+        }
+    }
+
+    @Synchronized
+    fun onUserText() {
+        val turn = current ?: return
+        if (turn.userTextNs == 0L) {
+            turn.userTextNs = System.nanoTime()
+        }
+    }
+
+    @Synchronized
+    fun onBotLlmStarted() {
+        val turn = current ?: return
+        if (turn.llmStartNs == 0L) {
+            turn.llmStartNs = System.nanoTime()
+        }
+    }
+
+    @Synchronized
+    fun onBotLlmText() {
+        val turn = current ?: return
+        if (turn.llmFirstTokenNs == 0L) {
+            turn.llmFirstTokenNs = System.nanoTime()
+        }
+    }
+
+    @Synchronized
+    fun onBotTtsStarted() {
+        val turn = current ?: return
+        if (turn.ttsStartNs == 0L) {
+            turn.ttsStartNs = System.nanoTime()
+        }
+    }
+
+    /**
+     * 收到下行音频包（每包调用，仅记录本轮首包）
+     */
+    @Synchronized
+    fun onBotAudioReceived() {
+        val turn = current ?: return
+        if (turn.audioRecvNs == 0L && turn.userStopNs + turn.lastUplinkNs > 0L) {
+            turn.audioRecvNs = System.nanoTime()
+        }
+    }
+
+    /**
+     * 输出设备播出新一段音频的首个样本，见 OnPlayStateListener.onFirstSampleRendered
+     */
+    @Synchronized
+    fun onFirstSampleRendered(firstWriteNs: Long, renderedNs: Long) {
+        val turn = current ?: return
+        if (turn.renderedNs == 0L && turn.audioRecvNs > 0L && firstWriteNs >= turn.audioRecvNs) {
+            turn.firstWriteNs = firstWriteNs
+            turn.renderedNs = renderedNs
+        }
+    }
+
+    @Synchronized
+    fun onBotStartedSpeaking() {
+        val turn = current ?: return
+        if (turn.botStartNs == 0L) {
+            turn.botStartNs = System.nanoTime()
+        }
+    }
+
+    @Synchronized
+    fun onBotStoppedSpeaking() {
+        val turn = current ?: return
+        if (turn.audioRecvNs > 0L || turn.botStartNs > 0L) {
+            finishTurn(turn, interrupted = false)
+            current = null
+        }
+    }
+
+    /**
+     * 最近一轮的拆分结果
+     */
+    @Synchronized
+    fun lastTurn(): TurnBreakdown? = recent.lastOrNull()
+
+    /**
+     * 最近若干轮某阶段的分位数（毫秒），没有数据时为 -1
+     * @param percentile 0~100
+     */
+    @Synchronized
+    fun percentile(stage: Int, percentile: Double): Long {
+        val values = recent.map { it.stagesMs[stage] }.filter { it >= 0 }.sorted()
+        if (values.isEmpty()) {
+            return -1
+        }
+        val rank = Math.ceil(values.size * percentile.coerceIn(0.0, 100.0) / 100.0).toInt()
+        return values[(rank - 1).coerceIn(0, values.size - 1)]
+    }
+
+    /**
+     * 会话报告：各阶段 p50 / p90 / p99 和最近各轮明细
+     */
+    @Synchronized
+    fun report(): String = buildString {
+        val time = SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault()).format(Date(startedAt))
+        append("Conversation latency report, started ").append(time).append('\n')
+        append("turns=").append(turnCount)
+            .append(" completed=").append(completedTurns)
+            .append(" interrupted=").append(interruptedTurns)
+            .append(" window=").append(recent.size).append('\n')
+        for (i in 0 until STAGE_COUNT) {
+            append(STAGE_NAMES[i].padEnd(10))
+                .append(" p50=").append(percentile(i, 50.0))
+                .append(" p90=").append(percentile(i, 90.0))
+                .append(" p99=").append(percentile(i, 99.0))
+                .append(" ms\n")
+        }
+        recent.forEach { append(it).append('\n') }
+    }
+
+    /**
+     * 将报告写入 dir 下以会话开始时间命名的文件，失败时返回 null
+     */
+    fun exportReport(dir: File): File? {
+        val name = SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(Date(startedAt))
+        return try {
+            dir.mkdirs()
+            File(dir, "latency_$name.txt").apply { writeText(report()) }
+        } catch (e: Exception) {
+            Log.e(TAG, "导出时延报告失败", e)
+            null
+        }
+    }
+
+    private fun finishTurn(turn: Turn, interrupted: Boolean) {
+        // 用户说完的时间：优先最后一帧上行，其次服务端 VAD 结束
+        val userEndNs = if (turn.lastUplinkNs > 0L) turn.lastUplinkNs else turn.userStopNs
+        val stages = LongArray(STAGE_COUNT) { -1L }
+        stages[STAGE_ASR] = spanMs(userEndNs, turn.userTextNs)
+        stages[STAGE_LLM] = spanMs(turn.userTextNs, turn.llmFirstTokenNs)
+        stages[STAGE_TTS] = spanMs(turn.llmFirstTokenNs, turn.audioRecvNs)
+        stages[STAGE_BUFFERING] = spanMs(turn.audioRecvNs, turn.firstWriteNs)
+        stages[STAGE_OUTPUT] = spanMs(turn.firstWriteNs, turn.renderedNs)
+        stages[STAGE_TOTAL] = spanMs(userEndNs, turn.renderedNs)
+
+        // 没有任何下行的轮次（如只说了几个字被丢弃）不计入统计
+        if (turn.audioRecvNs == 0L) {
+            return
+        }
+
+        val breakdown = TurnBreakdown(turn.index, stages, interrupted)
+        if (interrupted) interruptedTurns++ else completedTurns++
+        recent.addLast(breakdown)
+        while (recent.size > window) {
+            recent.removeFirst()
+        }
+        Log.d(TAG, breakdown.toString())
+    }
+
+    private fun spanMs(fromNs: Long, toNs: Long): Long =
+        if (fromNs > 0L && toNs >= fromNs) (toNs - fromNs) / 1_000_000 else -1L
+}
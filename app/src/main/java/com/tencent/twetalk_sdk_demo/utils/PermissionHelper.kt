@@ -3,6 +3,7 @@ package com.tencent.twetalk_sdk_demo.utils
 import android.Manifest
 import android.content.Context
 import android.content.pm.PackageManager
+import android.os.Build
 import androidx.core.content.ContextCompat
 
 object PermissionHelper {
@@ -15,6 +16,13 @@ object PermissionHelper {
         Manifest.permission.RECORD_AUDIO,
         Manifest.permission.CAMERA
     )
+
+    // 后台保持对话：前台服务通知在 Android 13 起需要通知权限（拒绝不影响对话，只是不显示通知）
+    val BACKGROUND_SESSION_PERMISSIONS = if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+        arrayOf(Manifest.permission.POST_NOTIFICATIONS)
+    } else {
+        emptyArray<String>()
+    }
     
     fun hasPermissions(context: Context, permissions: Array<String>): Boolean {
         return permissions.all {
@@ -32,6 +40,7 @@ object PermissionHelper {
         return when (permission) {
             Manifest.permission.RECORD_AUDIO -> "麦克风"
             Manifest.permission.CAMERA -> "摄像头"
+            Manifest.permission.POST_NOTIFICATIONS -> "通知"
             else -> permission
         }
     }
@@ -0,0 +1,85 @@
+package com.tencent.twetalk_sdk_demo.chat
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Random
+
+/**
+ * RollingMetricStats 百分位、时间窗口和容量淘汰
+ */
+class RollingMetricStatsTest {
+    private var now = 1_000L
+    private val stats = RollingMetricStats(windowMs = 10_000, capacity = 256, clock = { now })
+
+    @Test
+    fun summaryReportsRankPercentiles() {
+        // 乱序写入，统计时排序
+        for (v in (1..100).shuffled(Random(1))) {
+            stats.record("rtt", v.toDouble())
+        }
+        stats.record("rtt", 42.0)
+
+        val summary = stats.summaries().single()
+        assertEquals("rtt", summary.name)
+        assertEquals(101, summary.count)
+        assertEquals(1.0, summary.min, 0.0)
+        assertEquals(50.0, summary.p50, 0.0)
+        assertEquals(95.0, summary.p95, 0.0)
+        assertEquals(100.0, summary.max, 0.0)
+        assertEquals(42.0, summary.last, 0.0)
+    }
+
+    @Test
+    fun namesKeepFirstSeenOrder() {
+        stats.record("b", 1.0)
+        stats.record("a", 2.0)
+        stats.record("b", 3.0)
+
+        assertEquals(listOf("b", "a"), stats.summaries().map { it.name })
+    }
+
+    @Test
+    fun samplesOutsideWindowAreDropped() {
+        stats.record("rtt", 500.0)
+        now += 5_000
+        stats.record("rtt", 20.0)
+
+        // 窗口边界上的样本仍然计入
+        now += 5_000
+        assertEquals(2, stats.summaries().single().count)
+
+        now += 1
+        val summary = stats.summaries().single()
+        assertEquals(1, summary.count)
+        assertEquals(20.0, summary.max, 0.0)
+
+        // 全部过期的指标不再展示
+        now += 5_000
+        assertTrue(stats.summaries().isEmpty())
+    }
+
+    @Test
+    fun oldestSamplesAreOverwrittenAtCapacity() {
+        val small = RollingMetricStats(windowMs = 10_000, capacity = 4, clock = { now })
+        for (v in 1..6) {
+            small.record("fps", v.toDouble())
+        }
+
+        val summary = small.summaries().single()
+        assertEquals(4, summary.count)
+        assertEquals(3.0, summary.min, 0.0)
+        assertEquals(6.0, summary.max, 0.0)
+        assertEquals(6.0, summary.last, 0.0)
+    }
+
+    @Test
+    fun clearRemovesAllSeries() {
+        stats.record("rtt", 1.0)
+        stats.clear()
+        assertTrue(stats.summaries().isEmpty())
+
+        stats.record("rtt", 2.0)
+        assertEquals(1, stats.summaries().single().count)
+    }
+}
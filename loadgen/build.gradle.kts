@@ -0,0 +1,59 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// 与 twetalk-audio 共用的纯 Java 源码（输入设备、编码参数、直方图分桶），只编进本模块，不依赖 Android 运行时
+sourceSets {
+    main {
+        java {
+            srcDir("../twetalk-audio/src/main/java")
+            include(
+                "com/tencent/twetalk_loadgen/**",
+                "com/tencent/twetalk_audio/device/AudioInputDevice.java",
+                "com/tencent/twetalk_audio/device/DeviceTimestamp.java",
+                "com/tencent/twetalk_audio/device/FakeAudioInputDevice.java",
+                "com/tencent/twetalk_audio/device/PcmEncoding.java",
+                "com/tencent/twetalk_audio/metrics/HistogramBuckets.java",
+                "com/tencent/twetalk_audio/opus/OpusEncoderBackend.java",
+                "com/tencent/twetalk_audio/opus/OpusEncoderParams.java",
+                "com/tencent/twetalk_audio/utils/PcmUtil.java",
+            )
+        }
+    }
+}
+
+// 宿主机 libopus 编码 JNI（opus_host_jni），需本机安装 cmake、pkg-config 和 libopus 开发包
+val hostNativeDir = layout.buildDirectory.dir("host")
+
+val configureHostOpus by tasks.registering(Exec::class) {
+    inputs.file("src/main/cpp/CMakeLists.txt")
+    outputs.dir(hostNativeDir)
+    commandLine("cmake", "-S", file("src/main/cpp").absolutePath, "-B", hostNativeDir.get().asFile.absolutePath,
+        "-DCMAKE_BUILD_TYPE=Release")
+}
+
+val buildHostOpus by tasks.registering(Exec::class) {
+    dependsOn(configureHostOpus)
+    inputs.dir("src/main/cpp")
+    inputs.file("../twetalk-audio/src/main/cpp/opus_encoder_core.h")
+    outputs.dir(hostNativeDir)
+    commandLine("cmake", "--build", hostNativeDir.get().asFile.absolutePath)
+}
+
+application {
+    mainClass.set("com.tencent.twetalk_loadgen.LoadGenerator")
+}
+
+tasks.named<JavaExec>("run") {
+    dependsOn(buildHostOpus)
+    systemProperty("java.library.path", hostNativeDir.get().asFile.absolutePath)
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
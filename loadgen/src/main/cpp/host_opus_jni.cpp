@@ -0,0 +1,105 @@
+#include <jni.h>
+#include <cstdio>
+#include <opus.h>
+
+#define LOGE(...) (fprintf(stderr, "OpusHostJNI E: " __VA_ARGS__), fputc('\n', stderr))
+#define LOGI(...) (fprintf(stderr, "OpusHostJNI I: " __VA_ARGS__), fputc('\n', stderr))
+
+#include "opus_encoder_core.h"
+
+// 宿主机压测用的 libopus 编码 JNI，对应 HostOpusEncoderBackend
+// 编码器创建、填充与统计与设备端 opus_jni.cpp 共用 opus_encoder_core.h
+
+static jbyteArray finishPacket(JNIEnv *env, EncoderContext* ctx, int nbBytes) {
+    nbBytes = finishEncodedPacket(ctx, nbBytes);
+    if (nbBytes < 0) {
+        return nullptr;
+    }
+
+    jbyteArray out = env->NewByteArray(nbBytes);
+    env->SetByteArrayRegion(out, 0, nbBytes, (const jbyte*) ctx->enc_buf.data());
+    return out;
+}
+
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_tencent_twetalk_1loadgen_HostOpusEncoderBackend_nativeCreateEncoder(JNIEnv *env, jclass clazz,
+                                                                             jint sample_rate, jint channels,
+                                                                             jint target_bytes, jint bitrate,
+                                                                             jboolean cbr, jboolean dtx,
+                                                                             jint complexity, jboolean signal_voice,
+                                                                             jint max_bandwidth, jboolean pad,
+                                                                             jint frame_ms, jboolean low_delay) {
+    EncoderContext* ctx = createEncoderContext(sample_rate, channels, target_bytes, bitrate, cbr, dtx,
+                                               complexity, signal_voice, max_bandwidth, pad,
+                                               frame_ms, low_delay);
+    return reinterpret_cast<jlong>(ctx);
+}
+
+extern "C"
+JNIEXPORT jbyteArray JNICALL
+Java_com_tencent_twetalk_1loadgen_HostOpusEncoderBackend_nativeEncode(JNIEnv *env, jclass clazz,
+                                                                      jlong handle, jshortArray pcm_frame) {
+    auto* ctx = reinterpret_cast<EncoderContext*>(handle);
+
+    jsize n = env->GetArrayLength(pcm_frame);
+
+    if (n < ctx->frame_samples * ctx->channels) {
+        LOGE("encode: input pcm size %d < expected %d", (int) n, ctx->frame_samples * ctx->channels);
+        return nullptr;
+    }
+
+    jshort* pcm = env->GetShortArrayElements(pcm_frame, nullptr);
+    int nbBytes = opus_encode(ctx->encoder,
+                              (const opus_int16*) pcm,
+                              ctx->frame_samples,
+                              ctx->enc_buf.data(),
+                              maxPacketBytes(ctx));
+    env->ReleaseShortArrayElements(pcm_frame, pcm, JNI_ABORT);
+
+    return finishPacket(env, ctx, nbBytes);
+}
+
+extern "C"
+JNIEXPORT jbyteArray JNICALL
+Java_com_tencent_twetalk_1loadgen_HostOpusEncoderBackend_nativeEncodeFloat(JNIEnv *env, jclass clazz,
+                                                                           jlong handle, jfloatArray pcm_frame) {
+    auto* ctx = reinterpret_cast<EncoderContext*>(handle);
+
+    jsize n = env->GetArrayLength(pcm_frame);
+
+    if (n < ctx->frame_samples * ctx->channels) {
+        LOGE("encodeFloat: input pcm size %d < expected %d", (int) n, ctx->frame_samples * ctx->channels);
+        return nullptr;
+    }
+
+    jfloat* pcm = env->GetFloatArrayElements(pcm_frame, nullptr);
+    int nbBytes = opus_encode_float(ctx->encoder,
+                                    (const float*) pcm,
+                                    ctx->frame_samples,
+                                    ctx->enc_buf.data(),
+                                    maxPacketBytes(ctx));
+    env->ReleaseFloatArrayElements(pcm_frame, pcm, JNI_ABORT);
+
+    return finishPacket(env, ctx, nbBytes);
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_tencent_twetalk_1loadgen_HostOpusEncoderBackend_nativeReleaseEncoder(JNIEnv *env, jclass clazz,
+                                                                              jlong handle) {
+    releaseEncoderContext(reinterpret_cast<EncoderContext*>(handle));
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_tencent_twetalk_1loadgen_HostOpusEncoderBackend_nativeGetEncoderStats(JNIEnv *env, jclass clazz,
+                                                                               jlong handle, jlongArray out) {
+    auto* ctx = reinterpret_cast<EncoderContext*>(handle);
+    jsize n = env->GetArrayLength(out);
+    jlong values[STAT_COUNT];
+    for (int i = 0; i < STAT_COUNT; i++) {
+        values[i] = ctx->stats[i].load();
+    }
+    env->SetLongArrayRegion(out, 0, n < STAT_COUNT ? n : STAT_COUNT, values);
+}
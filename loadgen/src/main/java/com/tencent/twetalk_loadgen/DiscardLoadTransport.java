@@ -0,0 +1,28 @@
+package com.tencent.twetalk_loadgen;
+
+/**
+ * 丢弃所有数据的传输，只计数，用于测量纯客户端侧（采集 + 编码 + 调度）的承载能力
+ */
+public class DiscardLoadTransport implements LoadTransport {
+    private long packets;
+    private long bytes;
+
+    @Override
+    public boolean send(byte[] packet, long captureNanos) {
+        packets++;
+        bytes += packet.length;
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public long getPackets() {
+        return packets;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,91 @@
+package com.tencent.twetalk_loadgen;
+
+import com.tencent.twetalk_audio.opus.OpusEncoderBackend;
+import com.tencent.twetalk_audio.opus.OpusEncoderParams;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 宿主机 libopus 编码后端（JNI，库名 opus_host_jni）
+ * 与设备端 LibOpusEncoderBackend 共用 opus_encoder_core.h，编码参数、填充和统计口径相同；
+ * 库由 :loadgen:buildHostOpus 链接系统 libopus 编译，通过 java.library.path 加载
+ */
+public class HostOpusEncoderBackend implements OpusEncoderBackend {
+    static {
+        System.loadLibrary("opus_host_jni");
+    }
+
+    private static final int STAT_COUNT = 6;   // 与 OpusBridge.STAT_COUNT 一致
+
+    private long handle = 0;
+
+    private static native long nativeCreateEncoder(int sampleRate, int channels,
+                                                   int targetBytes, int bitrate,
+                                                   boolean cbr, boolean dtx,
+                                                   int complexity, boolean signalVoice,
+                                                   int maxBandwidth, boolean pad,
+                                                   int frameMs, boolean lowDelay);
+    private static native byte[] nativeEncode(long handle, short[] pcmFrame);
+    private static native byte[] nativeEncodeFloat(long handle, float[] pcmFrame);
+    private static native void nativeReleaseEncoder(long handle);
+    private static native void nativeGetEncoderStats(long handle, long[] out);
+
+    @Override
+    public String getName() {
+        return "libopus-host";
+    }
+
+    @Override
+    public boolean isHardware() {
+        return false;
+    }
+
+    @Override
+    public boolean init(OpusEncoderParams params) {
+        release();
+        handle = nativeCreateEncoder(params.getSampleRate(), params.getChannels(),
+                params.getTargetBytes(), params.getBitrate(), params.isCbr(),
+                params.isDtx(), params.getComplexity(), params.isSignalVoice(),
+                params.getMaxBandwidth(), params.isPadding(),
+                params.getFrameMs(), params.isLowDelay());
+        return handle != 0L;
+    }
+
+    @Override
+    public List<byte[]> encode(short[] pcmFrame) {
+        if (handle == 0L || pcmFrame == null) {
+            return null;
+        }
+        return wrap(nativeEncode(handle, pcmFrame));
+    }
+
+    @Override
+    public List<byte[]> encodeFloat(float[] pcmFrame) {
+        if (handle == 0L || pcmFrame == null) {
+            return null;
+        }
+        return wrap(nativeEncodeFloat(handle, pcmFrame));
+    }
+
+    @Override
+    public long[] getStats() {
+        long[] out = new long[STAT_COUNT];
+        if (handle != 0L) {
+            nativeGetEncoderStats(handle, out);
+        }
+        return out;
+    }
+
+    @Override
+    public void release() {
+        if (handle != 0L) {
+            nativeReleaseEncoder(handle);
+            handle = 0;
+        }
+    }
+
+    private static List<byte[]> wrap(byte[] packet) {
+        return packet != null ? Collections.singletonList(packet) : null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.tencent.twetalk_loadgen;
+
+import com.tencent.twetalk_audio.device.FakeAudioInputDevice;
+import com.tencent.twetalk_audio.opus.OpusEncoderBackend;
+import com.tencent.twetalk_audio.opus.OpusEncoderParams;
+
+import java.util.function.Supplier;
+
+/**
+ * 多设备压测配置
+ */
+public class LoadConfig {
+    public int deviceCount = 100;                                             // 虚拟设备数
+    public int workerThreads = Runtime.getRuntime().availableProcessors();    // 调度线程数（每核一个）
+    public long durationMs = 30000;                                           // 统计时长
+    public long warmUpMs = 2000;                                              // 预热时长，不计入统计
+    public boolean staggerStart = true;                                       // 各设备帧相位均匀错开，避免同一时刻集中编码
+
+    // 编码参数，帧时长取 getFrameMs()
+    public OpusEncoderParams encoderParams = OpusEncoderParams.builder().build();
+
+    // 每个虚拟设备创建一个编码器；默认宿主机 libopus（:loadgen:buildHostOpus 编译的 opus_host_jni）
+    public Supplier<OpusEncoderBackend> encoderFactory = HostOpusEncoderBackend::new;
+
+    // 输入 PCM 模板（录音文件或脚本生成），每个设备复制一份独立读取并循环；为空时使用合成语音信号
+    public FakeAudioInputDevice input = null;
+
+    // 上行传输，默认丢弃
+    public LoadTransport.Factory transportFactory = deviceId -> new DiscardLoadTransport();
+
+    public LoadConfig() {
+    }
+
+    /**
+     * 复制配置，修改设备数等参数做多轮测试
+     */
+    public LoadConfig copy() {
+        LoadConfig config = new LoadConfig();
+        config.deviceCount = deviceCount;
+        config.workerThreads = workerThreads;
+        config.durationMs = durationMs;
+        config.warmUpMs = warmUpMs;
+        config.staggerStart = staggerStart;
+        config.encoderParams = encoderParams;
+        config.encoderFactory = encoderFactory;
+        config.input = input;
+        config.transportFactory = transportFactory;
+        return config;
+    }
+}
@@ -0,0 +1,290 @@
+package com.tencent.twetalk_loadgen;
+
+import com.tencent.twetalk_audio.device.FakeAudioInputDevice;
+import com.tencent.twetalk_audio.device.PcmEncoding;
+import com.tencent.twetalk_audio.opus.OpusEncoderBackend;
+import com.tencent.twetalk_audio.opus.OpusEncoderParams;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 多设备压测：在一台机器上按实时节奏运行大量虚拟设备（各自的输入、Opus 编码器和上行传输），
+ * 用于评估后端容量和单机可模拟的会话数
+ * 独立的 JVM 模块（:loadgen），不打进 twetalk-audio 的 AAR；默认编码后端为宿主机编译的 libopus（HostOpusEncoderBackend）
+ *
+ * 每个调度线程对应一个核，设备按编号轮流分配到各线程，帧相位均匀错开；
+ * 线程按计划时刻依次驱动所属设备采集、编码、发送，统计调度滞后、编码耗时和发送间隔
+ */
+public final class LoadGenerator {
+    private static final long SPIN_NANOS = 100_000;   // 距计划时刻不足该值时自旋等待，减少唤醒抖动
+
+    private final LoadConfig config;
+
+    public LoadGenerator(LoadConfig config) {
+        if (config == null || config.deviceCount <= 0 || config.workerThreads <= 0) {
+            throw new IllegalArgumentException("设备数和线程数必须大于 0");
+        }
+        this.config = config;
+    }
+
+    /**
+     * 运行一轮压测，阻塞至 warmUpMs + durationMs 结束
+     */
+    public LoadReport run() throws InterruptedException {
+        OpusEncoderParams params = config.encoderParams;
+        int frameMs = params.getFrameMs();
+        int frameSamples = params.getFrameSamples() * params.getChannels();
+        long periodNanos = frameMs * 1_000_000L;
+        int workerCount = Math.min(config.workerThreads, config.deviceCount);
+
+        FakeAudioInputDevice template = config.input != null
+                ? config.input
+                : syntheticInput(params.getSampleRate(), params.getChannels(), 10);
+
+        List<List<VirtualDevice>> assignment = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            assignment.add(new ArrayList<>());
+        }
+
+        List<VirtualDevice> all = new ArrayList<>();
+        ExecutorService pool = null;
+        try {
+            for (int id = 0; id < config.deviceCount; id++) {
+                long phase = config.staggerStart ? id * periodNanos / config.deviceCount : 0;
+                VirtualDevice device = createDevice(id, phase, template, params, frameSamples);
+                all.add(device);
+                assignment.get(id % workerCount).add(device);
+            }
+
+            AtomicInteger threadIndex = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(workerCount, r -> {
+                Thread t = new Thread(r, "LoadWorker-" + threadIndex.getAndIncrement());
+                t.setDaemon(true);
+                t.setPriority(Thread.MAX_PRIORITY);
+                return t;
+            });
+
+            // 留出线程启动时间，所有线程使用同一时间基准
+            long startNanos = System.nanoTime() + 50_000_000L;
+            long recordFromNanos = startNanos + config.warmUpMs * 1_000_000L;
+            long endNanos = recordFromNanos + config.durationMs * 1_000_000L;
+
+            List<Future<VirtualDevice.WorkerStats>> futures = new ArrayList<>();
+            for (List<VirtualDevice> devices : assignment) {
+                futures.add(pool.submit(() -> runWorker(devices, periodNanos, startNanos, recordFromNanos, endNanos)));
+            }
+
+            VirtualDevice.WorkerStats total = new VirtualDevice.WorkerStats();
+            LoadReport.WorkerReport[] workers = new LoadReport.WorkerReport[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                VirtualDevice.WorkerStats stats;
+                try {
+                    stats = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("调度线程异常", e.getCause());
+                }
+                workers[i] = new LoadReport.WorkerReport(i, assignment.get(i).size(), stats);
+                total.lagUs.merge(stats.lagUs);
+                total.encodeUs.merge(stats.encodeUs);
+                total.sendIntervalUs.merge(stats.sendIntervalUs);
+                total.frames += stats.frames;
+            }
+
+            long packets = 0;
+            long bytes = 0;
+            long failures = 0;
+            double[] rates = new double[all.size()];
+            for (int i = 0; i < all.size(); i++) {
+                VirtualDevice device = all.get(i);
+                packets += device.packets;
+                bytes += device.bytes;
+                failures += device.failures;
+                rates[i] = device.sendRate();
+            }
+            Arrays.sort(rates);
+
+            return new LoadReport(config.deviceCount, frameMs, config.durationMs, workers, total,
+                    packets, bytes, failures, rates);
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+            for (VirtualDevice device : all) {
+                device.release();
+            }
+        }
+    }
+
+    private VirtualDevice createDevice(int id, long phase, FakeAudioInputDevice template,
+                                       OpusEncoderParams params, int frameSamples) {
+        OpusEncoderBackend encoder = config.encoderFactory.get();
+        if (encoder == null || !encoder.init(params)) {
+            throw new IllegalStateException("虚拟设备 " + id + " 编码器初始化失败");
+        }
+
+        FakeAudioInputDevice input = template.duplicate();
+        input.setLoop(true);
+        input.open(params.getSampleRate(), params.getChannels(), PcmEncoding.PCM_16BIT, frameSamples * 2);
+        input.start();
+
+        return new VirtualDevice(id, phase, input, encoder, config.transportFactory.create(id), frameSamples);
+    }
+
+    private static VirtualDevice.WorkerStats runWorker(List<VirtualDevice> devices, long periodNanos,
+                                                       long startNanos, long recordFromNanos, long endNanos) {
+        VirtualDevice.WorkerStats stats = new VirtualDevice.WorkerStats();
+
+        // 设备按编号分配，相位已递增，按顺序即按计划时刻处理
+        for (long k = 0; !Thread.currentThread().isInterrupted(); k++) {
+            long base = startNanos + k * periodNanos;
+            if (base >= endNanos) {
+                break;
+            }
+
+            for (VirtualDevice device : devices) {
+                long deadline = base + device.phaseNanos;
+                if (deadline >= endNanos) {
+                    break;
+                }
+
+                waitUntil(deadline);
+                long begin = System.nanoTime();
+                boolean record = deadline >= recordFromNanos;
+                device.tick(deadline, stats, record);
+                if (record) {
+                    stats.lagUs.record((begin - deadline) / 1000);
+                    stats.busyNanos += System.nanoTime() - begin;
+                }
+            }
+        }
+
+        stats.wallNanos = endNanos - recordFromNanos;
+        return stats;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * 逐步增加设备数，找出满足调度滞后预算的最大设备数（先倍增再二分，精度约 5%）
+     * @param base 基础配置，deviceCount 被忽略
+     * @param lagBudgetUs p99 调度滞后预算（微秒）
+     * @param onTrial 每轮结果回调，可为 null
+     * @return 可持续承载的最大设备数，单个设备都无法承载时返回 0
+     */
+    public static int findCapacity(LoadConfig base, long lagBudgetUs, Consumer<LoadReport> onTrial)
+            throws InterruptedException {
+        int good = 0;
+        int bad = 0;
+        int n = Math.max(1, base.workerThreads);
+
+        while (bad == 0) {
+            if (trial(base, n, lagBudgetUs, onTrial)) {
+                good = n;
+                n *= 2;
+            } else {
+                bad = n;
+            }
+        }
+
+        while (bad - good > Math.max(1, good / 20)) {
+            int mid = (good + bad) / 2;
+            if (trial(base, mid, lagBudgetUs, onTrial)) {
+                good = mid;
+            } else {
+                bad = mid;
+            }
+        }
+        return good;
+    }
+
+    private static boolean trial(LoadConfig base, int devices, long lagBudgetUs, Consumer<LoadReport> onTrial)
+            throws InterruptedException {
+        LoadConfig config = base.copy();
+        config.deviceCount = devices;
+        LoadReport report = new LoadGenerator(config).run();
+        if (onTrial != null) {
+            onTrial.accept(report);
+        }
+        return report.isSustainable(lagBudgetUs);
+    }
+
+    /**
+     * 合成类语音输入：调幅的基频谐波叠加少量噪声，固定种子保证可复现
+     */
+    public static FakeAudioInputDevice syntheticInput(int sampleRate, int channels, int seconds) {
+        int samples = sampleRate * seconds;
+        byte[] pcm = new byte[samples * channels * 2];
+        Random random = new Random(42);
+
+        for (int i = 0; i < samples; i++) {
+            double t = (double) i / sampleRate;
+            double envelope = 0.5 + 0.5 * Math.sin(2 * Math.PI * 3 * t);
+            double v = 0.5 * Math.sin(2 * Math.PI * 180 * t)
+                    + 0.25 * Math.sin(2 * Math.PI * 360 * t)
+                    + 0.12 * Math.sin(2 * Math.PI * 720 * t);
+            v = v * envelope + 0.02 * random.nextGaussian();
+            short s = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, v * 12000));
+            for (int c = 0; c < channels; c++) {
+                int pos = (i * channels + c) * 2;
+                pcm[pos] = (byte) s;
+                pcm[pos + 1] = (byte) (s >> 8);
+            }
+        }
+        return new FakeAudioInputDevice(pcm, sampleRate, channels, false);
+    }
+
+    /**
+     * 命令行入口：LoadGenerator [设备数] [秒数] [输入.wav] [--capacity]
+     * 例：./gradlew :loadgen:run --args="500 60 speech.wav"
+     */
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = new LoadConfig();
+        boolean capacity = false;
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if ("--capacity".equals(arg)) {
+                capacity = true;
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() > 0) {
+            config.deviceCount = Integer.parseInt(positional.get(0));
+        }
+        if (positional.size() > 1) {
+            config.durationMs = Long.parseLong(positional.get(1)) * 1000;
+        }
+        if (positional.size() > 2) {
+            FakeAudioInputDevice input = FakeAudioInputDevice.fromWav(new File(positional.get(2)), false);
+            config.input = input;
+        }
+
+        if (capacity) {
+            long budgetUs = config.encoderParams.getFrameMs() * 1000L / 2;
+            int max = findCapacity(config, budgetUs, report -> System.out.println(report));
+            System.out.println("max sustainable devices: " + max + " (p99 lag budget " + budgetUs + "us)");
+        } else {
+            System.out.println(new LoadGenerator(config).run());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.tencent.twetalk_loadgen;
+
+import java.util.Locale;
+
+/**
+ * 压测结果
+ */
+public final class LoadReport {
+
+    /**
+     * 单个调度线程（核）的结果
+     */
+    public static final class WorkerReport {
+        public final int worker;
+        public final int devices;
+        public final long frames;
+        public final double encodeFramesPerSec;   // 编码吞吐：每 CPU 秒可编码的帧数
+        public final double utilization;          // 处理设备耗时占统计时长的比例
+        public final long encodeUsP50;
+        public final long encodeUsP99;
+        public final long lagUsP50;
+        public final long lagUsP99;
+        public final long lagUsMax;
+
+        WorkerReport(int worker, int devices, VirtualDevice.WorkerStats stats) {
+            this.worker = worker;
+            this.devices = devices;
+            this.frames = stats.frames;
+            this.encodeFramesPerSec = stats.encodeNanos > 0 ? stats.frames * 1e9 / stats.encodeNanos : 0;
+            this.utilization = stats.wallNanos > 0 ? (double) stats.busyNanos / stats.wallNanos : 0;
+            this.encodeUsP50 = stats.encodeUs.getPercentile(50);
+            this.encodeUsP99 = stats.encodeUs.getPercentile(99);
+            this.lagUsP50 = stats.lagUs.getPercentile(50);
+            this.lagUsP99 = stats.lagUs.getPercentile(99);
+            this.lagUsMax = stats.lagUs.getMax();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "worker %d: devices=%d, frames=%d, encode=%.0f fps/core, util=%.1f%%, " +
+                            "encodeUs p50/p99=%d/%d, lagUs p50/p99/max=%d/%d/%d",
+                    worker, devices, frames, encodeFramesPerSec, utilization * 100,
+                    encodeUsP50, encodeUsP99, lagUsP50, lagUsP99, lagUsMax);
+        }
+    }
+
+    public final int deviceCount;
+    public final int workerCount;
+    public final int frameMs;
+    public final long durationMs;
+    public final WorkerReport[] workers;
+
+    public final long frames;
+    public final long packets;
+    public final long bytes;
+    public final long failures;
+
+    // 调度滞后（全部线程合并）
+    public final long lagUsP50;
+    public final long lagUsP99;
+    public final long lagUsP999;
+    public final long lagUsMax;
+
+    // 同一设备相邻发送间隔，理想值为帧时长
+    public final long sendIntervalUsP50;
+    public final long sendIntervalUsP99;
+    public final long sendIntervalUsMax;
+
+    // 各设备实际发送速率（包/秒）的分布，理想值为 1000 / frameMs
+    public final double sendRateP1;
+    public final double sendRateP50;
+    public final double sendRateP99;
+
+    LoadReport(int deviceCount, int frameMs, long durationMs, WorkerReport[] workers,
+               VirtualDevice.WorkerStats total, long packets, long bytes, long failures, double[] sortedRates) {
+        this.deviceCount = deviceCount;
+        this.workerCount = workers.length;
+        this.frameMs = frameMs;
+        this.durationMs = durationMs;
+        this.workers = workers;
+        this.frames = total.frames;
+        this.packets = packets;
+        this.bytes = bytes;
+        this.failures = failures;
+        this.lagUsP50 = total.lagUs.getPercentile(50);
+        this.lagUsP99 = total.lagUs.getPercentile(99);
+        this.lagUsP999 = total.lagUs.getPercentile(99.9);
+        this.lagUsMax = total.lagUs.getMax();
+        this.sendIntervalUsP50 = total.sendIntervalUs.getPercentile(50);
+        this.sendIntervalUsP99 = total.sendIntervalUs.getPercentile(99);
+        this.sendIntervalUsMax = total.sendIntervalUs.getMax();
+        this.sendRateP1 = percentile(sortedRates, 1);
+        this.sendRateP50 = percentile(sortedRates, 50);
+        this.sendRateP99 = percentile(sortedRates, 99);
+    }
+
+    /**
+     * 是否可持续承载：p99 调度滞后不超过预算、没有线程满载、没有编码或发送失败
+     * @param lagBudgetUs 调度滞后预算（微秒），通常取帧时长的一半
+     */
+    public boolean isSustainable(long lagBudgetUs) {
+        if (failures > 0 || lagUsP99 > lagBudgetUs) {
+            return false;
+        }
+        for (WorkerReport worker : workers) {
+            if (worker.utilization > 0.9) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按全部线程的平均编码吞吐估算可承载的设备数（不含传输开销）
+     */
+    public int estimateMaxDevices() {
+        double fps = 0;
+        for (WorkerReport worker : workers) {
+            fps += worker.encodeFramesPerSec;
+        }
+        return (int) (fps * frameMs / 1000);
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * p / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US,
+                "LoadReport{devices=%d, workers=%d, frameMs=%d, durationMs=%d, frames=%d, packets=%d, " +
+                        "kbps=%.1f, failures=%d}%n",
+                deviceCount, workerCount, frameMs, durationMs, frames, packets,
+                durationMs > 0 ? bytes * 8.0 / durationMs : 0, failures));
+        sb.append(String.format(Locale.US, "  lagUs p50/p99/p99.9/max=%d/%d/%d/%d%n",
+                lagUsP50, lagUsP99, lagUsP999, lagUsMax));
+        sb.append(String.format(Locale.US, "  sendIntervalUs p50/p99/max=%d/%d/%d%n",
+                sendIntervalUsP50, sendIntervalUsP99, sendIntervalUsMax));
+        sb.append(String.format(Locale.US, "  sendRate p1/p50/p99=%.2f/%.2f/%.2f pkt/s%n",
+                sendRateP1, sendRateP50, sendRateP99));
+        for (WorkerReport worker : workers) {
+            sb.append("  ").append(worker).append(System.lineSeparator());
+        }
+        sb.append("  estimated max devices (encode only): ").append(estimateMaxDevices());
+        return sb.toString();
+    }
+}
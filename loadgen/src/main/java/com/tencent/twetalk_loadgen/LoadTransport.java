@@ -0,0 +1,27 @@
+package com.tencent.twetalk_loadgen;
+
+/**
+ * 虚拟设备的上行传输
+ * 每个虚拟设备持有独立实例，只在所属调度线程中调用，无需线程安全
+ */
+public interface LoadTransport {
+    /**
+     * 发送一个编码包
+     * @param packet Opus 包
+     * @param captureNanos 该帧的计划采集时刻（System.nanoTime 基准），可用于服务端计算端到端延迟
+     * @return 是否发送成功
+     */
+    boolean send(byte[] packet, long captureNanos);
+
+    /**
+     * 关闭传输
+     */
+    void close();
+
+    /**
+     * 按虚拟设备编号创建传输
+     */
+    interface Factory {
+        LoadTransport create(int deviceId);
+    }
+}
@@ -0,0 +1,57 @@
+package com.tencent.twetalk_loadgen;
+
+import com.tencent.twetalk_audio.metrics.HistogramBuckets;
+
+/**
+ * 非负 long 值的对数分桶直方图，分桶规则与 AtomicHistogram 相同（见 HistogramBuckets）
+ * 内存固定，记录为 O(1)，适合大量虚拟设备长时间压测；非线程安全，按线程各自记录后合并
+ */
+public final class LongHistogram {
+    private static final int BUCKETS = HistogramBuckets.BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[HistogramBuckets.index(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void merge(LongHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMean() {
+        return count > 0 ? sum / count : 0;
+    }
+
+    /**
+     * 百分位数（取所在桶上界，偏保守）
+     * @param percentile 0~100
+     */
+    public long getPercentile(double percentile) {
+        return HistogramBuckets.percentile(counts, count, max, percentile);
+    }
+}
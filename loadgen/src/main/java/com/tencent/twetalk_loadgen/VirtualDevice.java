@@ -0,0 +1,118 @@
+package com.tencent.twetalk_loadgen;
+
+import com.tencent.twetalk_audio.device.FakeAudioInputDevice;
+import com.tencent.twetalk_audio.opus.OpusEncoderBackend;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * 虚拟设备：独立的输入、Opus 编码器和上行传输，每帧由调度线程驱动一次
+ */
+final class VirtualDevice {
+    final int id;
+    final long phaseNanos;          // 帧相位偏移
+
+    private final FakeAudioInputDevice input;
+    private final OpusEncoderBackend encoder;
+    private final LoadTransport transport;
+    private final byte[] pcmBytes;
+    private final short[] pcmFrame;
+
+    long packets;
+    long bytes;
+    long failures;
+    private long lastSendNanos;
+    private long firstSendNanos;
+
+    VirtualDevice(int id, long phaseNanos, FakeAudioInputDevice input, OpusEncoderBackend encoder,
+                  LoadTransport transport, int frameSamples) {
+        this.id = id;
+        this.phaseNanos = phaseNanos;
+        this.input = input;
+        this.encoder = encoder;
+        this.transport = transport;
+        this.pcmFrame = new short[frameSamples];
+        this.pcmBytes = new byte[frameSamples * 2];
+    }
+
+    /**
+     * 采集一帧、编码并发送
+     * @param captureNanos 计划采集时刻
+     * @param stats 所属调度线程的统计，record 为 false 时（预热）不记录
+     */
+    void tick(long captureNanos, WorkerStats stats, boolean record) {
+        input.read(pcmBytes, 0, pcmBytes.length);
+        ByteBuffer.wrap(pcmBytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(pcmFrame);
+
+        long encodeStart = System.nanoTime();
+        List<byte[]> out = encoder.encode(pcmFrame);
+        long encodeNanos = System.nanoTime() - encodeStart;
+
+        if (out == null) {
+            if (record) {
+                failures++;
+                stats.encodeFailures++;
+            }
+            return;
+        }
+
+        for (byte[] packet : out) {
+            boolean sent = transport.send(packet, captureNanos);
+            if (!record) {
+                continue;
+            }
+
+            long now = System.nanoTime();
+            if (!sent) {
+                failures++;
+                continue;
+            }
+            if (lastSendNanos != 0) {
+                stats.sendIntervalUs.record((now - lastSendNanos) / 1000);
+            } else {
+                firstSendNanos = now;
+            }
+            lastSendNanos = now;
+            packets++;
+            bytes += packet.length;
+        }
+
+        if (record) {
+            stats.frames++;
+            stats.encodeNanos += encodeNanos;
+            stats.encodeUs.record(encodeNanos / 1000);
+        }
+    }
+
+    /**
+     * 统计期内的实际发送速率（包/秒）
+     */
+    double sendRate() {
+        if (packets < 2 || lastSendNanos <= firstSendNanos) {
+            return 0;
+        }
+        return (packets - 1) * 1e9 / (lastSendNanos - firstSendNanos);
+    }
+
+    void release() {
+        encoder.release();
+        transport.close();
+        input.release();
+    }
+
+    /**
+     * 调度线程统计
+     */
+    static final class WorkerStats {
+        final LongHistogram lagUs = new LongHistogram();            // 调度滞后（实际处理时刻 - 计划时刻）
+        final LongHistogram encodeUs = new LongHistogram();         // 单帧编码耗时
+        final LongHistogram sendIntervalUs = new LongHistogram();   // 同一设备相邻发送间隔
+        long frames;
+        long encodeNanos;
+        long encodeFailures;
+        long busyNanos;                                             // 处理设备的总耗时（不含等待）
+        long wallNanos;
+    }
+}
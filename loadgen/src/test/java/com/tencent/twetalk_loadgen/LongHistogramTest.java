@@ -0,0 +1,124 @@
+package com.tencent.twetalk_loadgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * LongHistogram 分桶精度、百分位和合并
+ */
+public class LongHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LongHistogram histogram = new LongHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        // 16 以下每个值单独一个桶
+        LongHistogram histogram = new LongHistogram();
+        for (int v = 0; v < 16; v++) {
+            histogram.record(v);
+        }
+        assertEquals(16, histogram.getCount());
+        assertEquals(7, histogram.getPercentile(50));
+        assertEquals(14, histogram.getPercentile(90));
+        assertEquals(15, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+        assertEquals(7, histogram.getMean());
+    }
+
+    @Test
+    public void percentileIsUpperBoundWithinRelativeError() {
+        // 百分位取桶上界：不低于真实值，且超出不多于 1/16
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long value = 16 + (random.nextLong() >>> (1 + random.nextInt(62)));
+            LongHistogram histogram = new LongHistogram();
+            histogram.record(value);
+            histogram.record(Long.MAX_VALUE);
+            long p50 = histogram.getPercentile(50);
+            assertTrue("value=" + value + ", p50=" + p50, p50 >= value);
+            assertTrue("value=" + value + ", p50=" + p50, p50 - value <= value / 16);
+        }
+    }
+
+    @Test
+    public void percentileNeverExceedsMax() {
+        LongHistogram histogram = new LongHistogram();
+        histogram.record(1000);
+        assertEquals(1000, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void percentilesFollowRank() {
+        LongHistogram histogram = new LongHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertWithin(500, histogram.getPercentile(50));
+        assertWithin(990, histogram.getPercentile(99));
+        assertEquals(1000, histogram.getPercentile(99.9));
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500, histogram.getMean());
+    }
+
+    @Test
+    public void outOfRangeArgumentsAreClamped() {
+        LongHistogram histogram = new LongHistogram();
+        histogram.record(-5);
+        histogram.record(3);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(-10));
+        assertEquals(3, histogram.getPercentile(200));
+        assertEquals(3, histogram.getMax());
+    }
+
+    @Test
+    public void extremeValuesFitInBuckets() {
+        LongHistogram histogram = new LongHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(Long.MAX_VALUE / 2 + 1);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+    }
+
+    @Test
+    public void mergeMatchesSingleHistogram() {
+        Random random = new Random(7);
+        LongHistogram a = new LongHistogram();
+        LongHistogram b = new LongHistogram();
+        LongHistogram all = new LongHistogram();
+        for (int i = 0; i < 5000; i++) {
+            long value = random.nextInt(1_000_000);
+            (i % 3 == 0 ? a : b).record(value);
+            all.record(value);
+        }
+
+        a.merge(b);
+        assertEquals(all.getCount(), a.getCount());
+        assertEquals(all.getMax(), a.getMax());
+        assertEquals(all.getMean(), a.getMean());
+        for (double p : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            assertEquals("p" + p, all.getPercentile(p), a.getPercentile(p));
+        }
+    }
+
+    /**
+     * 桶上界：不低于真实值，且超出不多于 1/16
+     */
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected=" + expected + ", actual=" + actual,
+                actual >= expected && actual - expected <= expected / 16);
+    }
+}
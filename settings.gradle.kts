@@ -31,3 +31,4 @@ dependencyResolutionManagement {
 rootProject.name = "twetalk-sdk-demo"
 include(":app")
 include(":twetalk-audio")
+include(":loadgen")
@@ -43,6 +43,11 @@ android {
     kotlinOptions {
         jvmTarget = "11"
     }
+
+    // 本地单元测试配合 FakeAudioDeviceFactory 运行采集/播放通路，Log 等 Android 桩方法返回默认值
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -0,0 +1,71 @@
+#include "aaudio_loader.h"
+
+#include <android/log.h>
+#include <dlfcn.h>
+
+#define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, "AAudioLoader", __VA_ARGS__)
+
+AAudioLoader& AAudioLoader::get() {
+    static AAudioLoader instance;
+    return instance;
+}
+
+template <typename F>
+static bool loadSymbol(void* handle, const char* name, F& out, bool required = true) {
+    out = reinterpret_cast<F>(dlsym(handle, name));
+    if (out == nullptr && required) {
+        LOGE("missing symbol: %s", name);
+        return false;
+    }
+    return true;
+}
+
+bool AAudioLoader::load() {
+    if (loaded_) {
+        return true;
+    }
+
+    if (handle_ == nullptr) {
+        handle_ = dlopen("libaaudio.so", RTLD_NOW);
+        if (handle_ == nullptr) {
+            LOGE("dlopen libaaudio.so failed: %s", dlerror());
+            return false;
+        }
+    }
+
+    bool ok = true;
+    ok &= loadSymbol(handle_, "AAudio_createStreamBuilder", createStreamBuilder);
+
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_setDirection", builderSetDirection);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_setSampleRate", builderSetSampleRate);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_setChannelCount", builderSetChannelCount);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_setFormat", builderSetFormat);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_setSharingMode", builderSetSharingMode);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_setPerformanceMode", builderSetPerformanceMode);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_setDataCallback", builderSetDataCallback);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_setErrorCallback", builderSetErrorCallback);
+    loadSymbol(handle_, "AAudioStreamBuilder_setInputPreset", builderSetInputPreset, false);
+    loadSymbol(handle_, "AAudioStreamBuilder_setUsage", builderSetUsage, false);
+    loadSymbol(handle_, "AAudioStreamBuilder_setContentType", builderSetContentType, false);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_openStream", builderOpenStream);
+    ok &= loadSymbol(handle_, "AAudioStreamBuilder_delete", builderDelete);
+
+    ok &= loadSymbol(handle_, "AAudioStream_requestStart", streamRequestStart);
+    ok &= loadSymbol(handle_, "AAudioStream_requestStop", streamRequestStop);
+    ok &= loadSymbol(handle_, "AAudioStream_close", streamClose);
+    ok &= loadSymbol(handle_, "AAudioStream_getSampleRate", streamGetSampleRate);
+    ok &= loadSymbol(handle_, "AAudioStream_getChannelCount", streamGetChannelCount);
+    ok &= loadSymbol(handle_, "AAudioStream_getSharingMode", streamGetSharingMode);
+    ok &= loadSymbol(handle_, "AAudioStream_getFramesPerBurst", streamGetFramesPerBurst);
+    ok &= loadSymbol(handle_, "AAudioStream_getBufferSizeInFrames", streamGetBufferSizeInFrames);
+    ok &= loadSymbol(handle_, "AAudioStream_setBufferSizeInFrames", streamSetBufferSizeInFrames);
+    ok &= loadSymbol(handle_, "AAudioStream_getXRunCount", streamGetXRunCount);
+    ok &= loadSymbol(handle_, "AAudioStream_getFramesRead", streamGetFramesRead);
+    ok &= loadSymbol(handle_, "AAudioStream_getFramesWritten", streamGetFramesWritten);
+    ok &= loadSymbol(handle_, "AAudioStream_getTimestamp", streamGetTimestamp);
+
+    ok &= loadSymbol(handle_, "AAudio_convertResultToText", convertResultToText);
+
+    loaded_ = ok;
+    return ok;
+}
@@ -0,0 +1,52 @@
+#pragma once
+
+#include <aaudio/AAudio.h>
+#include <ctime>
+
+// AAudio 动态加载
+// 库的 minSdk 为 24，而 libaaudio 从 API 26 才提供，因此不直接链接，运行时通过 dlsym 获取符号
+// API 28 才有的接口（输入预设、用途）为可选符号，缺失时跳过
+struct AAudioLoader {
+    static AAudioLoader& get();
+
+    // 加载 libaaudio.so，成功返回 true（可重复调用）
+    bool load();
+
+    aaudio_result_t (*createStreamBuilder)(AAudioStreamBuilder**) = nullptr;
+
+    void (*builderSetDirection)(AAudioStreamBuilder*, aaudio_direction_t) = nullptr;
+    void (*builderSetSampleRate)(AAudioStreamBuilder*, int32_t) = nullptr;
+    void (*builderSetChannelCount)(AAudioStreamBuilder*, int32_t) = nullptr;
+    void (*builderSetFormat)(AAudioStreamBuilder*, aaudio_format_t) = nullptr;
+    void (*builderSetSharingMode)(AAudioStreamBuilder*, aaudio_sharing_mode_t) = nullptr;
+    void (*builderSetPerformanceMode)(AAudioStreamBuilder*, aaudio_performance_mode_t) = nullptr;
+    void (*builderSetDataCallback)(AAudioStreamBuilder*, AAudioStream_dataCallback, void*) = nullptr;
+    void (*builderSetErrorCallback)(AAudioStreamBuilder*, AAudioStream_errorCallback, void*) = nullptr;
+    void (*builderSetInputPreset)(AAudioStreamBuilder*, aaudio_input_preset_t) = nullptr;   // API 28
+    void (*builderSetUsage)(AAudioStreamBuilder*, aaudio_usage_t) = nullptr;                // API 28
+    void (*builderSetContentType)(AAudioStreamBuilder*, aaudio_content_type_t) = nullptr;   // API 28
+    aaudio_result_t (*builderOpenStream)(AAudioStreamBuilder*, AAudioStream**) = nullptr;
+    aaudio_result_t (*builderDelete)(AAudioStreamBuilder*) = nullptr;
+
+    aaudio_result_t (*streamRequestStart)(AAudioStream*) = nullptr;
+    aaudio_result_t (*streamRequestStop)(AAudioStream*) = nullptr;
+    aaudio_result_t (*streamClose)(AAudioStream*) = nullptr;
+    int32_t (*streamGetSampleRate)(AAudioStream*) = nullptr;
+    int32_t (*streamGetChannelCount)(AAudioStream*) = nullptr;
+    aaudio_sharing_mode_t (*streamGetSharingMode)(AAudioStream*) = nullptr;
+    int32_t (*streamGetFramesPerBurst)(AAudioStream*) = nullptr;
+    int32_t (*streamGetBufferSizeInFrames)(AAudioStream*) = nullptr;
+    aaudio_result_t (*streamSetBufferSizeInFrames)(AAudioStream*, int32_t) = nullptr;
+    int32_t (*streamGetXRunCount)(AAudioStream*) = nullptr;
+    int64_t (*streamGetFramesRead)(AAudioStream*) = nullptr;
+    int64_t (*streamGetFramesWritten)(AAudioStream*) = nullptr;
+    aaudio_result_t (*streamGetTimestamp)(AAudioStream*, clockid_t, int64_t*, int64_t*) = nullptr;
+
+    const char* (*convertResultToText)(aaudio_result_t) = nullptr;
+
+private:
+    AAudioLoader() = default;
+
+    void* handle_ = nullptr;
+    bool loaded_ = false;
+};
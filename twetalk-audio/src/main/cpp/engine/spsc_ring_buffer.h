@@ -0,0 +1,79 @@
+#pragma once
+
+#include <algorithm>
+#include <atomic>
+#include <cstddef>
+#include <memory>
+
+// 单生产者单消费者无锁环形缓冲
+// 生产者只调用 write/availableToWrite，消费者只调用 read/availableToRead/clear
+// 读写索引单调递增，容量按 2 的幂取整，溢出通过掩码回绕
+template <typename T>
+class SpscRingBuffer {
+public:
+    explicit SpscRingBuffer(size_t capacity)
+            : capacity_(roundUpPow2(capacity)),
+              mask_(capacity_ - 1),
+              buffer_(new T[capacity_]) {}
+
+    SpscRingBuffer(const SpscRingBuffer&) = delete;
+    SpscRingBuffer& operator=(const SpscRingBuffer&) = delete;
+
+    size_t write(const T* data, size_t count) {
+        const size_t w = write_.load(std::memory_order_relaxed);
+        const size_t r = read_.load(std::memory_order_acquire);
+        const size_t n = std::min(count, capacity_ - (w - r));
+
+        for (size_t i = 0; i < n; i++) {
+            buffer_[(w + i) & mask_] = data[i];
+        }
+        write_.store(w + n, std::memory_order_release);
+        return n;
+    }
+
+    size_t read(T* out, size_t count) {
+        const size_t r = read_.load(std::memory_order_relaxed);
+        const size_t w = write_.load(std::memory_order_acquire);
+        const size_t n = std::min(count, w - r);
+
+        for (size_t i = 0; i < n; i++) {
+            out[i] = buffer_[(r + i) & mask_];
+        }
+        read_.store(r + n, std::memory_order_release);
+        return n;
+    }
+
+    size_t availableToRead() const {
+        return write_.load(std::memory_order_acquire) - read_.load(std::memory_order_relaxed);
+    }
+
+    size_t availableToWrite() const {
+        return capacity_ - (write_.load(std::memory_order_relaxed) - read_.load(std::memory_order_acquire));
+    }
+
+    // 丢弃全部未读数据（仅消费者调用）
+    void clear() {
+        read_.store(write_.load(std::memory_order_acquire), std::memory_order_release);
+    }
+
+    size_t capacity() const {
+        return capacity_;
+    }
+
+private:
+    static size_t roundUpPow2(size_t v) {
+        size_t p = 1;
+        while (p < v) {
+            p <<= 1;
+        }
+        return p;
+    }
+
+    const size_t capacity_;
+    const size_t mask_;
+    std::unique_ptr<T[]> buffer_;
+
+    // 读写索引分处不同缓存行，避免伪共享
+    alignas(64) std::atomic<size_t> write_{0};
+    alignas(64) std::atomic<size_t> read_{0};
+};
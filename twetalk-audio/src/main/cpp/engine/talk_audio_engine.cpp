@@ -0,0 +1,523 @@
+#include "talk_audio_engine.h"
+
+#include <android/log.h>
+#include <algorithm>
+#include <chrono>
+#include <cstring>
+#include <ctime>
+
+#include "aaudio_loader.h"
+
+#define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, "TalkAudioEngine", __VA_ARGS__)
+#define LOGW(...) __android_log_print(ANDROID_LOG_WARN,  "TalkAudioEngine", __VA_ARGS__)
+#define LOGI(...) __android_log_print(ANDROID_LOG_INFO,  "TalkAudioEngine", __VA_ARGS__)
+
+// 环形缓冲容量：采集 500ms，播放 1s；包队列按 60ms 帧约可缓存 3s
+static constexpr int kCaptureRingMs = 500;
+static constexpr int kRenderRingMs = 1000;
+static constexpr int kPacketQueueSize = 64;
+static constexpr int kMaxDecodeMs = 120;
+
+static int64_t nowNs() {
+    timespec ts{};
+    clock_gettime(CLOCK_MONOTONIC, &ts);
+    return (int64_t) ts.tv_sec * 1000000000LL + ts.tv_nsec;
+}
+
+TalkAudioEngine::TalkAudioEngine(const EngineConfig& config)
+        : config_(config),
+          frameSamples_(config.sampleRate * config.frameMs / 1000),
+          maxDecodeSamples_(config.sampleRate * kMaxDecodeMs / 1000),
+          captureRing_((size_t) config.sampleRate * config.channels * kCaptureRingMs / 1000),
+          renderRing_((size_t) config.sampleRate * config.channels * kRenderRingMs / 1000),
+          uplink_(kPacketQueueSize),
+          downlink_(kPacketQueueSize) {
+    for (auto& stat : stats_) {
+        stat.store(0, std::memory_order_relaxed);
+    }
+}
+
+TalkAudioEngine::~TalkAudioEngine() {
+    stopCapture();
+    stopRender();
+
+    running_.store(false);
+    wakeWorker();
+    if (worker_.joinable()) {
+        worker_.join();
+    }
+
+    if (encoder_) {
+        opus_encoder_destroy(encoder_);
+    }
+    if (decoder_) {
+        opus_decoder_destroy(decoder_);
+    }
+}
+
+bool TalkAudioEngine::init() {
+    if (!AAudioLoader::get().load()) {
+        return false;
+    }
+
+    if (config_.frameMs != 10 && config_.frameMs != 20 && config_.frameMs != 40 && config_.frameMs != 60) {
+        LOGE("unsupported frame duration: %d ms", config_.frameMs);
+        return false;
+    }
+    if (config_.targetBytes > kMaxPacketBytes) {
+        LOGE("target bytes %d exceeds %d", config_.targetBytes, kMaxPacketBytes);
+        return false;
+    }
+
+    int err = 0;
+    int application = config_.lowDelay ? OPUS_APPLICATION_RESTRICTED_LOWDELAY : OPUS_APPLICATION_VOIP;
+    encoder_ = opus_encoder_create(config_.sampleRate, config_.channels, application, &err);
+    if (err != OPUS_OK || !encoder_) {
+        LOGE("opus_encoder_create failed: %d", err);
+        return false;
+    }
+
+    // 码率不超过 targetBytes 对应的上限，与 Java 通路一致
+    int bitrate = config_.bitrate;
+    if (config_.targetBytes > 0) {
+        bitrate = std::min(bitrate, config_.targetBytes * 8 * 1000 / config_.frameMs);
+    }
+    opus_encoder_ctl(encoder_, OPUS_SET_SIGNAL(config_.signalVoice ? OPUS_SIGNAL_VOICE : OPUS_SIGNAL_MUSIC));
+    opus_encoder_ctl(encoder_, OPUS_SET_BITRATE(bitrate));
+    // 不填充时使用受限 VBR，targetBytes 仅作上限
+    opus_encoder_ctl(encoder_, OPUS_SET_VBR(config_.cbr && config_.padding ? 0 : 1));
+    opus_encoder_ctl(encoder_, OPUS_SET_VBR_CONSTRAINT(1));
+    opus_encoder_ctl(encoder_, OPUS_SET_DTX(config_.dtx ? 1 : 0));
+    opus_encoder_ctl(encoder_, OPUS_SET_COMPLEXITY(config_.complexity));
+    if (config_.maxBandwidth > 0) {
+        opus_encoder_ctl(encoder_, OPUS_SET_MAX_BANDWIDTH(config_.maxBandwidth));
+    }
+
+    decoder_ = opus_decoder_create(config_.sampleRate, config_.channels, &err);
+    if (err != OPUS_OK || !decoder_) {
+        LOGE("opus_decoder_create failed: %d", err);
+        return false;
+    }
+
+    encodePcm_.assign((size_t) frameSamples_ * config_.channels, 0);
+    decodePcm_.assign((size_t) maxDecodeSamples_ * config_.channels, 0);
+
+    running_.store(true);
+    worker_ = std::thread(&TalkAudioEngine::workerLoop, this);
+
+    LOGI("engine init: sampleRate=%d, channels=%d, frameMs=%d, bitrate=%d, targetBytes=%d, "
+         "padding=%d, dtx=%d, lowDelay=%d", config_.sampleRate, config_.channels, config_.frameMs,
+         bitrate, config_.targetBytes, config_.padding, config_.dtx, config_.lowDelay);
+    return true;
+}
+
+AAudioStream* TalkAudioEngine::openStream(aaudio_direction_t direction) {
+    AAudioLoader& api = AAudioLoader::get();
+    bool input = direction == AAUDIO_DIRECTION_INPUT;
+
+    // 优先独占模式（MMAP 通路延迟最低），失败或采样率不符时回退共享模式
+    const aaudio_sharing_mode_t modes[] = {AAUDIO_SHARING_MODE_EXCLUSIVE, AAUDIO_SHARING_MODE_SHARED};
+    for (aaudio_sharing_mode_t mode : modes) {
+        AAudioStreamBuilder* builder = nullptr;
+        if (api.createStreamBuilder(&builder) != AAUDIO_OK) {
+            return nullptr;
+        }
+
+        api.builderSetDirection(builder, direction);
+        api.builderSetSampleRate(builder, config_.sampleRate);
+        api.builderSetChannelCount(builder, config_.channels);
+        api.builderSetFormat(builder, AAUDIO_FORMAT_PCM_I16);
+        api.builderSetSharingMode(builder, mode);
+        api.builderSetPerformanceMode(builder, AAUDIO_PERFORMANCE_MODE_LOW_LATENCY);
+        api.builderSetDataCallback(builder, input ? inputCallback : outputCallback, this);
+        api.builderSetErrorCallback(builder, errorCallback, this);
+        if (input && api.builderSetInputPreset) {
+            api.builderSetInputPreset(builder, AAUDIO_INPUT_PRESET_VOICE_COMMUNICATION);
+        }
+        if (!input && api.builderSetUsage) {
+            api.builderSetUsage(builder, AAUDIO_USAGE_VOICE_COMMUNICATION);
+        }
+        if (!input && api.builderSetContentType) {
+            api.builderSetContentType(builder, AAUDIO_CONTENT_TYPE_SPEECH);
+        }
+
+        AAudioStream* stream = nullptr;
+        aaudio_result_t result = api.builderOpenStream(builder, &stream);
+        api.builderDelete(builder);
+
+        if (result != AAUDIO_OK) {
+            LOGW("open %s stream (sharing=%d) failed: %s",
+                 input ? "input" : "output", mode, api.convertResultToText(result));
+            continue;
+        }
+
+        // 引擎不做重采样，实际参数不符时放弃该模式
+        if (api.streamGetSampleRate(stream) != config_.sampleRate ||
+            api.streamGetChannelCount(stream) != config_.channels) {
+            LOGW("%s stream format mismatch: sampleRate=%d, channels=%d",
+                 input ? "input" : "output", api.streamGetSampleRate(stream),
+                 api.streamGetChannelCount(stream));
+            api.streamClose(stream);
+            continue;
+        }
+
+        int32_t burst = api.streamGetFramesPerBurst(stream);
+        if (!input && burst > 0) {
+            // 播放缓冲取两个 burst，兼顾延迟和欠载
+            api.streamSetBufferSizeInFrames(stream, burst * 2);
+        }
+
+        stats_[input ? STAT_INPUT_BURST_FRAMES : STAT_OUTPUT_BURST_FRAMES].store(burst);
+        LOGI("%s stream opened: sharing=%d, burst=%d, bufferFrames=%d",
+             input ? "input" : "output", api.streamGetSharingMode(stream), burst,
+             api.streamGetBufferSizeInFrames(stream));
+        return stream;
+    }
+    return nullptr;
+}
+
+void TalkAudioEngine::setStream(AAudioStream*& slot, AAudioStream* stream) {
+    std::lock_guard<std::mutex> lock(streamPtrLock_);
+    slot = stream;
+}
+
+void TalkAudioEngine::closeStream(AAudioStream*& stream) {
+    AAudioStream* closing = stream;
+    if (closing == nullptr) {
+        return;
+    }
+    // 先摘除指针再关闭，关闭期间的错误回调不再匹配该流
+    setStream(stream, nullptr);
+    AAudioLoader& api = AAudioLoader::get();
+    api.streamRequestStop(closing);
+    api.streamClose(closing);
+}
+
+bool TalkAudioEngine::startCapture() {
+    std::lock_guard<std::mutex> lock(streamLock_);
+    if (captureActive_.load()) {
+        return true;
+    }
+
+    setStream(inputStream_, openStream(AAUDIO_DIRECTION_INPUT));
+    if (inputStream_ == nullptr) {
+        return false;
+    }
+
+    captureFlush_.store(true);
+    captureActive_.store(true);
+    aaudio_result_t result = AAudioLoader::get().streamRequestStart(inputStream_);
+    if (result != AAUDIO_OK) {
+        LOGE("start input stream failed: %s", AAudioLoader::get().convertResultToText(result));
+        captureActive_.store(false);
+        closeStream(inputStream_);
+        return false;
+    }
+    wakeWorker();
+    return true;
+}
+
+void TalkAudioEngine::stopCapture() {
+    std::lock_guard<std::mutex> lock(streamLock_);
+    captureActive_.store(false);
+    closeStream(inputStream_);
+}
+
+bool TalkAudioEngine::startRender() {
+    std::lock_guard<std::mutex> lock(streamLock_);
+    if (renderActive_.load()) {
+        return true;
+    }
+
+    setStream(outputStream_, openStream(AAUDIO_DIRECTION_OUTPUT));
+    if (outputStream_ == nullptr) {
+        return false;
+    }
+
+    renderActive_.store(true);
+    aaudio_result_t result = AAudioLoader::get().streamRequestStart(outputStream_);
+    if (result != AAUDIO_OK) {
+        LOGE("start output stream failed: %s", AAudioLoader::get().convertResultToText(result));
+        renderActive_.store(false);
+        closeStream(outputStream_);
+        return false;
+    }
+    wakeWorker();
+    return true;
+}
+
+void TalkAudioEngine::stopRender() {
+    std::lock_guard<std::mutex> lock(streamLock_);
+    renderActive_.store(false);
+    closeStream(outputStream_);
+    // 播放流已关闭，回调不再消费，可直接清空；下行包队列由工作线程清空
+    renderRing_.clear();
+    downlinkFlush_.store(true);
+    wakeWorker();
+}
+
+aaudio_data_callback_result_t TalkAudioEngine::inputCallback(AAudioStream* stream, void* userData,
+                                                             void* audioData, int32_t numFrames) {
+    auto* engine = static_cast<TalkAudioEngine*>(userData);
+    size_t total = (size_t) numFrames * engine->config_.channels;
+    size_t written = engine->captureRing_.write(static_cast<const int16_t*>(audioData), total);
+    if (written < total) {
+        engine->stats_[STAT_CAPTURE_OVERRUNS].fetch_add(1, std::memory_order_relaxed);
+    }
+    // 凑满一帧才唤醒编码；回调线程不持锁，偶发的丢失唤醒由工作线程按帧长超时兜底
+    if (engine->captureRing_.availableToRead() >= engine->encodePcm_.size()) {
+        engine->workPending_.store(true, std::memory_order_release);
+        engine->workCv_.notify_one();
+    }
+    return AAUDIO_CALLBACK_RESULT_CONTINUE;
+}
+
+aaudio_data_callback_result_t TalkAudioEngine::outputCallback(AAudioStream* stream, void* userData,
+                                                              void* audioData, int32_t numFrames) {
+    auto* engine = static_cast<TalkAudioEngine*>(userData);
+    auto* out = static_cast<int16_t*>(audioData);
+    size_t total = (size_t) numFrames * engine->config_.channels;
+    size_t read = engine->renderRing_.read(out, total);
+    if (read < total) {
+        memset(out + read, 0, (total - read) * sizeof(int16_t));
+        // 只统计播放中途断流，空闲时的静音不算欠载
+        if (read > 0) {
+            engine->stats_[STAT_RENDER_UNDERRUNS].fetch_add(1, std::memory_order_relaxed);
+        }
+    }
+    return AAUDIO_CALLBACK_RESULT_CONTINUE;
+}
+
+void TalkAudioEngine::errorCallback(AAudioStream* stream, void* userData, aaudio_result_t error) {
+    // 不能在回调线程中关闭流，交给工作线程重建（例如耳机插拔导致的 DISCONNECTED）
+    auto* engine = static_cast<TalkAudioEngine*>(userData);
+    LOGW("stream error: %s", AAudioLoader::get().convertResultToText(error));
+    {
+        // 只持指针锁：关闭流时 AAudio 可能等待本回调返回，不能等待 streamLock_
+        std::lock_guard<std::mutex> lock(engine->streamPtrLock_);
+        if (stream == engine->inputStream_) {
+            engine->restartInput_.store(true);
+        } else if (stream == engine->outputStream_) {
+            engine->restartOutput_.store(true);
+        }
+    }
+    engine->wakeWorker();
+}
+
+void TalkAudioEngine::wakeWorker() {
+    {
+        std::lock_guard<std::mutex> lock(workLock_);
+        workPending_.store(true, std::memory_order_release);
+    }
+    workCv_.notify_one();
+}
+
+void TalkAudioEngine::workerLoop() {
+    const auto activeWait = std::chrono::milliseconds(config_.frameMs);
+    while (running_.load()) {
+        restartStreamsIfNeeded();
+
+        bool busy = false;
+        while (encodeOnce()) {
+            busy = true;
+        }
+        while (decodeOnce()) {
+            busy = true;
+        }
+        if (busy) {
+            continue;
+        }
+
+        std::unique_lock<std::mutex> lock(workLock_);
+        auto woken = [this] { return workPending_.exchange(false) || !running_.load(); };
+        if (captureActive_.load() || renderActive_.load()) {
+            // 播放回调腾出空间不会唤醒，最多等一帧再检查
+            workCv_.wait_for(lock, activeWait, woken);
+        } else {
+            workCv_.wait(lock, woken);
+        }
+    }
+}
+
+bool TalkAudioEngine::encodeOnce() {
+    if (captureFlush_.exchange(false)) {
+        captureRing_.clear();
+        encodedSamples_ = 0;
+    }
+
+    size_t frameTotal = encodePcm_.size();
+    if (captureRing_.availableToRead() < frameTotal) {
+        return false;
+    }
+    captureRing_.read(encodePcm_.data(), frameTotal);
+
+    int maxBytes = config_.targetBytes > 0 ? config_.targetBytes : kMaxPacketBytes;
+    int nbBytes = opus_encode(encoder_, encodePcm_.data(), frameSamples_, workPacket_.data, maxBytes);
+    int64_t ptsUs = encodedSamples_ * 1000000LL / config_.sampleRate;
+    encodedSamples_ += frameSamples_;
+
+    if (nbBytes < 0) {
+        LOGE("opus encode error: %d", nbBytes);
+        return true;
+    }
+    if (config_.padding && nbBytes < config_.targetBytes) {
+        int ret = opus_packet_pad(workPacket_.data, nbBytes, config_.targetBytes);
+        if (ret != OPUS_OK) {
+            LOGE("opus packet pad failed: %d", ret);
+            return true;
+        }
+        nbBytes = config_.targetBytes;
+    }
+
+    workPacket_.size = nbBytes;
+    workPacket_.ptsUs = ptsUs;
+    if (uplink_.write(&workPacket_, 1) == 0) {
+        stats_[STAT_UPLINK_DROPPED].fetch_add(1, std::memory_order_relaxed);
+    } else {
+        stats_[STAT_ENCODED_PACKETS].fetch_add(1, std::memory_order_relaxed);
+    }
+    return true;
+}
+
+bool TalkAudioEngine::decodeOnce() {
+    if (downlinkFlush_.exchange(false)) {
+        downlink_.clear();
+    }
+
+    if (!renderActive_.load() ||
+        renderRing_.availableToWrite() < (size_t) maxDecodeSamples_ * config_.channels) {
+        return false;
+    }
+    if (downlink_.read(&workPacket_, 1) == 0) {
+        return false;
+    }
+
+    int samples = opus_decode(decoder_, workPacket_.data, workPacket_.size,
+                              decodePcm_.data(), maxDecodeSamples_, 0);
+    if (samples < 0) {
+        LOGE("opus decode error: %d", samples);
+        return true;
+    }
+
+    renderRing_.write(decodePcm_.data(), (size_t) samples * config_.channels);
+    stats_[STAT_DECODED_PACKETS].fetch_add(1, std::memory_order_relaxed);
+    return true;
+}
+
+void TalkAudioEngine::restartStreamsIfNeeded() {
+    bool restartIn = restartInput_.exchange(false);
+    bool restartOut = restartOutput_.exchange(false);
+    if (!restartIn && !restartOut) {
+        return;
+    }
+
+    std::lock_guard<std::mutex> lock(streamLock_);
+    AAudioLoader& api = AAudioLoader::get();
+
+    if (restartIn && captureActive_.load()) {
+        closeStream(inputStream_);
+        setStream(inputStream_, openStream(AAUDIO_DIRECTION_INPUT));
+        if (inputStream_ == nullptr || api.streamRequestStart(inputStream_) != AAUDIO_OK) {
+            LOGE("restart input stream failed");
+            captureActive_.store(false);
+            closeStream(inputStream_);
+        }
+    }
+
+    if (restartOut && renderActive_.load()) {
+        closeStream(outputStream_);
+        setStream(outputStream_, openStream(AAUDIO_DIRECTION_OUTPUT));
+        if (outputStream_ == nullptr || api.streamRequestStart(outputStream_) != AAUDIO_OK) {
+            LOGE("restart output stream failed");
+            renderActive_.store(false);
+            closeStream(outputStream_);
+        }
+    }
+}
+
+int TalkAudioEngine::readPackets(uint8_t* buffer, int bufferSize, int32_t* sizes, int64_t* ptsUs,
+                                 int maxPackets) {
+    std::lock_guard<std::mutex> lock(uplinkReadLock_);
+    int count = 0;
+    int offset = 0;
+    // 先确认剩余空间能放下一个最大包，避免取出后无处存放
+    while (count < maxPackets && bufferSize - offset >= kMaxPacketBytes) {
+        EncodedPacket packet;
+        if (uplink_.read(&packet, 1) == 0) {
+            break;
+        }
+        memcpy(buffer + offset, packet.data, (size_t) packet.size);
+        sizes[count] = packet.size;
+        ptsUs[count] = packet.ptsUs;
+        offset += packet.size;
+        count++;
+    }
+    return count;
+}
+
+int TalkAudioEngine::writePackets(const uint8_t* data, const int32_t* sizes, int count) {
+    std::lock_guard<std::mutex> lock(downlinkWriteLock_);
+    EncodedPacket packet;
+    int offset = 0;
+    int accepted = 0;
+    for (int i = 0; i < count; i++) {
+        int size = sizes[i];
+        if (size <= 0 || size > kMaxPacketBytes) {
+            LOGW("skip invalid packet: size=%d", size);
+            offset += size > 0 ? size : 0;
+            continue;
+        }
+        packet.size = size;
+        packet.ptsUs = 0;
+        memcpy(packet.data, data + offset, (size_t) size);
+        offset += size;
+
+        if (downlink_.write(&packet, 1) == 0) {
+            stats_[STAT_DOWNLINK_DROPPED].fetch_add(1, std::memory_order_relaxed);
+        } else {
+            accepted++;
+        }
+    }
+    if (accepted > 0) {
+        wakeWorker();
+    }
+    return accepted;
+}
+
+int64_t TalkAudioEngine::estimateLatencyUs(AAudioStream* stream, bool input) {
+    if (stream == nullptr) {
+        return -1;
+    }
+
+    AAudioLoader& api = AAudioLoader::get();
+    int64_t hwPosition = 0;
+    int64_t hwTimeNs = 0;
+    if (api.streamGetTimestamp(stream, CLOCK_MONOTONIC, &hwPosition, &hwTimeNs) != AAUDIO_OK) {
+        return -1;
+    }
+
+    // 应用侧位置对应的硬件时间：采集为下一帧被采到的时间，播放为最新写入帧被播出的时间
+    int64_t appPosition = input ? api.streamGetFramesRead(stream) : api.streamGetFramesWritten(stream);
+    int64_t appTimeNs = hwTimeNs + (appPosition - hwPosition) * 1000000000LL / config_.sampleRate;
+    int64_t latencyNs = input ? nowNs() - appTimeNs : appTimeNs - nowNs();
+    return latencyNs > 0 ? latencyNs / 1000 : 0;
+}
+
+void TalkAudioEngine::getStats(int64_t* out, int count) {
+    {
+        std::lock_guard<std::mutex> lock(streamLock_);
+        AAudioLoader& api = AAudioLoader::get();
+        stats_[STAT_INPUT_LATENCY_US].store(estimateLatencyUs(inputStream_, true));
+        stats_[STAT_OUTPUT_LATENCY_US].store(estimateLatencyUs(outputStream_, false));
+        if (inputStream_) {
+            stats_[STAT_INPUT_XRUNS].store(api.streamGetXRunCount(inputStream_));
+        }
+        if (outputStream_) {
+            stats_[STAT_OUTPUT_XRUNS].store(api.streamGetXRunCount(outputStream_));
+        }
+    }
+
+    for (int i = 0; i < count && i < STAT_COUNT; i++) {
+        out[i] = stats_[i].load(std::memory_order_relaxed);
+    }
+}
@@ -0,0 +1,143 @@
+#pragma once
+
+#include <aaudio/AAudio.h>
+#include <opus.h>
+
+#include <atomic>
+#include <condition_variable>
+#include <cstdint>
+#include <memory>
+#include <mutex>
+#include <thread>
+#include <vector>
+
+#include "spsc_ring_buffer.h"
+
+// Opus 包最大字节数（120ms 多帧包上限）
+constexpr int kMaxPacketBytes = 1275 * 3;
+
+struct EncodedPacket {
+    int32_t size = 0;
+    int64_t ptsUs = 0;
+    uint8_t data[kMaxPacketBytes];
+};
+
+// 编码参数与 Java 通路（OpusEncoderParams / opus_jni.cpp）一致，保证两条通路的包格式相同
+struct EngineConfig {
+    int sampleRate = 16000;
+    int channels = 1;
+    int frameMs = 20;
+    int bitrate = 24000;
+    int complexity = 5;
+    bool cbr = true;
+    int targetBytes = 0;          // 包大小上限（填充时为定长），0 表示不限制
+    bool padding = false;         // 填充到 targetBytes
+    bool dtx = false;
+    bool signalVoice = true;
+    int maxBandwidth = 0;         // OPUS_BANDWIDTH_*，0 表示不限制
+    bool lowDelay = false;        // OPUS_APPLICATION_RESTRICTED_LOWDELAY
+};
+
+// 统计项下标，与 Java 侧 NativeAudioEngine.STAT_* 保持一致
+enum EngineStat {
+    STAT_CAPTURE_OVERRUNS = 0,     // 采集环形缓冲满导致丢弃的回调次数
+    STAT_RENDER_UNDERRUNS,         // 播放时数据不足一个回调的次数
+    STAT_ENCODED_PACKETS,
+    STAT_DECODED_PACKETS,
+    STAT_UPLINK_DROPPED,           // 上行包队列满导致丢弃的包数
+    STAT_DOWNLINK_DROPPED,         // 下行包队列满导致丢弃的包数
+    STAT_INPUT_LATENCY_US,         // 采集延迟估算（-1 表示不可用）
+    STAT_OUTPUT_LATENCY_US,        // 播放延迟估算（-1 表示不可用）
+    STAT_INPUT_XRUNS,
+    STAT_OUTPUT_XRUNS,
+    STAT_INPUT_BURST_FRAMES,
+    STAT_OUTPUT_BURST_FRAMES,
+    STAT_COUNT
+};
+
+// 原生音频引擎
+// AAudio 回调线程只访问无锁环形缓冲；编解码在独立工作线程进行；Java 侧批量交换编码包
+// 线程模型：
+//   采集回调 -> captureRing_ -> 工作线程编码 -> uplink_ -> Java readPackets
+//   Java writePackets -> downlink_ -> 工作线程解码 -> renderRing_ -> 播放回调
+class TalkAudioEngine {
+public:
+    explicit TalkAudioEngine(const EngineConfig& config);
+    ~TalkAudioEngine();
+
+    // 创建编解码器并启动工作线程，失败返回 false
+    bool init();
+
+    bool startCapture();
+    void stopCapture();
+    bool startRender();
+    void stopRender();
+
+    // 读取已编码的上行包，按顺序拼接到 buffer，返回包数（Java 单线程调用）
+    int readPackets(uint8_t* buffer, int bufferSize, int32_t* sizes, int64_t* ptsUs, int maxPackets);
+
+    // 写入待解码的下行包，返回实际接收的包数
+    int writePackets(const uint8_t* data, const int32_t* sizes, int count);
+
+    void getStats(int64_t* out, int count);
+
+private:
+    static aaudio_data_callback_result_t inputCallback(AAudioStream* stream, void* userData,
+                                                       void* audioData, int32_t numFrames);
+    static aaudio_data_callback_result_t outputCallback(AAudioStream* stream, void* userData,
+                                                        void* audioData, int32_t numFrames);
+    static void errorCallback(AAudioStream* stream, void* userData, aaudio_result_t error);
+
+    AAudioStream* openStream(aaudio_direction_t direction);
+    void setStream(AAudioStream*& slot, AAudioStream* stream);
+    void closeStream(AAudioStream*& stream);
+    void workerLoop();
+    void wakeWorker();
+    bool encodeOnce();
+    bool decodeOnce();
+    void restartStreamsIfNeeded();
+    int64_t estimateLatencyUs(AAudioStream* stream, bool input);
+
+    const EngineConfig config_;
+    const int frameSamples_;          // 一帧每声道样本数
+    const int maxDecodeSamples_;      // 解码单包最大每声道样本数（120ms）
+
+    OpusEncoder* encoder_ = nullptr;
+    OpusDecoder* decoder_ = nullptr;
+
+    // 仅在 Java 线程（持 streamLock_）或工作线程重建时修改
+    // 指针赋值另持 streamPtrLock_：errorCallback 只持该锁读取，不会等待持 streamLock_ 关闭流的线程
+    std::mutex streamLock_;
+    std::mutex streamPtrLock_;
+    AAudioStream* inputStream_ = nullptr;
+    AAudioStream* outputStream_ = nullptr;
+
+    SpscRingBuffer<int16_t> captureRing_;
+    SpscRingBuffer<int16_t> renderRing_;
+    SpscRingBuffer<EncodedPacket> uplink_;
+    SpscRingBuffer<EncodedPacket> downlink_;
+    std::mutex uplinkReadLock_;
+    std::mutex downlinkWriteLock_;
+
+    // 工作线程空闲时阻塞等待：采集和播放都未运行时无限等待，运行中最多等一帧
+    // 采集回调只置位并 notify（不持锁），其余唤醒方持 workLock_ 置位
+    std::thread worker_;
+    std::mutex workLock_;
+    std::condition_variable workCv_;
+    std::atomic<bool> workPending_{false};
+    std::atomic<bool> running_{false};
+    std::atomic<bool> captureActive_{false};
+    std::atomic<bool> renderActive_{false};
+    std::atomic<bool> captureFlush_{false};
+    std::atomic<bool> downlinkFlush_{false};
+    std::atomic<bool> restartInput_{false};
+    std::atomic<bool> restartOutput_{false};
+
+    // 工作线程私有
+    std::vector<int16_t> encodePcm_;
+    std::vector<int16_t> decodePcm_;
+    EncodedPacket workPacket_;
+    int64_t encodedSamples_ = 0;
+
+    std::atomic<int64_t> stats_[STAT_COUNT];
+};
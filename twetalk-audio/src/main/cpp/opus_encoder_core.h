@@ -0,0 +1,142 @@
+#pragma once
+
+// Opus 编码器创建、包大小上限、填充与统计
+// 与平台无关，Android 的 opus_jni.cpp 与宿主机压测模块（loadgen）共用，保证两边的包格式和统计口径一致
+// 包含前需定义 LOGE / LOGI
+
+#include <atomic>
+#include <cstdint>
+#include <vector>
+#include <opus.h>
+
+// 编码统计下标，与 OpusBridge.STAT_* 保持一致
+enum EncoderStat {
+    STAT_PACKETS = 0,         // 输出包数
+    STAT_PAYLOAD_BYTES,       // 编码数据字节数（不含填充）
+    STAT_PADDED_PACKETS,      // 经过填充的包数
+    STAT_PADDING_BYTES,       // 填充字节数
+    STAT_CAPPED_PACKETS,      // VBR 下触及包大小上限的次数（超出部分由编码器自行降质，不再丢帧）；CBR 包长恒定，不统计
+    STAT_DROPPED_PACKETS,     // 编码失败丢弃的帧数
+    STAT_COUNT
+};
+
+struct EncoderContext {
+    OpusEncoder* encoder;
+    int sample_rate;
+    int channels;
+    int target_bytes;
+    bool pad;                 // 是否填充到 target_bytes
+    bool vbr;                 // 受限 VBR（CBR 时每包都等于 target_bytes，不算触及上限）
+    int frame_ms;
+    int frame_samples;
+    std::vector<unsigned char> enc_buf;
+    std::atomic<int64_t> stats[STAT_COUNT];
+};
+
+// 创建编码器，失败返回 nullptr
+static EncoderContext* createEncoderContext(int sample_rate, int channels, int target_bytes, int bitrate,
+                                            bool cbr, bool dtx, int complexity, bool signal_voice,
+                                            int max_bandwidth, bool pad, int frame_ms, bool low_delay) {
+    int err = 0;
+
+    if (frame_ms != 10 && frame_ms != 20 && frame_ms != 40 && frame_ms != 60) {
+        LOGE("unsupported frame duration: %d ms", frame_ms);
+        return nullptr;
+    }
+    int frame_samples = (sample_rate * frame_ms) / 1000;
+
+    // RESTRICTED_LOWDELAY 仅使用 CELT，省去 SILK 前瞻带来的额外算法延迟
+    int application = low_delay ? OPUS_APPLICATION_RESTRICTED_LOWDELAY : OPUS_APPLICATION_VOIP;
+    OpusEncoder* encoder = opus_encoder_create(sample_rate, channels, application, &err);
+
+    if (err != OPUS_OK || !encoder) {
+        LOGE("opus_encoder_create failed: %d", err);
+        return nullptr;
+    }
+
+    // 码率不超过 target_bytes 对应的上限，尽量避免触及包大小上限
+    if (target_bytes > 0) {
+        int max_bitrate = target_bytes * 8 * 1000 / frame_ms;
+        if (bitrate > max_bitrate) {
+            LOGI("bitrate %d capped to %d by target_bytes %d", bitrate, max_bitrate, target_bytes);
+            bitrate = max_bitrate;
+        }
+    }
+
+    opus_encoder_ctl(encoder, OPUS_SET_SIGNAL(signal_voice ? OPUS_SIGNAL_VOICE : OPUS_SIGNAL_MUSIC));
+    opus_encoder_ctl(encoder, OPUS_SET_BITRATE(bitrate));
+    // 不填充时使用受限 VBR：静音帧自然变小，响度大的帧不超过上限
+    bool vbr = !(cbr && pad);
+    opus_encoder_ctl(encoder, OPUS_SET_VBR(vbr ? 1 : 0));
+    opus_encoder_ctl(encoder, OPUS_SET_VBR_CONSTRAINT(1));
+    opus_encoder_ctl(encoder, OPUS_SET_DTX(dtx ? 1 : 0));
+    opus_encoder_ctl(encoder, OPUS_SET_COMPLEXITY(complexity));
+
+    // 0 表示不限制，由编码器根据码率自动选择
+    if (max_bandwidth > 0) {
+        opus_encoder_ctl(encoder, OPUS_SET_MAX_BANDWIDTH(max_bandwidth));
+    }
+
+    auto* ctx = new EncoderContext();
+    ctx->encoder = encoder;
+    ctx->sample_rate = sample_rate;
+    ctx->channels = channels;
+    ctx->target_bytes = target_bytes;
+    ctx->pad = pad;
+    ctx->vbr = vbr;
+    ctx->frame_ms = frame_ms;
+    ctx->frame_samples = frame_samples;
+    ctx->enc_buf.assign(4096, 0);
+    for (auto& stat : ctx->stats) {
+        stat.store(0);
+    }
+
+    return ctx;
+}
+
+static void releaseEncoderContext(EncoderContext* ctx) {
+    if (ctx->encoder) {
+        opus_encoder_destroy(ctx->encoder);
+    }
+    delete ctx;
+}
+
+// 编码输出上限：有 target_bytes 时以其为上限，编码器会自行降质以满足，不会超出
+static opus_int32 maxPacketBytes(EncoderContext* ctx) {
+    if (ctx->target_bytes > 0 && ctx->target_bytes < (int) ctx->enc_buf.size()) {
+        return ctx->target_bytes;
+    }
+    return (opus_int32) ctx->enc_buf.size();
+}
+
+// 记录统计并按需补齐到 target_bytes，返回 enc_buf 中的最终包长，失败返回 -1
+static int finishEncodedPacket(EncoderContext* ctx, int nbBytes) {
+    if (nbBytes < 0) {
+        LOGE("opus encode error: %d", nbBytes);
+        ctx->stats[STAT_DROPPED_PACKETS]++;
+        return -1;
+    }
+
+    ctx->stats[STAT_PAYLOAD_BYTES] += nbBytes;
+    // 只有 VBR 输出（填充前）达到上限才说明编码器为满足上限而降质
+    if (ctx->vbr && ctx->target_bytes > 0 && nbBytes >= ctx->target_bytes) {
+        ctx->stats[STAT_CAPPED_PACKETS]++;
+    }
+
+    if (ctx->pad && nbBytes < ctx->target_bytes) {
+        int ret = opus_packet_pad(ctx->enc_buf.data(), nbBytes, ctx->target_bytes);
+
+        if (ret != OPUS_OK) {
+            LOGE("opus packet pad failed: %d", ret);
+            ctx->stats[STAT_DROPPED_PACKETS]++;
+            return -1;
+        }
+
+        ctx->stats[STAT_PADDED_PACKETS]++;
+        ctx->stats[STAT_PADDING_BYTES] += ctx->target_bytes - nbBytes;
+        nbBytes = ctx->target_bytes;
+    }
+
+    ctx->stats[STAT_PACKETS]++;
+    return nbBytes;
+}
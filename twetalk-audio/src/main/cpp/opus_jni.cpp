@@ -1,21 +1,12 @@
 #include <jni.h>
 #include <android/log.h>
 #include <vector>
-#include <cstdint>
 #include <opus.h>
 
 #define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, "OpusJNI", __VA_ARGS__)
 #define LOGI(...) __android_log_print(ANDROID_LOG_INFO,  "OpusJNI", __VA_ARGS__)
 
-struct EncoderContext {
-    OpusEncoder* encoder;
-    int sample_rate;
-    int channels;
-    int target_bytes;
-    int frame_ms;
-    int frame_samples;
-    std::vector<unsigned char> enc_buf;
-};
+#include "opus_encoder_core.h"
 
 struct DecoderContext {
     OpusDecoder* decoder;
@@ -31,34 +22,12 @@ Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeCreateEncoder(JNIEnv *env,
                                                                     jint sample_rate, jint channels,
                                                                     jint target_bytes, jint bitrate,
                                                                     jboolean cbr, jboolean dtx,
-                                                                    jint complexity, jboolean signal_voice) {
-    int err = 0;
-    int frame_ms = 60;
-    int frame_samples = (sample_rate * frame_ms) / 1000;
-
-    OpusEncoder* encoder = opus_encoder_create(sample_rate, channels, OPUS_APPLICATION_VOIP, &err);
-
-    if (err != OPUS_OK || !encoder) {
-        LOGE("opus_encoder_create failed: %d", err);
-        return 0;
-    }
-
-    opus_encoder_ctl(encoder, OPUS_SET_SIGNAL(signal_voice ? OPUS_SIGNAL_VOICE : OPUS_SIGNAL_MUSIC));
-    opus_encoder_ctl(encoder, OPUS_SET_BITRATE(bitrate));
-    opus_encoder_ctl(encoder, OPUS_SET_VBR(cbr ? 0 : 1));
-    opus_encoder_ctl(encoder, OPUS_SET_VBR_CONSTRAINT(1));
-    opus_encoder_ctl(encoder, OPUS_SET_DTX(dtx ? 1 : 0));
-    opus_encoder_ctl(encoder, OPUS_SET_COMPLEXITY(complexity));
-
-    auto* ctx = new EncoderContext();
-    ctx->encoder = encoder;
-    ctx->sample_rate = sample_rate;
-    ctx->channels = channels;
-    ctx->target_bytes = target_bytes;
-    ctx->frame_ms = frame_ms;
-    ctx->frame_samples = frame_samples;
-    ctx->enc_buf.assign(4096, 0);
-
+                                                                    jint complexity, jboolean signal_voice,
+                                                                    jint max_bandwidth, jboolean pad,
+                                                                    jint frame_ms, jboolean low_delay) {
+    EncoderContext* ctx = createEncoderContext(sample_rate, channels, target_bytes, bitrate, cbr, dtx,
+                                               complexity, signal_voice, max_bandwidth, pad,
+                                               frame_ms, low_delay);
     return reinterpret_cast<jlong>(ctx);
 }
 
@@ -67,7 +36,8 @@ JNIEXPORT jlong JNICALL
 Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeCreateDecoder(JNIEnv *env, jobject thiz,
                                                                     jint sample_rate, jint channels) {
     int err = 0;
-    int frame_ms = 60;
+    // 解码缓冲按 Opus 最大包时长分配，对端任意帧长都能解码
+    int frame_ms = 120;
     int frame_samples = (sample_rate * frame_ms) / 1000;
 
     OpusDecoder* decoder = opus_decoder_create(sample_rate, channels, &err);
@@ -87,6 +57,18 @@ Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeCreateDecoder(JNIEnv *env,
     return reinterpret_cast<jlong>(ctx);
 }
 
+// 按需补齐到 target_bytes 并拷贝为 Java 数组，失败返回 nullptr
+static jbyteArray finishPacket(JNIEnv *env, EncoderContext* ctx, int nbBytes) {
+    nbBytes = finishEncodedPacket(ctx, nbBytes);
+    if (nbBytes < 0) {
+        return nullptr;
+    }
+
+    jbyteArray out = env->NewByteArray(nbBytes);
+    env->SetByteArrayRegion(out, 0, nbBytes, (const jbyte*) ctx->enc_buf.data());
+    return out;
+}
+
 extern "C"
 JNIEXPORT jbyteArray JNICALL
 Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeEncode(JNIEnv *env, jobject thiz,
@@ -110,33 +92,39 @@ Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeEncode(JNIEnv *env, jobjec
                               (const opus_int16*) pcm,
                               ctx->frame_samples,
                               ctx->enc_buf.data(),
-                              (opus_int32) ctx->enc_buf.size());
+                              maxPacketBytes(ctx));
     env->ReleaseShortArrayElements(pcm_frame, pcm, JNI_ABORT);
 
-    if (nbBytes < 0) {
-        LOGE("opus encode error: %d", nbBytes);
+    return finishPacket(env, ctx, nbBytes);
+}
+
+extern "C"
+JNIEXPORT jbyteArray JNICALL
+Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeEncodeFloat(JNIEnv *env, jobject thiz,
+                                                                   jlong handle, jfloatArray pcm_frame) {
+    if (handle == 0) {
+        LOGE("Invalid encoder handle");
         return nullptr;
     }
 
-    if (nbBytes < ctx->target_bytes) {
-        int ret = opus_packet_pad(ctx->enc_buf.data(), nbBytes, ctx->target_bytes);
-
-        if (ret != OPUS_OK) {
-            LOGE("opus packet pad failed: %d", ret);
-            return nullptr;
-        }
+    auto* ctx = reinterpret_cast<EncoderContext*>(handle);
 
-        nbBytes = ctx->target_bytes;
-    }
+    jsize n = env->GetArrayLength(pcm_frame);
 
-    if (nbBytes > ctx->target_bytes) {
-        LOGE("Encoded %d > target %d. Lower bitrate/complexity.", nbBytes, ctx->target_bytes);
+    if (n < ctx->frame_samples * ctx->channels) {
+        LOGE("encodeFloat: input pcm size %d < expected %d", (int) n, ctx->frame_samples * ctx->channels);
         return nullptr;
     }
 
-    jbyteArray out = env->NewByteArray(nbBytes);
-    env->SetByteArrayRegion(out, 0, nbBytes, (const jbyte*) ctx->enc_buf.data());
-    return out;
+    jfloat* pcm = env->GetFloatArrayElements(pcm_frame, nullptr);
+    int nbBytes = opus_encode_float(ctx->encoder,
+                                    (const float*) pcm,
+                                    ctx->frame_samples,
+                                    ctx->enc_buf.data(),
+                                    maxPacketBytes(ctx));
+    env->ReleaseFloatArrayElements(pcm_frame, pcm, JNI_ABORT);
+
+    return finishPacket(env, ctx, nbBytes);
 }
 
 extern "C"
@@ -179,6 +167,46 @@ Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeDecode(JNIEnv *env, jobjec
     return samplesPerChannel;
 }
 
+extern "C"
+JNIEXPORT jint JNICALL
+Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeDecodeFloat(JNIEnv *env, jobject thiz,
+                                                                   jlong handle, jbyteArray packet,
+                                                                   jfloatArray pcm_out, jboolean fec) {
+    if (handle == 0) {
+        LOGE("Invalid decoder handle");
+        return -1;
+    }
+
+    auto* ctx = reinterpret_cast<DecoderContext*>(handle);
+
+    jsize pktLen = env->GetArrayLength(packet);
+    jsize outLen = env->GetArrayLength(pcm_out);
+    int maxFrameSize = ctx->frame_samples;
+
+    if (outLen < maxFrameSize * ctx->channels) {
+        LOGE("decodeFloat: pcmOut too small: %d < %d", (int) outLen, maxFrameSize * ctx->channels);
+        return -2;
+    }
+
+    std::vector<unsigned char> pkt(pktLen);
+    env->GetByteArrayRegion(packet, 0, pktLen, (jbyte*) pkt.data());
+    jfloat* pcmOut = env->GetFloatArrayElements(pcm_out, nullptr);
+
+    int samplesPerChannel = opus_decode_float(ctx->decoder,
+                                              pkt.data(),
+                                              (opus_int32) pktLen,
+                                              (float*) pcmOut,
+                                              maxFrameSize,
+                                              fec ? 1 : 0);
+
+    if (samplesPerChannel < 0) {
+        LOGE("opus decode float error: %d", samplesPerChannel);
+    }
+
+    env->ReleaseFloatArrayElements(pcm_out, pcmOut, 0);
+    return samplesPerChannel;
+}
+
 extern "C"
 JNIEXPORT void JNICALL
 Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeReleaseEncoder(JNIEnv *env, jobject thiz, jlong handle) {
@@ -186,11 +214,7 @@ Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeReleaseEncoder(JNIEnv *env
         return;
     }
 
-    auto* ctx = reinterpret_cast<EncoderContext*>(handle);
-    if (ctx->encoder) {
-        opus_encoder_destroy(ctx->encoder);
-    }
-    delete ctx;
+    releaseEncoderContext(reinterpret_cast<EncoderContext*>(handle));
 }
 
 extern "C"
@@ -223,3 +247,20 @@ Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeGetFrameSamples(JNIEnv *en
         return ctx->frame_samples;
     }
 }
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_tencent_twetalk_1audio_opus_OpusBridge_nativeGetEncoderStats(JNIEnv *env, jobject thiz,
+                                                                      jlong handle, jlongArray out) {
+    if (handle == 0) {
+        return;
+    }
+
+    auto* ctx = reinterpret_cast<EncoderContext*>(handle);
+    jsize n = env->GetArrayLength(out);
+    jlong values[STAT_COUNT];
+    for (int i = 0; i < STAT_COUNT; i++) {
+        values[i] = ctx->stats[i].load();
+    }
+    env->SetLongArrayRegion(out, 0, n < STAT_COUNT ? n : STAT_COUNT, values);
+}
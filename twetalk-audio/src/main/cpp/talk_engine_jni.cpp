@@ -0,0 +1,145 @@
+#include <jni.h>
+#include <android/log.h>
+#include <algorithm>
+
+#include "engine/talk_audio_engine.h"
+
+#define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, "TalkEngineJNI", __VA_ARGS__)
+
+static TalkAudioEngine* toEngine(jlong handle) {
+    return reinterpret_cast<TalkAudioEngine*>(handle);
+}
+
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeCreate(JNIEnv *env, jclass clazz,
+                                                                      jint sample_rate, jint channels,
+                                                                      jint frame_ms, jint bitrate,
+                                                                      jint complexity, jboolean cbr,
+                                                                      jint target_bytes, jboolean pad,
+                                                                      jboolean dtx, jboolean signal_voice,
+                                                                      jint max_bandwidth, jboolean low_delay) {
+    EngineConfig config;
+    config.sampleRate = sample_rate;
+    config.channels = channels;
+    config.frameMs = frame_ms;
+    config.bitrate = bitrate;
+    config.complexity = complexity;
+    config.cbr = cbr;
+    config.targetBytes = target_bytes;
+    config.padding = pad;
+    config.dtx = dtx;
+    config.signalVoice = signal_voice;
+    config.maxBandwidth = max_bandwidth;
+    config.lowDelay = low_delay;
+
+    auto* engine = new TalkAudioEngine(config);
+    if (!engine->init()) {
+        LOGE("engine init failed");
+        delete engine;
+        return 0;
+    }
+    return reinterpret_cast<jlong>(engine);
+}
+
+extern "C"
+JNIEXPORT jboolean JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeStartCapture(JNIEnv *env, jclass clazz,
+                                                                            jlong handle) {
+    return handle != 0 && toEngine(handle)->startCapture();
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeStopCapture(JNIEnv *env, jclass clazz,
+                                                                           jlong handle) {
+    if (handle != 0) {
+        toEngine(handle)->stopCapture();
+    }
+}
+
+extern "C"
+JNIEXPORT jboolean JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeStartRender(JNIEnv *env, jclass clazz,
+                                                                           jlong handle) {
+    return handle != 0 && toEngine(handle)->startRender();
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeStopRender(JNIEnv *env, jclass clazz,
+                                                                          jlong handle) {
+    if (handle != 0) {
+        toEngine(handle)->stopRender();
+    }
+}
+
+extern "C"
+JNIEXPORT jint JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeReadPackets(JNIEnv *env, jclass clazz,
+                                                                           jlong handle, jbyteArray buffer,
+                                                                           jintArray sizes, jlongArray pts_us) {
+    if (handle == 0) {
+        return -1;
+    }
+
+    jsize bufferSize = env->GetArrayLength(buffer);
+    jsize maxPackets = std::min(env->GetArrayLength(sizes), env->GetArrayLength(pts_us));
+
+    // 一次 JNI 调用取出一批包，数组元素在返回前统一回写
+    jbyte* buf = env->GetByteArrayElements(buffer, nullptr);
+    jint* sz = env->GetIntArrayElements(sizes, nullptr);
+    jlong* pts = env->GetLongArrayElements(pts_us, nullptr);
+
+    int count = toEngine(handle)->readPackets(reinterpret_cast<uint8_t*>(buf), bufferSize,
+                                              reinterpret_cast<int32_t*>(sz),
+                                              reinterpret_cast<int64_t*>(pts), maxPackets);
+
+    env->ReleaseLongArrayElements(pts_us, pts, 0);
+    env->ReleaseIntArrayElements(sizes, sz, 0);
+    env->ReleaseByteArrayElements(buffer, buf, 0);
+    return count;
+}
+
+extern "C"
+JNIEXPORT jint JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeWritePackets(JNIEnv *env, jclass clazz,
+                                                                            jlong handle, jbyteArray data,
+                                                                            jintArray sizes, jint count) {
+    if (handle == 0) {
+        return -1;
+    }
+
+    jbyte* buf = env->GetByteArrayElements(data, nullptr);
+    jint* sz = env->GetIntArrayElements(sizes, nullptr);
+
+    int accepted = toEngine(handle)->writePackets(reinterpret_cast<const uint8_t*>(buf),
+                                                  reinterpret_cast<const int32_t*>(sz), count);
+
+    env->ReleaseIntArrayElements(sizes, sz, JNI_ABORT);
+    env->ReleaseByteArrayElements(data, buf, JNI_ABORT);
+    return accepted;
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeGetStats(JNIEnv *env, jclass clazz,
+                                                                        jlong handle, jlongArray out) {
+    if (handle == 0) {
+        return;
+    }
+
+    jsize n = env->GetArrayLength(out);
+    jlong* values = env->GetLongArrayElements(out, nullptr);
+    toEngine(handle)->getStats(reinterpret_cast<int64_t*>(values), n);
+    env->ReleaseLongArrayElements(out, values, 0);
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_tencent_twetalk_1audio_engine_NativeAudioEngine_nativeRelease(JNIEnv *env, jclass clazz,
+                                                                       jlong handle) {
+    if (handle != 0) {
+        delete toEngine(handle);
+    }
+}
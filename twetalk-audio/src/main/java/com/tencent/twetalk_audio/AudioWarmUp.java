@@ -0,0 +1,79 @@
+package com.tencent.twetalk_audio;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import com.tencent.twetalk_audio.opus.OpusBridge;
+import com.tencent.twetalk_audio.sink.AudioCapabilityDetector;
+import com.tencent.twetalk_audio.sink.AudioCapabilityReport;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 进程级音频预热：在后台线程提前加载 opus_jni、首次创建解码器、检测（或读取缓存的）设备能力
+ * 可在 Application.onCreate 调用，只执行一次；会话级预热（解码器实例、AudioTrack）见 TalkAudioController.warmUpPlayback
+ */
+public final class AudioWarmUp {
+    private static final String TAG = "AudioWarmUp";
+
+    private static final AtomicBoolean started = new AtomicBoolean(false);
+    private static volatile boolean done = false;
+
+    private AudioWarmUp() {}
+
+    /**
+     * 异步预热，重复调用无效
+     */
+    public static void warmUpAsync(Context context) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        Context appContext = context.getApplicationContext();
+        Thread thread = new Thread(() -> warmUp(appContext), "TalkAudioWarmUp");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 预热是否已完成
+     */
+    public static boolean isDone() {
+        return done;
+    }
+
+    private static void warmUp(Context context) {
+        try {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        } catch (Throwable ignored) {}
+
+        long startNs = System.nanoTime();
+
+        // 加载原生库并走一遍解码器创建，避免首包在播放线程上承担类初始化和 so 加载
+        long opusUs = -1;
+        try {
+            OpusBridge bridge = OpusBridge.getInstance();
+            long handle = bridge.createDecoder(16000, 1);
+            if (handle != 0L) {
+                bridge.releaseDecoder(handle);
+            }
+            opusUs = (System.nanoTime() - startNs) / 1000;
+        } catch (Throwable e) {
+            Log.w(TAG, "opus_jni 预加载失败", e);
+        }
+
+        long reportStartNs = System.nanoTime();
+        AudioCapabilityReport report = null;
+        try {
+            report = AudioCapabilityDetector.getCapabilityReport(context);
+        } catch (Throwable e) {
+            Log.w(TAG, "设备能力检测失败", e);
+        }
+        long reportUs = (System.nanoTime() - reportStartNs) / 1000;
+
+        done = true;
+        Log.i(TAG, "音频预热完成: opusUs=" + opusUs + ", capabilityUs=" + reportUs +
+                ", totalUs=" + (System.nanoTime() - startNs) / 1000 + "\n" + report);
+    }
+}
@@ -1,33 +1,60 @@
 package com.tencent.twetalk_audio;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.media.AudioAttributes;
-import android.media.AudioFormat;
 import android.media.AudioManager;
-import android.media.AudioRecord;
-import android.media.AudioTrack;
 import android.media.MediaRecorder;
-import android.os.Build;
 import android.os.Process;
 import android.util.Log;
 
 import com.tencent.twetalk_audio.config.AudioConfig;
 import com.tencent.twetalk_audio.config.AudioFormatType;
+import com.tencent.twetalk_audio.device.AndroidAudioDeviceFactory;
+import com.tencent.twetalk_audio.device.AudioDeviceFactory;
+import com.tencent.twetalk_audio.device.AudioInputDevice;
+import com.tencent.twetalk_audio.device.DeviceTimestamp;
+import com.tencent.twetalk_audio.device.PcmEncoding;
+import com.tencent.twetalk_audio.engine.NativeAudioEngine;
+import com.tencent.twetalk_audio.metrics.AudioMetrics;
+import com.tencent.twetalk_audio.metrics.AudioTrace;
+import com.tencent.twetalk_audio.metrics.CaptureGlitchDetector;
+import com.tencent.twetalk_audio.metrics.ThreadResourceMeter;
+import com.tencent.twetalk_audio.metrics.ThreadResourceProbe;
+import com.tencent.twetalk_audio.frame.AudioFrame;
+import com.tencent.twetalk_audio.listener.OnAudioFrameListener;
+import com.tencent.twetalk_audio.listener.OnAudioGlitchListener;
+import com.tencent.twetalk_audio.listener.OnAudioMetricsListener;
 import com.tencent.twetalk_audio.listener.OnPlayStateListener;
 import com.tencent.twetalk_audio.listener.OnRecordDataListener;
-import com.tencent.twetalk_audio.opus.OpusBridge;
+import com.tencent.twetalk_audio.listener.OnUplinkFormatListener;
+import com.tencent.twetalk_audio.listener.OnVoiceActivityListener;
 import com.tencent.twetalk_audio.opus.OpusEncoderParams;
+import com.tencent.twetalk_audio.pipeline.EncodedPacketSink;
+import com.tencent.twetalk_audio.pipeline.OpusEncoderStage;
+import com.tencent.twetalk_audio.pipeline.PlaybackPipeline;
+import com.tencent.twetalk_audio.processor.FloatPcmProcessor;
+import com.tencent.twetalk_audio.uplink.UplinkFormatPolicy;
+import com.tencent.twetalk_audio.utils.PcmRingBuffer;
 import com.tencent.twetalk_audio.utils.PcmUtil;
+import com.tencent.twetalk_audio.vad.Endpointer;
+import com.tencent.twetalk_audio.vad.EnergyVad;
 
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Talk 统一音频控制类
  * 整合音频采集和播放功能，提供统一的生命周期管理
+ * 上行：采集（AudioInputDevice，默认 AudioRecord）-> 处理（float 处理阶段 / VAD / 端点检测）-> 编码（OpusEncoderStage）-> 回调
+ * 下行：PlaybackPipeline（原生引擎旁路 / OpusDecoderStage -> AudioRenderStage）
+ * 生命周期（init / startRecord / stopRecord / release）内部串行化；*Async 版本在生命周期线程执行，不阻塞调用线程
+ * 设备由 AudioDeviceFactory 创建，传入 FakeAudioDeviceFactory 可在无设备环境运行采集、编解码和播放队列
  */
 public class TalkAudioController {
     private static final String TAG = "TalkAudioController";
@@ -43,49 +70,115 @@ public class TalkAudioController {
     public static final int ERROR_PLAY = 8;
 
     private final Context context;
+    private final AudioDeviceFactory deviceFactory;
     private AudioConfig audioConfig;
 
     // ==================== 采集相关 ====================
-    private AudioRecord audioRecord;
+    private AudioInputDevice recordDevice;
     private Thread recordThread;
     private AudioManager audioManager;
     private Integer previousAudioMode;
     private final int audioSource = MediaRecorder.AudioSource.VOICE_COMMUNICATION;
 
     // Opus 编码器
-    private long opusEncoderHandle = 0;
-    private final OpusBridge opusBridge = OpusBridge.getInstance();
+    private volatile OpusEncoderStage opusEncoder;
 
     // 采集状态
     private volatile boolean isRecordInitialized = false;
     private volatile boolean isRecording = false;
 
     // 采集音频参数
-    private int recordFrameBytes = 0;
-    private int recordBufferSize = 0;
+    private int recordFrameBytes = 0;      // 一帧 16bit PCM 字节数（float 采集时为转换后的大小）
+    private int recordFrameSamples = 0;    // 一帧样本数（含所有声道）
+    private int recordFrameFrames = 0;     // 一帧每声道样本数
+    private int recordBufferSize = 0;      // 输入设备内部缓冲大小，与单次读取大小无关
+    private int recordReadBytes = 0;       // 单次读取大小：一帧（采集格式）
+    private boolean recordFloat = false;   // 是否以 ENCODING_PCM_FLOAT 采集
+
+    // 分帧缓冲（仅采集线程访问）
+    private byte[] recordFrameBuffer;
+    private int recordFrameOffset = 0;
+    private float[] floatFrameBuffer;
+    private int floatFrameOffset = 0;
+    private byte[] floatPcmBuffer;         // float 帧转 16bit 的输出缓冲，每帧复用
+
+    // float 处理阶段
+    private final List<FloatPcmProcessor> floatProcessors = new CopyOnWriteArrayList<>();
+
+    // 帧时间戳（仅采集线程访问）
+    // 时间线位置按全质量采样率、每声道样本计，低功耗监听期间同样推进，保证 pts 连续
+    private final DeviceTimestamp recordTimestamp = new DeviceTimestamp();
+    private long recordStreamPos = 0;       // 下一个读取样本的时间线位置
+    private long recordStreamBase = 0;      // 当前输入设备启动时对应的时间线位置
+    private long captureAnchorPos = 0;      // 时间锚点：时间线位置
+    private long captureAnchorNs = 0;       // 时间锚点：对应的 CLOCK_MONOTONIC 时间
+    private long recordFrameStartPos = 0;   // 分帧缓冲中首个样本的时间线位置
+    private long nextCaptureSequence = 0;
+    private boolean captureAnchorHardware = false;  // 当前锚点是否来自设备时间戳
+
+    // 采集延迟：一帧最后一个样本被采集到该帧交给处理流程的时间，仅在有硬件时间戳时测量
+    private volatile long captureLatencyUs = -1;     // 滑动平均
+    private volatile long maxCaptureLatencyUs = -1;
+
+    // ==================== 低功耗监听 ====================
+    private AudioInputDevice lowPowerDevice;
+    private int lowPowerReadBytes = 0;
+    private EnergyVad lowPowerVad;      // 低功耗监听时检测语音起点
+    private EnergyVad speechVad;        // 全质量采集时检测语音结束
+    private PcmRingBuffer lookbackBuffer;
+    private volatile boolean lowPowerActive = false;
+
+    // ==================== 端点检测 ====================
+    private Endpointer endpointer;
+    private PcmRingBuffer endpointLookback;  // 丢弃静音期间保留的回看帧
+
+    // ==================== 上行格式自适应 ====================
+    private UplinkFormatPolicy uplinkPolicy;
+    private volatile AudioFormatType uplinkFormat = AudioFormatType.PCM;  // 当前上行格式，仅在帧边界切换
+
+    // ==================== 原生引擎 ====================
+    private volatile NativeAudioEngine nativeEngine;   // 播放线程和取包线程也会读取
+    private Thread packetPumpThread;
+    private NativeAudioEngine nativeRenderEngine;   // 已启动原生播放的引擎，仅播放线程访问
+    private NativeAudioEngine.PacketBatch renderBatch;
+    private final EncodedPacketSink nativePacketSink = new NativePacketSink();
 
     // ==================== 播放相关 ====================
-    private final ExecutorService playExecutor;
-    private AudioTrack audioTrack;
-    private int currentPlaySampleRate = 0;
-    private int currentPlayChannels = 0;
+    private final PlaybackPipeline playback;
 
-    private final AtomicBoolean playStarted = new AtomicBoolean(false);
-    private final AtomicBoolean playDraining = new AtomicBoolean(false);
+    // ==================== 指标 ====================
+    private final AudioMetrics metrics;
+    private final boolean ownsMetrics;   // 由本控制器创建，释放时停止周期回调
+    private final ThreadResourceMeter captureMeter;   // 采集线程（或原生引擎取包线程）CPU 和分配计量
+    private CaptureGlitchDetector captureGlitchDetector;   // 采集异常检测，每次开始录音时重建（仅采集线程访问）
 
-    // Opus 解码器
-    private long opusDecoderHandle = 0;
-
-    // PCM 播放队列
-    private final ConcurrentLinkedDeque<byte[]> pcmQueue = new ConcurrentLinkedDeque<>();
-    private final int maxQueueBytes = 16000 * 2;  // 1 秒容量（16k单声道16bit）
+    // 开始录音后忽略全零帧的时长，设备启动时通常先输出一段全零数据
+    private static final int GLITCH_WARM_UP_MS = 300;
 
     // ==================== 监听器 ====================
     private OnRecordDataListener recordDataListener;
     private OnPlayStateListener playStateListener;
+    private OnVoiceActivityListener voiceActivityListener;
+    private OnAudioFrameListener audioFrameListener;
+    private OnUplinkFormatListener uplinkFormatListener;
 
     // ==================== 状态 ====================
     private volatile boolean isInitialized = false;
+    private volatile String initError;
+
+    // ==================== 异步生命周期 ====================
+    private final Object lifecycleLock = new Object();
+    // 单线程执行生命周期操作，空闲时线程退出
+    private final ExecutorService lifecycleExecutor = new ThreadPoolExecutor(0, 1, 10, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "TalkAudioLifecycle");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private volatile CompletableFuture<Void> readyFuture = new CompletableFuture<>();
+    // 异步录音启停和释放按调用顺序执行：每个操作排在上一个完成（含失败）之后
+    private final Object asyncOrderLock = new Object();
+    private CompletableFuture<Void> asyncTail = CompletableFuture.completedFuture(null);
     private volatile boolean isMicMuted = false;      // 麦克风静音（不发送采集数据）
     private volatile boolean isSpeakerMuted = false;  // 扬声器静音（不播放声音）
 
@@ -100,21 +193,34 @@ public class TalkAudioController {
      * 使用自定义配置创建控制器
      */
     public TalkAudioController(Context context, AudioConfig config) {
-        this.context = context.getApplicationContext();
-        this.audioConfig = config != null ? config : new AudioConfig();
-        this.audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        this(context, config, null);
+    }
+
+    /**
+     * 使用自定义配置和设备工厂创建控制器
+     * @param context 可为 null（不切换通话音频模式，用于无设备环境）
+     * @param deviceFactory 为 null 时使用 AudioRecord / AudioTrack
+     */
+    public TalkAudioController(Context context, AudioConfig config, AudioDeviceFactory deviceFactory) {
+        this(context, config, deviceFactory, null);
+    }
 
-        // 初始化播放线程池
-        this.playExecutor = Executors.newSingleThreadExecutor(r -> {
-            Thread thread = new Thread(() -> {
-                try {
-                    Process.setThreadPriority(Process.THREAD_PRIORITY_AUDIO);
-                } catch (Throwable ignored) {}
-                r.run();
-            }, "TalkAudioPlayer");
-            thread.setDaemon(true);
-            return thread;
-        });
+    /**
+     * 使用自定义配置、设备工厂和指标创建控制器
+     * @param metrics 指标记录位置，为 null 时新建；多个控制器先后共用同一份时指标连续累计
+     */
+    public TalkAudioController(Context context, AudioConfig config, AudioDeviceFactory deviceFactory,
+                               AudioMetrics metrics) {
+        this.metrics = metrics != null ? metrics : new AudioMetrics();
+        this.ownsMetrics = metrics == null;
+        this.captureMeter = new ThreadResourceMeter(this.metrics,
+                AudioMetrics.COUNTER_CAPTURE_CPU_NS, AudioMetrics.COUNTER_CAPTURE_ALLOC_BYTES);
+        this.context = context != null ? context.getApplicationContext() : null;
+        this.audioConfig = config != null ? config : new AudioConfig();
+        this.audioManager = context != null ? (AudioManager) context.getSystemService(Context.AUDIO_SERVICE) : null;
+        this.deviceFactory = deviceFactory != null ? deviceFactory : new AndroidAudioDeviceFactory(audioSource);
+        this.playback = new PlaybackPipeline("TalkAudioPlayer", this.deviceFactory, this.metrics);
+        this.playback.configure(audioConfig.enableFloatPcm, audioConfig.playBufferMs);
     }
 
     /**
@@ -129,36 +235,102 @@ public class TalkAudioController {
      */
     public void setOnPlayStateListener(OnPlayStateListener listener) {
         this.playStateListener = listener;
+        playback.setOnPlayStateListener(listener);
+    }
+
+    /**
+     * 设置语音活动监听器
+     */
+    public void setOnVoiceActivityListener(OnVoiceActivityListener listener) {
+        this.voiceActivityListener = listener;
+    }
+
+    /**
+     * 设置音频帧监听器（携带序号、采集时间戳等元信息）
+     */
+    public void setOnAudioFrameListener(OnAudioFrameListener listener) {
+        this.audioFrameListener = listener;
+        playback.setOnAudioFrameListener(listener);
+    }
+
+    /**
+     * 设置上行格式自适应切换监听器
+     */
+    public void setOnUplinkFormatListener(OnUplinkFormatListener listener) {
+        this.uplinkFormatListener = listener;
     }
 
     /**
      * 初始化音频控制器（初始化录音器）
+     * 同步创建设备，耗时较长，不要在主线程调用（可使用 initAsync）
      */
     public void init() {
+        synchronized (lifecycleLock) {
+            if (!isInitialized && readyFuture.isDone()) {
+                readyFuture = new CompletableFuture<>();
+            }
+
+            initInternal();
+
+            if (isInitialized) {
+                readyFuture.complete(null);
+            } else {
+                readyFuture.completeExceptionally(new IllegalStateException(initError));
+            }
+        }
+    }
+
+    private void initInternal() {
         if (isInitialized) {
             Log.w(TAG, "TalkAudioController 已经初始化");
             return;
         }
 
+        initError = null;
         try {
             // 通话场景：提前切换到 MODE_IN_COMMUNICATION
             ensureCommunicationAudioMode();
 
-            // 初始化 AudioRecord
+            // 原生引擎可用时采集编码和 Opus 播放全部交给原生层
+            if (audioConfig.enableNativeEngine && initNativeEngine()) {
+                isRecordInitialized = true;
+                isInitialized = true;
+                Log.i(TAG, "TalkAudioController 初始化成功（原生引擎）");
+                return;
+            }
+
+            // 初始化输入设备
             initAudioRecord();
 
-            // 初始化 Opus 编码器（如果需要）
-            if (audioConfig.formatType == AudioFormatType.OPUS) {
+            // 初始化 Opus 编码器（如果需要，自适应时提前创建，切换时无需在采集线程初始化）
+            uplinkFormat = audioConfig.formatType;
+            if (audioConfig.formatType == AudioFormatType.OPUS || audioConfig.enableAdaptiveUplink) {
                 initOpusEncoder();
             }
 
+            // 初始化上行格式自适应（如果需要）
+            if (audioConfig.enableAdaptiveUplink) {
+                initUplinkPolicy();
+            }
+
+            // 初始化低功耗监听（如果需要）
+            if (audioConfig.enableLowPowerListening) {
+                initLowPowerListening();
+            }
+
+            // 初始化端点检测（如果需要）
+            if (audioConfig.enableEndpointer) {
+                initEndpointer();
+            }
+
             isRecordInitialized = true;
             isInitialized = true;
             Log.i(TAG, "TalkAudioController 初始化成功");
 
         } catch (Exception e) {
             releaseRecordInternal();
-            notifyRecordError(ERROR_AUDIO_RECORD_INIT, "初始化失败: " + e.getMessage());
+            initError = "初始化失败: " + e.getMessage();
+            notifyRecordError(ERROR_AUDIO_RECORD_INIT, initError);
         }
     }
 
@@ -169,6 +341,7 @@ public class TalkAudioController {
     public void updateConfig(AudioConfig config) {
         if (config != null) {
             this.audioConfig = config;
+            playback.configure(config.enableFloatPcm, config.playBufferMs);
             Log.i(TAG, "音频配置已更新，需要重新初始化才能生效");
         }
     }
@@ -186,6 +359,12 @@ public class TalkAudioController {
      * 开始音频采集
      */
     public void startRecord() {
+        synchronized (lifecycleLock) {
+            startRecordInternal();
+        }
+    }
+
+    private void startRecordInternal() {
         if (!isRecordInitialized) {
             notifyRecordError(ERROR_NOT_INITIALIZED, "录音器未初始化，请先调用 init()");
             return;
@@ -197,7 +376,32 @@ public class TalkAudioController {
         }
 
         isRecording = true;
-        audioRecord.startRecording();
+        resetCaptureTimeline();
+        captureGlitchDetector = new CaptureGlitchDetector(metrics, audioConfig.channelCount,
+                GLITCH_WARM_UP_MS / audioConfig.frameDuration.getDuration());
+        if (uplinkPolicy != null) {
+            uplinkPolicy.reset();
+        }
+
+        if (nativeEngine != null) {
+            startNativeCapture();
+            return;
+        }
+
+        if (endpointer != null) {
+            endpointer.reset();
+            endpointLookback.clear();
+        }
+
+        if (lowPowerDevice != null) {
+            // 从低功耗监听开始，检测到语音后再切换到全质量采集
+            lowPowerVad.reset(false);
+            lookbackBuffer.clear();
+            lowPowerActive = true;
+            lowPowerDevice.start();
+        } else {
+            recordDevice.start();
+        }
 
         // 启动录音线程
         recordThread = new Thread(this::recordLoop, "TalkAudioRecorder");
@@ -208,8 +412,15 @@ public class TalkAudioController {
 
     /**
      * 停止音频采集
+     * 同步等待录音线程结束（最长约 1 秒），不要在主线程调用（可使用 stopRecordAsync）
      */
     public void stopRecord() {
+        synchronized (lifecycleLock) {
+            stopRecordInternal();
+        }
+    }
+
+    private void stopRecordInternal() {
         if (!isRecording) {
             return;
         }
@@ -226,13 +437,22 @@ public class TalkAudioController {
             recordThread = null;
         }
 
+        stopPacketPump();
+
         try {
-            if (audioRecord != null) {
-                audioRecord.stop();
+            if (nativeEngine != null) {
+                nativeEngine.stopCapture();
+            }
+            if (recordDevice != null) {
+                recordDevice.stop();
+            }
+            if (lowPowerDevice != null) {
+                lowPowerDevice.stop();
             }
         } catch (Exception e) {
             Log.e(TAG, "停止录音失败", e);
         }
+        lowPowerActive = false;
 
         Log.i(TAG, "停止录音");
     }
@@ -244,77 +464,190 @@ public class TalkAudioController {
         return isRecording;
     }
 
-    @SuppressLint("MissingPermission")
-    private void initAudioRecord() {
-        int channelConfig = audioConfig.channelCount == 1
-                ? AudioFormat.CHANNEL_IN_MONO
-                : AudioFormat.CHANNEL_IN_STEREO;
+    private boolean initNativeEngine() {
+        if (audioConfig.formatType != AudioFormatType.OPUS || !NativeAudioEngine.isAvailable()) {
+            Log.w(TAG, "原生引擎仅支持 Opus 格式且需要 API 26+，回退 Java 通路");
+            return false;
+        }
 
-        int audioFormat = audioConfig.bitDepth == 16
-                ? AudioFormat.ENCODING_PCM_16BIT
-                : AudioFormat.ENCODING_PCM_8BIT;
+        // 与 Java 编码阶段使用同一套参数推导，两条通路的包格式一致
+        OpusEncoderParams params = OpusEncoderStage.buildParams(audioConfig);
+        int frameMs = params.getFrameMs();
+        NativeAudioEngine engine = NativeAudioEngine.create(params);
+        if (engine == null) {
+            return false;
+        }
+        nativeEngine = engine;
+
+        recordFrameFrames = audioConfig.sampleRate * frameMs / 1000;
+        renderBatch = new NativeAudioEngine.PacketBatch(1);
+        playback.setEncodedPacketSink(nativePacketSink);
+        Log.i(TAG, "原生引擎初始化成功: sampleRate=" + audioConfig.sampleRate +
+                ", channels=" + audioConfig.channelCount + ", frameMs=" + frameMs +
+                ", bitrate=" + params.getBitrate() + ", targetBytes=" + params.getTargetBytes() +
+                ", padding=" + params.isPadding() + ", dtx=" + params.isDtx() +
+                ", lowDelay=" + params.isLowDelay());
+        return true;
+    }
 
-        // 计算帧大小
-        int bytesPerSample = audioConfig.bitDepth / 8;
-        int frameDurationMs = audioConfig.frameDuration.getDuration();
-        recordFrameBytes = (audioConfig.sampleRate * bytesPerSample * audioConfig.channelCount * frameDurationMs) / 1000;
+    private void startNativeCapture() {
+        if (!nativeEngine.startCapture()) {
+            isRecording = false;
+            notifyRecordError(ERROR_AUDIO_RECORD_INIT, "原生引擎采集启动失败");
+            return;
+        }
 
-        // 计算缓冲区大小
-        int minBuf = AudioRecord.getMinBufferSize(audioConfig.sampleRate, channelConfig, audioFormat);
-        recordBufferSize = Math.max(minBuf * 2, recordFrameBytes * 2);
+        packetPumpThread = new Thread(this::packetPumpLoop, "TalkAudioPacketPump");
+        packetPumpThread.start();
+        Log.i(TAG, "开始录音（原生引擎）");
+    }
 
-        // 创建 AudioRecord
-        audioRecord = new AudioRecord(
-                audioSource,
-                audioConfig.sampleRate,
-                channelConfig,
-                audioFormat,
-                recordBufferSize
-        );
+    /**
+     * 等待取包线程结束，超时则中断后再等待，保证释放原生引擎前取包线程已退出
+     */
+    private void stopPacketPump() {
+        Thread pump = packetPumpThread;
+        if (pump == null) {
+            return;
+        }
+        try {
+            pump.join(1000);
+            if (pump.isAlive()) {
+                Log.w(TAG, "编码包读取线程未按时结束，中断");
+                pump.interrupt();
+                pump.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Log.e(TAG, "等待编码包读取线程结束被中断", e);
+            Thread.currentThread().interrupt();
+        }
+        packetPumpThread = null;
+    }
+
+    /**
+     * 原生引擎上行：每半帧批量取一次编码包并回调
+     */
+    private void packetPumpLoop() {
+        NativeAudioEngine engine = nativeEngine;
+        if (engine == null) {
+            return;
+        }
+        NativeAudioEngine.PacketBatch batch = new NativeAudioEngine.PacketBatch(16);
+        long intervalMs = Math.max(5, audioConfig.frameDuration.getDuration() / 2);
+
+        captureMeter.restart();
+        while (isRecording) {
+            captureMeter.sample();
+            int count = engine.readPackets(batch);
+            boolean traced = count > 0 && AudioTrace.begin(AudioTrace.NATIVE_PUMP);
+            int packetOffset = 0;
+            for (int i = 0; i < count; i++) {
+                int packetSize = batch.getSize(i);
+                int offset = packetOffset;
+                packetOffset += packetSize;
+                long sequence = nextCaptureSequence++;
+                AudioTrace.counter(AudioTrace.COUNTER_CAPTURE_SEQ, sequence);
+
+                OnRecordDataListener dataListener = recordDataListener;
+                OnAudioFrameListener frameListener = audioFrameListener;
+                if (isMicMuted || (dataListener == null && frameListener == null)) {
+                    continue;
+                }
+                // 批次缓冲下次取包即被覆盖，回调方可能持有数据，两个回调共用一份拷贝
+                byte[] packet = batch.copyPacket(offset, packetSize);
+                if (dataListener != null) {
+                    dataListener.onOpusData(packet, packet.length);
+                }
+                if (frameListener != null) {
+                    // 原生引擎不提供逐帧采集时间，以取包时间近似
+                    frameListener.onEncodedFrame(new AudioFrame(sequence, System.nanoTime(),
+                            batch.getPtsUs(i), packet, packet.length, recordFrameFrames,
+                            audioConfig.sampleRate, audioConfig.channelCount, AudioFormatType.OPUS));
+                }
+            }
+            AudioTrace.end(traced);
 
-        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
-            throw new IllegalStateException("AudioRecord 初始化失败");
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException e) {
+                break;
+            }
         }
+    }
+
+    /**
+     * Opus 编码统计，下标见 OpusBridge.STAT_*，未初始化或后端不支持时返回 null
+     */
+    public long[] getEncoderStats() {
+        OpusEncoderStage encoder = opusEncoder;
+        return encoder != null ? encoder.getStats() : null;
+    }
+
+    /**
+     * 原生引擎统计，下标见 NativeAudioEngine.STAT_*，未使用原生引擎时返回 null
+     */
+    public long[] getNativeEngineStats() {
+        NativeAudioEngine engine = nativeEngine;
+        return engine != null ? engine.getStats() : null;
+    }
+
+    /**
+     * 采集、编解码和播放指标，可随时 snapshot() 读取
+     */
+    public AudioMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 音频异常事件（采集断流、重复帧、削波、跳变、编解码丢帧、接收丢帧、播放欠载和中断），listener 为 null 时取消
+     */
+    public void setOnGlitchListener(OnAudioGlitchListener listener) {
+        metrics.setOnGlitchListener(listener);
+    }
+
+    /**
+     * 周期回调指标快照，listener 为 null 时停止
+     */
+    public void setOnMetricsListener(OnAudioMetricsListener listener, long periodMs) {
+        metrics.setOnMetricsListener(listener, periodMs);
+    }
+
+    /**
+     * 是否正在使用原生引擎
+     */
+    public boolean isNativeEngineActive() {
+        return nativeEngine != null;
+    }
+
+    private void initAudioRecord() {
+        recordFloat = audioConfig.enableFloatPcm;
+        int encoding = PcmEncoding.of(audioConfig.bitDepth, recordFloat);
+
+        // 计算帧大小
+        int bytesPerSample = PcmEncoding.bytesPerSample(encoding);
+        int frameDurationMs = audioConfig.frameDuration.getDuration();
+        recordFrameFrames = audioConfig.sampleRate * frameDurationMs / 1000;
+        recordFrameSamples = recordFrameFrames * audioConfig.channelCount;
+        // float 采集时对外仍回调 16bit PCM
+        recordFrameBytes = recordFrameSamples * (recordFloat ? 2 : bytesPerSample);
+
+        // 每次只读一帧，凑满即处理；内部缓冲由设备按系统最小值放大，用于吸收调度抖动
+        recordReadBytes = recordFrameSamples * bytesPerSample;
+
+        recordDevice = deviceFactory.createInput();
+        recordDevice.open(audioConfig.sampleRate, audioConfig.channelCount, encoding, recordReadBytes * 2);
+        recordBufferSize = recordDevice.getBufferBytes();
 
         Log.i(TAG, "AudioRecord 初始化成功: source=" + audioSource +
                 ", sampleRate=" + audioConfig.sampleRate +
                 ", channels=" + audioConfig.channelCount +
                 ", bitDepth=" + audioConfig.bitDepth +
+                ", float=" + recordFloat +
                 ", frameBytes=" + recordFrameBytes +
+                ", readBytes=" + recordReadBytes +
                 ", bufferSize=" + recordBufferSize);
 
-        logActualAudioRecordParams();
-    }
-
-    private void logActualAudioRecordParams() {
-        if (audioRecord == null) return;
-
-        String actualFormat;
-        switch (audioRecord.getAudioFormat()) {
-            case AudioFormat.ENCODING_PCM_16BIT:
-                actualFormat = "PCM_16BIT";
-                break;
-            case AudioFormat.ENCODING_PCM_8BIT:
-                actualFormat = "PCM_8BIT";
-                break;
-            case AudioFormat.ENCODING_PCM_FLOAT:
-                actualFormat = "PCM_FLOAT";
-                break;
-            default:
-                actualFormat = "UNKNOWN(" + audioRecord.getAudioFormat() + ")";
-        }
-
-        String bufferFrames = "N/A";
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            bufferFrames = String.valueOf(audioRecord.getBufferSizeInFrames());
-        }
-
-        Log.i(TAG, "AudioRecord 实际参数: source=" + audioSource +
-                ", sampleRate=" + audioRecord.getSampleRate() +
-                ", channels=" + audioRecord.getChannelCount() +
-                ", format=" + actualFormat +
-                ", bufferFrames=" + bufferFrames +
-                ", sessionId=" + audioRecord.getAudioSessionId());
+        Log.i(TAG, "AudioRecord 实际参数: " + recordDevice.describe());
     }
 
     private void ensureCommunicationAudioMode() {
@@ -341,27 +674,7 @@ public class TalkAudioController {
     }
 
     private void initOpusEncoder() {
-        try {
-            OpusEncoderParams params = OpusEncoderParams.builder()
-                    .sampleRate(audioConfig.sampleRate)
-                    .channels(audioConfig.channelCount)
-                    .build();
-
-            opusEncoderHandle = opusBridge.createEncoder(params);
-
-            if (opusEncoderHandle == 0L) {
-                throw new RuntimeException("OpusEncoder 创建失败");
-            }
-
-            Log.i(TAG, "OpusEncoder 初始化成功: handle=" + opusEncoderHandle +
-                    ", sampleRate=" + params.getSampleRate() +
-                    ", channels=" + params.getChannels() +
-                    ", bitrate=" + params.getBitrate() +
-                    ", targetBytes=" + params.getTargetBytes());
-
-        } catch (Exception e) {
-            throw new RuntimeException("OpusEncoder 初始化失败", e);
-        }
+        opusEncoder = OpusEncoderStage.create(audioConfig);
     }
 
     private void recordLoop() {
@@ -369,18 +682,81 @@ public class TalkAudioController {
             Process.setThreadPriority(Process.THREAD_PRIORITY_AUDIO);
         } catch (Throwable ignored) {}
 
-        byte[] readBuffer = new byte[recordBufferSize];
-        byte[] frameBuffer = new byte[recordFrameBytes];
-        int frameOffset = 0;
+        byte[] readBuffer = recordFloat ? null : new byte[recordReadBytes];
+        float[] floatReadBuffer = recordFloat ? new float[recordFrameSamples] : null;
+        byte[] lowPowerReadBuffer = lowPowerDevice != null ? new byte[lowPowerReadBytes] : null;
+        recordFrameBuffer = new byte[recordFrameBytes];
+        recordFrameOffset = 0;
+        floatFrameBuffer = recordFloat ? new float[recordFrameSamples] : null;
+        floatFrameOffset = 0;
+        floatPcmBuffer = recordFloat ? new byte[recordFrameBytes] : null;
 
         Log.i(TAG, "录音线程开始");
         int totalReads = 0;
         int zeroReads = 0;
         int errorReads = 0;
 
+        captureMeter.restart();
         while (isRecording) {
+            // 每次读取前累计上一轮读取、处理和编码的 CPU 与分配
+            captureMeter.sample();
             try {
-                int readBytes = audioRecord.read(readBuffer, 0, readBuffer.length);
+                if (lowPowerActive) {
+                    boolean traced = AudioTrace.begin(AudioTrace.CAPTURE_READ);
+                    int readBytes = lowPowerDevice.read(lowPowerReadBuffer, 0, lowPowerReadBuffer.length);
+                    AudioTrace.end(traced);
+
+                    if (readBytes <= 0) {
+                        if (readBytes == 0) {
+                            zeroReads++;
+                        } else {
+                            errorReads++;
+                        }
+                        recordReadResult(readBytes, lowPowerReadBuffer.length);
+                        Log.w(TAG, "读取低功耗音频数据失败: " + readBytes);
+                        continue;
+                    }
+                    totalReads++;
+                    recordReadResult(readBytes, lowPowerReadBuffer.length);
+
+                    // 静默期只做 VAD 和回看缓存，不编码也不回调
+                    recordStreamPos += (long) (readBytes / 2) * audioConfig.sampleRate / audioConfig.lowPowerSampleRate;
+                    updateCaptureAnchor(null);
+                    lookbackBuffer.write(lowPowerReadBuffer, 0, readBytes);
+                    if (lowPowerVad.process(lowPowerReadBuffer, 0, readBytes)) {
+                        switchToFullQuality();
+                    }
+                    continue;
+                }
+
+                if (recordFloat) {
+                    boolean traced = AudioTrace.begin(AudioTrace.CAPTURE_READ);
+                    int readSamples = recordDevice.read(floatReadBuffer, 0, floatReadBuffer.length);
+                    AudioTrace.end(traced);
+
+                    if (readSamples <= 0) {
+                        if (readSamples == 0) {
+                            zeroReads++;
+                        } else {
+                            errorReads++;
+                        }
+                        recordReadResult(readSamples, floatReadBuffer.length);
+                        Log.w(TAG, "读取 float 音频数据失败: " + readSamples);
+                        continue;
+                    }
+                    totalReads++;
+                    recordReadResult(readSamples, floatReadBuffer.length);
+
+                    long startPos = recordStreamPos;
+                    recordStreamPos += readSamples / audioConfig.channelCount;
+                    updateCaptureAnchor(recordDevice);
+                    appendFloatRecordData(floatReadBuffer, readSamples, startPos);
+                    continue;
+                }
+
+                boolean traced = AudioTrace.begin(AudioTrace.CAPTURE_READ);
+                int readBytes = recordDevice.read(readBuffer, 0, readBuffer.length);
+                AudioTrace.end(traced);
 
                 if (readBytes <= 0) {
                     if (readBytes == 0) {
@@ -388,22 +764,21 @@ public class TalkAudioController {
                     } else {
                         errorReads++;
                     }
+                    recordReadResult(readBytes, readBuffer.length);
                     Log.w(TAG, "读取音频数据失败: " + readBytes);
                     continue;
                 }
                 totalReads++;
+                recordReadResult(readBytes, readBuffer.length);
 
-                int cursor = 0;
-                while (cursor < readBytes) {
-                    int copyLen = Math.min(recordFrameBytes - frameOffset, readBytes - cursor);
-                    System.arraycopy(readBuffer, cursor, frameBuffer, frameOffset, copyLen);
-                    frameOffset += copyLen;
-                    cursor += copyLen;
+                long startPos = recordStreamPos;
+                recordStreamPos += readBytes / (recordFrameBytes / recordFrameFrames);
+                updateCaptureAnchor(recordDevice);
+                appendRecordData(readBuffer, 0, readBytes, startPos);
 
-                    if (frameOffset == recordFrameBytes) {
-                        processRecordData(frameBuffer.clone());
-                        frameOffset = 0;
-                    }
+                // 低功耗监听模式下，持续静音后回落
+                if (lowPowerDevice != null && !speechVad.process(readBuffer, 0, readBytes)) {
+                    switchToLowPower();
                 }
 
             } catch (Exception e) {
@@ -413,402 +788,664 @@ public class TalkAudioController {
             }
         }
 
+        captureMeter.sample();
         Log.i(TAG, "录音线程结束，统计: totalReads=" + totalReads +
-                ", zeroReads=" + zeroReads + ", errorReads=" + errorReads);
+                ", zeroReads=" + zeroReads + ", errorReads=" + errorReads +
+                ", captureLatencyUs=" + captureLatencyUs + ", maxCaptureLatencyUs=" + maxCaptureLatencyUs);
     }
 
-    private void processRecordData(byte[] pcmData) {
-        // 麦克风静音时不回调数据
-        if (isMicMuted) {
-            return;
+    private void recordReadResult(int result, int requested) {
+        metrics.increment(AudioMetrics.COUNTER_CAPTURE_READS);
+        if (result < 0) {
+            metrics.increment(AudioMetrics.COUNTER_CAPTURE_ERRORS);
+        } else if (result == 0) {
+            metrics.increment(AudioMetrics.COUNTER_CAPTURE_ZERO_READS);
+        } else if (result < requested) {
+            metrics.increment(AudioMetrics.COUNTER_CAPTURE_SHORT_READS);
         }
+    }
 
-        try {
-            // 回调 PCM 数据
-            if (recordDataListener != null) {
-                recordDataListener.onPcmData(pcmData, pcmData.length);
+    /**
+     * 将采集数据按帧切分，凑满一帧后处理
+     * @param dataStartPos data[offset] 对应的时间线位置
+     */
+    private void appendRecordData(byte[] data, int offset, int length, long dataStartPos) {
+        int bytesPerFrame = recordFrameBytes / recordFrameFrames;
+        int cursor = offset;
+        int end = offset + length;
+        while (cursor < end) {
+            // 读取按帧对齐时（通常每次正好一帧）直接切出整帧，省去暂存缓冲的一次拷贝
+            if (recordFrameOffset == 0 && end - cursor >= recordFrameBytes) {
+                long frameStartPos = dataStartPos + (cursor - offset) / bytesPerFrame;
+                measureCaptureLatency(frameStartPos + recordFrameFrames);
+                processRecordData(data, cursor, null, frameStartPos);
+                cursor += recordFrameBytes;
+                continue;
             }
 
-            // 如果配置为 Opus 格式，进行编码并回调
-            if (audioConfig.formatType == AudioFormatType.OPUS) {
-                byte[] opusData = encodeToOpus(pcmData);
+            if (recordFrameOffset == 0) {
+                recordFrameStartPos = dataStartPos + (cursor - offset) / bytesPerFrame;
+            }
+            int copyLen = Math.min(recordFrameBytes - recordFrameOffset, end - cursor);
+            System.arraycopy(data, cursor, recordFrameBuffer, recordFrameOffset, copyLen);
+            recordFrameOffset += copyLen;
+            cursor += copyLen;
+
+            if (recordFrameOffset == recordFrameBytes) {
+                measureCaptureLatency(recordFrameStartPos + recordFrameFrames);
+                processRecordData(recordFrameBuffer, 0, null, recordFrameStartPos);
+                recordFrameOffset = 0;
+            }
+        }
+    }
 
-                if (opusData != null && recordDataListener != null) {
-                    recordDataListener.onOpusData(opusData, opusData.length);
+    /**
+     * float 采集数据分帧，凑满一帧后依次经过 float 处理阶段
+     * @param dataStartPos data[0] 对应的时间线位置
+     */
+    private void appendFloatRecordData(float[] data, int length, long dataStartPos) {
+        int cursor = 0;
+        while (cursor < length) {
+            if (floatFrameOffset == 0) {
+                recordFrameStartPos = dataStartPos + cursor / audioConfig.channelCount;
+            }
+            int copyLen = Math.min(recordFrameSamples - floatFrameOffset, length - cursor);
+            System.arraycopy(data, cursor, floatFrameBuffer, floatFrameOffset, copyLen);
+            floatFrameOffset += copyLen;
+            cursor += copyLen;
+
+            if (floatFrameOffset == recordFrameSamples) {
+                measureCaptureLatency(recordFrameStartPos + recordFrameFrames);
+                // 就地处理：缓冲在下一帧开始填充前已用完
+                for (FloatPcmProcessor processor : floatProcessors) {
+                    processor.process(floatFrameBuffer, recordFrameSamples);
                 }
+                PcmUtil.floatToPcm16(floatFrameBuffer, recordFrameSamples, floatPcmBuffer);
+                processRecordData(floatPcmBuffer, 0, floatFrameBuffer, recordFrameStartPos);
+                floatFrameOffset = 0;
             }
-
-        } catch (Exception e) {
-            Log.e(TAG, "处理音频数据失败", e);
         }
     }
 
-    private byte[] encodeToOpus(byte[] pcmData) {
-        if (opusEncoderHandle == 0L) {
-            Log.e(TAG, "OpusEncoder 未初始化");
-            return null;
-        }
+    /**
+     * 重置采集时间线（每次开始录音时调用），序号保持单调递增不重置
+     */
+    private void resetCaptureTimeline() {
+        recordStreamPos = 0;
+        recordStreamBase = 0;
+        recordFrameStartPos = 0;
+        captureAnchorPos = 0;
+        captureAnchorNs = System.nanoTime();
+        captureAnchorHardware = false;
+        captureLatencyUs = -1;
+        maxCaptureLatencyUs = -1;
+    }
 
-        try {
-            short[] shorts = PcmUtil.byteToShort(pcmData);
-            return opusBridge.encode(opusEncoderHandle, shorts);
-        } catch (Exception e) {
-            Log.e(TAG, "Opus 编码失败", e);
-            return null;
+    /**
+     * 读取后更新时间锚点：优先使用设备时间戳（AudioRecord.getTimestamp），失败或结果异常时以当前时间近似
+     * @param device 当前读取的输入设备，低功耗监听时传 null
+     */
+    private void updateCaptureAnchor(AudioInputDevice device) {
+        long nowNs = System.nanoTime();
+        if (device != null && device.getTimestamp(recordTimestamp)) {
+            long pos = recordStreamBase + recordTimestamp.framePosition;
+            long headNs = recordTimestamp.nanoTime +
+                    (recordStreamPos - pos) * 1_000_000_000L / audioConfig.sampleRate;
+            // 部分设备重启采集后 framePosition 不归零，推算出的读指针时间偏离当前时间过多时不采用
+            if (headNs <= nowNs + 20_000_000L && headNs >= nowNs - 1_000_000_000L) {
+                captureAnchorPos = pos;
+                captureAnchorNs = recordTimestamp.nanoTime;
+                captureAnchorHardware = true;
+                return;
+            }
         }
+        captureAnchorPos = recordStreamPos;
+        captureAnchorNs = nowNs;
+        captureAnchorHardware = false;
     }
 
-    private void releaseRecordInternal() {
-        // 释放 Opus 编码器
-        if (opusEncoderHandle != 0L) {
-            opusBridge.releaseEncoder(opusEncoderHandle);
-            opusEncoderHandle = 0;
+    /**
+     * 帧凑满时记录采集延迟
+     * @param frameEndPos 帧末尾的时间线位置
+     */
+    private void measureCaptureLatency(long frameEndPos) {
+        if (!captureAnchorHardware) {
+            return;
         }
-
-        // 释放 AudioRecord
-        try {
-            if (audioRecord != null) {
-                audioRecord.release();
-                audioRecord = null;
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "释放 AudioRecord 失败", e);
+        long latencyUs = (System.nanoTime() - positionToTimeNs(frameEndPos)) / 1000;
+        if (latencyUs < 0) {
+            return;
         }
+        long avg = captureLatencyUs;
+        captureLatencyUs = avg < 0 ? latencyUs : (avg * 7 + latencyUs) / 8;
+        metrics.setGauge(AudioMetrics.GAUGE_CAPTURE_LATENCY_US, captureLatencyUs);
+        if (latencyUs > maxCaptureLatencyUs) {
+            maxCaptureLatencyUs = latencyUs;
+        }
+    }
 
-        restoreAudioModeIfNeeded();
-        isRecordInitialized = false;
+    /**
+     * 实测采集延迟（微秒，滑动平均）：一帧最后一个样本被采集到交给处理流程的时间
+     * 设备不支持 AudioRecord.getTimestamp 时返回 -1
+     */
+    public long getCaptureLatencyUs() {
+        return captureLatencyUs;
     }
 
-    private void notifyRecordError(int errorCode, String message) {
-        Log.e(TAG, "RecordError[" + errorCode + "]: " + message);
-        if (recordDataListener != null) {
-            recordDataListener.onRecordError(errorCode, message);
-        }
+    /**
+     * 本次录音以来的最大采集延迟（微秒），不可测时返回 -1
+     */
+    public long getMaxCaptureLatencyUs() {
+        return maxCaptureLatencyUs;
     }
 
-    // ==================== 播放相关实现 ====================
+    /**
+     * 时间线位置换算为采集时间（CLOCK_MONOTONIC，纳秒）
+     */
+    private long positionToTimeNs(long position) {
+        return captureAnchorNs + (position - captureAnchorPos) * 1_000_000_000L / audioConfig.sampleRate;
+    }
 
     /**
-     * 播放音频数据
-     * @param data 音频数据
-     * @param sampleRate 采样率
-     * @param channels 声道数
-     * @param format 音频格式
+     * 添加 float 处理阶段（仅 enableFloatPcm 时生效），按添加顺序执行
      */
-    public void play(byte[] data, int sampleRate, int channels, AudioFormatType format) {
-        // 扬声器静音时丢弃数据
-        if (isSpeakerMuted) {
+    public void addFloatProcessor(FloatPcmProcessor processor) {
+        if (processor != null) {
+            floatProcessors.add(processor);
+        }
+    }
+
+    /**
+     * 移除 float 处理阶段
+     */
+    public void removeFloatProcessor(FloatPcmProcessor processor) {
+        floatProcessors.remove(processor);
+    }
+
+    private void initLowPowerListening() {
+        if (audioConfig.bitDepth != 16 || audioConfig.channelCount != 1 || audioConfig.enableFloatPcm) {
+            Log.w(TAG, "低功耗监听仅支持 16bit 单声道，已忽略");
             return;
         }
 
-        playExecutor.execute(() -> {
-            boolean isPCM = format == AudioFormatType.PCM;
-            ensureAudioTrack(sampleRate, channels, isPCM);
+        int sampleRate = audioConfig.lowPowerSampleRate;
+        lowPowerReadBytes = sampleRate * 2 * audioConfig.frameDuration.getDuration() / 1000;
 
-            byte[] pcmBytes;
-            if (!isPCM) {
-                // Opus 解码
-                pcmBytes = decodeOpus(data, channels);
-                if (pcmBytes == null) {
-                    return;
-                }
-            } else {
-                pcmBytes = data;
+        try {
+            lowPowerDevice = deviceFactory.createInput();
+            lowPowerDevice.open(sampleRate, 1, PcmEncoding.PCM_16BIT, lowPowerReadBytes * 2);
+        } catch (RuntimeException e) {
+            if (lowPowerDevice != null) {
+                lowPowerDevice.release();
+                lowPowerDevice = null;
             }
+            Log.w(TAG, "低功耗 AudioRecord 初始化失败，回退为持续全质量采集: " + e.getMessage());
+            return;
+        }
 
-            // 入队，超出容量则丢弃最老的帧
-            while (queueBytes() + pcmBytes.length > maxQueueBytes) {
-                pcmQueue.poll();
-            }
-            pcmQueue.offer(pcmBytes);
+        lowPowerVad = new EnergyVad(sampleRate);
+        speechVad = new EnergyVad(audioConfig.sampleRate, 3.0f, 300f, 40, audioConfig.lowPowerHangoverMs);
+        lookbackBuffer = new PcmRingBuffer(Math.max(2, sampleRate * 2 * audioConfig.lowPowerLookbackMs / 1000));
 
-            // 唤起播放循环
-            startDrainingLoop();
-        });
+        Log.i(TAG, "低功耗监听初始化成功: sampleRate=" + sampleRate +
+                ", readBytes=" + lowPowerReadBytes +
+                ", lookbackMs=" + audioConfig.lowPowerLookbackMs +
+                ", hangoverMs=" + audioConfig.lowPowerHangoverMs);
     }
 
     /**
-     * 播放 PCM 音频数据（使用当前配置的采样率和声道数）
+     * 检测到语音：切换为全质量采集，并补发回看数据
      */
-    public void playPcm(byte[] data) {
-        play(data, audioConfig.sampleRate, audioConfig.channelCount, AudioFormatType.PCM);
+    private void switchToFullQuality() {
+        byte[] lookback = PcmUtil.resampleLinear16(lookbackBuffer.drain(),
+                audioConfig.lowPowerSampleRate, audioConfig.sampleRate);
+
+        // 多数设备不支持同一音源并发采集，先停低功耗再启动全质量
+        lowPowerDevice.stop();
+        recordDevice.start();
+        lowPowerActive = false;
+        speechVad.reset(true);
+
+        // 回看数据紧接在当前位置之前，全质量设备从当前位置开始计数
+        recordStreamBase = recordStreamPos;
+        captureAnchorPos = recordStreamPos;
+        captureAnchorNs = System.nanoTime();
+
+        recordFrameOffset = 0;
+        // 回看数据与之前、之后的采集数据都不连续，前后各重置一次异常检测
+        captureGlitchDetector.reset();
+        appendRecordData(lookback, 0, lookback.length, recordStreamPos - lookback.length / 2);
+        captureGlitchDetector.reset();
+
+        Log.d(TAG, "检测到语音，切换到全质量采集, lookbackBytes=" + lookback.length);
+        notifyListeningModeChanged(true);
     }
 
     /**
-     * 播放 Opus 音频数据（使用当前配置的采样率和声道数）
+     * 持续静音：回落到低功耗监听，丢弃未凑满的帧
      */
-    public void playOpus(byte[] data) {
-        play(data, audioConfig.sampleRate, audioConfig.channelCount, AudioFormatType.OPUS);
+    private void switchToLowPower() {
+        recordDevice.stop();
+        recordFrameOffset = 0;
+        lowPowerVad.reset(false);
+        lookbackBuffer.clear();
+        lowPowerDevice.start();
+        lowPowerActive = true;
+
+        Log.d(TAG, "持续静音，回落到低功耗监听");
+        notifyListeningModeChanged(false);
+
+        // 回落前若仍在语句中，以静音结束该语句
+        if (endpointer != null && endpointer.isInUtterance()) {
+            endpointer.reset();
+            notifyEndOfUtterance(Endpointer.REASON_SILENCE, 0);
+        }
+    }
+
+    private void initEndpointer() {
+        if (audioConfig.bitDepth != 16 || audioConfig.channelCount != 1) {
+            Log.w(TAG, "端点检测仅支持 16bit 单声道，已忽略");
+            return;
+        }
+
+        endpointer = new Endpointer(audioConfig.sampleRate,
+                audioConfig.endpointTrailingSilenceMs, audioConfig.endpointMaxUtteranceMs);
+        // 回看保留约 300ms，按整帧对齐
+        int lookbackFrames = Math.max(1, 300 / audioConfig.frameDuration.getDuration());
+        endpointLookback = new PcmRingBuffer(recordFrameBytes * lookbackFrames);
+
+        Log.i(TAG, "端点检测初始化成功: trailingSilenceMs=" + audioConfig.endpointTrailingSilenceMs +
+                ", maxUtteranceMs=" + audioConfig.endpointMaxUtteranceMs +
+                ", dropSilence=" + audioConfig.endpointDropSilence);
+    }
+
+    private void initUplinkPolicy() {
+        int pcmBitrate = audioConfig.sampleRate * audioConfig.channelCount * 16;
+        uplinkPolicy = new UplinkFormatPolicy(pcmBitrate, audioConfig.formatType,
+                audioConfig.adaptiveToOpusHoldMs, audioConfig.adaptiveToPcmHoldMs,
+                audioConfig.adaptiveCpuHighLoad);
+
+        Log.i(TAG, "上行格式自适应初始化成功: initial=" + audioConfig.formatType +
+                ", pcmBitrate=" + pcmBitrate +
+                ", toOpusHoldMs=" + audioConfig.adaptiveToOpusHoldMs +
+                ", toPcmHoldMs=" + audioConfig.adaptiveToPcmHoldMs +
+                ", cpuHighLoad=" + audioConfig.adaptiveCpuHighLoad);
     }
 
     /**
-     * 停止播放
+     * 上报上行吞吐量估计，供上行格式自适应使用（任意线程）
+     * 可来自网络能力（NetworkCapabilities.getLinkUpstreamBandwidthKbps）或实际发送速率统计
+     * @param bitsPerSecond 吞吐量（bps），<= 0 表示未知
      */
-    public void stopPlay() {
-        playExecutor.execute(() -> {
-            playDraining.set(false);
-            if (audioTrack != null) {
-                try {
-                    audioTrack.pause();
-                    audioTrack.flush();
-                    audioTrack.stop();
-                } catch (Exception e) {
-                    Log.e(TAG, "停止播放失败", e);
-                }
-            }
-            pcmQueue.clear();
-        });
+    public void reportUplinkThroughput(int bitsPerSecond) {
+        UplinkFormatPolicy policy = uplinkPolicy;
+        if (policy != null) {
+            policy.reportThroughput(bitsPerSecond);
+        }
     }
 
     /**
-     * 检查是否正在播放
+     * 当前上行格式（未开启自适应时即 AudioConfig.formatType）
      */
-    public boolean isPlaying() {
-        return playStarted.get() && audioTrack != null &&
-                audioTrack.getPlayState() == AudioTrack.PLAYSTATE_PLAYING;
+    public AudioFormatType getUplinkFormat() {
+        return uplinkFormat;
     }
 
-    private void ensureAudioTrack(int sampleRate, int channels, boolean isPCM) {
-        // 检查是否需要重建 decoder
-        if (!isPCM && opusDecoderHandle == 0L) {
-            initOpusDecoder(sampleRate, channels);
-        } else if (!isPCM && (currentPlaySampleRate != sampleRate || currentPlayChannels != channels)) {
-            releaseOpusDecoder();
-            initOpusDecoder(sampleRate, channels);
+    /**
+     * 切换上行格式，帧边界生效，不重启采集（共享引擎在会话间切换时使用）
+     * 开启上行格式自适应或使用原生引擎时忽略
+     */
+    public void setUplinkFormat(AudioFormatType format) {
+        if (format == null || format == uplinkFormat) {
+            return;
         }
-
-        // 检查 AudioTrack 是否需要重建
-        if (audioTrack != null &&
-                audioTrack.getState() == AudioTrack.STATE_INITIALIZED &&
-                sampleRate == currentPlaySampleRate &&
-                channels == currentPlayChannels) {
-            try {
-                if (playStarted.compareAndSet(false, true)) {
-                    audioTrack.play();
-                } else if (audioTrack.getPlayState() != AudioTrack.PLAYSTATE_PLAYING) {
-                    audioTrack.play();
-                }
-            } catch (IllegalStateException e) {
-                Log.e(TAG, "ensureAudioTrack: play error " + e.getMessage());
-            }
+        if (uplinkPolicy != null || nativeEngine != null) {
+            Log.w(TAG, "上行格式由自适应策略或原生引擎决定，忽略切换: " + format);
             return;
         }
 
-        // 重建 track
-        releaseAudioTrackInternal();
-
-        currentPlaySampleRate = sampleRate;
-        currentPlayChannels = channels;
+        // 编码器先于格式就绪，采集线程读到新格式时即可编码
+        if (format == AudioFormatType.OPUS && opusEncoder == null) {
+            initOpusEncoder();
+        }
+        uplinkFormat = format;
+        Log.i(TAG, "上行格式切换: format=" + format);
+    }
 
-        int channelOut;
-        switch (channels) {
-            case 2:
-                channelOut = AudioFormat.CHANNEL_OUT_STEREO;
-                break;
-            case 1:
-            default:
-                channelOut = AudioFormat.CHANNEL_OUT_MONO;
-                break;
+    /**
+     * 按帧驱动自适应策略，切换在帧边界生效（下一帧起按新格式回调）
+     */
+    private void updateUplinkPolicy(long encodeCpuNs) {
+        int reason = uplinkPolicy.onFrame(audioConfig.frameDuration.getDuration(), encodeCpuNs);
+        if (reason == UplinkFormatPolicy.REASON_NONE) {
+            return;
         }
 
-        int minBuf = AudioTrack.getMinBufferSize(sampleRate, channelOut, AudioFormat.ENCODING_PCM_16BIT);
-        int targetBuf = sampleRate * channels * 2 / 5;  // 约 200ms buffer
-        int bufferSize = Math.max(minBuf * 2, targetBuf);
+        AudioFormatType format = uplinkPolicy.getFormat();
+        uplinkFormat = format;
+        Log.i(TAG, "上行格式切换: format=" + format + ", reason=" + reason +
+                ", throughput=" + uplinkPolicy.getThroughput() +
+                ", cpuLoad=" + uplinkPolicy.getCpuLoad());
+        if (uplinkFormatListener != null) {
+            uplinkFormatListener.onUplinkFormatChanged(format, reason);
+        }
+    }
 
-        // 通话场景使用 VOICE_COMMUNICATION 属性
-        AudioAttributes attributes = new AudioAttributes.Builder()
-                .setUsage(AudioAttributes.USAGE_VOICE_COMMUNICATION)
-                .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
-                .build();
+    private void notifyEndOfUtterance(int reason, long utteranceMs) {
+        Log.d(TAG, "检测到语句结束: reason=" + reason + ", utteranceMs=" + utteranceMs);
+        if (voiceActivityListener != null) {
+            voiceActivityListener.onEndOfUtterance(reason, utteranceMs);
+        }
+    }
 
-        AudioFormat format = new AudioFormat.Builder()
-                .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
-                .setSampleRate(sampleRate)
-                .setChannelMask(channelOut)
-                .build();
+    private void notifyListeningModeChanged(boolean fullQuality) {
+        if (voiceActivityListener != null) {
+            voiceActivityListener.onListeningModeChanged(fullQuality);
+        }
+    }
 
-        try {
-            audioTrack = new AudioTrack.Builder()
-                    .setAudioAttributes(attributes)
-                    .setAudioFormat(format)
-                    .setBufferSizeInBytes(bufferSize)
-                    .setTransferMode(AudioTrack.MODE_STREAM)
-                    .build();
+    /**
+     * 是否处于低功耗监听（静默）状态
+     */
+    public boolean isLowPowerListening() {
+        return lowPowerActive;
+    }
 
-            audioTrack.play();
-            playStarted.set(true);
+    /**
+     * 处理一帧；pcmData 为采集线程复用的缓冲，只在本次调用内有效，需要保留时由 emitRecordFrame 复制
+     * @param pcmData 16bit PCM 数据，帧从 offset 开始，长度为 recordFrameBytes
+     * @param floatData 对应的 float 帧，仅 float 采集时非空，用于直接 float 编码
+     * @param startPos 帧首个样本的时间线位置
+     */
+    private void processRecordData(byte[] pcmData, int offset, float[] floatData, long startPos) {
+        captureGlitchDetector.process(pcmData, offset, recordFrameBytes);
 
-            Log.i(TAG, "AudioTrack 初始化: sampleRate=" + sampleRate +
-                    ", channels=" + channels + ", bufferSize=" + bufferSize + ", minBuf=" + minBuf);
+        // 麦克风静音时不回调数据
+        if (isMicMuted) {
+            return;
+        }
 
-            // 初次启动尝试预充多帧
-            drainQueueNonBlocking(true, 5);
+        if (endpointer != null) {
+            int event = endpointer.process(pcmData, offset, recordFrameBytes);
 
-        } catch (Exception e) {
-            Log.e(TAG, "AudioTrack 创建失败", e);
-            notifyPlayError(ERROR_TRACK_INIT, "AudioTrack 创建失败: " + e.getMessage());
+            if (event == Endpointer.EVENT_SPEECH_START) {
+                if (voiceActivityListener != null) {
+                    voiceActivityListener.onSpeechStarted();
+                }
+                // 先补发静音期间保留的回看帧，避免丢失起音
+                if (audioConfig.endpointDropSilence && endpointLookback.size() > 0) {
+                    byte[] lookback = endpointLookback.drain();
+                    int frames = lookback.length / recordFrameBytes;
+                    for (int i = 0; i < frames; i++) {
+                        // 回看帧紧接在当前帧之前
+                        emitRecordFrame(lookback, i * recordFrameBytes, null,
+                                startPos - (long) (frames - i) * recordFrameFrames);
+                    }
+                }
+            } else if (event == Endpointer.EVENT_END_OF_UTTERANCE) {
+                // 结束帧本身仍然发送，之后的静音帧按配置丢弃
+                emitRecordFrame(pcmData, offset, floatData, startPos);
+                notifyEndOfUtterance(endpointer.getLastReason(), endpointer.getLastUtteranceMs());
+                return;
+            } else if (audioConfig.endpointDropSilence && !endpointer.isInUtterance()) {
+                endpointLookback.write(pcmData, offset, recordFrameBytes);
+                return;
+            }
         }
+
+        emitRecordFrame(pcmData, offset, floatData, startPos);
     }
 
-    private void initOpusDecoder(int sampleRate, int channels) {
+    /**
+     * 回调并编码一帧。回调方可以持有收到的数组（如排队发送），因此有 PCM 回调时复制一份供两个回调共用，
+     * 没有回调时不分配；编码器在返回前读完输入，直接读取原缓冲
+     */
+    private void emitRecordFrame(byte[] pcmData, int offset, float[] floatData, long startPos) {
+        long sequence = nextCaptureSequence++;
+        metrics.increment(AudioMetrics.COUNTER_FRAMES_EMITTED);
+        AudioTrace.counter(AudioTrace.COUNTER_CAPTURE_SEQ, sequence);
+        boolean traced = AudioTrace.begin(AudioTrace.CAPTURE_FRAME);
         try {
-            opusDecoderHandle = opusBridge.createDecoder(sampleRate, channels);
+            OnRecordDataListener dataListener = recordDataListener;
+            OnAudioFrameListener frameListener = audioFrameListener;
+            byte[] delivered = dataListener != null || frameListener != null
+                    ? Arrays.copyOfRange(pcmData, offset, offset + recordFrameBytes) : null;
 
-            if (opusDecoderHandle == 0L) {
-                Log.e(TAG, "OpusDecoder 创建失败");
-                notifyPlayError(ERROR_DECODER_INIT, "OpusDecoder 创建失败");
-                return;
+            // 回调 PCM 数据
+            if (dataListener != null) {
+                boolean tracedDeliver = AudioTrace.begin(AudioTrace.DELIVER);
+                dataListener.onPcmData(delivered, delivered.length);
+                AudioTrace.end(tracedDeliver);
+            }
+
+            AudioFrame frame = null;
+            if (frameListener != null) {
+                frame = new AudioFrame(sequence, positionToTimeNs(startPos),
+                        AudioFrame.ptsUsAt(startPos, audioConfig.sampleRate),
+                        delivered, delivered.length, recordFrameFrames,
+                        audioConfig.sampleRate, audioConfig.channelCount, AudioFormatType.PCM);
+                frameListener.onCaptureFrame(frame);
+            }
+
+            // 上行格式为 Opus 时进行编码并回调
+            long encodeCpuNs = -1;
+            if (uplinkFormat == AudioFormatType.OPUS) {
+                long cpuStart = uplinkPolicy != null
+                        ? ThreadResourceMeter.currentThreadCpuNanos() : ThreadResourceProbe.UNSUPPORTED;
+                long encodeStartNs = System.nanoTime();
+                boolean tracedEncode = AudioTrace.begin(AudioTrace.ENCODE);
+                List<byte[]> packets = encodeToOpus(pcmData, offset, floatData);
+                AudioTrace.end(tracedEncode);
+                metrics.record(AudioMetrics.HISTOGRAM_ENCODE_US, (System.nanoTime() - encodeStartNs) / 1000);
+                if (cpuStart != ThreadResourceProbe.UNSUPPORTED) {
+                    long cpuEnd = ThreadResourceMeter.currentThreadCpuNanos();
+                    if (cpuEnd != ThreadResourceProbe.UNSUPPORTED) {
+                        encodeCpuNs = cpuEnd - cpuStart;
+                    }
+                }
+                if (packets == null) {
+                    metrics.increment(AudioMetrics.COUNTER_ENCODE_FAILURES);
+                    metrics.reportGlitch(AudioMetrics.GLITCH_ENCODE_DROP, sequence);
+                }
+
+                if (packets != null) {
+                    for (byte[] opusData : packets) {
+                        if (recordDataListener != null) {
+                            boolean tracedDeliver = AudioTrace.begin(AudioTrace.DELIVER);
+                            recordDataListener.onOpusData(opusData, opusData.length);
+                            AudioTrace.end(tracedDeliver);
+                        }
+                        if (frame != null) {
+                            frameListener.onEncodedFrame(frame.withEncodedData(opusData, AudioFormatType.OPUS));
+                        }
+                    }
+                }
+            }
+
+            if (uplinkPolicy != null) {
+                updateUplinkPolicy(encodeCpuNs);
             }
 
-            Log.i(TAG, "OpusDecoder 初始化成功: sampleRate=" + sampleRate + ", channels=" + channels);
         } catch (Exception e) {
-            Log.e(TAG, "OpusDecoder 初始化失败", e);
-            notifyPlayError(ERROR_DECODER_INIT, "OpusDecoder 初始化失败: " + e.getMessage());
+            Log.e(TAG, "处理音频数据失败", e);
+        } finally {
+            AudioTrace.end(traced);
         }
     }
 
-    private byte[] decodeOpus(byte[] opusData, int channels) {
-        if (opusDecoderHandle == 0L) {
-            Log.e(TAG, "OpusDecoder handle 未初始化");
+    /**
+     * @return Opus 包列表（MediaCodec 后端可能一帧输出 0~N 个包）
+     */
+    private List<byte[]> encodeToOpus(byte[] pcmData, int offset, float[] floatData) {
+        if (opusEncoder == null) {
+            Log.e(TAG, "OpusEncoder 未初始化");
             return null;
         }
+        return opusEncoder.encode(pcmData, offset, recordFrameBytes, floatData);
+    }
 
-        try {
-            int frameSamples = opusBridge.getFrameSamples(opusDecoderHandle, false) * channels;
-            short[] pcmOut = new short[frameSamples];
-            int samplesPerCh = opusBridge.decode(opusDecoderHandle, opusData, pcmOut, false);
+    private void releaseRecordInternal() {
+        // 释放 Opus 编码器
+        if (opusEncoder != null) {
+            opusEncoder.release();
+            opusEncoder = null;
+        }
 
-            if (samplesPerCh <= 0) {
-                return null;
-            }
+        uplinkPolicy = null;
 
-            // short[] -> byte[]
-            int samples = samplesPerCh * channels;
-            byte[] out = new byte[samples * 2];
-            int idx = 0;
-            for (int i = 0; i < samples; i++) {
-                int v = pcmOut[i];
-                out[idx++] = (byte) (v & 0xFF);
-                out[idx++] = (byte) ((v >> 8) & 0xFF);
-            }
-            return out;
+        // 释放原生引擎：先断开播放线程和取包线程，release 再等待仍在进行中的原生调用结束后销毁
+        NativeAudioEngine engine = nativeEngine;
+        if (engine != null) {
+            playback.setEncodedPacketSink(null);
+            nativeEngine = null;
+            stopPacketPump();
+            engine.release();
+        }
 
+        // 释放输入设备
+        try {
+            if (recordDevice != null) {
+                recordDevice.release();
+                recordDevice = null;
+            }
+            if (lowPowerDevice != null) {
+                lowPowerDevice.release();
+                lowPowerDevice = null;
+            }
         } catch (Exception e) {
-            Log.e(TAG, "Opus 解码失败", e);
-            return null;
+            Log.e(TAG, "释放 AudioRecord 失败", e);
         }
+        lowPowerActive = false;
+
+        restoreAudioModeIfNeeded();
+        isRecordInitialized = false;
     }
 
-    private void releaseOpusDecoder() {
-        if (opusDecoderHandle != 0L) {
-            opusBridge.releaseDecoder(opusDecoderHandle);
-            opusDecoderHandle = 0;
+    private void notifyRecordError(int errorCode, String message) {
+        Log.e(TAG, "RecordError[" + errorCode + "]: " + message);
+        if (recordDataListener != null) {
+            recordDataListener.onRecordError(errorCode, message);
         }
     }
 
-    private void releaseAudioTrackInternal() {
-        playStarted.set(false);
-        playDraining.set(false);
+    // ==================== 播放相关实现 ====================
 
-        if (audioTrack != null) {
-            try {
-                audioTrack.pause();
-                audioTrack.flush();
-                audioTrack.stop();
-                audioTrack.release();
-            } catch (Throwable ignored) {}
+    /**
+     * 播放音频数据
+     * @param data 音频数据
+     * @param sampleRate 采样率
+     * @param channels 声道数
+     * @param format 音频格式
+     */
+    public void play(byte[] data, int sampleRate, int channels, AudioFormatType format) {
+        // 扬声器静音时丢弃数据
+        if (isSpeakerMuted) {
+            return;
         }
-
-        audioTrack = null;
-        currentPlaySampleRate = 0;
-        currentPlayChannels = 0;
-        pcmQueue.clear();
-    }
-
-    private void releasePlayInternal() {
-        releaseAudioTrackInternal();
-        releaseOpusDecoder();
+        playback.play(data, sampleRate, channels, format);
     }
 
-    private int queueBytes() {
-        int sum = 0;
-        for (byte[] chunk : pcmQueue) {
-            sum += chunk.length;
+    /**
+     * 预热播放通路（异步）：提前创建解码器和 AudioTrack，消除首包播放的冷启动开销
+     * 使用原生引擎时 Opus 由原生层播放，仅预热 PCM 通路
+     * @param sampleRate 预期的下行采样率
+     * @param channels 预期的下行声道数
+     * @param format 预期的下行格式
+     */
+    public void warmUpPlayback(int sampleRate, int channels, AudioFormatType format) {
+        if (nativeEngine != null && format == AudioFormatType.OPUS) {
+            return;
         }
-        return sum;
+        playback.warmUp(sampleRate, channels, format);
     }
 
-    private void startDrainingLoop() {
-        if (!playDraining.compareAndSet(false, true)) {
+    /**
+     * 播放音频帧
+     * 帧序号用于检测丢帧，不要与 play(byte[], ...) 混用
+     * @param frame 音频帧（PCM 或 Opus）
+     */
+    public void play(AudioFrame frame) {
+        // 扬声器静音时丢弃数据
+        if (isSpeakerMuted) {
             return;
         }
+        playback.play(frame);
+    }
 
-        playExecutor.execute(() -> {
-            try {
-                while (playStarted.get() && audioTrack != null) {
-                    if (pcmQueue.isEmpty()) {
-                        int emptyCount = 0;
-                        while (pcmQueue.isEmpty() && emptyCount < 5) {
-                            try {
-                                Thread.sleep(10);
-                            } catch (InterruptedException ignored) {}
-                            emptyCount++;
-                        }
-                        if (pcmQueue.isEmpty()) {
-                            break;
-                        }
-                    }
+    /**
+     * 原生引擎直接接收 Opus 包，解码和播放在原生层完成（仅播放线程调用）
+     */
+    private class NativePacketSink implements EncodedPacketSink {
+        @Override
+        public boolean write(AudioFrame frame) {
+            NativeAudioEngine engine = nativeEngine;
+            if (engine == null || frame.getSampleRate() != audioConfig.sampleRate
+                    || frame.getChannels() != audioConfig.channelCount) {
+                return false;
+            }
 
-                    drainQueueNonBlocking(false, 10);
-                    try {
-                        Thread.sleep(5);
-                    } catch (InterruptedException ignored) {}
+            if (nativeRenderEngine != engine) {
+                if (!engine.startRender()) {
+                    // 引擎正在释放时交回 Java 通路，不视为错误
+                    if (nativeEngine != engine) {
+                        return false;
+                    }
+                    notifyPlayError(ERROR_TRACK_INIT, "原生引擎播放启动失败");
+                    return true;
                 }
-            } finally {
-                playDraining.set(false);
+                nativeRenderEngine = engine;
             }
-        });
-    }
 
-    private void drainQueueNonBlocking(boolean preloadOnly, int maxFrames) {
-        if (audioTrack == null) return;
-
-        int writtenFrames = 0;
+            renderBatch.clear();
+            if (renderBatch.add(frame.getData(), frame.getSize())) {
+                engine.writePackets(renderBatch);
+            }
+            return true;
+        }
 
-        while (writtenFrames < maxFrames) {
-            byte[] chunk = pcmQueue.poll();
-            if (chunk == null) break;
+        @Override
+        public void stop() {
+            NativeAudioEngine engine = nativeEngine;
+            if (engine != null && nativeRenderEngine == engine) {
+                engine.stopRender();
+            }
+            nativeRenderEngine = null;
+        }
+    }
 
-            int offset = 0;
-            int remaining = chunk.length;
+    /**
+     * 按序号检测到的累计丢帧数
+     */
+    public long getPlaybackLostFrames() {
+        return playback.getLostFrames();
+    }
 
-            while (remaining > 0) {
-                int res = audioTrack.write(chunk, offset, remaining, AudioTrack.WRITE_NON_BLOCKING);
+    /**
+     * 播放 PCM 音频数据（使用当前配置的采样率和声道数）
+     */
+    public void playPcm(byte[] data) {
+        play(data, audioConfig.sampleRate, audioConfig.channelCount, AudioFormatType.PCM);
+    }
 
-                if (res < 0) {
-                    Log.w(TAG, "AudioTrack write failed: " + res + ", remaining=" + remaining);
-                    if (remaining < chunk.length) {
-                        byte[] leftover = new byte[remaining];
-                        System.arraycopy(chunk, offset, leftover, 0, remaining);
-                        pcmQueue.offerFirst(leftover);
-                    } else {
-                        pcmQueue.offerFirst(chunk);
-                    }
-                    return;
-                } else if (res == 0) {
-                    byte[] leftover = new byte[remaining];
-                    System.arraycopy(chunk, offset, leftover, 0, remaining);
-                    pcmQueue.offerFirst(leftover);
-                    return;
-                }
+    /**
+     * 播放 Opus 音频数据（使用当前配置的采样率和声道数）
+     */
+    public void playOpus(byte[] data) {
+        play(data, audioConfig.sampleRate, audioConfig.channelCount, AudioFormatType.OPUS);
+    }
 
-                offset += res;
-                remaining -= res;
-            }
+    /**
+     * 停止播放
+     */
+    public void stopPlay() {
+        playback.stop();
+    }
 
-            writtenFrames++;
-            if (preloadOnly && writtenFrames >= maxFrames) break;
-        }
+    /**
+     * 检查是否正在播放
+     */
+    public boolean isPlaying() {
+        return playback.isPlaying();
     }
 
     private void notifyPlayError(int errorCode, String message) {
@@ -848,7 +1485,7 @@ public class TalkAudioController {
 
         // 如果开启静音，清空播放队列
         if (muted) {
-            pcmQueue.clear();
+            playback.clear();
         }
     }
 
@@ -882,20 +1519,88 @@ public class TalkAudioController {
      * 调用后需要重新初始化才能使用
      */
     public void release() {
-        // 停止录音
-        if (isRecording) {
-            stopRecord();
+        synchronized (lifecycleLock) {
+            // 停止录音
+            if (isRecording) {
+                stopRecordInternal();
+            }
+
+            // 释放录音资源
+            releaseRecordInternal();
+
+            // 释放播放资源
+            playback.release();
+
+            if (ownsMetrics) {
+                metrics.setOnMetricsListener(null, 0);
+                metrics.setOnGlitchListener(null);
+            }
+
+            isInitialized = false;
+            // 就绪信号重置，等待下一次初始化
+            if (readyFuture.isDone()) {
+                readyFuture = new CompletableFuture<>();
+            }
+            Log.i(TAG, "TalkAudioController 已释放");
         }
+    }
 
-        // 释放录音资源
-        releaseRecordInternal();
+    /**
+     * 就绪信号：初始化成功后完成，失败时异常完成；release 后重置为新的信号
+     */
+    public CompletableFuture<Void> whenReady() {
+        return readyFuture;
+    }
 
-        // 释放播放资源
-        releasePlayInternal();
-        playExecutor.shutdown();
+    /**
+     * 异步初始化（生命周期线程）
+     * @return 与本次初始化对应的就绪信号
+     */
+    public CompletableFuture<Void> initAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            init();
+            return readyFuture;
+        }, lifecycleExecutor).thenCompose(ready -> ready);
+    }
 
-        isInitialized = false;
-        Log.i(TAG, "TalkAudioController 已释放");
+    /**
+     * 异步开始采集：排在此前提交的异步启停之后，轮到时再等待初始化完成，无需轮询初始化状态；
+     * 初始化失败或启动失败时异常完成
+     */
+    public CompletableFuture<Void> startRecordAsync() {
+        return enqueueInOrder(() -> readyFuture.thenRunAsync(() -> {
+            startRecord();
+            if (!isRecording) {
+                throw new IllegalStateException("录音启动失败");
+            }
+        }, lifecycleExecutor));
+    }
+
+    /**
+     * 异步停止采集（生命周期线程），排在此前提交的异步启停之后，不阻塞调用线程
+     */
+    public CompletableFuture<Void> stopRecordAsync() {
+        return enqueueInOrder(() -> CompletableFuture.runAsync(this::stopRecord, lifecycleExecutor));
+    }
+
+    /**
+     * 异步释放（生命周期线程），排在此前提交的异步启停之后
+     */
+    public CompletableFuture<Void> releaseAsync() {
+        return enqueueInOrder(() -> CompletableFuture.runAsync(this::release, lifecycleExecutor));
+    }
+
+    /**
+     * 将操作接在上一个异步操作之后：上一个完成（含异常）后才开始，
+     * 避免等待初始化的开始采集被之后提交的停止抢先执行
+     */
+    private CompletableFuture<Void> enqueueInOrder(Supplier<CompletableFuture<Void>> operation) {
+        synchronized (asyncOrderLock) {
+            CompletableFuture<Void> next = asyncTail.handle((result, error) -> (Void) null)
+                    .thenCompose(ignored -> operation.get());
+            asyncTail = next;
+            return next;
+        }
     }
 
     /**
@@ -9,13 +9,140 @@ public class AudioConfig {
     public int bitDepth = 16;                          // 位深度
     public FrameDurationType frameDuration = FrameDurationType.MS_60;  // 帧时长
     public AudioFormatType formatType = AudioFormatType.PCM;         // 音频格式
+    public EncoderBackendType encoderBackend = EncoderBackendType.LIBOPUS;  // Opus 编码后端，MediaCodec 需显式选择
+    public int opusBitrate = 0;                        // Opus 码率（bps），0 表示按采样率取默认值（48 kHz 为 64kbps，其余 24kbps）
+    public int opusTargetBytes = 0;                    // Opus 包目标字节数，0 表示按码率和帧时长推算
+    public int opusComplexity = 5;                     // Opus 编码复杂度（0~10）
+    public boolean opusDtx = false;                    // Opus 静音不连续发送
+    public boolean opusLowDelay = false;               // Opus 使用 RESTRICTED_LOWDELAY 模式
+    public boolean opusPadding = true;                 // Opus 包填充到定长；关闭后为受限 VBR，目标字节数仅作上限
     public boolean enableCustomAEC = false;                   // 回声消除
     public boolean enableCustomAGC = false;                   // 自动增益控制
     public boolean enableCustomNS = false;                    // 噪声抑制
+    public int playBufferMs = 200;                     // 播放 AudioTrack 缓冲时长（不小于系统最小缓冲的两倍）
+
+    // float 流水线：以 ENCODING_PCM_FLOAT 采集，经 float 处理阶段后直接 opus_encode_float，
+    // Opus 播放使用 opus_decode_float + float AudioTrack；onPcmData 仍回调 16bit PCM
+    // 配合 sampleRate = 48000 时使用 48 kHz 全频带编码
+    public boolean enableFloatPcm = false;
+
+    // 原生音频引擎：AAudio 采集播放 + 原生 Opus 编解码，Java 侧按批交换编码包（仅 Opus 格式，API 26+）
+    // 启用后 PCM 回调、低功耗监听、端点检测、float 处理阶段均不生效；不可用时自动回退 Java 通路
+    public boolean enableNativeEngine = false;
+
+    // 低功耗监听：静默时以低采样率采集并做 VAD，不编码不回调；检测到语音后切换为全质量采集
+    // 仅支持 16bit 单声道
+    public boolean enableLowPowerListening = false;
+    public int lowPowerSampleRate = 8000;                    // 低功耗监听采样率
+    public int lowPowerLookbackMs = 300;                     // 切换时补发的回看时长，避免丢失起音
+    public int lowPowerHangoverMs = 1500;                    // 连续静音多久后回落到低功耗监听
+
+    // 端点检测：客户端判断一句话是否说完（能量 VAD + 尾部静音 + 最长语句），仅支持 16bit 单声道
+    public boolean enableEndpointer = false;
+    public int endpointTrailingSilenceMs = 700;              // 尾部静音多久判定为说完
+    public int endpointMaxUtteranceMs = 15000;               // 单句最长时长
+    public boolean endpointDropSilence = false;              // 说完后不再回调静音帧，直到再次检测到语音
+
+    // 上行格式自适应：按 reportUplinkThroughput 上报的吞吐量与 Opus 编码 CPU 占用在 PCM / Opus 间切换
+    // formatType 为初始格式；切换在帧边界生效，不重启采集，通过 OnUplinkFormatListener 通知；原生引擎下不生效
+    // 仅适用于能逐包区分格式的传输；连接时协商格式的传输应改用 UplinkFormatPolicy.chooseFormat 在连接前选定格式
+    public boolean enableAdaptiveUplink = false;
+    public int adaptiveToOpusHoldMs = 2000;                  // 带宽不足持续多久切到 Opus
+    public int adaptiveToPcmHoldMs = 10000;                  // 带宽充足持续多久切回 PCM
+    public float adaptiveCpuHighLoad = 0.3f;                 // 编码耗时占帧时长超过该比例视为 CPU 过载
 
     public AudioConfig() {
     }
 
+    /**
+     * 按档位创建配置，其余参数取默认值
+     */
+    public static AudioConfig fromProfile(AudioProfile profile) {
+        AudioConfig config = new AudioConfig();
+        if (profile != null) {
+            profile.applyTo(config);
+        }
+        return config;
+    }
+
+    /**
+     * 为外部 RTC 自定义采集（如 TRTC sendCustomAudioData）调整配置
+     * 固定 16bit PCM 上行和指定帧时长，onPcmData 每次回调即为一个完整的采集帧，可直接交给 RTC，无需拼帧或重采样；
+     * RTC 要求连续的采集流，关闭会造成断流的低功耗监听、端点检测丢静音帧、上行格式自适应和原生引擎，
+     * 端点检测（VAD）与音频处理仍按原配置生效
+     * @param frameDuration RTC 要求的帧时长（TRTC 为 20ms）
+     */
+    public void applyCustomCapture(FrameDurationType frameDuration) {
+        this.frameDuration = frameDuration;
+        formatType = AudioFormatType.PCM;
+        bitDepth = 16;
+        enableNativeEngine = false;
+        enableLowPowerListening = false;
+        endpointDropSilence = false;
+        enableAdaptiveUplink = false;
+    }
+
+    /**
+     * 实际使用的 Opus 码率
+     */
+    public int resolveOpusBitrate() {
+        if (opusBitrate > 0) {
+            return opusBitrate;
+        }
+        return sampleRate == 48000 ? 64000 : 24000;
+    }
+
+    /**
+     * 实际使用的 Opus 包目标字节数（默认配置下为 16 kHz 180 字节、48 kHz 480 字节）
+     */
+    public int resolveOpusTargetBytes() {
+        if (opusTargetBytes > 0) {
+            return opusTargetBytes;
+        }
+        return resolveOpusBitrate() * frameDuration.getDuration() / 8000;
+    }
+
+    /**
+     * 两份配置能否共用同一套采集播放设备（共享引擎在会话间切换时判断是否需要重建）
+     * 上行格式不影响设备，可在会话间直接切换；自适应或原生引擎下格式由引擎决定，需一致
+     */
+    public boolean canShareEngineWith(AudioConfig other) {
+        if (other == null) {
+            return false;
+        }
+        boolean formatFixed = enableAdaptiveUplink || enableNativeEngine;
+        return sampleRate == other.sampleRate
+                && channelCount == other.channelCount
+                && bitDepth == other.bitDepth
+                && frameDuration == other.frameDuration
+                && (!formatFixed || formatType == other.formatType)
+                && encoderBackend == other.encoderBackend
+                && opusBitrate == other.opusBitrate
+                && opusTargetBytes == other.opusTargetBytes
+                && opusComplexity == other.opusComplexity
+                && opusDtx == other.opusDtx
+                && opusLowDelay == other.opusLowDelay
+                && opusPadding == other.opusPadding
+                && enableCustomAEC == other.enableCustomAEC
+                && enableCustomAGC == other.enableCustomAGC
+                && enableCustomNS == other.enableCustomNS
+                && playBufferMs == other.playBufferMs
+                && enableFloatPcm == other.enableFloatPcm
+                && enableNativeEngine == other.enableNativeEngine
+                && enableLowPowerListening == other.enableLowPowerListening
+                && lowPowerSampleRate == other.lowPowerSampleRate
+                && lowPowerLookbackMs == other.lowPowerLookbackMs
+                && lowPowerHangoverMs == other.lowPowerHangoverMs
+                && enableEndpointer == other.enableEndpointer
+                && endpointTrailingSilenceMs == other.endpointTrailingSilenceMs
+                && endpointMaxUtteranceMs == other.endpointMaxUtteranceMs
+                && endpointDropSilence == other.endpointDropSilence
+                && enableAdaptiveUplink == other.enableAdaptiveUplink
+                && adaptiveToOpusHoldMs == other.adaptiveToOpusHoldMs
+                && adaptiveToPcmHoldMs == other.adaptiveToPcmHoldMs
+                && adaptiveCpuHighLoad == other.adaptiveCpuHighLoad;
+    }
+
     public AudioConfig(int sampleRate, int channelCount, int bitDepth, FrameDurationType frameDuration,
                        AudioFormatType formatType, boolean enableCustomAEC, boolean enableCustomAGC, boolean enableCustomNS) {
         this.sampleRate = sampleRate;
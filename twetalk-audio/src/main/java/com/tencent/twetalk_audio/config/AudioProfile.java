@@ -0,0 +1,97 @@
+package com.tencent.twetalk_audio.config;
+
+/**
+ * 音频档位
+ * 每个档位对应一整套采集 / 编码 / 播放参数，部署时只需选择档位，无需逐项修改 AudioConfig
+ */
+public enum AudioProfile {
+    /**
+     * 超低延迟：20ms 帧 + RESTRICTED_LOWDELAY，小播放缓冲；码率较高，适合局域网 / Wi-Fi
+     */
+    ULTRA_LOW_LATENCY(FrameDurationType.MS_20, 32000, 5, false, true, true, 60),
+
+    /**
+     * 均衡：60ms 帧 + VOIP 模式，定长包（与 AudioConfig 默认值一致）
+     */
+    BALANCED(FrameDurationType.MS_60, 0, 5, false, false, true, 200),
+
+    /**
+     * 省流量：60ms 帧 + 低码率受限 VBR + DTX，静音时几乎不占上行；适合弱网 / 蜂窝网络
+     */
+    BANDWIDTH_SAVER(FrameDurationType.MS_60, 12000, 8, true, false, false, 300);
+
+    private final FrameDurationType frameDuration;
+    private final int opusBitrate;
+    private final int opusComplexity;
+    private final boolean opusDtx;
+    private final boolean opusLowDelay;
+    private final boolean opusPadding;
+    private final int playBufferMs;
+
+    AudioProfile(FrameDurationType frameDuration, int opusBitrate, int opusComplexity, boolean opusDtx,
+                 boolean opusLowDelay, boolean opusPadding, int playBufferMs) {
+        this.frameDuration = frameDuration;
+        this.opusBitrate = opusBitrate;
+        this.opusComplexity = opusComplexity;
+        this.opusDtx = opusDtx;
+        this.opusLowDelay = opusLowDelay;
+        this.opusPadding = opusPadding;
+        this.playBufferMs = playBufferMs;
+    }
+
+    /**
+     * 将档位参数写入配置（采样率、声道、格式等其余字段保持不变）
+     */
+    public void applyTo(AudioConfig config) {
+        config.frameDuration = frameDuration;
+        config.opusBitrate = opusBitrate;
+        config.opusTargetBytes = 0;
+        config.opusComplexity = opusComplexity;
+        config.opusDtx = opusDtx;
+        config.opusLowDelay = opusLowDelay;
+        config.opusPadding = opusPadding;
+        config.playBufferMs = playBufferMs;
+    }
+
+    /**
+     * 按设置页档位取值（1=省流量，2=均衡，3=超低延迟），越界时取均衡
+     */
+    public static AudioProfile fromLevel(int level) {
+        switch (level) {
+            case 1:
+                return BANDWIDTH_SAVER;
+            case 3:
+                return ULTRA_LOW_LATENCY;
+            default:
+                return BALANCED;
+        }
+    }
+
+    public FrameDurationType getFrameDuration() {
+        return frameDuration;
+    }
+
+    public int getOpusBitrate() {
+        return opusBitrate;
+    }
+
+    public int getOpusComplexity() {
+        return opusComplexity;
+    }
+
+    public boolean isOpusDtx() {
+        return opusDtx;
+    }
+
+    public boolean isOpusLowDelay() {
+        return opusLowDelay;
+    }
+
+    public boolean isOpusPadding() {
+        return opusPadding;
+    }
+
+    public int getPlayBufferMs() {
+        return playBufferMs;
+    }
+}
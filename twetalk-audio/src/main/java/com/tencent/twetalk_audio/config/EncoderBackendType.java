@@ -0,0 +1,10 @@
+package com.tencent.twetalk_audio.config;
+
+/**
+ * Opus 编码后端类型
+ */
+public enum EncoderBackendType {
+    AUTO,        // 自动选择：存在硬件 Opus 编码器且包格式与配置一致（20ms、不填充）时使用，否则使用 libopus
+    LIBOPUS,     // libopus（JNI 软件编码），默认
+    MEDIACODEC   // MediaCodec（audio/opus），需显式选择：按自身帧长输出、不填充，编码时可能阻塞采集线程；不可用时回退 libopus
+}
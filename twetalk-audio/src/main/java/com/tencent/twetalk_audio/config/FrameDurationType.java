@@ -4,6 +4,7 @@ package com.tencent.twetalk_audio.config;
  * 帧时长类型
  */
 public enum FrameDurationType {
+    MS_10(10),   // 10ms
     MS_20(20),   // 20ms
     MS_40(40),   // 40ms
     MS_60(60);   // 60ms
@@ -17,4 +18,16 @@ public enum FrameDurationType {
     public int getDuration() {
         return duration;
     }
+
+    /**
+     * 按毫秒数查找，不支持时返回 null
+     */
+    public static FrameDurationType fromDuration(int durationMs) {
+        for (FrameDurationType type : values()) {
+            if (type.duration == durationMs) {
+                return type;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,31 @@
+package com.tencent.twetalk_audio.device;
+
+import android.media.MediaRecorder;
+
+/**
+ * 默认设备工厂：AudioRecord / AudioTrack
+ */
+public class AndroidAudioDeviceFactory implements AudioDeviceFactory {
+    private final int audioSource;
+
+    public AndroidAudioDeviceFactory() {
+        this(MediaRecorder.AudioSource.VOICE_COMMUNICATION);
+    }
+
+    /**
+     * @param audioSource 采集音源，MediaRecorder.AudioSource.*
+     */
+    public AndroidAudioDeviceFactory(int audioSource) {
+        this.audioSource = audioSource;
+    }
+
+    @Override
+    public AudioInputDevice createInput() {
+        return new AndroidAudioInputDevice(audioSource);
+    }
+
+    @Override
+    public AudioOutputDevice createOutput() {
+        return new AndroidAudioOutputDevice();
+    }
+}
@@ -0,0 +1,142 @@
+package com.tencent.twetalk_audio.device;
+
+import android.annotation.SuppressLint;
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.AudioTimestamp;
+import android.os.Build;
+
+/**
+ * AudioRecord 输入设备
+ */
+public class AndroidAudioInputDevice implements AudioInputDevice {
+    private final int audioSource;
+    private final AudioTimestamp timestamp = new AudioTimestamp();
+
+    private AudioRecord audioRecord;
+    private int bufferBytes = 0;
+
+    /**
+     * @param audioSource MediaRecorder.AudioSource.*
+     */
+    public AndroidAudioInputDevice(int audioSource) {
+        this.audioSource = audioSource;
+    }
+
+    @SuppressLint("MissingPermission")
+    @Override
+    public void open(int sampleRate, int channels, int encoding, int bufferBytes) {
+        release();
+
+        int channelConfig = channels == 1
+                ? AudioFormat.CHANNEL_IN_MONO
+                : AudioFormat.CHANNEL_IN_STEREO;
+        int audioFormat = toAndroidEncoding(encoding);
+
+        // 内部缓冲至少为系统最小值的两倍，用于吸收调度抖动
+        int minBuf = AudioRecord.getMinBufferSize(sampleRate, channelConfig, audioFormat);
+        int size = Math.max(minBuf * 2, bufferBytes);
+
+        AudioRecord record = new AudioRecord(audioSource, sampleRate, channelConfig, audioFormat, size);
+        if (record.getState() != AudioRecord.STATE_INITIALIZED) {
+            record.release();
+            throw new IllegalStateException("AudioRecord 初始化失败");
+        }
+
+        this.audioRecord = record;
+        this.bufferBytes = size;
+    }
+
+    @Override
+    public int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    @Override
+    public void start() {
+        audioRecord.startRecording();
+    }
+
+    @Override
+    public void stop() {
+        audioRecord.stop();
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        return audioRecord.read(buffer, offset, length);
+    }
+
+    @Override
+    public int read(float[] buffer, int offset, int length) {
+        return audioRecord.read(buffer, offset, length, AudioRecord.READ_BLOCKING);
+    }
+
+    @Override
+    public boolean getTimestamp(DeviceTimestamp out) {
+        AudioRecord record = audioRecord;
+        if (record == null ||
+                record.getTimestamp(timestamp, AudioTimestamp.TIMEBASE_MONOTONIC) != AudioRecord.SUCCESS) {
+            return false;
+        }
+        out.framePosition = timestamp.framePosition;
+        out.nanoTime = timestamp.nanoTime;
+        return true;
+    }
+
+    @Override
+    public void release() {
+        if (audioRecord != null) {
+            audioRecord.release();
+            audioRecord = null;
+        }
+        bufferBytes = 0;
+    }
+
+    @Override
+    public String describe() {
+        AudioRecord record = audioRecord;
+        if (record == null) {
+            return "AudioRecord(未初始化)";
+        }
+
+        String actualFormat;
+        switch (record.getAudioFormat()) {
+            case AudioFormat.ENCODING_PCM_16BIT:
+                actualFormat = "PCM_16BIT";
+                break;
+            case AudioFormat.ENCODING_PCM_8BIT:
+                actualFormat = "PCM_8BIT";
+                break;
+            case AudioFormat.ENCODING_PCM_FLOAT:
+                actualFormat = "PCM_FLOAT";
+                break;
+            default:
+                actualFormat = "UNKNOWN(" + record.getAudioFormat() + ")";
+        }
+
+        String bufferFrames = "N/A";
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            bufferFrames = String.valueOf(record.getBufferSizeInFrames());
+        }
+
+        return "source=" + audioSource +
+                ", sampleRate=" + record.getSampleRate() +
+                ", channels=" + record.getChannelCount() +
+                ", format=" + actualFormat +
+                ", bufferFrames=" + bufferFrames +
+                ", sessionId=" + record.getAudioSessionId();
+    }
+
+    static int toAndroidEncoding(int encoding) {
+        switch (encoding) {
+            case PcmEncoding.PCM_8BIT:
+                return AudioFormat.ENCODING_PCM_8BIT;
+            case PcmEncoding.PCM_FLOAT:
+                return AudioFormat.ENCODING_PCM_FLOAT;
+            case PcmEncoding.PCM_16BIT:
+            default:
+                return AudioFormat.ENCODING_PCM_16BIT;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.tencent.twetalk_audio.device;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioTimestamp;
+import android.media.AudioTrack;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * AudioTrack 输出设备（MODE_STREAM，通话场景属性）
+ */
+public class AndroidAudioOutputDevice implements AudioOutputDevice {
+    private static final String TAG = "AndroidAudioOutput";
+
+    private AudioTrack audioTrack;
+    private final AudioTimestamp timestamp = new AudioTimestamp();
+    private boolean floatFormat = false;
+    private int bufferBytes = 0;
+
+    @Override
+    public void open(int sampleRate, int channels, int encoding, int bufferMs) {
+        release();
+
+        int channelOut;
+        switch (channels) {
+            case 2:
+                channelOut = AudioFormat.CHANNEL_OUT_STEREO;
+                break;
+            case 1:
+            default:
+                channelOut = AudioFormat.CHANNEL_OUT_MONO;
+                break;
+        }
+
+        int androidEncoding = AndroidAudioInputDevice.toAndroidEncoding(encoding);
+        int bytesPerSample = PcmEncoding.bytesPerSample(encoding);
+        int minBuf = AudioTrack.getMinBufferSize(sampleRate, channelOut, androidEncoding);
+        int targetBuf = sampleRate * channels * bytesPerSample * bufferMs / 1000;
+        int size = Math.max(minBuf * 2, targetBuf);
+
+        // 通话场景使用 VOICE_COMMUNICATION 属性
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_VOICE_COMMUNICATION)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                .build();
+
+        AudioFormat format = new AudioFormat.Builder()
+                .setEncoding(androidEncoding)
+                .setSampleRate(sampleRate)
+                .setChannelMask(channelOut)
+                .build();
+
+        audioTrack = new AudioTrack.Builder()
+                .setAudioAttributes(attributes)
+                .setAudioFormat(format)
+                .setBufferSizeInBytes(size)
+                .setTransferMode(AudioTrack.MODE_STREAM)
+                .build();
+
+        floatFormat = encoding == PcmEncoding.PCM_FLOAT;
+        bufferBytes = size;
+
+        Log.i(TAG, "AudioTrack 初始化: sampleRate=" + sampleRate +
+                ", channels=" + channels + ", float=" + floatFormat +
+                ", bufferSize=" + size + ", minBuf=" + minBuf);
+    }
+
+    @Override
+    public int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    @Override
+    public void play() {
+        audioTrack.play();
+    }
+
+    @Override
+    public void pause() {
+        audioTrack.pause();
+    }
+
+    @Override
+    public void flush() {
+        audioTrack.flush();
+    }
+
+    @Override
+    public void stop() {
+        audioTrack.stop();
+    }
+
+    @Override
+    public int write(byte[] data, int offset, int length) {
+        return floatFormat
+                ? audioTrack.write(ByteBuffer.wrap(data, offset, length), length, AudioTrack.WRITE_NON_BLOCKING)
+                : audioTrack.write(data, offset, length, AudioTrack.WRITE_NON_BLOCKING);
+    }
+
+    @Override
+    public boolean isPlaying() {
+        AudioTrack track = audioTrack;
+        return track != null && track.getPlayState() == AudioTrack.PLAYSTATE_PLAYING;
+    }
+
+    @Override
+    public int getUnderrunCount() {
+        AudioTrack track = audioTrack;
+        return track != null ? track.getUnderrunCount() : 0;
+    }
+
+    @Override
+    public boolean getTimestamp(DeviceTimestamp out) {
+        AudioTrack track = audioTrack;
+        if (track == null || !track.getTimestamp(timestamp)) {
+            return false;
+        }
+        out.framePosition = timestamp.framePosition;
+        out.nanoTime = timestamp.nanoTime;
+        return true;
+    }
+
+    @Override
+    public void release() {
+        if (audioTrack != null) {
+            try {
+                audioTrack.pause();
+                audioTrack.flush();
+                audioTrack.stop();
+                audioTrack.release();
+            } catch (Throwable ignored) {}
+        }
+        audioTrack = null;
+        bufferBytes = 0;
+    }
+}
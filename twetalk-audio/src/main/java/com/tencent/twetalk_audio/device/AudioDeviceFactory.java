@@ -0,0 +1,18 @@
+package com.tencent.twetalk_audio.device;
+
+/**
+ * 音频设备工厂：TalkAudioController / PlaybackPipeline 通过它创建设备
+ * 默认为 AndroidAudioDeviceFactory，无设备环境下使用 FakeAudioDeviceFactory
+ */
+public interface AudioDeviceFactory {
+
+    /**
+     * 每次调用返回新的未 open 的输入设备（低功耗监听会额外创建一个）
+     */
+    AudioInputDevice createInput();
+
+    /**
+     * 每次调用返回新的未 open 的输出设备
+     */
+    AudioOutputDevice createOutput();
+}
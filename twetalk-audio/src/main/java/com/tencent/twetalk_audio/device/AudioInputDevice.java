@@ -0,0 +1,49 @@
+package com.tencent.twetalk_audio.device;
+
+/**
+ * 音频输入设备：采集通路对 AudioRecord 的抽象，便于用文件或数组替代麦克风
+ * 调用顺序 open -> start -> read... -> stop -> (start...) -> release；release 后可重新 open
+ */
+public interface AudioInputDevice {
+
+    /**
+     * 按参数创建底层设备，失败时抛出 IllegalStateException
+     * @param encoding PcmEncoding.*
+     * @param bufferBytes 期望的内部缓冲大小，实现可按系统最小值放大
+     */
+    void open(int sampleRate, int channels, int encoding, int bufferBytes);
+
+    /**
+     * 实际内部缓冲大小（字节），未 open 时为 0
+     */
+    int getBufferBytes();
+
+    void start();
+
+    void stop();
+
+    /**
+     * 阻塞读取 8/16bit PCM
+     * @return 读取字节数，负数为错误码
+     */
+    int read(byte[] buffer, int offset, int length);
+
+    /**
+     * 阻塞读取 float PCM（仅 PCM_FLOAT）
+     * @return 读取样本数，负数为错误码
+     */
+    int read(float[] buffer, int offset, int length);
+
+    /**
+     * 获取最近的采集时间戳
+     * @return false 表示设备不提供或当前不可用
+     */
+    boolean getTimestamp(DeviceTimestamp out);
+
+    void release();
+
+    /**
+     * 设备实际参数，用于日志
+     */
+    String describe();
+}
@@ -0,0 +1,56 @@
+package com.tencent.twetalk_audio.device;
+
+/**
+ * 音频输出设备：播放通路对 AudioTrack 的抽象，便于在无设备环境记录输出
+ * 调用顺序 open -> play -> write... -> pause/flush/stop -> release；release 后可重新 open
+ */
+public interface AudioOutputDevice {
+
+    /**
+     * 按参数创建底层设备，失败时抛出异常
+     * @param encoding PcmEncoding.PCM_16BIT 或 PcmEncoding.PCM_FLOAT
+     * @param bufferMs 期望的缓冲时长，实现可按系统最小值放大
+     */
+    void open(int sampleRate, int channels, int encoding, int bufferMs);
+
+    /**
+     * 实际缓冲大小（字节），未 open 时为 0
+     */
+    int getBufferBytes();
+
+    void play();
+
+    void pause();
+
+    /**
+     * 丢弃尚未播放的数据
+     */
+    void flush();
+
+    void stop();
+
+    /**
+     * 非阻塞写入
+     * @return 写入字节数，缓冲已满时为 0，负数为错误码
+     */
+    int write(byte[] data, int offset, int length);
+
+    boolean isPlaying();
+
+    /**
+     * 自 open 以来的欠载次数，不支持时返回 0
+     */
+    default int getUnderrunCount() {
+        return 0;
+    }
+
+    /**
+     * 最近播出的帧位置及其时间，位置为自 open 或上次 flush 起的每声道样本数
+     * @return 不支持或暂不可用（如刚开始播放）时返回 false
+     */
+    default boolean getTimestamp(DeviceTimestamp out) {
+        return false;
+    }
+
+    void release();
+}
@@ -0,0 +1,9 @@
+package com.tencent.twetalk_audio.device;
+
+/**
+ * 设备时间戳：某一帧位置对应的 CLOCK_MONOTONIC 时间（与 System.nanoTime() 同源）
+ */
+public final class DeviceTimestamp {
+    public long framePosition;   // 自 start() 起的每声道样本位置
+    public long nanoTime;
+}
@@ -0,0 +1,52 @@
+package com.tencent.twetalk_audio.device;
+
+/**
+ * 无设备环境下的工厂：每次创建的输入设备都以同一份数据从头读取，输出设备记录写入内容
+ */
+public class FakeAudioDeviceFactory implements AudioDeviceFactory {
+    private final FakeAudioInputDevice inputTemplate;
+    private final boolean realTimeOutput;
+
+    private volatile FakeAudioInputDevice lastInput;
+    private volatile FakeAudioOutputDevice lastOutput;
+
+    /**
+     * @param inputTemplate 输入数据模板，可为 null（仅播放）
+     * @param realTimeOutput 输出设备是否按实时节奏消耗缓冲
+     */
+    public FakeAudioDeviceFactory(FakeAudioInputDevice inputTemplate, boolean realTimeOutput) {
+        this.inputTemplate = inputTemplate;
+        this.realTimeOutput = realTimeOutput;
+    }
+
+    @Override
+    public AudioInputDevice createInput() {
+        if (inputTemplate == null) {
+            throw new IllegalStateException("未提供输入数据");
+        }
+        FakeAudioInputDevice input = inputTemplate.duplicate();
+        lastInput = input;
+        return input;
+    }
+
+    @Override
+    public AudioOutputDevice createOutput() {
+        FakeAudioOutputDevice output = new FakeAudioOutputDevice(realTimeOutput);
+        lastOutput = output;
+        return output;
+    }
+
+    /**
+     * 最近创建的输入设备
+     */
+    public FakeAudioInputDevice getLastInput() {
+        return lastInput;
+    }
+
+    /**
+     * 最近创建的输出设备
+     */
+    public FakeAudioOutputDevice getLastOutput() {
+        return lastOutput;
+    }
+}
@@ -0,0 +1,261 @@
+package com.tencent.twetalk_audio.device;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+/**
+ * 基于 16bit 小端 PCM 数组的输入设备，不依赖 Android，可在普通 JVM 上驱动采集通路
+ * realTime 为 true 时按采样时钟节奏阻塞读取并提供时间戳，否则尽快返回（用于压测）
+ * 数据读完后若未开启循环则持续返回静音，可通过 isExhausted() 判断
+ */
+public class FakeAudioInputDevice implements AudioInputDevice {
+    private final byte[] source;         // 16bit 小端交织 PCM
+    private final int sourceSampleRate;
+    private final int sourceChannels;
+    private final boolean realTime;
+    private volatile boolean loop = false;
+
+    private int sampleRate;
+    private int channels;
+    private int encoding;
+    private int bufferBytes = 0;
+    private boolean opened = false;
+    private volatile boolean started = false;
+
+    private int sourcePos = 0;           // 下一个读取的字节位置
+    private volatile boolean exhausted = false;
+    private long framesRead = 0;         // 自 start() 起读取的每声道样本数
+    private long startNs = 0;
+
+    /**
+     * @param pcm16 16bit 小端交织 PCM
+     * @param sampleRate 数据采样率，open 时必须一致
+     * @param channels 数据声道数，open 时必须一致
+     * @param realTime 是否按实时节奏读取
+     */
+    public FakeAudioInputDevice(byte[] pcm16, int sampleRate, int channels, boolean realTime) {
+        if (pcm16 == null) throw new IllegalArgumentException("PCM 数据不能为空!");
+        if (sampleRate <= 0 || channels <= 0) {
+            throw new IllegalArgumentException("采样率和声道数必须大于 0");
+        }
+        this.source = pcm16;
+        this.sourceSampleRate = sampleRate;
+        this.sourceChannels = channels;
+        this.realTime = realTime;
+    }
+
+    /**
+     * 读取 16bit PCM WAV 文件
+     */
+    public static FakeAudioInputDevice fromWav(File file, boolean realTime) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.remaining() < 12 || buf.getInt(0) != 0x46464952 || buf.getInt(8) != 0x45564157) {
+            throw new IOException("不是 RIFF/WAVE 文件: " + file);
+        }
+
+        int sampleRate = 0;
+        int channels = 0;
+        int bitsPerSample = 0;
+        int pos = 12;
+        while (pos + 8 <= buf.limit()) {
+            int id = buf.getInt(pos);
+            int size = buf.getInt(pos + 4);
+            int body = pos + 8;
+            if (size < 0 || body + size > buf.limit()) {
+                size = buf.limit() - body;  // 容忍流式写入未回填长度的文件
+            }
+            if (id == 0x20746d66) {         // "fmt "
+                int format = buf.getShort(body) & 0xFFFF;
+                channels = buf.getShort(body + 2) & 0xFFFF;
+                sampleRate = buf.getInt(body + 4);
+                bitsPerSample = buf.getShort(body + 14) & 0xFFFF;
+                if (format != 1 || bitsPerSample != 16) {
+                    throw new IOException("仅支持 16bit PCM WAV: format=" + format + ", bits=" + bitsPerSample);
+                }
+            } else if (id == 0x61746164) {  // "data"
+                if (sampleRate == 0) {
+                    throw new IOException("WAV 缺少 fmt 块: " + file);
+                }
+                byte[] pcm = new byte[size & ~1];
+                buf.position(body);
+                buf.get(pcm);
+                return new FakeAudioInputDevice(pcm, sampleRate, channels, realTime);
+            }
+            pos = body + size + (size & 1);
+        }
+        throw new IOException("WAV 缺少 data 块: " + file);
+    }
+
+    /**
+     * 读取裸 16bit 小端 PCM 文件
+     */
+    public static FakeAudioInputDevice fromPcm(File file, int sampleRate, int channels, boolean realTime)
+            throws IOException {
+        return new FakeAudioInputDevice(Files.readAllBytes(file.toPath()), sampleRate, channels, realTime);
+    }
+
+    /**
+     * 以相同数据创建新的设备（读取位置从头开始）
+     */
+    public FakeAudioInputDevice duplicate() {
+        FakeAudioInputDevice copy = new FakeAudioInputDevice(source, sourceSampleRate, sourceChannels, realTime);
+        copy.setLoop(loop);
+        return copy;
+    }
+
+    /**
+     * 数据读完后是否从头循环
+     */
+    public void setLoop(boolean loop) {
+        this.loop = loop;
+    }
+
+    /**
+     * 数据是否已读完（循环模式下始终为 false）
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public synchronized void open(int sampleRate, int channels, int encoding, int bufferBytes) {
+        if (sampleRate != sourceSampleRate || channels != sourceChannels) {
+            throw new IllegalStateException("输入数据格式不匹配: 需要 " + sampleRate + "Hz/" + channels +
+                    "ch，数据为 " + sourceSampleRate + "Hz/" + sourceChannels + "ch");
+        }
+        PcmEncoding.bytesPerSample(encoding);
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.encoding = encoding;
+        this.bufferBytes = bufferBytes;
+        this.opened = true;
+    }
+
+    @Override
+    public int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!opened) throw new IllegalStateException("设备未 open");
+        framesRead = 0;
+        startNs = System.nanoTime();
+        started = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        started = false;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (encoding == PcmEncoding.PCM_FLOAT) return -1;
+        int bytesPerSample = encoding;
+        int frames = length / (bytesPerSample * channels);
+        if (!started) return -1;
+        if (frames == 0) return 0;
+
+        awaitFrames(frames);
+        int samples = frames * channels;
+        synchronized (this) {
+            for (int i = 0; i < samples; i++) {
+                int s = nextSample();
+                if (bytesPerSample == 2) {
+                    buffer[offset + i * 2] = (byte) s;
+                    buffer[offset + i * 2 + 1] = (byte) (s >> 8);
+                } else {
+                    buffer[offset + i] = (byte) ((s >> 8) + 128);  // 8bit PCM 为无符号
+                }
+            }
+            framesRead += frames;
+        }
+        return samples * bytesPerSample;
+    }
+
+    @Override
+    public int read(float[] buffer, int offset, int length) {
+        if (encoding != PcmEncoding.PCM_FLOAT) return -1;
+        int frames = length / channels;
+        if (!started) return -1;
+        if (frames == 0) return 0;
+
+        awaitFrames(frames);
+        int samples = frames * channels;
+        synchronized (this) {
+            for (int i = 0; i < samples; i++) {
+                buffer[offset + i] = nextSample() / 32768f;
+            }
+            framesRead += frames;
+        }
+        return samples;
+    }
+
+    /**
+     * 仅实时模式提供时间戳，非实时模式下时间线与系统时间无关
+     */
+    @Override
+    public synchronized boolean getTimestamp(DeviceTimestamp out) {
+        if (!realTime || !started) {
+            return false;
+        }
+        out.framePosition = framesRead;
+        out.nanoTime = startNs + framesRead * 1_000_000_000L / sampleRate;
+        return true;
+    }
+
+    @Override
+    public synchronized void release() {
+        started = false;
+        opened = false;
+        bufferBytes = 0;
+    }
+
+    @Override
+    public String describe() {
+        return "fake, sampleRate=" + sampleRate +
+                ", channels=" + channels +
+                ", format=" + PcmEncoding.toString(encoding) +
+                ", realTime=" + realTime +
+                ", sourceBytes=" + source.length;
+    }
+
+    /**
+     * 实时模式下阻塞到请求的样本全部“采集”完成
+     */
+    private void awaitFrames(int frames) {
+        if (!realTime) {
+            return;
+        }
+        long readyNs;
+        synchronized (this) {
+            readyNs = startNs + (framesRead + frames) * 1_000_000_000L / sampleRate;
+        }
+        long waitNs;
+        while (started && (waitNs = readyNs - System.nanoTime()) > 0) {
+            try {
+                Thread.sleep(waitNs / 1_000_000L, (int) (waitNs % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int nextSample() {
+        if (sourcePos + 1 >= source.length) {
+            if (!loop || source.length < 2) {
+                exhausted = true;
+                return 0;
+            }
+            sourcePos = 0;
+        }
+        int s = (short) ((source[sourcePos] & 0xFF) | (source[sourcePos + 1] << 8));
+        sourcePos += 2;
+        return s;
+    }
+}
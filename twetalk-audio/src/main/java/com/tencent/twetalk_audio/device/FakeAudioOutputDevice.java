@@ -0,0 +1,214 @@
+package com.tencent.twetalk_audio.device;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录输出的设备，不依赖 Android，可在普通 JVM 上驱动播放通路
+ * realTime 为 true 时按采样时钟消耗缓冲（缓冲满时 write 返回 0，播空计为欠载），否则全部接收
+ * 每次写入连同写入时间和帧位置一起记录
+ */
+public class FakeAudioOutputDevice implements AudioOutputDevice {
+
+    /**
+     * 一次写入
+     */
+    public static final class Chunk {
+        public final long nanoTime;        // 写入时间（System.nanoTime）
+        public final long framePosition;   // 写入前累计的每声道样本数
+        public final byte[] data;
+
+        Chunk(long nanoTime, long framePosition, byte[] data) {
+            this.nanoTime = nanoTime;
+            this.framePosition = framePosition;
+            this.data = data;
+        }
+    }
+
+    private final boolean realTime;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private boolean recordWrites = true;
+
+    private int sampleRate;
+    private int bytesPerFrame;
+    private int bufferBytes = 0;
+    private boolean playing = false;
+
+    private long writtenBytes = 0;     // 累计写入
+    private long consumedBytes = 0;    // 累计“播放”
+    private long clockStartNs = 0;     // 播放时钟起点
+    private long clockStartBytes = 0;  // 播放时钟起点对应的已消耗字节
+    private long headBaseBytes = 0;    // 播放位置起点（open / flush 时重置）
+    private int underrunCount = 0;
+
+    /**
+     * @param realTime 是否按实时节奏消耗缓冲
+     */
+    public FakeAudioOutputDevice(boolean realTime) {
+        this.realTime = realTime;
+    }
+
+    /**
+     * 是否保存写入内容（默认保存）；性能测试中关闭，避免设备自身的拷贝计入播放线程分配
+     */
+    public synchronized void setRecordWrites(boolean recordWrites) {
+        this.recordWrites = recordWrites;
+    }
+
+    @Override
+    public synchronized void open(int sampleRate, int channels, int encoding, int bufferMs) {
+        this.sampleRate = sampleRate;
+        this.bytesPerFrame = channels * PcmEncoding.bytesPerSample(encoding);
+        this.bufferBytes = Math.max(bytesPerFrame, sampleRate * bytesPerFrame * bufferMs / 1000);
+        this.playing = false;
+        this.consumedBytes = writtenBytes;
+        this.headBaseBytes = writtenBytes;
+    }
+
+    @Override
+    public synchronized int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    @Override
+    public synchronized void play() {
+        if (!playing) {
+            playing = true;
+            restartClock(System.nanoTime());
+        }
+    }
+
+    @Override
+    public synchronized void pause() {
+        advance(System.nanoTime());
+        playing = false;
+    }
+
+    @Override
+    public synchronized void flush() {
+        consumedBytes = writtenBytes;
+        headBaseBytes = writtenBytes;
+        restartClock(System.nanoTime());
+    }
+
+    @Override
+    public synchronized void stop() {
+        advance(System.nanoTime());
+        playing = false;
+    }
+
+    @Override
+    public synchronized int write(byte[] data, int offset, int length) {
+        if (bufferBytes == 0) {
+            return -1;
+        }
+        long now = System.nanoTime();
+        int accepted = length;
+        if (realTime) {
+            advance(now);
+            long free = bufferBytes - (writtenBytes - consumedBytes);
+            accepted = (int) Math.min(length, Math.max(0, free));
+            accepted -= accepted % bytesPerFrame;
+            if (accepted == 0) {
+                return 0;
+            }
+        }
+
+        if (recordWrites) {
+            byte[] copy = new byte[accepted];
+            System.arraycopy(data, offset, copy, 0, accepted);
+            chunks.add(new Chunk(now, writtenBytes / bytesPerFrame, copy));
+        }
+        writtenBytes += accepted;
+        if (!realTime) {
+            consumedBytes = writtenBytes;
+        }
+        return accepted;
+    }
+
+    @Override
+    public synchronized boolean isPlaying() {
+        return playing;
+    }
+
+    @Override
+    public synchronized void release() {
+        playing = false;
+        bufferBytes = 0;
+    }
+
+    /**
+     * 已记录的写入（副本）
+     */
+    public synchronized List<Chunk> getChunks() {
+        return new ArrayList<>(chunks);
+    }
+
+    /**
+     * 全部写入数据按顺序拼接
+     */
+    public synchronized byte[] getWrittenData() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) writtenBytes);
+        for (Chunk chunk : chunks) {
+            out.write(chunk.data, 0, chunk.data.length);
+        }
+        return out.toByteArray();
+    }
+
+    public synchronized long getWrittenFrames() {
+        return bytesPerFrame > 0 ? writtenBytes / bytesPerFrame : 0;
+    }
+
+    @Override
+    public synchronized boolean getTimestamp(DeviceTimestamp out) {
+        if (!realTime || !playing || bytesPerFrame == 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        advance(now);
+        out.framePosition = (consumedBytes - headBaseBytes) / bytesPerFrame;
+        out.nanoTime = now;
+        return true;
+    }
+
+    /**
+     * 播放中缓冲被播空的次数（仅实时模式）
+     */
+    @Override
+    public synchronized int getUnderrunCount() {
+        return underrunCount;
+    }
+
+    /**
+     * 清空记录，不影响播放状态
+     */
+    public synchronized void clearRecords() {
+        chunks.clear();
+    }
+
+    private void restartClock(long now) {
+        clockStartNs = now;
+        clockStartBytes = consumedBytes;
+    }
+
+    /**
+     * 按播放时钟推进已消耗字节，播空时记一次欠载并从当前时间重新计时
+     */
+    private void advance(long now) {
+        if (!realTime || !playing || bytesPerFrame == 0) {
+            return;
+        }
+        long frames = (now - clockStartNs) * sampleRate / 1_000_000_000L;
+        long consumed = clockStartBytes + frames * bytesPerFrame;
+        if (consumed >= writtenBytes) {
+            if (consumed > writtenBytes && writtenBytes > clockStartBytes) {
+                underrunCount++;
+            }
+            consumedBytes = writtenBytes;
+            restartClock(now);
+        } else {
+            consumedBytes = consumed;
+        }
+    }
+}
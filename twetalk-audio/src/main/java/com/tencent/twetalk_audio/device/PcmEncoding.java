@@ -0,0 +1,51 @@
+package com.tencent.twetalk_audio.device;
+
+/**
+ * 设备 PCM 编码，取值即每样本字节数
+ * 与 android.media.AudioFormat.ENCODING_* 解耦，使设备接口不依赖 Android 类型
+ */
+public final class PcmEncoding {
+    public static final int PCM_8BIT = 1;
+    public static final int PCM_16BIT = 2;
+    public static final int PCM_FLOAT = 4;
+
+    private PcmEncoding() {
+    }
+
+    /**
+     * 每样本字节数
+     */
+    public static int bytesPerSample(int encoding) {
+        switch (encoding) {
+            case PCM_8BIT:
+            case PCM_16BIT:
+            case PCM_FLOAT:
+                return encoding;
+            default:
+                throw new IllegalArgumentException("不支持的 PCM 编码: " + encoding);
+        }
+    }
+
+    /**
+     * 按位深和是否 float 选择编码
+     */
+    public static int of(int bitDepth, boolean useFloat) {
+        if (useFloat) {
+            return PCM_FLOAT;
+        }
+        return bitDepth == 8 ? PCM_8BIT : PCM_16BIT;
+    }
+
+    public static String toString(int encoding) {
+        switch (encoding) {
+            case PCM_8BIT:
+                return "PCM_8BIT";
+            case PCM_16BIT:
+                return "PCM_16BIT";
+            case PCM_FLOAT:
+                return "PCM_FLOAT";
+            default:
+                return "UNKNOWN(" + encoding + ")";
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.tencent.twetalk_audio.engine;
+
+import android.os.Build;
+import android.util.Log;
+
+import com.tencent.twetalk_audio.opus.OpusEncoderParams;
+
+/**
+ * 原生音频引擎（AAudio + 无锁环形缓冲 + 原生 Opus 编解码）
+ * 采集、编码、解码、播放均在原生层完成，音频回调不经过 Java，不受 GC 影响；
+ * Java 侧只按批交换编码包。需要 Android 8.0（API 26）及以上
+ */
+public final class NativeAudioEngine {
+    private static final String TAG = "NativeAudioEngine";
+
+    // getStats() 下标，与原生 EngineStat 保持一致
+    public static final int STAT_CAPTURE_OVERRUNS = 0;
+    public static final int STAT_RENDER_UNDERRUNS = 1;
+    public static final int STAT_ENCODED_PACKETS = 2;
+    public static final int STAT_DECODED_PACKETS = 3;
+    public static final int STAT_UPLINK_DROPPED = 4;
+    public static final int STAT_DOWNLINK_DROPPED = 5;
+    public static final int STAT_INPUT_LATENCY_US = 6;
+    public static final int STAT_OUTPUT_LATENCY_US = 7;
+    public static final int STAT_INPUT_XRUNS = 8;
+    public static final int STAT_OUTPUT_XRUNS = 9;
+    public static final int STAT_INPUT_BURST_FRAMES = 10;
+    public static final int STAT_OUTPUT_BURST_FRAMES = 11;
+    public static final int STAT_COUNT = 12;
+
+    // 与原生 kMaxPacketBytes 一致
+    public static final int MAX_PACKET_BYTES = 1275 * 3;
+
+    private static final boolean LIBRARY_LOADED = loadLibrary();
+
+    private static boolean loadLibrary() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return false;
+        }
+        try {
+            System.loadLibrary("talk_engine");
+            return true;
+        } catch (Throwable e) {
+            Log.w(TAG, "原生音频引擎加载失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static native long nativeCreate(int sampleRate, int channels, int frameMs,
+                                            int bitrate, int complexity, boolean cbr,
+                                            int targetBytes, boolean pad, boolean dtx,
+                                            boolean signalVoice, int maxBandwidth, boolean lowDelay);
+    private static native boolean nativeStartCapture(long handle);
+    private static native void nativeStopCapture(long handle);
+    private static native boolean nativeStartRender(long handle);
+    private static native void nativeStopRender(long handle);
+    private static native int nativeReadPackets(long handle, byte[] buffer, int[] sizes, long[] ptsUs);
+    private static native int nativeWritePackets(long handle, byte[] data, int[] sizes, int count);
+    private static native void nativeGetStats(long handle, long[] out);
+    private static native void nativeRelease(long handle);
+
+    /**
+     * 当前设备是否可用原生引擎
+     */
+    public static boolean isAvailable() {
+        return LIBRARY_LOADED;
+    }
+
+    /**
+     * 创建引擎，编码参数与 Java 通路的 OpusBridge 完全一致（帧长、定长填充 / 包大小上限、DTX、低延迟、带宽）
+     * @return 引擎实例，不可用或创建失败返回 null
+     */
+    public static NativeAudioEngine create(OpusEncoderParams params) {
+        if (!LIBRARY_LOADED) {
+            return null;
+        }
+        long handle = nativeCreate(params.getSampleRate(), params.getChannels(), params.getFrameMs(),
+                params.getBitrate(), params.getComplexity(), params.isCbr(),
+                params.getTargetBytes(), params.isPadding(), params.isDtx(),
+                params.isSignalVoice(), params.getMaxBandwidth(), params.isLowDelay());
+        if (handle == 0L) {
+            Log.e(TAG, "原生音频引擎创建失败");
+            return null;
+        }
+        return new NativeAudioEngine(handle);
+    }
+
+    private long handle;
+    private int activeCalls = 0;   // 进行中的原生调用数（读写包、读统计不持锁执行），release 等待其归零
+
+    private NativeAudioEngine(long handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * 登记一次不持锁的原生调用，须与 endCall 配对
+     * @return 引擎句柄，已释放时返回 0
+     */
+    private synchronized long beginCall() {
+        if (handle == 0L) {
+            return 0L;
+        }
+        activeCalls++;
+        return handle;
+    }
+
+    private synchronized void endCall() {
+        if (--activeCalls == 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * 开始采集编码（优先独占模式，失败回退共享模式）
+     */
+    public synchronized boolean startCapture() {
+        return handle != 0L && nativeStartCapture(handle);
+    }
+
+    public synchronized void stopCapture() {
+        if (handle != 0L) {
+            nativeStopCapture(handle);
+        }
+    }
+
+    /**
+     * 开始解码播放
+     */
+    public synchronized boolean startRender() {
+        return handle != 0L && nativeStartRender(handle);
+    }
+
+    /**
+     * 停止播放并丢弃尚未播放的数据
+     */
+    public synchronized void stopRender() {
+        if (handle != 0L) {
+            nativeStopRender(handle);
+        }
+    }
+
+    /**
+     * 批量读取已编码的上行包
+     * @param batch 输出批次，读取前会被清空
+     * @return 读取到的包数
+     */
+    public int readPackets(PacketBatch batch) {
+        batch.clear();
+        long h = beginCall();
+        if (h == 0L) {
+            return 0;
+        }
+        try {
+            int count = nativeReadPackets(h, batch.data, batch.sizes, batch.ptsUs);
+            batch.count = Math.max(count, 0);
+        } finally {
+            endCall();
+        }
+        return batch.count;
+    }
+
+    /**
+     * 批量写入待解码播放的下行包
+     * @return 实际接收的包数（队列满时丢弃）
+     */
+    public int writePackets(PacketBatch batch) {
+        if (batch.count == 0) {
+            return 0;
+        }
+        long h = beginCall();
+        if (h == 0L) {
+            return 0;
+        }
+        try {
+            return nativeWritePackets(h, batch.data, batch.sizes, batch.count);
+        } finally {
+            endCall();
+        }
+    }
+
+    /**
+     * 读取统计，下标见 STAT_*
+     */
+    public long[] getStats() {
+        long[] out = new long[STAT_COUNT];
+        long h = beginCall();
+        if (h != 0L) {
+            try {
+                nativeGetStats(h, out);
+            } finally {
+                endCall();
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 释放原生引擎：先拒绝新的调用，等待进行中的读写包和统计调用结束后再销毁，之后所有调用均为空操作
+     */
+    public synchronized void release() {
+        long h = handle;
+        if (h == 0L) {
+            return;
+        }
+        handle = 0L;
+
+        boolean interrupted = false;
+        while (activeCalls > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        nativeRelease(h);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 编码包批次：包数据顺序拼接在 data 中，sizes/ptsUs 按包记录
+     * 非线程安全，读写各自使用独立实例
+     */
+    public static final class PacketBatch {
+        final byte[] data;
+        final int[] sizes;
+        final long[] ptsUs;
+        int count = 0;
+        private int used = 0;
+
+        /**
+         * @param maxPackets 单批最大包数
+         */
+        public PacketBatch(int maxPackets) {
+            this.data = new byte[maxPackets * MAX_PACKET_BYTES];
+            this.sizes = new int[maxPackets];
+            this.ptsUs = new long[maxPackets];
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * 复制出第 index 个包
+         */
+        public byte[] getPacket(int index) {
+            return copyPacket(getOffset(index), sizes[index]);
+        }
+
+        /**
+         * 复制 data 中 [offset, offset + size) 的包；按顺序遍历时配合 getSize 累加偏移，避免 getPacket 的重复扫描
+         */
+        public byte[] copyPacket(int offset, int size) {
+            byte[] packet = new byte[size];
+            System.arraycopy(data, offset, packet, 0, size);
+            return packet;
+        }
+
+        /**
+         * 第 index 个包在批次缓冲中的起始位置
+         */
+        public int getOffset(int index) {
+            int offset = 0;
+            for (int i = 0; i < index; i++) {
+                offset += sizes[i];
+            }
+            return offset;
+        }
+
+        public int getSize(int index) {
+            return sizes[index];
+        }
+
+        public long getPtsUs(int index) {
+            return ptsUs[index];
+        }
+
+        /**
+         * 追加一个包（写入方向）
+         * @return 批次已满时返回 false
+         */
+        public boolean add(byte[] packet, int size) {
+            if (count >= sizes.length || used + size > data.length || size > MAX_PACKET_BYTES) {
+                return false;
+            }
+            System.arraycopy(packet, 0, data, used, size);
+            sizes[count++] = size;
+            used += size;
+            return true;
+        }
+
+        public void clear() {
+            count = 0;
+            used = 0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.tencent.twetalk_audio.frame;
+
+import com.tencent.twetalk_audio.config.AudioFormatType;
+
+/**
+ * 音频帧：携带数据及其元信息，在采集、编码、播放之间传递
+ * 时间戳统一使用 CLOCK_MONOTONIC（与 System.nanoTime() 同源），便于与图像等其他采集数据对齐
+ */
+public final class AudioFrame {
+    private final long sequence;       // 单调递增序号
+    private final long timestampNs;    // 采集帧：首个样本的采集时间；接收帧：到达时间
+    private final long ptsUs;          // 媒体时间（按样本数推算，微秒）
+    private final byte[] data;
+    private final int size;
+    private final int sampleCount;     // 每声道样本数
+    private final int sampleRate;
+    private final int channels;
+    private final AudioFormatType format;
+
+    public AudioFrame(long sequence, long timestampNs, long ptsUs, byte[] data, int size,
+                      int sampleCount, int sampleRate, int channels, AudioFormatType format) {
+        this.sequence = sequence;
+        this.timestampNs = timestampNs;
+        this.ptsUs = ptsUs;
+        this.data = data;
+        this.size = size;
+        this.sampleCount = sampleCount;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.format = format != null ? format : AudioFormatType.PCM;
+    }
+
+    /**
+     * 由 PCM 帧派生编码后的帧，序号和时间戳保持不变
+     */
+    public AudioFrame withEncodedData(byte[] encoded, AudioFormatType encodedFormat) {
+        return new AudioFrame(sequence, timestampNs, ptsUs, encoded, encoded != null ? encoded.length : 0,
+                sampleCount, sampleRate, channels, encodedFormat);
+    }
+
+    /**
+     * 按起始样本位置推算 pts（不经过 OpusBridge，PCM 通路无需加载 native 库）
+     */
+    public static long ptsUsAt(long samplePosition, int sampleRate) {
+        return samplePosition * 1_000_000L / sampleRate;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    public long getPtsUs() {
+        return ptsUs;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public AudioFormatType getFormat() {
+        return format;
+    }
+
+    /**
+     * 帧时长（微秒）
+     */
+    public long getDurationUs() {
+        return sampleRate > 0 ? ptsUsAt(sampleCount, sampleRate) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "AudioFrame{seq=" + sequence +
+                ", timestampNs=" + timestampNs +
+                ", ptsUs=" + ptsUs +
+                ", size=" + size +
+                ", samples=" + sampleCount +
+                ", sampleRate=" + sampleRate +
+                ", channels=" + channels +
+                ", format=" + format +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package com.tencent.twetalk_audio.listener;
+
+import com.tencent.twetalk_audio.frame.AudioFrame;
+
+/**
+ * 带元信息的音频帧监听器（在采集/播放线程回调）
+ */
+public interface OnAudioFrameListener {
+    /**
+     * 采集帧回调（16bit PCM），与 OnRecordDataListener.onPcmData 同步触发
+     * @param frame 音频帧
+     */
+    void onCaptureFrame(AudioFrame frame);
+
+    /**
+     * 编码帧回调，序号和时间戳与对应的采集帧一致
+     * @param frame 音频帧
+     */
+    void onEncodedFrame(AudioFrame frame);
+
+    /**
+     * 播放帧回调：已解码并写入播放队列
+     * @param frame 解码后的 PCM 帧，序号和时间戳沿用接收帧（float 播放时数据为 float 小端字节）
+     * @param lostFrames 与上一帧之间缺失的帧数（按序号计算）
+     */
+    void onPlaybackFrame(AudioFrame frame, long lostFrames);
+}
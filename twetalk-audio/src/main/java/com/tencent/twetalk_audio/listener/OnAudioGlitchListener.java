@@ -0,0 +1,14 @@
+package com.tencent.twetalk_audio.listener;
+
+/**
+ * 音频异常事件监听器（在采集或播放线程回调，勿执行耗时操作）
+ * 连续的同类异常只在开始时回调一次，逐帧数量见 AudioMetrics 对应计数
+ */
+public interface OnAudioGlitchListener {
+    /**
+     * @param type AudioMetrics.GLITCH_*
+     * @param timestampNs 检测到的时间（System.nanoTime）
+     * @param detail 附加信息：丢帧 / 欠载为数量，播放中断为时长（毫秒），编码丢帧为帧序号，其余为 0
+     */
+    void onGlitch(int type, long timestampNs, long detail);
+}
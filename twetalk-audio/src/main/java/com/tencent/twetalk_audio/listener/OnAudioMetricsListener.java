@@ -0,0 +1,13 @@
+package com.tencent.twetalk_audio.listener;
+
+import com.tencent.twetalk_audio.metrics.AudioMetrics;
+
+/**
+ * 音频指标周期回调监听器（在指标上报线程回调，勿执行耗时操作）
+ */
+public interface OnAudioMetricsListener {
+    /**
+     * @param snapshot 本次快照，计数与直方图为累计值，可与上次快照相减得到区间值
+     */
+    void onMetrics(AudioMetrics.Snapshot snapshot);
+}
@@ -10,4 +10,12 @@ public interface OnPlayStateListener {
      * @param message 错误信息
      */
     void onPlayError(int errorCode, String message);
+
+    /**
+     * 播放空闲后新的一段音频的首个样本已实际播出（在播放线程回调）
+     * 输出设备不支持播放位置时 renderedNs 等于 firstWriteNs
+     * @param firstWriteNs 首个样本写入输出设备的时间（System.nanoTime）
+     * @param renderedNs 播放位置越过首个样本的时间（System.nanoTime，精度约 5ms）
+     */
+    default void onFirstSampleRendered(long firstWriteNs, long renderedNs) {}
 }
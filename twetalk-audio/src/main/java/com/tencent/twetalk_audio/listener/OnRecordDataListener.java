@@ -12,7 +12,7 @@ public interface OnRecordDataListener {
     void onPcmData(byte[] data, int size);
 
     /**
-     * Opus 编码数据回调（仅当配置为 Opus 格式时触发）
+     * Opus 编码数据回调（仅当上行格式为 Opus 时触发，开启上行格式自适应时随切换变化）
      * @param data Opus 编码后的音频数据
      * @param size 数据大小（字节）
      */
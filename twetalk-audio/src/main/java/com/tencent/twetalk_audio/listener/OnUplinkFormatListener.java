@@ -0,0 +1,16 @@
+package com.tencent.twetalk_audio.listener;
+
+import com.tencent.twetalk_audio.config.AudioFormatType;
+
+/**
+ * 上行格式自适应切换监听器（在采集线程回调）
+ */
+public interface OnUplinkFormatListener {
+    /**
+     * 上行格式已切换，从下一帧起按新格式回调
+     * 新格式为 PCM 时发送 onPcmData 数据，为 Opus 时发送 onOpusData 数据
+     * @param format 新的上行格式
+     * @param reason 切换原因，见 UplinkFormatPolicy.REASON_*
+     */
+    void onUplinkFormatChanged(AudioFormatType format, int reason);
+}
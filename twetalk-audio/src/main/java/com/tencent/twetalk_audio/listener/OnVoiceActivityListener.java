@@ -0,0 +1,24 @@
+package com.tencent.twetalk_audio.listener;
+
+/**
+ * 语音活动监听器（均在采集线程回调）
+ */
+public interface OnVoiceActivityListener {
+    /**
+     * 低功耗监听状态切换回调
+     * @param fullQuality true: 检测到语音，已切换为全质量采集编码；false: 已回落到低功耗监听
+     */
+    void onListeningModeChanged(boolean fullQuality);
+
+    /**
+     * 端点检测：检测到用户开始说话
+     */
+    void onSpeechStarted();
+
+    /**
+     * 端点检测：用户一句话说完
+     * @param reason 结束原因，见 Endpointer.REASON_*
+     * @param utteranceMs 语句时长（毫秒）
+     */
+    void onEndOfUtterance(int reason, long utteranceMs);
+}
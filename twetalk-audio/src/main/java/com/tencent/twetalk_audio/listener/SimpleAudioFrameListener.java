@@ -0,0 +1,25 @@
+package com.tencent.twetalk_audio.listener;
+
+import com.tencent.twetalk_audio.frame.AudioFrame;
+
+/**
+ * 简化的音频帧监听器适配器
+ * 继承此类可只实现需要的方法
+ */
+public abstract class SimpleAudioFrameListener implements OnAudioFrameListener {
+
+    @Override
+    public void onCaptureFrame(AudioFrame frame) {
+        // 默认空实现
+    }
+
+    @Override
+    public void onEncodedFrame(AudioFrame frame) {
+        // 默认空实现
+    }
+
+    @Override
+    public void onPlaybackFrame(AudioFrame frame, long lostFrames) {
+        // 默认空实现
+    }
+}
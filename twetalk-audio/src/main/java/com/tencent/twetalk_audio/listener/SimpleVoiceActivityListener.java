@@ -0,0 +1,23 @@
+package com.tencent.twetalk_audio.listener;
+
+/**
+ * 简化的语音活动监听器适配器
+ * 继承此类可只实现需要的方法
+ */
+public abstract class SimpleVoiceActivityListener implements OnVoiceActivityListener {
+
+    @Override
+    public void onListeningModeChanged(boolean fullQuality) {
+        // 默认空实现
+    }
+
+    @Override
+    public void onSpeechStarted() {
+        // 默认空实现
+    }
+
+    @Override
+    public void onEndOfUtterance(int reason, long utteranceMs) {
+        // 默认空实现
+    }
+}
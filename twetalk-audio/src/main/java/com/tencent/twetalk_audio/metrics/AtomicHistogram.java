@@ -0,0 +1,115 @@
+package com.tencent.twetalk_audio.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁直方图：非负 long 值对数分桶，分桶规则见 HistogramBuckets
+ * 内存固定，record 为 O(1) 且不分配对象，可在采集 / 播放线程直接调用；snapshot 可在任意线程读取
+ */
+public final class AtomicHistogram {
+    private static final int BUCKETS = HistogramBuckets.BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(HistogramBuckets.index(value));
+        sum.addAndGet(value);
+
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 读取快照（与并发的 record 不构成原子视图，计数误差不超过正在进行的记录数）
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = counts.get(i);
+            total += buckets[i];
+        }
+        return new Snapshot(buckets, total, sum.get(), max.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * 直方图快照（不可变）
+     */
+    public static final class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getMean() {
+            return count > 0 ? sum / count : 0;
+        }
+
+        /**
+         * 百分位数（取所在桶上界，偏保守）
+         * @param percentile 0~100
+         */
+        public long getPercentile(double percentile) {
+            return HistogramBuckets.percentile(buckets, count, max, percentile);
+        }
+
+        /**
+         * 与较早的快照相减，得到两次快照之间的分布（max 取本次快照的值）
+         */
+        public Snapshot minus(Snapshot earlier) {
+            if (earlier == null) {
+                return this;
+            }
+            long[] diff = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                diff[i] = Math.max(0, buckets[i] - earlier.buckets[i]);
+                total += diff[i];
+            }
+            return new Snapshot(diff, total, Math.max(0, sum - earlier.sum), max);
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count +
+                    ", mean=" + getMean() +
+                    ", p50=" + getPercentile(50) +
+                    ", p99=" + getPercentile(99) +
+                    ", p99.9=" + getPercentile(99.9) +
+                    ", max=" + max;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.tencent.twetalk_audio.metrics;
+
+import com.tencent.twetalk_audio.listener.OnAudioGlitchListener;
+import com.tencent.twetalk_audio.listener.OnAudioMetricsListener;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 音频流水线指标：计数、瞬时值和耗时直方图
+ * 记录全部无锁、不分配对象，可在采集 / 编码 / 播放线程直接调用；
+ * 通过 snapshot() 随时读取，或 setOnMetricsListener 周期回调
+ */
+public final class AudioMetrics {
+    // 计数下标
+    public static final int COUNTER_CAPTURE_READS = 0;           // 采集读取次数
+    public static final int COUNTER_CAPTURE_SHORT_READS = 1;     // 读取不足请求大小的次数
+    public static final int COUNTER_CAPTURE_ZERO_READS = 2;      // 读取为 0 的次数
+    public static final int COUNTER_CAPTURE_ERRORS = 3;          // 读取返回错误码的次数
+    public static final int COUNTER_FRAMES_EMITTED = 4;          // 回调给上层的采集帧数
+    public static final int COUNTER_ENCODE_FAILURES = 5;         // 编码失败帧数
+    public static final int COUNTER_DECODE_FAILURES = 6;         // 解码失败包数
+    public static final int COUNTER_PLAYBACK_FRAMES = 7;         // 进入播放队列的帧数
+    public static final int COUNTER_PLAYBACK_DROPS = 8;          // 播放队列超出容量丢弃的帧数
+    public static final int COUNTER_PLAYBACK_LOST = 9;           // 按序号检测到的接收丢帧数
+    public static final int COUNTER_RENDER_UNDERRUNS = 10;       // AudioTrack 欠载次数
+    public static final int COUNTER_RENDER_WRITE_STALLS = 11;    // 输出缓冲已满、写入 0 字节的次数
+    public static final int COUNTER_RENDER_WRITE_ERRORS = 12;    // 写入返回错误码的次数
+    public static final int COUNTER_CAPTURE_CPU_NS = 13;         // 采集线程 CPU 时间（含处理、编码和回调）
+    public static final int COUNTER_CAPTURE_ALLOC_BYTES = 14;    // 采集线程分配字节数（注册周期回调期间统计）
+    public static final int COUNTER_PLAYBACK_CPU_NS = 15;        // 播放线程 CPU 时间（含解码和写入）
+    public static final int COUNTER_PLAYBACK_ALLOC_BYTES = 16;   // 播放线程分配字节数（注册周期回调期间统计）
+    public static final int COUNTER_CAPTURE_SILENT_FRAMES = 17;  // 采集到全零帧的帧数
+    public static final int COUNTER_CAPTURE_REPEATED_FRAMES = 18; // 采集到与上一帧完全相同的帧数
+    public static final int COUNTER_CAPTURE_CLIPPING_RUNS = 19;  // 采集削波段数
+    public static final int COUNTER_CAPTURE_DISCONTINUITIES = 20; // 采集帧边界跳变次数
+    public static final int COUNTER_RENDER_GAPS = 21;            // 播放中途播空后短时间内恢复的次数
+    public static final int COUNTER_COUNT = 22;
+
+    // 瞬时值下标
+    public static final int GAUGE_PLAYBACK_QUEUE_MS = 0;         // 当前播放队列时长
+    public static final int GAUGE_PLAYBACK_QUEUE_MAX_MS = 1;     // 播放队列时长峰值
+    public static final int GAUGE_CAPTURE_LATENCY_US = 2;        // 采集延迟（滑动平均，无硬件时间戳时为 -1）
+    public static final int GAUGE_LAST_GLITCH_TYPE = 3;          // 最近一次异常类型（GLITCH_*，无异常时为 0）
+    public static final int GAUGE_LAST_GLITCH_UPTIME_MS = 4;     // 最近一次异常距指标创建的时长（无异常时为 -1）
+    public static final int GAUGE_COUNT = 5;
+
+    // 直方图下标
+    public static final int HISTOGRAM_ENCODE_US = 0;             // 单帧编码耗时
+    public static final int HISTOGRAM_DECODE_US = 1;             // 单包解码耗时
+    public static final int HISTOGRAM_PLAYBACK_QUEUE_MS = 2;     // 入队时的播放队列时长
+    public static final int HISTOGRAM_COUNT = 3;
+
+    // 异常类型，区分卡顿来自采集、编码、网络、解码还是播放
+    public static final int GLITCH_CAPTURE_SILENCE = 1;          // 采集全零帧（采集断流）
+    public static final int GLITCH_CAPTURE_REPEAT = 2;           // 采集重复帧
+    public static final int GLITCH_CAPTURE_CLIPPING = 3;         // 采集削波
+    public static final int GLITCH_CAPTURE_DISCONTINUITY = 4;    // 采集帧边界跳变（丢样本）
+    public static final int GLITCH_ENCODE_DROP = 5;              // 编码失败丢帧
+    public static final int GLITCH_NETWORK_LOSS = 6;             // 按序号检测到的接收丢帧
+    public static final int GLITCH_DECODE_DROP = 7;              // 解码失败丢包
+    public static final int GLITCH_RENDER_UNDERRUN = 8;          // AudioTrack 欠载
+    public static final int GLITCH_RENDER_GAP = 9;               // 播放中途播空
+
+    private static final String[] COUNTER_NAMES = {
+            "captureReads", "captureShortReads", "captureZeroReads", "captureErrors", "framesEmitted",
+            "encodeFailures", "decodeFailures", "playbackFrames", "playbackDrops", "playbackLost",
+            "renderUnderruns", "renderWriteStalls", "renderWriteErrors", "captureCpuNs", "captureAllocBytes",
+            "playbackCpuNs", "playbackAllocBytes", "captureSilentFrames", "captureRepeatedFrames",
+            "captureClippingRuns", "captureDiscontinuities", "renderGaps"
+    };
+    private static final String[] GAUGE_NAMES = {
+            "playbackQueueMs", "playbackQueueMaxMs", "captureLatencyUs", "lastGlitchType", "lastGlitchUptimeMs"
+    };
+    private static final String[] HISTOGRAM_NAMES = {
+            "encodeUs", "decodeUs", "playbackQueueMs"
+    };
+
+    // 所有实例共用一个上报线程
+    private static volatile ScheduledExecutorService reporter;
+
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTER_COUNT);
+    private final AtomicLongArray gauges = new AtomicLongArray(GAUGE_COUNT);
+    private final AtomicHistogram[] histograms = new AtomicHistogram[HISTOGRAM_COUNT];
+    private final long createdNs = System.nanoTime();
+
+    private ScheduledFuture<?> reportTask;
+    private boolean countingAllocations = false;   // 是否已为周期回调登记分配统计
+    private volatile OnAudioGlitchListener glitchListener;
+
+    public AudioMetrics() {
+        for (int i = 0; i < HISTOGRAM_COUNT; i++) {
+            histograms[i] = new AtomicHistogram();
+        }
+        resetGauges();
+    }
+
+    public void increment(int counter) {
+        counters.incrementAndGet(counter);
+    }
+
+    public void add(int counter, long delta) {
+        counters.addAndGet(counter, delta);
+    }
+
+    public void setGauge(int gauge, long value) {
+        gauges.set(gauge, value);
+    }
+
+    /**
+     * 更新峰值类瞬时值，仅在新值更大时写入
+     */
+    public void updateMax(int gauge, long value) {
+        long current;
+        while (value > (current = gauges.get(gauge))) {
+            if (gauges.compareAndSet(gauge, current, value)) {
+                return;
+            }
+        }
+    }
+
+    public void record(int histogram, long value) {
+        histograms[histogram].record(value);
+    }
+
+    public long getCounter(int counter) {
+        return counters.get(counter);
+    }
+
+    public long getGauge(int gauge) {
+        return gauges.get(gauge);
+    }
+
+    /**
+     * 读取当前全部指标
+     */
+    public Snapshot snapshot() {
+        long[] counterValues = new long[COUNTER_COUNT];
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            counterValues[i] = counters.get(i);
+        }
+        long[] gaugeValues = new long[GAUGE_COUNT];
+        for (int i = 0; i < GAUGE_COUNT; i++) {
+            gaugeValues[i] = gauges.get(i);
+        }
+        AtomicHistogram.Snapshot[] histogramValues = new AtomicHistogram.Snapshot[HISTOGRAM_COUNT];
+        for (int i = 0; i < HISTOGRAM_COUNT; i++) {
+            histogramValues[i] = histograms[i].snapshot();
+        }
+        return new Snapshot((System.nanoTime() - createdNs) / 1_000_000, counterValues, gaugeValues, histogramValues);
+    }
+
+    /**
+     * 清零全部指标
+     */
+    public void reset() {
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            counters.set(i, 0);
+        }
+        resetGauges();
+        for (AtomicHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    private void resetGauges() {
+        for (int i = 0; i < GAUGE_COUNT; i++) {
+            gauges.set(i, 0);
+        }
+        gauges.set(GAUGE_CAPTURE_LATENCY_US, -1);
+        gauges.set(GAUGE_LAST_GLITCH_UPTIME_MS, -1);
+    }
+
+    /**
+     * 设置异常事件监听，null 为取消
+     */
+    public void setOnGlitchListener(OnAudioGlitchListener listener) {
+        glitchListener = listener;
+    }
+
+    /**
+     * 记录一次异常并回调监听器；对应计数由调用方累加
+     * @param type GLITCH_*
+     * @param detail 见 OnAudioGlitchListener.onGlitch
+     */
+    public void reportGlitch(int type, long detail) {
+        long now = System.nanoTime();
+        gauges.set(GAUGE_LAST_GLITCH_TYPE, type);
+        gauges.set(GAUGE_LAST_GLITCH_UPTIME_MS, (now - createdNs) / 1_000_000);
+        OnAudioGlitchListener listener = glitchListener;
+        if (listener != null) {
+            listener.onGlitch(type, now, detail);
+        }
+    }
+
+    /**
+     * 设置周期回调，listener 为 null 时停止
+     * 回调注册期间开启线程分配统计，COUNTER_*_ALLOC_BYTES 才会增长
+     * @param periodMs 回调间隔
+     */
+    public synchronized void setOnMetricsListener(OnAudioMetricsListener listener, long periodMs) {
+        if (reportTask != null) {
+            reportTask.cancel(false);
+            reportTask = null;
+        }
+        boolean active = listener != null && periodMs > 0;
+        if (active != countingAllocations) {
+            countingAllocations = active;
+            if (active) {
+                ThreadResourceMeter.acquireAllocationCounting();
+            } else {
+                ThreadResourceMeter.releaseAllocationCounting();
+            }
+        }
+        if (!active) {
+            return;
+        }
+        reportTask = reporter().scheduleAtFixedRate(() -> listener.onMetrics(snapshot()),
+                periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static ScheduledExecutorService reporter() {
+        if (reporter == null) {
+            synchronized (AudioMetrics.class) {
+                if (reporter == null) {
+                    reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "AudioMetrics");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return reporter;
+    }
+
+    /**
+     * 指标快照（不可变），下标见 COUNTER_* / GAUGE_* / HISTOGRAM_*
+     */
+    public static final class Snapshot {
+        private final long uptimeMs;
+        private final long[] counters;
+        private final long[] gauges;
+        private final AtomicHistogram.Snapshot[] histograms;
+
+        Snapshot(long uptimeMs, long[] counters, long[] gauges, AtomicHistogram.Snapshot[] histograms) {
+            this.uptimeMs = uptimeMs;
+            this.counters = counters;
+            this.gauges = gauges;
+            this.histograms = histograms;
+        }
+
+        /**
+         * 指标创建以来的时长
+         */
+        public long getUptimeMs() {
+            return uptimeMs;
+        }
+
+        public long getCounter(int counter) {
+            return counters[counter];
+        }
+
+        public long[] getCounters() {
+            return counters.clone();
+        }
+
+        public long getGauge(int gauge) {
+            return gauges[gauge];
+        }
+
+        public long[] getGauges() {
+            return gauges.clone();
+        }
+
+        public AtomicHistogram.Snapshot getHistogram(int histogram) {
+            return histograms[histogram];
+        }
+
+        /**
+         * 与较早的快照相减：计数和直方图为区间值，瞬时值取本次快照
+         */
+        public Snapshot minus(Snapshot earlier) {
+            if (earlier == null) {
+                return this;
+            }
+            long[] counterDiff = new long[COUNTER_COUNT];
+            for (int i = 0; i < COUNTER_COUNT; i++) {
+                counterDiff[i] = counters[i] - earlier.counters[i];
+            }
+            AtomicHistogram.Snapshot[] histogramDiff = new AtomicHistogram.Snapshot[HISTOGRAM_COUNT];
+            for (int i = 0; i < HISTOGRAM_COUNT; i++) {
+                histogramDiff[i] = histograms[i].minus(earlier.histograms[i]);
+            }
+            return new Snapshot(uptimeMs - earlier.uptimeMs, counterDiff, gauges, histogramDiff);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("AudioMetrics{uptimeMs=").append(uptimeMs);
+            for (int i = 0; i < COUNTER_COUNT; i++) {
+                sb.append(", ").append(COUNTER_NAMES[i]).append('=').append(counters[i]);
+            }
+            for (int i = 0; i < GAUGE_COUNT; i++) {
+                sb.append(", ").append(GAUGE_NAMES[i]).append('=').append(gauges[i]);
+            }
+            for (int i = 0; i < HISTOGRAM_COUNT; i++) {
+                sb.append(", ").append(HISTOGRAM_NAMES[i]).append("=[").append(histograms[i]).append(']');
+            }
+            return sb.append('}').toString();
+        }
+    }
+}
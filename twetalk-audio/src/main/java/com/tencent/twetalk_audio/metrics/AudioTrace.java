@@ -0,0 +1,89 @@
+package com.tencent.twetalk_audio.metrics;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * 系统 trace 打点，抓取 Perfetto / systrace 时可见各阶段区间、跨线程的帧区间和计数器
+ * 未抓取 trace 时每次打点只做一次开关判断，不拼接字符串、不分配内存；仅 API 29+ 生效
+ *
+ * 同步区间用法：
+ * <pre>
+ * boolean traced = AudioTrace.begin(AudioTrace.ENCODE);
+ * try { ... } finally { AudioTrace.end(traced); }
+ * </pre>
+ */
+public final class AudioTrace {
+    // 同步区间
+    public static final String CAPTURE_READ = "TalkAudio.captureRead";       // 采集设备读取
+    public static final String CAPTURE_FRAME = "TalkAudio.captureFrame";     // 一帧的处理、编码和回调
+    public static final String ENCODE = "TalkAudio.encodeOpus";              // Opus 编码
+    public static final String DELIVER = "TalkAudio.deliver";                // 回调上层（上层在回调内发送）
+    public static final String NATIVE_PUMP = "TalkAudio.nativePump";         // 原生引擎一批编码包的回调
+    public static final String PLAY_FRAME = "TalkAudio.playFrame";           // 播放线程处理一帧
+    public static final String DECODE = "TalkAudio.decodeOpus";              // Opus 解码
+    public static final String RENDER_WRITE = "TalkAudio.trackWrite";        // 写入 AudioTrack
+
+    // 异步区间，cookie 为帧序号
+    public static final String ASYNC_PLAYBACK_FRAME = "TalkAudio.playbackFrame";   // play() 收到 -> 进入播放队列
+
+    // 计数器
+    public static final String COUNTER_CAPTURE_SEQ = "TalkAudio.captureSeq";         // 上行帧序号
+    public static final String COUNTER_PLAYBACK_SEQ = "TalkAudio.playbackSeq";       // 下行帧序号
+    public static final String COUNTER_PLAYBACK_QUEUE_MS = "TalkAudio.playbackQueueMs"; // 播放队列时长
+
+    private AudioTrace() {
+    }
+
+    /**
+     * 当前是否在抓取 trace
+     */
+    public static boolean isEnabled() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && Trace.isEnabled();
+    }
+
+    /**
+     * 开始同步区间
+     * @return 是否实际开始，传给 end，避免区间中途开启抓取时出现不配对的结束
+     */
+    public static boolean begin(String name) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || !Trace.isEnabled()) {
+            return false;
+        }
+        Trace.beginSection(name);
+        return true;
+    }
+
+    /**
+     * 结束同步区间，须与 begin 在同一线程
+     */
+    public static void end(boolean began) {
+        if (began) {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * 开始异步区间，可在另一线程以相同的 name 和 cookie 结束
+     */
+    public static void beginAsync(String name, long cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && Trace.isEnabled()) {
+            Trace.beginAsyncSection(name, (int) cookie);
+        }
+    }
+
+    public static void endAsync(String name, long cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && Trace.isEnabled()) {
+            Trace.endAsyncSection(name, (int) cookie);
+        }
+    }
+
+    /**
+     * 更新计数器轨道
+     */
+    public static void counter(String name, long value) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && Trace.isEnabled()) {
+            Trace.setCounter(name, value);
+        }
+    }
+}
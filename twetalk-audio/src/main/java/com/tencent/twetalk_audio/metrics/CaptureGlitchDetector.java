@@ -0,0 +1,125 @@
+package com.tencent.twetalk_audio.metrics;
+
+/**
+ * 采集异常检测：全零帧、重复帧、削波和帧边界跳变
+ * 每帧对 16bit PCM 只遍历一次，不分配对象，可常驻开启；仅采集线程调用
+ *
+ * 全零帧：AudioRecord 断流或被抢占时常返回全零数据（正常静音也有底噪，不会严格为 0）
+ * 重复帧：驱动重复交付同一块缓冲
+ * 削波：连续多个样本达到满幅
+ * 帧边界跳变：相邻两帧衔接处的样本差远大于帧内最大样本差，通常是中间丢了样本
+ */
+public final class CaptureGlitchDetector {
+    private static final int CLIP_LEVEL = 32766;          // 不低于该幅度视为满幅
+    private static final int MIN_CLIP_RUN = 3;            // 连续满幅样本数达到该值记为一段削波
+    private static final int MIN_JUMP = 6000;             // 边界跳变的最小幅度
+    private static final int JUMP_RATIO = 2;              // 边界跳变须超过两侧帧内最大样本差的倍数
+
+    private final AudioMetrics metrics;
+    private final int channels;
+    private final int warmUpFrames;
+
+    private long frames;
+    private boolean hasPrevious;
+    private long prevHash;
+    private int prevLength;
+    private int prevMaxDelta;
+    private boolean prevSilent;
+    private boolean prevRepeated;
+    private final int[] lastSamples;
+    private int clipRun;
+
+    /**
+     * @param channels 声道数
+     * @param warmUpFrames 开始采集后忽略全零帧的帧数（设备启动时通常先输出若干全零帧）
+     */
+    public CaptureGlitchDetector(AudioMetrics metrics, int channels, int warmUpFrames) {
+        this.metrics = metrics;
+        this.channels = Math.max(1, channels);
+        this.warmUpFrames = warmUpFrames;
+        this.lastSamples = new int[this.channels];
+    }
+
+    /**
+     * 开始新的采集流时调用
+     */
+    public void reset() {
+        frames = 0;
+        hasPrevious = false;
+        prevSilent = false;
+        prevRepeated = false;
+        clipRun = 0;
+    }
+
+    /**
+     * 分析一帧 16bit 小端 PCM
+     */
+    public void process(byte[] pcm, int offset, int length) {
+        int samples = length / 2;
+        if (samples < channels) {
+            return;
+        }
+
+        boolean silent = true;
+        long hash = 1;
+        int maxDelta = 0;
+        int boundaryDelta = 0;
+        for (int i = 0; i < samples; i++) {
+            int p = offset + i * 2;
+            int s = (short) ((pcm[p] & 0xff) | (pcm[p + 1] << 8));
+            if (s != 0) {
+                silent = false;
+            }
+            hash = hash * 31 + s;
+
+            int ch = i % channels;
+            int delta = Math.abs(s - lastSamples[ch]);
+            if (i < channels) {
+                boundaryDelta = Math.max(boundaryDelta, delta);
+            } else if (delta > maxDelta) {
+                maxDelta = delta;
+            }
+            lastSamples[ch] = s;
+
+            if (s >= CLIP_LEVEL || s <= -CLIP_LEVEL) {
+                if (++clipRun == MIN_CLIP_RUN) {
+                    metrics.increment(AudioMetrics.COUNTER_CAPTURE_CLIPPING_RUNS);
+                    metrics.reportGlitch(AudioMetrics.GLITCH_CAPTURE_CLIPPING, 0);
+                }
+            } else {
+                clipRun = 0;
+            }
+        }
+
+        frames++;
+        if (silent) {
+            // 启动阶段的全零帧不计；启动后一直为零的延续视为同一段
+            if (frames > warmUpFrames) {
+                metrics.increment(AudioMetrics.COUNTER_CAPTURE_SILENT_FRAMES);
+                if (!prevSilent) {
+                    metrics.reportGlitch(AudioMetrics.GLITCH_CAPTURE_SILENCE, 0);
+                }
+            }
+            prevRepeated = false;
+        } else if (hasPrevious) {
+            boolean repeated = hash == prevHash && length == prevLength;
+            if (repeated) {
+                metrics.increment(AudioMetrics.COUNTER_CAPTURE_REPEATED_FRAMES);
+                if (!prevRepeated) {
+                    metrics.reportGlitch(AudioMetrics.GLITCH_CAPTURE_REPEAT, 0);
+                }
+            } else if (!prevSilent && boundaryDelta >= MIN_JUMP
+                    && boundaryDelta > JUMP_RATIO * Math.max(maxDelta, prevMaxDelta)) {
+                metrics.increment(AudioMetrics.COUNTER_CAPTURE_DISCONTINUITIES);
+                metrics.reportGlitch(AudioMetrics.GLITCH_CAPTURE_DISCONTINUITY, 0);
+            }
+            prevRepeated = repeated;
+        }
+
+        hasPrevious = true;
+        prevSilent = silent;
+        prevHash = hash;
+        prevLength = length;
+        prevMaxDelta = maxDelta;
+    }
+}
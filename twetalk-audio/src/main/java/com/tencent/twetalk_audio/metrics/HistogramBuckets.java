@@ -0,0 +1,62 @@
+package com.tencent.twetalk_audio.metrics;
+
+/**
+ * 非负 long 值的对数分桶规则（HDR 风格）：16 以下每个值一个桶，之后每个 2 的幂区间 16 个子桶，相对误差约 6%
+ * AtomicHistogram 和压测工具的 LongHistogram 共用，只含纯 Java 计算，不依赖 Android
+ */
+public final class HistogramBuckets {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    public static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private HistogramBuckets() {
+    }
+
+    /**
+     * @param value 非负值
+     * @return 所在桶下标
+     */
+    public static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exp - SUB_BITS)) & (SUB_COUNT - 1));
+        return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * 桶内最大值
+     */
+    public static long upperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exp = index / SUB_COUNT + SUB_BITS - 1;
+        int sub = index % SUB_COUNT;
+        return ((long) (SUB_COUNT + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+
+    /**
+     * 百分位数（取所在桶上界，偏保守，不超过 max）
+     * @param counts 各桶计数，长度为 BUCKETS
+     * @param count 总计数
+     * @param max 记录过的最大值
+     * @param percentile 0~100
+     */
+    public static long percentile(long[] counts, long count, long max, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0);
+        rank = Math.max(1, rank);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, upperBound(i));
+            }
+        }
+        return max;
+    }
+}
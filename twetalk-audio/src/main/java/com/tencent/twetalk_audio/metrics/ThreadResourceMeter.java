@@ -0,0 +1,135 @@
+package com.tencent.twetalk_audio.metrics;
+
+import android.os.Debug;
+
+/**
+ * 流水线线程的 CPU 时间和内存分配计量
+ * 由被计量的线程自己周期调用 sample()，两次采样之间的增量累加到 AudioMetrics 对应计数；
+ * 采样只读线程时钟，不分配对象。实例仅限单个线程使用
+ */
+public final class ThreadResourceMeter {
+    private static volatile ThreadResourceProbe probe = new AndroidProbe();
+    private static volatile boolean allocationCounting = false;
+    private static int allocationCountingUsers = 0;
+
+    private final AudioMetrics metrics;
+    private final int cpuCounter;
+    private final int allocCounter;
+
+    private long lastCpuNs = ThreadResourceProbe.UNSUPPORTED;
+    private long lastAllocBytes = ThreadResourceProbe.UNSUPPORTED;
+
+    /**
+     * @param cpuCounter CPU 时间（纳秒）累加到的计数下标
+     * @param allocCounter 分配字节数累加到的计数下标
+     */
+    public ThreadResourceMeter(AudioMetrics metrics, int cpuCounter, int allocCounter) {
+        this.metrics = metrics;
+        this.cpuCounter = cpuCounter;
+        this.allocCounter = allocCounter;
+    }
+
+    /**
+     * 替换计量来源（进程内全局），传 null 恢复默认
+     */
+    public static void setProbe(ThreadResourceProbe newProbe) {
+        probe = newProbe != null ? newProbe : new AndroidProbe();
+    }
+
+    /**
+     * 当前线程累计 CPU 时间，与计量使用同一来源，供需要单独计时某一段的调用方使用
+     * @return 纳秒，不支持时为 ThreadResourceProbe.UNSUPPORTED
+     */
+    public static long currentThreadCpuNanos() {
+        return probe.currentThreadCpuNanos();
+    }
+
+    /**
+     * 开关运行时的分配统计（Android 上为 Debug.startAllocCounting，有额外开销）
+     * 关闭时分配计数不增长。AudioMetrics 注册周期回调期间会自动开启，一般无需直接调用
+     */
+    public static synchronized void setAllocationCounting(boolean enabled) {
+        if (allocationCounting == enabled) {
+            return;
+        }
+        allocationCounting = enabled;
+        probe.setAllocationCounting(enabled);
+    }
+
+    /**
+     * 登记一个需要分配统计的使用方，首个使用方登记时开启统计；须与 releaseAllocationCounting 配对
+     */
+    static synchronized void acquireAllocationCounting() {
+        if (allocationCountingUsers++ == 0) {
+            setAllocationCounting(true);
+        }
+    }
+
+    /**
+     * 注销使用方，最后一个使用方注销时关闭统计
+     */
+    static synchronized void releaseAllocationCounting() {
+        if (allocationCountingUsers > 0 && --allocationCountingUsers == 0) {
+            setAllocationCounting(false);
+        }
+    }
+
+    /**
+     * 以当前值为起点，新线程开始计量前调用
+     */
+    public void restart() {
+        ThreadResourceProbe p = probe;
+        lastCpuNs = p.currentThreadCpuNanos();
+        lastAllocBytes = p.currentThreadAllocatedBytes();
+    }
+
+    /**
+     * 累加自上次采样以来的增量，首次调用只记录起点
+     */
+    public void sample() {
+        ThreadResourceProbe p = probe;
+
+        long cpuNs = p.currentThreadCpuNanos();
+        if (cpuNs != ThreadResourceProbe.UNSUPPORTED) {
+            if (lastCpuNs != ThreadResourceProbe.UNSUPPORTED && cpuNs > lastCpuNs) {
+                metrics.add(cpuCounter, cpuNs - lastCpuNs);
+            }
+            lastCpuNs = cpuNs;
+        }
+
+        long allocBytes = p.currentThreadAllocatedBytes();
+        if (allocBytes != ThreadResourceProbe.UNSUPPORTED) {
+            if (lastAllocBytes != ThreadResourceProbe.UNSUPPORTED && allocBytes > lastAllocBytes) {
+                metrics.add(allocCounter, allocBytes - lastAllocBytes);
+            }
+            lastAllocBytes = allocBytes;
+        }
+    }
+
+    /**
+     * 默认来源：线程 CPU 时钟，开启分配统计后读取运行时的线程分配字节数
+     */
+    private static final class AndroidProbe implements ThreadResourceProbe {
+        @Override
+        public long currentThreadCpuNanos() {
+            long cpuNs = Debug.threadCpuTimeNanos();
+            return cpuNs > 0 ? cpuNs : UNSUPPORTED;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public long currentThreadAllocatedBytes() {
+            return allocationCounting ? Debug.getThreadAllocSize() : UNSUPPORTED;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void setAllocationCounting(boolean enabled) {
+            if (enabled) {
+                Debug.startAllocCounting();
+            } else {
+                Debug.stopAllocCounting();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.tencent.twetalk_audio.metrics;
+
+/**
+ * 读取当前线程的 CPU 时间和累计分配字节数
+ * 默认实现基于 android.os.Debug；JVM 单元测试可换成基于 ThreadMXBean 的实现
+ */
+public interface ThreadResourceProbe {
+    long UNSUPPORTED = -1;
+
+    /**
+     * @return 当前线程累计 CPU 时间（纳秒），不支持时为 UNSUPPORTED
+     */
+    long currentThreadCpuNanos();
+
+    /**
+     * @return 当前线程累计分配字节数，不支持或未开启统计时为 UNSUPPORTED
+     */
+    long currentThreadAllocatedBytes();
+
+    /**
+     * 开关分配统计，统计常开的实现无需处理
+     */
+    default void setAllocationCounting(boolean enabled) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.tencent.twetalk_audio.opus;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * libopus 编码后端（JNI）
+ */
+public class LibOpusEncoderBackend implements OpusEncoderBackend {
+    private final OpusBridge opusBridge = OpusBridge.getInstance();
+    private long handle = 0;
+
+    @Override
+    public String getName() {
+        return "libopus";
+    }
+
+    @Override
+    public boolean isHardware() {
+        return false;
+    }
+
+    @Override
+    public boolean init(OpusEncoderParams params) {
+        release();
+        handle = opusBridge.createEncoder(params);
+        return handle != 0L;
+    }
+
+    @Override
+    public List<byte[]> encode(short[] pcmFrame) {
+        return wrap(opusBridge.encode(handle, pcmFrame));
+    }
+
+    @Override
+    public List<byte[]> encodeFloat(float[] pcmFrame) {
+        return wrap(opusBridge.encodeFloat(handle, pcmFrame));
+    }
+
+    @Override
+    public long[] getStats() {
+        return opusBridge.getEncoderStats(handle);
+    }
+
+    @Override
+    public void release() {
+        if (handle != 0L) {
+            opusBridge.releaseEncoder(handle);
+            handle = 0;
+        }
+    }
+
+    private static List<byte[]> wrap(byte[] packet) {
+        return packet != null ? Collections.singletonList(packet) : null;
+    }
+}
@@ -0,0 +1,158 @@
+package com.tencent.twetalk_audio.opus;
+
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MediaCodec Opus 编码后端
+ * 在带 DSP Opus 编码的 SoC 上可将编码负载移出应用核心
+ * 注意：系统编码器按自身帧长（通常 20ms）输出包，且首个 CSD 包会被丢弃
+ */
+public class MediaCodecOpusEncoderBackend implements OpusEncoderBackend {
+    private static final String TAG = "MediaCodecOpusEncoder";
+
+    public static final String MIME_OPUS = "audio/opus";
+
+    private static final long INPUT_TIMEOUT_US = 10_000;
+    private static final long OUTPUT_TIMEOUT_US = 2_000;
+
+    private final String codecName;
+    private final boolean hardware;
+    private final MediaCodec.BufferInfo bufferInfo = new MediaCodec.BufferInfo();
+
+    private MediaCodec codec;
+    private int sampleRate;
+    private int channels;
+    private long inputSamples = 0;   // 已送入的每声道样本数，用于计算 presentationTimeUs
+
+    /**
+     * @param codecName 编码器名称，见 OpusEncoderFactory.findMediaCodecEncoder
+     * @param hardware 是否为硬件编码器
+     */
+    public MediaCodecOpusEncoderBackend(String codecName, boolean hardware) {
+        this.codecName = codecName;
+        this.hardware = hardware;
+    }
+
+    @Override
+    public String getName() {
+        return codecName;
+    }
+
+    @Override
+    public boolean isHardware() {
+        return hardware;
+    }
+
+    @Override
+    public boolean init(OpusEncoderParams params) {
+        release();
+        sampleRate = params.getSampleRate();
+        channels = params.getChannels();
+        inputSamples = 0;
+
+        try {
+            MediaFormat format = MediaFormat.createAudioFormat(MIME_OPUS, sampleRate, channels);
+            format.setInteger(MediaFormat.KEY_BIT_RATE, params.getBitrate());
+            format.setInteger(MediaFormat.KEY_BITRATE_MODE, params.isCbr()
+                    ? MediaCodecInfo.EncoderCapabilities.BITRATE_MODE_CBR
+                    : MediaCodecInfo.EncoderCapabilities.BITRATE_MODE_VBR);
+            format.setInteger(MediaFormat.KEY_COMPLEXITY, params.getComplexity());
+
+            codec = MediaCodec.createByCodecName(codecName);
+            codec.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            codec.start();
+
+            Log.i(TAG, "MediaCodec Opus 编码器初始化成功: name=" + codecName +
+                    ", hardware=" + hardware +
+                    ", sampleRate=" + sampleRate +
+                    ", channels=" + channels +
+                    ", bitrate=" + params.getBitrate());
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "MediaCodec Opus 编码器初始化失败: " + codecName, e);
+            release();
+            return false;
+        }
+    }
+
+    @Override
+    public List<byte[]> encode(short[] pcmFrame) {
+        if (codec == null || pcmFrame == null || pcmFrame.length == 0) {
+            Log.e(TAG, "encode: codec not initialized or invalid pcm data");
+            return null;
+        }
+
+        try {
+            // 输入缓冲不足一帧时拆分送入
+            int offset = 0;
+            while (offset < pcmFrame.length) {
+                int index = codec.dequeueInputBuffer(INPUT_TIMEOUT_US);
+                if (index < 0) {
+                    Log.w(TAG, "无可用输入缓冲，丢弃剩余样本: " + (pcmFrame.length - offset));
+                    break;
+                }
+                ByteBuffer input = codec.getInputBuffer(index);
+                input.clear();
+                int count = Math.min(pcmFrame.length - offset, input.remaining() / 2 / channels * channels);
+                input.order(ByteOrder.nativeOrder()).asShortBuffer().put(pcmFrame, offset, count);
+                codec.queueInputBuffer(index, 0, count * 2,
+                        OpusBridge.ptsUsFromSamples(inputSamples, sampleRate), 0);
+                inputSamples += count / channels;
+                offset += count;
+            }
+
+            return drainOutput();
+        } catch (Exception e) {
+            Log.e(TAG, "MediaCodec Opus 编码失败", e);
+            return null;
+        }
+    }
+
+    private List<byte[]> drainOutput() {
+        List<byte[]> packets = new ArrayList<>(4);
+        long timeoutUs = OUTPUT_TIMEOUT_US;
+
+        while (true) {
+            int index = codec.dequeueOutputBuffer(bufferInfo, timeoutUs);
+            if (index == MediaCodec.INFO_TRY_AGAIN_LATER) {
+                break;
+            }
+            if (index < 0) {
+                // INFO_OUTPUT_FORMAT_CHANGED 等，继续取
+                continue;
+            }
+            timeoutUs = 0;
+
+            if ((bufferInfo.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) == 0 && bufferInfo.size > 0) {
+                ByteBuffer output = codec.getOutputBuffer(index);
+                byte[] packet = new byte[bufferInfo.size];
+                output.position(bufferInfo.offset);
+                output.get(packet, 0, bufferInfo.size);
+                packets.add(packet);
+            }
+            codec.releaseOutputBuffer(index, false);
+        }
+        return packets;
+    }
+
+    @Override
+    public void release() {
+        if (codec != null) {
+            try {
+                codec.stop();
+            } catch (Exception ignored) {}
+            try {
+                codec.release();
+            } catch (Exception ignored) {}
+            codec = null;
+        }
+    }
+}
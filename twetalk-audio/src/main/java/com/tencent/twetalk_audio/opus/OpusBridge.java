@@ -26,13 +26,27 @@ public final class OpusBridge {
     private native long nativeCreateEncoder(int sampleRate, int channels,
                                            int targetBytes, int bitrate,
                                            boolean cbr, boolean dtx,
-                                           int complexity, boolean signalVoice);
+                                           int complexity, boolean signalVoice,
+                                           int maxBandwidth, boolean pad,
+                                           int frameMs, boolean lowDelay);
     private native long nativeCreateDecoder(int sampleRate, int channels);
     private native byte[] nativeEncode(long handle, short[] pcmFrame);
     private native int nativeDecode(long handle, byte[] packet, short[] pcmOut, boolean fec);
+    private native byte[] nativeEncodeFloat(long handle, float[] pcmFrame);
+    private native int nativeDecodeFloat(long handle, byte[] packet, float[] pcmOut, boolean fec);
     private native void nativeReleaseEncoder(long handle);
     private native void nativeReleaseDecoder(long handle);
     private native int nativeGetFrameSamples(long handle, boolean isEncoder);
+    private native void nativeGetEncoderStats(long handle, long[] out);
+
+    // getEncoderStats() 下标
+    public static final int STAT_PACKETS = 0;           // 输出包数
+    public static final int STAT_PAYLOAD_BYTES = 1;     // 编码数据字节数（不含填充）
+    public static final int STAT_PADDED_PACKETS = 2;    // 经过填充的包数
+    public static final int STAT_PADDING_BYTES = 3;     // 填充字节数
+    public static final int STAT_CAPPED_PACKETS = 4;    // VBR 下触及包大小上限的次数（CBR 定长包不统计）
+    public static final int STAT_DROPPED_PACKETS = 5;   // 编码失败丢弃的帧数
+    public static final int STAT_COUNT = 6;
 
     // Public API
 
@@ -44,7 +58,9 @@ public final class OpusBridge {
     public long createEncoder(OpusEncoderParams encoderParams) {
         return nativeCreateEncoder(encoderParams.getSampleRate(), encoderParams.getChannels(),
                 encoderParams.getTargetBytes(), encoderParams.getBitrate(), encoderParams.isCbr(),
-                encoderParams.isDtx(), encoderParams.getComplexity(), encoderParams.isSignalVoice());
+                encoderParams.isDtx(), encoderParams.getComplexity(), encoderParams.isSignalVoice(),
+                encoderParams.getMaxBandwidth(), encoderParams.isPadding(),
+                encoderParams.getFrameMs(), encoderParams.isLowDelay());
     }
 
     /**
@@ -87,6 +103,36 @@ public final class OpusBridge {
         return nativeDecode(handle, packet, pcmOut, fec);
     }
 
+    /**
+     * 编码 float PCM 数据（取值范围 [-1, 1]）
+     * @param handle encoder 句柄
+     * @param pcmFrame PCM 数据（float[]）
+     * @return Opus 数据
+     */
+    public byte[] encodeFloat(long handle, float[] pcmFrame) {
+        if (handle == 0 || pcmFrame == null || pcmFrame.length == 0) {
+            Log.e(TAG, "encodeFloat: invalid handle or pcm data");
+            return null;
+        }
+        return nativeEncodeFloat(handle, pcmFrame);
+    }
+
+    /**
+     * 解码 Opus 数据为 float PCM
+     * @param handle decoder 句柄
+     * @param packet Opus 数据
+     * @param pcmOut 解码后的 PCM 数据（float[]）
+     * @param fec 是否启用 FEC
+     * @return 解码后的样本数或错误码
+     */
+    public int decodeFloat(long handle, byte[] packet, float[] pcmOut, boolean fec) {
+        if (handle == 0) {
+            Log.e(TAG, "decodeFloat: invalid handle");
+            return -1;
+        }
+        return nativeDecodeFloat(handle, packet, pcmOut, fec);
+    }
+
     /**
      * 释放 Encoder 句柄
      * @param handle encoder 句柄
@@ -120,13 +166,30 @@ public final class OpusBridge {
         return nativeGetFrameSamples(handle, isEncoder);
     }
 
+    /**
+     * 获取编码统计（填充、触及上限、丢帧等）
+     * @param handle encoder 句柄
+     * @return 统计数组，下标见 STAT_*
+     */
+    public long[] getEncoderStats(long handle) {
+        long[] out = new long[STAT_COUNT];
+        if (handle != 0) {
+            nativeGetEncoderStats(handle, out);
+        }
+        return out;
+    }
+
     // 辅助常量与方法
-    public static final int FRAME_MS = 60;
+    public static final int FRAME_MS = 60;  // 默认帧长
     private static final int DEFAULT_SAMPLE_RATE = 48000;
     private static final int DEFAULT_CHANNELS = 1;
 
     public static int frameSamples(int sampleRate) {
-        return sampleRate * FRAME_MS / 1000;
+        return frameSamples(sampleRate, FRAME_MS);
+    }
+
+    public static int frameSamples(int sampleRate, int frameMs) {
+        return sampleRate * frameMs / 1000;
     }
 
     public static long ptsUsFromSamples(long samples, int sampleRate) {
@@ -0,0 +1,54 @@
+package com.tencent.twetalk_audio.opus;
+
+import com.tencent.twetalk_audio.utils.PcmUtil;
+
+import java.util.List;
+
+/**
+ * Opus 编码后端
+ * 非线程安全，同一实例只应在一个线程中使用
+ */
+public interface OpusEncoderBackend {
+    /**
+     * 后端名称（MediaCodec 后端为编解码器名称）
+     */
+    String getName();
+
+    /**
+     * 是否为硬件（DSP）编码
+     */
+    boolean isHardware();
+
+    /**
+     * 初始化编码器
+     * @return 是否成功
+     */
+    boolean init(OpusEncoderParams params);
+
+    /**
+     * 编码一帧 PCM 数据
+     * libopus 每帧输出一个包；MediaCodec 存在流水线延迟，且按自身帧长分包，可能输出 0~N 个包
+     * @param pcmFrame PCM 数据（short[]）
+     * @return Opus 包列表，失败返回 null
+     */
+    List<byte[]> encode(short[] pcmFrame);
+
+    /**
+     * 编码一帧 float PCM 数据（取值范围 [-1, 1]），默认转换为 16bit 后编码
+     */
+    default List<byte[]> encodeFloat(float[] pcmFrame) {
+        return encode(PcmUtil.byteToShort(PcmUtil.floatToPcm16(pcmFrame, pcmFrame.length)));
+    }
+
+    /**
+     * 编码统计，下标见 OpusBridge.STAT_*，不支持时返回 null
+     */
+    default long[] getStats() {
+        return null;
+    }
+
+    /**
+     * 释放编码器
+     */
+    void release();
+}
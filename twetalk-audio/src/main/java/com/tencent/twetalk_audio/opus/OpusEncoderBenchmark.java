@@ -0,0 +1,149 @@
+package com.tencent.twetalk_audio.opus;
+
+import android.media.MediaCodecInfo;
+import android.os.Debug;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Opus 编码后端基准测试
+ * 在当前设备上对比各后端每帧的调用线程 CPU 时间、耗时和输出大小
+ * 耗时较长，请勿在主线程调用
+ */
+public final class OpusEncoderBenchmark {
+    private static final String TAG = "OpusEncoderBenchmark";
+
+    private static final int WARMUP_FRAMES = 5;
+
+    private OpusEncoderBenchmark() {}
+
+    /**
+     * 单个后端的测试结果
+     */
+    public static final class Result {
+        public final String backendName;
+        public final boolean hardware;
+        public final int frames;
+        public final long cpuNsPerFrame;     // 调用线程 CPU 时间（硬件编码的工作不计入应用核心）
+        public final long wallNsPerFrame;    // 调用耗时
+        public final int bytesPerFrame;      // 平均输出字节数
+        public final int packets;            // 输出包数
+
+        Result(String backendName, boolean hardware, int frames, long cpuNsPerFrame,
+               long wallNsPerFrame, int bytesPerFrame, int packets) {
+            this.backendName = backendName;
+            this.hardware = hardware;
+            this.frames = frames;
+            this.cpuNsPerFrame = cpuNsPerFrame;
+            this.wallNsPerFrame = wallNsPerFrame;
+            this.bytesPerFrame = bytesPerFrame;
+            this.packets = packets;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{backend=" + backendName +
+                    ", hardware=" + hardware +
+                    ", frames=" + frames +
+                    ", cpuUsPerFrame=" + cpuNsPerFrame / 1000 +
+                    ", wallUsPerFrame=" + wallNsPerFrame / 1000 +
+                    ", bytesPerFrame=" + bytesPerFrame +
+                    ", packets=" + packets +
+                    '}';
+        }
+    }
+
+    /**
+     * 依次测试 libopus 和所有可用的 MediaCodec Opus 编码器
+     * @param params 编码参数（帧时长取 params.getFrameMs()）
+     * @param frames 测试帧数
+     * @return 各后端结果，初始化失败的后端不包含在内
+     */
+    public static List<Result> run(OpusEncoderParams params, int frames) {
+        short[][] input = generateFrames(params.getSampleRate(), params.getChannels(), params.getFrameMs(),
+                WARMUP_FRAMES + frames);
+
+        List<OpusEncoderBackend> backends = new ArrayList<>();
+        backends.add(new LibOpusEncoderBackend());
+        for (MediaCodecInfo info : OpusEncoderFactory.listMediaCodecEncoders()) {
+            backends.add(new MediaCodecOpusEncoderBackend(info.getName(), OpusEncoderFactory.isHardware(info)));
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (OpusEncoderBackend backend : backends) {
+            Result result = measure(backend, params, input, frames);
+            if (result != null) {
+                Log.i(TAG, result.toString());
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    private static Result measure(OpusEncoderBackend backend, OpusEncoderParams params,
+                                  short[][] input, int frames) {
+        if (!backend.init(params)) {
+            Log.w(TAG, "后端初始化失败，跳过: " + backend.getName());
+            return null;
+        }
+
+        try {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                backend.encode(input[i]);
+            }
+
+            long totalBytes = 0;
+            int packets = 0;
+            long cpuStart = Debug.threadCpuTimeNanos();
+            long wallStart = System.nanoTime();
+
+            for (int i = WARMUP_FRAMES; i < input.length; i++) {
+                List<byte[]> out = backend.encode(input[i]);
+                if (out == null) {
+                    continue;
+                }
+                for (byte[] packet : out) {
+                    totalBytes += packet.length;
+                    packets++;
+                }
+            }
+
+            long cpuNs = Debug.threadCpuTimeNanos() - cpuStart;
+            long wallNs = System.nanoTime() - wallStart;
+
+            return new Result(backend.getName(), backend.isHardware(), frames,
+                    cpuNs / frames, wallNs / frames, (int) (totalBytes / frames), packets);
+        } finally {
+            backend.release();
+        }
+    }
+
+    /**
+     * 生成类语音测试信号：调幅的基频谐波叠加少量噪声，固定种子保证可复现
+     */
+    private static short[][] generateFrames(int sampleRate, int channels, int frameMs, int count) {
+        int samplesPerChannel = sampleRate * frameMs / 1000;
+        short[][] out = new short[count][samplesPerChannel * channels];
+        Random random = new Random(42);
+        long n = 0;
+
+        for (int f = 0; f < count; f++) {
+            for (int i = 0; i < samplesPerChannel; i++, n++) {
+                double t = (double) n / sampleRate;
+                double envelope = 0.5 + 0.5 * Math.sin(2 * Math.PI * 3 * t);
+                double v = 0.5 * Math.sin(2 * Math.PI * 180 * t)
+                        + 0.25 * Math.sin(2 * Math.PI * 360 * t)
+                        + 0.12 * Math.sin(2 * Math.PI * 720 * t);
+                v = v * envelope + 0.02 * random.nextGaussian();
+                short s = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, v * 12000));
+                for (int c = 0; c < channels; c++) {
+                    out[f][i * channels + c] = s;
+                }
+            }
+        }
+        return out;
+    }
+}
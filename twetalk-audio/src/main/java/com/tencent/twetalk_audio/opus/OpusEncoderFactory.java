@@ -0,0 +1,133 @@
+package com.tencent.twetalk_audio.opus;
+
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.os.Build;
+import android.util.Log;
+
+import com.tencent.twetalk_audio.config.EncoderBackendType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opus 编码后端选择
+ */
+public final class OpusEncoderFactory {
+    private static final String TAG = "OpusEncoderFactory";
+
+    private OpusEncoderFactory() {}
+
+    /**
+     * 按类型创建并初始化编码后端，MediaCodec 不可用时回退 libopus
+     * AUTO 仅在参数不依赖 MediaCodec 无法控制的包格式（帧长、定长填充、DTX、低延迟、带宽）时才选择 MediaCodec
+     * @return 已初始化的后端，全部失败返回 null
+     */
+    public static OpusEncoderBackend create(EncoderBackendType type, OpusEncoderParams params) {
+        if (type == null) {
+            type = EncoderBackendType.LIBOPUS;
+        }
+
+        if (type == EncoderBackendType.AUTO && !isMediaCodecCompatible(params)) {
+            type = EncoderBackendType.LIBOPUS;
+        } else if (type == EncoderBackendType.MEDIACODEC && !isMediaCodecCompatible(params)) {
+            Log.w(TAG, "MediaCodec 编码器按自身帧长输出、不填充，包格式与配置不符: frameMs=" + params.getFrameMs() +
+                    ", padding=" + params.isPadding() + ", dtx=" + params.isDtx() +
+                    ", lowDelay=" + params.isLowDelay() + ", maxBandwidth=" + params.getMaxBandwidth());
+        }
+
+        if (type != EncoderBackendType.LIBOPUS) {
+            // AUTO 只选择硬件编码器：系统软件编码器本身基于 libopus，没有收益
+            MediaCodecInfo info = findMediaCodecEncoder(params.getSampleRate(), params.getChannels(),
+                    type == EncoderBackendType.AUTO);
+            if (info != null) {
+                OpusEncoderBackend backend = new MediaCodecOpusEncoderBackend(info.getName(), isHardware(info));
+                if (backend.init(params)) {
+                    return backend;
+                }
+                Log.w(TAG, "MediaCodec 编码器不可用，回退 libopus: " + info.getName());
+            } else if (type == EncoderBackendType.MEDIACODEC) {
+                Log.w(TAG, "未找到 MediaCodec Opus 编码器，回退 libopus");
+            }
+        }
+
+        OpusEncoderBackend backend = new LibOpusEncoderBackend();
+        if (backend.init(params)) {
+            return backend;
+        }
+        Log.e(TAG, "libopus 编码器创建失败");
+        return null;
+    }
+
+    /**
+     * MediaCodec 编码器输出的包格式是否与参数一致
+     * 系统编码器固定按 20ms 分帧输出，不支持填充到定长、DTX、RESTRICTED_LOWDELAY 和带宽限制
+     */
+    public static boolean isMediaCodecCompatible(OpusEncoderParams params) {
+        return params.getFrameMs() == 20
+                && !params.isPadding()
+                && !params.isDtx()
+                && !params.isLowDelay()
+                && params.getMaxBandwidth() == OpusEncoderParams.BANDWIDTH_AUTO;
+    }
+
+    /**
+     * 查找支持给定参数的 MediaCodec Opus 编码器（Android 10 起系统自带软件编码器）
+     * @param hardwareOnly 是否只返回硬件编码器
+     * @return 编码器信息，未找到返回 null
+     */
+    public static MediaCodecInfo findMediaCodecEncoder(int sampleRate, int channels, boolean hardwareOnly) {
+        for (MediaCodecInfo info : listMediaCodecEncoders()) {
+            if (hardwareOnly && !isHardware(info)) {
+                continue;
+            }
+            try {
+                MediaCodecInfo.AudioCapabilities caps = info
+                        .getCapabilitiesForType(MediaCodecOpusEncoderBackend.MIME_OPUS)
+                        .getAudioCapabilities();
+                if (caps != null && (!caps.isSampleRateSupported(sampleRate)
+                        || caps.getMaxInputChannelCount() < channels)) {
+                    continue;
+                }
+            } catch (Exception e) {
+                continue;
+            }
+            return info;
+        }
+        return null;
+    }
+
+    /**
+     * 列出所有 MediaCodec Opus 编码器
+     */
+    public static List<MediaCodecInfo> listMediaCodecEncoders() {
+        List<MediaCodecInfo> result = new ArrayList<>();
+        try {
+            for (MediaCodecInfo info : new MediaCodecList(MediaCodecList.REGULAR_CODECS).getCodecInfos()) {
+                if (!info.isEncoder()) {
+                    continue;
+                }
+                for (String type : info.getSupportedTypes()) {
+                    if (type.equalsIgnoreCase(MediaCodecOpusEncoderBackend.MIME_OPUS)) {
+                        result.add(info);
+                        break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "查询 MediaCodec 编码器失败", e);
+        }
+        return result;
+    }
+
+    /**
+     * 是否为硬件编码器，Android 10 以下按名称判断
+     */
+    public static boolean isHardware(MediaCodecInfo info) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return info.isHardwareAccelerated();
+        }
+        String name = info.getName();
+        return !(name.startsWith("OMX.google.") || name.startsWith("c2.android."));
+    }
+}
@@ -1,6 +1,14 @@
 package com.tencent.twetalk_audio.opus;
 
 public class OpusEncoderParams {
+    // 最大编码带宽（对应 OPUS_BANDWIDTH_*），0 表示不限制
+    public static final int BANDWIDTH_AUTO = 0;
+    public static final int BANDWIDTH_NARROWBAND = 1101;     // 4 kHz
+    public static final int BANDWIDTH_MEDIUMBAND = 1102;     // 6 kHz
+    public static final int BANDWIDTH_WIDEBAND = 1103;       // 8 kHz
+    public static final int BANDWIDTH_SUPERWIDEBAND = 1104;  // 12 kHz
+    public static final int BANDWIDTH_FULLBAND = 1105;       // 20 kHz
+
     private final int sampleRate;
     private final int channels;
     private final int targetBytes;
@@ -9,6 +17,10 @@ public class OpusEncoderParams {
     private final boolean dtx;
     private final int complexity;
     private final boolean signalVoice;
+    private final int maxBandwidth;
+    private final boolean padding;
+    private final int frameMs;
+    private final boolean lowDelay;
 
     private OpusEncoderParams(Builder builder) {
         this.sampleRate = builder.sampleRate;
@@ -19,6 +31,10 @@ public class OpusEncoderParams {
         this.dtx = builder.dtx;
         this.complexity = builder.complexity;
         this.signalVoice = builder.signalVoice;
+        this.maxBandwidth = builder.maxBandwidth;
+        this.padding = builder.padding;
+        this.frameMs = builder.frameMs;
+        this.lowDelay = builder.lowDelay;
     }
 
     public int getSampleRate() {
@@ -53,10 +69,44 @@ public class OpusEncoderParams {
         return signalVoice;
     }
 
+    public int getMaxBandwidth() {
+        return maxBandwidth;
+    }
+
+    public boolean isPadding() {
+        return padding;
+    }
+
+    public int getFrameMs() {
+        return frameMs;
+    }
+
+    public boolean isLowDelay() {
+        return lowDelay;
+    }
+
+    /**
+     * 一帧每声道样本数
+     */
+    public int getFrameSamples() {
+        return sampleRate * frameMs / 1000;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
 
+    /**
+     * 48 kHz 全频带预设（60ms 帧，64kbps）
+     */
+    public static Builder fullBand() {
+        return new Builder()
+                .sampleRate(48000)
+                .bitrate(64000)
+                .targetBytes(480)
+                .maxBandwidth(BANDWIDTH_FULLBAND);
+    }
+
     public static class Builder {
         private int sampleRate = 16000;
         private int channels = 1;
@@ -66,6 +116,10 @@ public class OpusEncoderParams {
         private boolean dtx = false;
         private int complexity = 5;
         private boolean signalVoice = true;
+        private int maxBandwidth = BANDWIDTH_AUTO;
+        private boolean padding = true;
+        private int frameMs = 60;
+        private boolean lowDelay = false;
 
         public Builder sampleRate(int sampleRate) {
             this.sampleRate = sampleRate;
@@ -107,6 +161,37 @@ public class OpusEncoderParams {
             return this;
         }
 
+        public Builder maxBandwidth(int maxBandwidth) {
+            this.maxBandwidth = maxBandwidth;
+            return this;
+        }
+
+        /**
+         * 是否将每个包填充到 targetBytes（定长包）
+         * 关闭后使用受限 VBR，targetBytes 仅作为包大小上限，静音帧不再浪费上行带宽
+         */
+        public Builder padding(boolean padding) {
+            this.padding = padding;
+            return this;
+        }
+
+        /**
+         * 帧时长（毫秒），支持 10 / 20 / 40 / 60
+         */
+        public Builder frameMs(int frameMs) {
+            this.frameMs = frameMs;
+            return this;
+        }
+
+        /**
+         * 使用 OPUS_APPLICATION_RESTRICTED_LOWDELAY：仅 CELT 模式，省去 SILK 的前瞻延迟，
+         * 低码率下语音质量不如 VOIP 模式
+         */
+        public Builder lowDelay(boolean lowDelay) {
+            this.lowDelay = lowDelay;
+            return this;
+        }
+
         public OpusEncoderParams build() {
             if (sampleRate != 8000 && sampleRate != 12000 && sampleRate != 16000
                     && sampleRate != 24000 && sampleRate != 48000) {
@@ -117,6 +202,15 @@ public class OpusEncoderParams {
                 throw new IllegalArgumentException("Unexpected channels: " + channels);
             }
 
+            if (frameMs != 10 && frameMs != 20 && frameMs != 40 && frameMs != 60) {
+                throw new IllegalArgumentException("Unexpected frame duration: " + frameMs);
+            }
+
+            if (maxBandwidth != BANDWIDTH_AUTO
+                    && (maxBandwidth < BANDWIDTH_NARROWBAND || maxBandwidth > BANDWIDTH_FULLBAND)) {
+                throw new IllegalArgumentException("Unexpected max bandwidth: " + maxBandwidth);
+            }
+
             return new OpusEncoderParams(this);
         }
     }
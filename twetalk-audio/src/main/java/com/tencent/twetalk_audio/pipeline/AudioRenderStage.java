@@ -0,0 +1,445 @@
+package com.tencent.twetalk_audio.pipeline;
+
+import android.util.Log;
+
+import com.tencent.twetalk_audio.device.AudioOutputDevice;
+import com.tencent.twetalk_audio.device.DeviceTimestamp;
+import com.tencent.twetalk_audio.device.PcmEncoding;
+import com.tencent.twetalk_audio.metrics.AudioMetrics;
+import com.tencent.twetalk_audio.metrics.AudioTrace;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 播放阶段：输出设备（默认 AudioTrack）+ PCM 队列，以非阻塞写入持续消费队列
+ * 除 clear() 外只应在播放线程（构造时传入的 executor）中调用
+ */
+public class AudioRenderStage {
+    private static final String TAG = "AudioRenderStage";
+
+    /**
+     * 播放错误回调
+     */
+    public interface ErrorCallback {
+        void onError(String message);
+    }
+
+    /**
+     * 首样本播出回调，见 OnPlayStateListener.onFirstSampleRendered
+     */
+    public interface FirstSampleCallback {
+        void onFirstSampleRendered(long firstWriteNs, long renderedNs);
+    }
+
+    // 输出设备在该时长内仍给不出时间戳时，以写入时间近似首样本播出时间
+    private static final long TIMESTAMP_WAIT_NS = 500_000_000L;
+    // 播空后在该时长内恢复写入视为播放中断（卡顿），更久的视为两段音频之间的正常停顿
+    private static final long RENDER_GAP_MAX_NS = 500_000_000L;
+
+    private final Executor executor;
+    private final ErrorCallback errorCallback;
+    private final AudioOutputDevice device;
+    private final AudioMetrics metrics;
+    private int lastUnderrunCount = 0;   // 仅播放线程访问
+
+    // 首样本播出检测（仅播放线程访问）：输出设备播完已写入数据后的首次写入记为一段新音频，
+    // 按输出设备时间戳推算该段首个样本的播出时间
+    private volatile FirstSampleCallback firstSampleCallback;
+    private final DeviceTimestamp outputTimestamp = new DeviceTimestamp();
+    private long writtenBytes = 0;           // 自 open / flush 以来写入设备的字节数
+    private boolean drainLoopExited = true;  // 播放循环因队列为空退出（设备无时间戳时据此判断空闲）
+    private boolean burstPending = false;    // 首样本播出时间尚未确定
+    private long burstStartFrame = 0;
+    private long burstWriteNs = 0;
+
+    private boolean deviceOpened = false;
+    private int currentSampleRate = 0;
+    private int currentChannels = 0;
+    private boolean currentFloat = false;
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private final ConcurrentLinkedDeque<byte[]> pcmQueue = new ConcurrentLinkedDeque<>();
+    private volatile int maxQueueBytes = 16000 * 2;  // 1 秒容量，随 AudioTrack 参数更新
+
+    public AudioRenderStage(Executor executor, AudioOutputDevice device, ErrorCallback errorCallback) {
+        this(executor, device, errorCallback, null);
+    }
+
+    /**
+     * @param metrics 指标记录位置，为 null 时新建
+     */
+    public AudioRenderStage(Executor executor, AudioOutputDevice device, ErrorCallback errorCallback,
+                            AudioMetrics metrics) {
+        this.executor = executor;
+        this.device = device;
+        this.errorCallback = errorCallback;
+        this.metrics = metrics != null ? metrics : new AudioMetrics();
+    }
+
+    public void setFirstSampleCallback(FirstSampleCallback callback) {
+        this.firstSampleCallback = callback;
+    }
+
+    /**
+     * 确保输出设备与参数一致，不一致时重建
+     * @param bufferMs 输出缓冲时长（AudioTrack 不小于系统最小缓冲的两倍）
+     */
+    public void ensure(int sampleRate, int channels, boolean useFloat, int bufferMs) {
+        if (deviceOpened &&
+                sampleRate == currentSampleRate &&
+                channels == currentChannels &&
+                useFloat == currentFloat) {
+            try {
+                if (started.compareAndSet(false, true)) {
+                    device.play();
+                } else if (!device.isPlaying()) {
+                    device.play();
+                }
+            } catch (IllegalStateException e) {
+                Log.e(TAG, "ensure: play error " + e.getMessage());
+            }
+            return;
+        }
+
+        // 重建设备
+        release();
+
+        currentSampleRate = sampleRate;
+        currentChannels = channels;
+        currentFloat = useFloat;
+
+        int encoding = useFloat ? PcmEncoding.PCM_FLOAT : PcmEncoding.PCM_16BIT;
+        maxQueueBytes = sampleRate * channels * PcmEncoding.bytesPerSample(encoding);  // 1 秒容量
+
+        try {
+            device.open(sampleRate, channels, encoding, bufferMs);
+            deviceOpened = true;
+
+            device.play();
+            started.set(true);
+
+            // 初次启动尝试预充多帧
+            drainQueueNonBlocking(true, 5);
+
+        } catch (Exception e) {
+            deviceOpened = false;
+            device.release();
+            Log.e(TAG, "AudioTrack 创建失败", e);
+            errorCallback.onError("AudioTrack 创建失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 预热：提前按参数创建输出设备但不开始播放，首包到达时 ensure() 直接启动
+     */
+    public void prepare(int sampleRate, int channels, boolean useFloat, int bufferMs) {
+        if (deviceOpened &&
+                sampleRate == currentSampleRate &&
+                channels == currentChannels &&
+                useFloat == currentFloat) {
+            return;
+        }
+
+        release();
+
+        int encoding = useFloat ? PcmEncoding.PCM_FLOAT : PcmEncoding.PCM_16BIT;
+        try {
+            device.open(sampleRate, channels, encoding, bufferMs);
+        } catch (Exception e) {
+            device.release();
+            Log.w(TAG, "预热 AudioTrack 失败，首包到达时重试", e);
+            return;
+        }
+
+        deviceOpened = true;
+        currentSampleRate = sampleRate;
+        currentChannels = channels;
+        currentFloat = useFloat;
+        maxQueueBytes = sampleRate * channels * PcmEncoding.bytesPerSample(encoding);  // 1 秒容量
+    }
+
+    /**
+     * 入队并唤起播放循环，超出容量则丢弃最老的帧，防止延迟累积
+     */
+    public void enqueue(byte[] pcmBytes) {
+        int queued = queueBytes();
+        while (queued + pcmBytes.length > maxQueueBytes) {
+            byte[] dropped = pcmQueue.poll();
+            if (dropped == null) {
+                break;
+            }
+            queued -= dropped.length;
+            metrics.increment(AudioMetrics.COUNTER_PLAYBACK_DROPS);
+        }
+        pcmQueue.offer(pcmBytes);
+        queued += pcmBytes.length;
+
+        long queueMs = queueMs(queued);
+        metrics.increment(AudioMetrics.COUNTER_PLAYBACK_FRAMES);
+        metrics.setGauge(AudioMetrics.GAUGE_PLAYBACK_QUEUE_MS, queueMs);
+        metrics.updateMax(AudioMetrics.GAUGE_PLAYBACK_QUEUE_MAX_MS, queueMs);
+        metrics.record(AudioMetrics.HISTOGRAM_PLAYBACK_QUEUE_MS, queueMs);
+        AudioTrace.counter(AudioTrace.COUNTER_PLAYBACK_QUEUE_MS, queueMs);
+
+        startDrainingLoop();
+    }
+
+    /**
+     * 停止播放并清空队列，保留输出设备供下次使用
+     */
+    public void stop() {
+        draining.set(false);
+        if (deviceOpened) {
+            try {
+                device.pause();
+                device.flush();
+                device.stop();
+            } catch (Exception e) {
+                Log.e(TAG, "停止播放失败", e);
+            }
+        }
+        pcmQueue.clear();
+        resetFirstSample();
+    }
+
+    /**
+     * 清空待播放队列（任意线程）
+     */
+    public void clear() {
+        pcmQueue.clear();
+    }
+
+    public boolean isPlaying() {
+        return started.get() && deviceOpened && device.isPlaying();
+    }
+
+    public void release() {
+        started.set(false);
+        draining.set(false);
+
+        if (deviceOpened) {
+            try {
+                device.release();
+            } catch (Throwable ignored) {}
+        }
+
+        deviceOpened = false;
+        currentSampleRate = 0;
+        currentChannels = 0;
+        currentFloat = false;
+        lastUnderrunCount = 0;
+        resetFirstSample();
+        pcmQueue.clear();
+        metrics.setGauge(AudioMetrics.GAUGE_PLAYBACK_QUEUE_MS, 0);
+    }
+
+    /**
+     * 队列时长（maxQueueBytes 为 1 秒容量）
+     */
+    private long queueMs(int bytes) {
+        int capacity = maxQueueBytes;
+        return capacity > 0 ? (long) bytes * 1000 / capacity : 0;
+    }
+
+    /**
+     * 写入后更新队列时长和欠载次数（仅播放线程）
+     */
+    private void updateRenderMetrics() {
+        long queueMs = queueMs(queueBytes());
+        metrics.setGauge(AudioMetrics.GAUGE_PLAYBACK_QUEUE_MS, queueMs);
+        AudioTrace.counter(AudioTrace.COUNTER_PLAYBACK_QUEUE_MS, queueMs);
+
+        int underruns = device.getUnderrunCount();
+        if (underruns < lastUnderrunCount) {
+            // 设备已重建，从 0 重新计数
+            lastUnderrunCount = 0;
+        }
+        if (underruns > lastUnderrunCount) {
+            metrics.add(AudioMetrics.COUNTER_RENDER_UNDERRUNS, underruns - lastUnderrunCount);
+            metrics.reportGlitch(AudioMetrics.GLITCH_RENDER_UNDERRUN, underruns - lastUnderrunCount);
+            lastUnderrunCount = underruns;
+        }
+    }
+
+    private void resetFirstSample() {
+        writtenBytes = 0;
+        drainLoopExited = true;
+        burstPending = false;
+    }
+
+    /**
+     * 写入成功后记录；输出设备已播完之前写入的数据时，本次写入为新一段音频的起点
+     */
+    private void onWritten(int bytes) {
+        int frameBytes = currentChannels * (currentFloat ? 4 : 2);
+        if (frameBytes > 0) {
+            long now = System.nanoTime();
+            long writtenFrames = writtenBytes / frameBytes;
+            boolean drained = writtenBytes > 0 && isOutputDrained(now, writtenFrames);
+            if (drained) {
+                detectRenderGap(now, writtenFrames);
+            }
+            if (writtenBytes == 0 || drained) {
+                // 上一段尚未确定的先按当前时间戳结算
+                resolveFirstSample(true);
+                burstPending = true;
+                burstWriteNs = now;
+                burstStartFrame = writtenFrames;
+            }
+        }
+        drainLoopExited = false;
+        writtenBytes += bytes;
+    }
+
+    /**
+     * 播空后恢复写入：按时间戳推算设备播完已写入数据的时间，间隔较短时记为一次播放中断
+     * 设备无时间戳时无法得知播空时长，不做判断
+     */
+    private void detectRenderGap(long now, long writtenFrames) {
+        if (!device.getTimestamp(outputTimestamp) || currentSampleRate == 0) {
+            return;
+        }
+        long drainedNs = outputTimestamp.nanoTime
+                + (writtenFrames - outputTimestamp.framePosition) * 1_000_000_000L / currentSampleRate;
+        long gapNs = now - drainedNs;
+        if (gapNs > 0 && gapNs <= RENDER_GAP_MAX_NS) {
+            metrics.increment(AudioMetrics.COUNTER_RENDER_GAPS);
+            metrics.reportGlitch(AudioMetrics.GLITCH_RENDER_GAP, gapNs / 1_000_000);
+        }
+    }
+
+    private boolean isOutputDrained(long now, long writtenFrames) {
+        if (!device.getTimestamp(outputTimestamp) || currentSampleRate == 0) {
+            return drainLoopExited;
+        }
+        long played = outputTimestamp.framePosition
+                + (now - outputTimestamp.nanoTime) * currentSampleRate / 1_000_000_000L;
+        return played >= writtenFrames;
+    }
+
+    /**
+     * 按输出设备时间戳推算新一段音频首个样本的播出时间，已播出时回调（仅播放线程）
+     * 时间戳在连续播放期间线性推进，稍后结算不影响结果
+     * @param force 时间戳不可用时是否以写入时间近似
+     */
+    private void resolveFirstSample(boolean force) {
+        if (!burstPending) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        // 只采用本段写入之后的时间戳，欠载期间的旧时间戳外推会偏早
+        if (device.getTimestamp(outputTimestamp) && currentSampleRate > 0
+                && outputTimestamp.nanoTime >= burstWriteNs) {
+            long renderedNs = outputTimestamp.nanoTime
+                    + (burstStartFrame - outputTimestamp.framePosition) * 1_000_000_000L / currentSampleRate;
+            if (renderedNs <= now || force) {
+                notifyFirstSample(renderedNs);
+            }
+        } else if (force || now - burstWriteNs > TIMESTAMP_WAIT_NS) {
+            notifyFirstSample(burstWriteNs);
+        }
+    }
+
+    private void notifyFirstSample(long renderedNs) {
+        burstPending = false;
+        FirstSampleCallback callback = firstSampleCallback;
+        if (callback != null) {
+            callback.onFirstSampleRendered(burstWriteNs, Math.max(burstWriteNs, renderedNs));
+        }
+    }
+
+    private int queueBytes() {
+        int sum = 0;
+        for (byte[] chunk : pcmQueue) {
+            sum += chunk.length;
+        }
+        return sum;
+    }
+
+    private void startDrainingLoop() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                while (started.get() && deviceOpened) {
+                    if (pcmQueue.isEmpty()) {
+                        int emptyCount = 0;
+                        while (pcmQueue.isEmpty() && emptyCount < 5) {
+                            try {
+                                Thread.sleep(10);
+                            } catch (InterruptedException ignored) {}
+                            emptyCount++;
+                            resolveFirstSample(false);
+                        }
+                        if (pcmQueue.isEmpty()) {
+                            break;
+                        }
+                    }
+
+                    drainQueueNonBlocking(false, 10);
+                    updateRenderMetrics();
+                    resolveFirstSample(false);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException ignored) {}
+                }
+            } finally {
+                drainLoopExited = true;
+                draining.set(false);
+            }
+        });
+    }
+
+    private void drainQueueNonBlocking(boolean preloadOnly, int maxFrames) {
+        if (!deviceOpened) return;
+
+        int writtenFrames = 0;
+
+        while (writtenFrames < maxFrames) {
+            byte[] chunk = pcmQueue.poll();
+            if (chunk == null) break;
+
+            int offset = 0;
+            int remaining = chunk.length;
+
+            while (remaining > 0) {
+                boolean traced = AudioTrace.begin(AudioTrace.RENDER_WRITE);
+                int res = device.write(chunk, offset, remaining);
+                AudioTrace.end(traced);
+
+                if (res < 0) {
+                    metrics.increment(AudioMetrics.COUNTER_RENDER_WRITE_ERRORS);
+                    Log.w(TAG, "AudioTrack write failed: " + res + ", remaining=" + remaining);
+                    if (remaining < chunk.length) {
+                        byte[] leftover = new byte[remaining];
+                        System.arraycopy(chunk, offset, leftover, 0, remaining);
+                        pcmQueue.offerFirst(leftover);
+                    } else {
+                        pcmQueue.offerFirst(chunk);
+                    }
+                    return;
+                } else if (res == 0) {
+                    metrics.increment(AudioMetrics.COUNTER_RENDER_WRITE_STALLS);
+                    byte[] leftover = new byte[remaining];
+                    System.arraycopy(chunk, offset, leftover, 0, remaining);
+                    pcmQueue.offerFirst(leftover);
+                    return;
+                }
+
+                onWritten(res);
+                offset += res;
+                remaining -= res;
+            }
+
+            writtenFrames++;
+            if (preloadOnly && writtenFrames >= maxFrames) break;
+        }
+    }
+}
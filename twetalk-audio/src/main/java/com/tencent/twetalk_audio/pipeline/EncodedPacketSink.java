@@ -0,0 +1,18 @@
+package com.tencent.twetalk_audio.pipeline;
+
+import com.tencent.twetalk_audio.frame.AudioFrame;
+
+/**
+ * 编码包旁路：在 Java 解码之前接收 Opus 包（如原生引擎直接解码播放），均在播放线程调用
+ */
+public interface EncodedPacketSink {
+    /**
+     * @return true 表示已接收，不再经 Java 解码播放
+     */
+    boolean write(AudioFrame frame);
+
+    /**
+     * 停止播放
+     */
+    void stop();
+}
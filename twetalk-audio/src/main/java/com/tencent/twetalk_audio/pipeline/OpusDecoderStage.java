@@ -0,0 +1,102 @@
+package com.tencent.twetalk_audio.pipeline;
+
+import android.util.Log;
+
+import com.tencent.twetalk_audio.opus.OpusBridge;
+import com.tencent.twetalk_audio.utils.PcmUtil;
+
+/**
+ * 解码阶段：Opus 包解码为 16bit 或 float PCM 字节，采样率或声道变化时自动重建解码器
+ * 非线程安全，只应在播放线程中使用
+ */
+public class OpusDecoderStage {
+    private static final String TAG = "OpusDecoderStage";
+
+    private OpusBridge opusBridge;   // 首次解码 Opus 时加载 opus_jni，只播放 PCM 时不依赖原生库
+    private long handle = 0;
+    private int sampleRate = 0;
+    private int channels = 0;
+
+    /**
+     * 确保解码器与参数一致
+     * @return 是否可用
+     */
+    public boolean ensure(int sampleRate, int channels) {
+        if (handle != 0L && this.sampleRate == sampleRate && this.channels == channels) {
+            return true;
+        }
+
+        release();
+        try {
+            if (opusBridge == null) {
+                opusBridge = OpusBridge.getInstance();
+            }
+            handle = opusBridge.createDecoder(sampleRate, channels);
+        } catch (Throwable e) {
+            Log.e(TAG, "OpusDecoder 初始化失败", e);
+            handle = 0;
+        }
+
+        if (handle == 0L) {
+            Log.e(TAG, "OpusDecoder 创建失败");
+            return false;
+        }
+
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        Log.i(TAG, "OpusDecoder 初始化成功: sampleRate=" + sampleRate + ", channels=" + channels);
+        return true;
+    }
+
+    /**
+     * 解码一个包
+     * @param useFloat true 输出 float 小端字节（ENCODING_PCM_FLOAT），否则输出 16bit 小端 PCM
+     * @return PCM 字节，失败返回 null
+     */
+    public byte[] decode(byte[] opusData, boolean useFloat) {
+        if (handle == 0L) {
+            Log.e(TAG, "OpusDecoder handle 未初始化");
+            return null;
+        }
+
+        try {
+            int frameSamples = opusBridge.getFrameSamples(handle, false) * channels;
+
+            if (useFloat) {
+                float[] pcmOut = new float[frameSamples];
+                int samplesPerCh = opusBridge.decodeFloat(handle, opusData, pcmOut, false);
+                return samplesPerCh > 0 ? PcmUtil.floatToByte(pcmOut, samplesPerCh * channels) : null;
+            }
+
+            short[] pcmOut = new short[frameSamples];
+            int samplesPerCh = opusBridge.decode(handle, opusData, pcmOut, false);
+            if (samplesPerCh <= 0) {
+                return null;
+            }
+
+            // short[] -> byte[]
+            int samples = samplesPerCh * channels;
+            byte[] out = new byte[samples * 2];
+            int idx = 0;
+            for (int i = 0; i < samples; i++) {
+                int v = pcmOut[i];
+                out[idx++] = (byte) (v & 0xFF);
+                out[idx++] = (byte) ((v >> 8) & 0xFF);
+            }
+            return out;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Opus 解码失败", e);
+            return null;
+        }
+    }
+
+    public void release() {
+        if (handle != 0L) {
+            opusBridge.releaseDecoder(handle);
+            handle = 0;
+        }
+        sampleRate = 0;
+        channels = 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.tencent.twetalk_audio.pipeline;
+
+import android.util.Log;
+
+import com.tencent.twetalk_audio.config.AudioConfig;
+import com.tencent.twetalk_audio.opus.OpusEncoderBackend;
+import com.tencent.twetalk_audio.opus.OpusEncoderFactory;
+import com.tencent.twetalk_audio.opus.OpusEncoderParams;
+import com.tencent.twetalk_audio.utils.PcmUtil;
+
+import java.util.List;
+
+/**
+ * 编码阶段：按 AudioConfig 创建 Opus 编码后端，将一帧 PCM 编码为 0~N 个包
+ * 非线程安全，只应在采集线程中使用
+ */
+public class OpusEncoderStage {
+    private static final String TAG = "OpusEncoderStage";
+
+    private final OpusEncoderBackend backend;
+    private final OpusEncoderParams params;
+    private short[] pcmShorts = new short[0];   // 16bit 输入转换缓冲，复用避免每帧分配
+
+    private OpusEncoderStage(OpusEncoderBackend backend, OpusEncoderParams params) {
+        this.backend = backend;
+        this.params = params;
+    }
+
+    /**
+     * 按配置创建编码阶段
+     * @throws RuntimeException 编码器创建失败
+     */
+    public static OpusEncoderStage create(AudioConfig config) {
+        try {
+            OpusEncoderParams params = buildParams(config);
+            OpusEncoderBackend backend = OpusEncoderFactory.create(config.encoderBackend, params);
+
+            if (backend == null) {
+                throw new RuntimeException("OpusEncoder 创建失败");
+            }
+
+            Log.i(TAG, "OpusEncoder 初始化成功: backend=" + backend.getName() +
+                    ", hardware=" + backend.isHardware() +
+                    ", sampleRate=" + params.getSampleRate() +
+                    ", channels=" + params.getChannels() +
+                    ", bitrate=" + params.getBitrate() +
+                    ", targetBytes=" + params.getTargetBytes() +
+                    ", frameMs=" + params.getFrameMs() +
+                    ", complexity=" + params.getComplexity() +
+                    ", dtx=" + params.isDtx() +
+                    ", lowDelay=" + params.isLowDelay() +
+                    ", padding=" + params.isPadding());
+
+            return new OpusEncoderStage(backend, params);
+
+        } catch (Exception e) {
+            throw new RuntimeException("OpusEncoder 初始化失败", e);
+        }
+    }
+
+    /**
+     * 由 AudioConfig 推导编码参数
+     */
+    public static OpusEncoderParams buildParams(AudioConfig config) {
+        // 48 kHz 使用全频带预设，其余沿用默认宽带参数
+        OpusEncoderParams.Builder builder = config.sampleRate == 48000
+                ? OpusEncoderParams.fullBand()
+                : OpusEncoderParams.builder();
+        return builder
+                .sampleRate(config.sampleRate)
+                .channels(config.channelCount)
+                .frameMs(config.frameDuration.getDuration())
+                .bitrate(config.resolveOpusBitrate())
+                .targetBytes(config.resolveOpusTargetBytes())
+                .complexity(config.opusComplexity)
+                .dtx(config.opusDtx)
+                .lowDelay(config.opusLowDelay)
+                .padding(config.opusPadding)
+                .build();
+    }
+
+    /**
+     * 编码一帧（后端在返回前读完输入，调用方可立即复用 pcmData）
+     * @param pcmData 16bit PCM 数据
+     * @param offset 帧起始字节
+     * @param length 帧字节数
+     * @param floatData 对应的 float 帧，非空时直接 float 编码
+     * @return Opus 包列表（MediaCodec 后端可能一帧输出 0~N 个包），失败返回 null
+     */
+    public List<byte[]> encode(byte[] pcmData, int offset, int length, float[] floatData) {
+        try {
+            if (floatData != null) {
+                return backend.encodeFloat(floatData);
+            }
+            // 后端按数组长度确定帧长，帧长不变时始终复用同一数组
+            if (pcmShorts.length != length / 2) {
+                pcmShorts = new short[length / 2];
+            }
+            PcmUtil.byteToShort(pcmData, offset, length, pcmShorts);
+            return backend.encode(pcmShorts);
+        } catch (Exception e) {
+            Log.e(TAG, "Opus 编码失败", e);
+            return null;
+        }
+    }
+
+    public OpusEncoderBackend getBackend() {
+        return backend;
+    }
+
+    public OpusEncoderParams getParams() {
+        return params;
+    }
+
+    /**
+     * 编码统计，下标见 OpusBridge.STAT_*，后端不支持时返回 null
+     */
+    public long[] getStats() {
+        return backend.getStats();
+    }
+
+    public void release() {
+        backend.release();
+    }
+}
@@ -0,0 +1,290 @@
+package com.tencent.twetalk_audio.pipeline;
+
+import android.os.Process;
+import android.util.Log;
+
+import com.tencent.twetalk_audio.config.AudioFormatType;
+import com.tencent.twetalk_audio.device.AndroidAudioDeviceFactory;
+import com.tencent.twetalk_audio.device.AudioDeviceFactory;
+import com.tencent.twetalk_audio.frame.AudioFrame;
+import com.tencent.twetalk_audio.listener.OnAudioFrameListener;
+import com.tencent.twetalk_audio.listener.OnPlayStateListener;
+import com.tencent.twetalk_audio.metrics.AudioMetrics;
+import com.tencent.twetalk_audio.metrics.AudioTrace;
+import com.tencent.twetalk_audio.metrics.ThreadResourceMeter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 播放流水线：[旁路] -> 解码 -> 丢帧检测 -> 播放
+ * 所有阶段在同一个播放线程中执行，play() 可在任意线程调用
+ */
+public class PlaybackPipeline {
+    private static final String TAG = "PlaybackPipeline";
+
+    // 错误码，与 TalkAudioController.ERROR_* 一致
+    public static final int ERROR_TRACK_INIT = 6;
+    public static final int ERROR_DECODER_INIT = 7;
+
+    private final ExecutorService executor;
+    private final OpusDecoderStage decoder = new OpusDecoderStage();
+    private final AudioRenderStage render;
+    private final AudioMetrics metrics;
+    private final ThreadResourceMeter playbackMeter;   // 播放线程 CPU 和分配计量（仅播放线程访问）
+
+    private volatile boolean floatOutput = false;   // Opus 直接解码为 float 播放
+    private volatile int bufferMs = 200;
+
+    // 接收帧序号（未携带序号的数据按到达顺序编号）
+    private final AtomicLong nextSequence = new AtomicLong(0);
+    private long lastSequence = -1;            // 仅播放线程访问
+    private volatile long lostFrames = 0;      // 按序号检测到的缺失帧数
+
+    private volatile EncodedPacketSink packetSink;
+    private volatile OnAudioFrameListener audioFrameListener;
+    private volatile OnPlayStateListener playStateListener;
+
+    /**
+     * @param threadName 播放线程名
+     */
+    public PlaybackPipeline(String threadName) {
+        this(threadName, new AndroidAudioDeviceFactory());
+    }
+
+    /**
+     * @param threadName 播放线程名
+     * @param deviceFactory 输出设备工厂（无设备环境下传 FakeAudioDeviceFactory）
+     */
+    public PlaybackPipeline(String threadName, AudioDeviceFactory deviceFactory) {
+        this(threadName, deviceFactory, null);
+    }
+
+    /**
+     * @param threadName 播放线程名
+     * @param deviceFactory 输出设备工厂（无设备环境下传 FakeAudioDeviceFactory）
+     * @param metrics 指标记录位置，为 null 时新建
+     */
+    public PlaybackPipeline(String threadName, AudioDeviceFactory deviceFactory, AudioMetrics metrics) {
+        this.metrics = metrics != null ? metrics : new AudioMetrics();
+        this.playbackMeter = new ThreadResourceMeter(this.metrics,
+                AudioMetrics.COUNTER_PLAYBACK_CPU_NS, AudioMetrics.COUNTER_PLAYBACK_ALLOC_BYTES);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(() -> {
+                try {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_AUDIO);
+                } catch (Throwable ignored) {}
+                r.run();
+            }, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.render = new AudioRenderStage(executor, deviceFactory.createOutput(),
+                message -> notifyError(ERROR_TRACK_INIT, message), this.metrics);
+        this.render.setFirstSampleCallback((firstWriteNs, renderedNs) -> {
+            OnPlayStateListener listener = playStateListener;
+            if (listener != null) {
+                listener.onFirstSampleRendered(firstWriteNs, renderedNs);
+            }
+        });
+    }
+
+    /**
+     * @param floatOutput Opus 是否直接解码为 float 并以 ENCODING_PCM_FLOAT 播放
+     * @param bufferMs 输出缓冲时长
+     */
+    public void configure(boolean floatOutput, int bufferMs) {
+        this.floatOutput = floatOutput;
+        this.bufferMs = bufferMs;
+    }
+
+    public void setEncodedPacketSink(EncodedPacketSink sink) {
+        this.packetSink = sink;
+    }
+
+    public void setOnAudioFrameListener(OnAudioFrameListener listener) {
+        this.audioFrameListener = listener;
+    }
+
+    public void setOnPlayStateListener(OnPlayStateListener listener) {
+        this.playStateListener = listener;
+    }
+
+    /**
+     * 预热（异步，在播放线程执行）：提前创建解码器和输出设备，首包到达时无需初始化
+     * 参数与首包不一致时首包仍会按实际参数重建
+     */
+    public void warmUp(int sampleRate, int channels, AudioFormatType format) {
+        executor.execute(() -> {
+            long startNs = System.nanoTime();
+            boolean isPCM = format != AudioFormatType.OPUS;
+            if (!isPCM) {
+                decoder.ensure(sampleRate, channels);
+            }
+            render.prepare(sampleRate, channels, floatOutput && !isPCM, bufferMs);
+            Log.i(TAG, "播放预热完成: sampleRate=" + sampleRate + ", channels=" + channels +
+                    ", format=" + format + ", costUs=" + (System.nanoTime() - startNs) / 1000);
+        });
+    }
+
+    /**
+     * 播放音频数据，按到达顺序编号
+     */
+    public void play(byte[] data, int sampleRate, int channels, AudioFormatType format) {
+        // 以到达时间作为时间戳
+        play(new AudioFrame(nextSequence.getAndIncrement(), System.nanoTime(), 0,
+                data, data.length, 0, sampleRate, channels, format));
+    }
+
+    /**
+     * 播放音频帧，帧序号用于检测丢帧，不要与 play(byte[], ...) 混用
+     */
+    public void play(AudioFrame frame) {
+        AudioTrace.beginAsync(AudioTrace.ASYNC_PLAYBACK_FRAME, frame.getSequence());
+        executor.execute(() -> {
+            boolean traced = AudioTrace.begin(AudioTrace.PLAY_FRAME);
+            try {
+                playInternal(frame);
+            } finally {
+                AudioTrace.end(traced);
+                AudioTrace.endAsync(AudioTrace.ASYNC_PLAYBACK_FRAME, frame.getSequence());
+                // 两帧之间播放循环的写入也在本线程，一并计入
+                playbackMeter.sample();
+            }
+        });
+    }
+
+    private void playInternal(AudioFrame frame) {
+        AudioTrace.counter(AudioTrace.COUNTER_PLAYBACK_SEQ, frame.getSequence());
+        int sampleRate = frame.getSampleRate();
+        int channels = frame.getChannels();
+        boolean isPCM = frame.getFormat() == AudioFormatType.PCM;
+
+        EncodedPacketSink sink = packetSink;
+        if (!isPCM && sink != null && sink.write(frame)) {
+            checkSequence(frame.getSequence());
+            return;
+        }
+
+        // float 输出仅用于 Opus：直接解码为 float，避免 16bit 中转
+        boolean useFloat = floatOutput && !isPCM;
+
+        byte[] pcmBytes;
+        if (!isPCM) {
+            if (!decoder.ensure(sampleRate, channels)) {
+                notifyError(ERROR_DECODER_INIT, "OpusDecoder 创建失败");
+                return;
+            }
+            render.ensure(sampleRate, channels, useFloat, bufferMs);
+            long decodeStartNs = System.nanoTime();
+            boolean traced = AudioTrace.begin(AudioTrace.DECODE);
+            pcmBytes = decoder.decode(frame.getData(), useFloat);
+            AudioTrace.end(traced);
+            if (pcmBytes == null) {
+                metrics.increment(AudioMetrics.COUNTER_DECODE_FAILURES);
+                metrics.reportGlitch(AudioMetrics.GLITCH_DECODE_DROP, 1);
+                return;
+            }
+            metrics.record(AudioMetrics.HISTOGRAM_DECODE_US, (System.nanoTime() - decodeStartNs) / 1000);
+        } else {
+            render.ensure(sampleRate, channels, false, bufferMs);
+            pcmBytes = frame.getData();
+        }
+
+        long lost = checkSequence(frame.getSequence());
+        OnAudioFrameListener frameListener = audioFrameListener;
+        if (frameListener != null) {
+            int samples = pcmBytes.length / (channels * (useFloat ? 4 : 2));
+            frameListener.onPlaybackFrame(new AudioFrame(frame.getSequence(), frame.getTimestampNs(),
+                    frame.getPtsUs(), pcmBytes, pcmBytes.length, samples, sampleRate, channels,
+                    AudioFormatType.PCM), lost);
+        }
+
+        render.enqueue(pcmBytes);
+    }
+
+    /**
+     * 按序号检测丢帧（仅播放线程调用）
+     * @return 与上一帧之间缺失的帧数
+     */
+    private long checkSequence(long sequence) {
+        long lost = 0;
+        if (lastSequence >= 0 && sequence > lastSequence + 1) {
+            lost = sequence - lastSequence - 1;
+            lostFrames += lost;
+            metrics.add(AudioMetrics.COUNTER_PLAYBACK_LOST, lost);
+            metrics.reportGlitch(AudioMetrics.GLITCH_NETWORK_LOSS, lost);
+            Log.w(TAG, "检测到接收丢帧: lastSeq=" + lastSequence + ", seq=" + sequence + ", lost=" + lost);
+        }
+        if (sequence > lastSequence) {
+            lastSequence = sequence;
+        }
+        return lost;
+    }
+
+    /**
+     * 按序号检测到的累计丢帧数
+     */
+    public long getLostFrames() {
+        return lostFrames;
+    }
+
+    public AudioMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 停止播放（保留输出设备 和解码器）
+     */
+    public void stop() {
+        executor.execute(() -> {
+            render.stop();
+            lastSequence = -1;
+
+            EncodedPacketSink sink = packetSink;
+            if (sink != null) {
+                sink.stop();
+            }
+        });
+    }
+
+    /**
+     * 清空待播放数据（任意线程）
+     */
+    public void clear() {
+        render.clear();
+    }
+
+    public boolean isPlaying() {
+        return render.isPlaying();
+    }
+
+    /**
+     * 释放输出设备 和解码器，流水线仍可继续使用
+     */
+    public void reset() {
+        executor.execute(this::releaseInternal);
+    }
+
+    /**
+     * 释放全部资源并结束播放线程，之后不可再使用
+     */
+    public void release() {
+        executor.execute(this::releaseInternal);
+        executor.shutdown();
+    }
+
+    private void releaseInternal() {
+        render.release();
+        decoder.release();
+    }
+
+    private void notifyError(int errorCode, String message) {
+        Log.e(TAG, "PlayError[" + errorCode + "]: " + message);
+        OnPlayStateListener listener = playStateListener;
+        if (listener != null) {
+            listener.onPlayError(errorCode, message);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tencent.twetalk_audio.processor;
+
+/**
+ * float PCM 处理阶段
+ * 在采集线程中按帧原地处理，取值范围 [-1, 1]，中间结果允许越界，输出前统一限幅
+ */
+public interface FloatPcmProcessor {
+    /**
+     * 原地处理一帧数据
+     * @param frame 帧数据（多声道交错）
+     * @param length 有效样本数
+     */
+    void process(float[] frame, int length);
+}
@@ -0,0 +1,35 @@
+package com.tencent.twetalk_audio.processor;
+
+/**
+ * 增益处理阶段（带软限幅）
+ * float 流水线中间不会截断，增益后用 tanh 近似软限幅避免硬削波
+ */
+public class GainProcessor implements FloatPcmProcessor {
+    private volatile float gain;
+
+    public GainProcessor(float gainDb) {
+        setGainDb(gainDb);
+    }
+
+    public void setGainDb(float gainDb) {
+        this.gain = (float) Math.pow(10, gainDb / 20.0);
+    }
+
+    @Override
+    public void process(float[] frame, int length) {
+        float g = gain;
+        for (int i = 0; i < length; i++) {
+            float v = frame[i] * g;
+            // 有理函数近似 tanh，|v| <= 3 时误差足够小
+            if (v > 3f) {
+                v = 1f;
+            } else if (v < -3f) {
+                v = -1f;
+            } else {
+                float v2 = v * v;
+                v = v * (27f + v2) / (27f + 9f * v2);
+            }
+            frame[i] = v;
+        }
+    }
+}
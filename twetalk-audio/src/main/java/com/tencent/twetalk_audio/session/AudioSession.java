@@ -0,0 +1,132 @@
+package com.tencent.twetalk_audio.session;
+
+import com.tencent.twetalk_audio.config.AudioConfig;
+import com.tencent.twetalk_audio.config.AudioFormatType;
+import com.tencent.twetalk_audio.listener.OnPlayStateListener;
+import com.tencent.twetalk_audio.listener.OnRecordDataListener;
+import com.tencent.twetalk_audio.listener.OnUplinkFormatListener;
+import com.tencent.twetalk_audio.listener.OnVoiceActivityListener;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 共享音频引擎上的一个会话（如 AI 对话、微信通话），由 SharedAudioEngine.openSession 创建
+ * 只有当前会话（最近打开且未关闭）收到采集数据、可以播放；其余会话的录音状态保留，切回时恢复
+ * 录音启停和关闭在引擎线程按调用顺序执行，返回的 future 完成时已生效
+ */
+public final class AudioSession {
+    private final SharedAudioEngine engine;
+    private final String name;
+    private final AudioConfig config;
+
+    volatile OnRecordDataListener recordDataListener;
+    volatile OnVoiceActivityListener voiceActivityListener;
+    volatile OnUplinkFormatListener uplinkFormatListener;
+    volatile OnPlayStateListener playStateListener;
+
+    volatile boolean recording = false;   // 会话希望录音，当前会话时生效
+    volatile boolean micMuted = false;
+    volatile boolean closed = false;
+
+    AudioSession(SharedAudioEngine engine, String name, AudioConfig config) {
+        this.engine = engine;
+        this.name = name;
+        this.config = config;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public AudioConfig getConfig() {
+        return config;
+    }
+
+    public void setOnRecordDataListener(OnRecordDataListener listener) {
+        this.recordDataListener = listener;
+    }
+
+    public void setOnVoiceActivityListener(OnVoiceActivityListener listener) {
+        this.voiceActivityListener = listener;
+    }
+
+    public void setOnUplinkFormatListener(OnUplinkFormatListener listener) {
+        this.uplinkFormatListener = listener;
+    }
+
+    public void setOnPlayStateListener(OnPlayStateListener listener) {
+        this.playStateListener = listener;
+    }
+
+    /**
+     * 开始录音（非当前会话时记录状态，切回时生效）
+     */
+    public CompletableFuture<Void> startRecord() {
+        return engine.runAsync(() -> engine.setRecording(this, true));
+    }
+
+    public CompletableFuture<Void> stopRecord() {
+        return engine.runAsync(() -> engine.setRecording(this, false));
+    }
+
+    /**
+     * 会话是否处于录音状态（不代表设备正在采集）
+     */
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * 播放音频数据，非当前会话时丢弃
+     */
+    public void play(byte[] data, int sampleRate, int channels, AudioFormatType format) {
+        engine.play(this, data, sampleRate, channels, format);
+    }
+
+    /**
+     * 预热播放通路，见 TalkAudioController.warmUpPlayback
+     */
+    public void warmUpPlayback(int sampleRate, int channels, AudioFormatType format) {
+        engine.warmUpPlayback(this, sampleRate, channels, format);
+    }
+
+    public void stopPlay() {
+        engine.stopPlay(this);
+    }
+
+    public void setMicMute(boolean muted) {
+        engine.setMicMute(this, muted);
+    }
+
+    public boolean isMicMuted() {
+        return micMuted;
+    }
+
+    /**
+     * 上报上行吞吐量估计，见 TalkAudioController.reportUplinkThroughput
+     */
+    public void reportUplinkThroughput(int bitsPerSecond) {
+        engine.reportUplinkThroughput(this, bitsPerSecond);
+    }
+
+    /**
+     * 当前上行格式，非当前会话时为配置的格式
+     */
+    public AudioFormatType getUplinkFormat() {
+        return engine.getUplinkFormat(this);
+    }
+
+    /**
+     * 是否为当前会话
+     */
+    public boolean isActive() {
+        return engine.isActive(this);
+    }
+
+    /**
+     * 关闭会话，若为当前会话则切回上一个会话；重复调用无效
+     */
+    public CompletableFuture<Void> close() {
+        return engine.runAsync(() -> engine.closeSession(this));
+    }
+}
@@ -0,0 +1,452 @@
+package com.tencent.twetalk_audio.session;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.tencent.twetalk_audio.TalkAudioController;
+import com.tencent.twetalk_audio.config.AudioConfig;
+import com.tencent.twetalk_audio.config.AudioFormatType;
+import com.tencent.twetalk_audio.device.AudioDeviceFactory;
+import com.tencent.twetalk_audio.metrics.AudioMetrics;
+import com.tencent.twetalk_audio.listener.OnAudioGlitchListener;
+import com.tencent.twetalk_audio.listener.OnAudioMetricsListener;
+import com.tencent.twetalk_audio.listener.OnPlayStateListener;
+import com.tencent.twetalk_audio.listener.OnRecordDataListener;
+import com.tencent.twetalk_audio.listener.OnUplinkFormatListener;
+import com.tencent.twetalk_audio.listener.OnVoiceActivityListener;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程级共享音频引擎：多个页面通过引用计数的会话共用一个 TalkAudioController
+ * 会话按打开顺序入栈，栈顶为当前会话；切换会话只改变数据路由（采集回调、播放、上行格式、录音状态），
+ * 不重建 AudioRecord / AudioTrack、不切换音频模式。配置不兼容（见 AudioConfig.canShareEngineWith）时才重建
+ * 最后一个会话关闭后延迟释放，覆盖页面先销毁后创建的间隙
+ * 会话的打开、关闭、录音启停在引擎线程串行执行（*Async / AudioSession 方法），调用线程不阻塞
+ */
+public class SharedAudioEngine {
+    private static final String TAG = "SharedAudioEngine";
+
+    public static final long DEFAULT_IDLE_RELEASE_MS = 5000;
+
+    // getStats() 下标
+    public static final int STAT_SESSIONS = 0;          // 打开中的会话数
+    public static final int STAT_HANDOFFS = 1;          // 会话切换次数
+    public static final int STAT_REBUILDS = 2;          // 因配置不兼容重建的次数
+    public static final int STAT_LAST_HANDOFF_US = 3;   // 最近一次切换耗时，未切换过为 -1
+    public static final int STAT_COUNT = 4;
+
+    private final Context context;
+    private final AudioDeviceFactory deviceFactory;
+    private final ScheduledExecutorService scheduler;   // 引擎线程：串行执行会话操作和延迟释放
+    private final AudioMetrics metrics = new AudioMetrics();   // 各次创建的控制器共用，重建后继续累计
+
+    private final ArrayDeque<AudioSession> sessions = new ArrayDeque<>();  // 栈顶为当前会话
+    private volatile TalkAudioController controller;
+    private volatile AudioSession activeSession;
+    private ScheduledFuture<?> pendingRelease;
+    private volatile long idleReleaseMs = DEFAULT_IDLE_RELEASE_MS;
+
+    private long handoffCount = 0;
+    private long rebuildCount = 0;
+    private long lastHandoffUs = -1;
+
+    public SharedAudioEngine(Context context) {
+        this(context, null);
+    }
+
+    /**
+     * @param deviceFactory 为 null 时使用 AudioRecord / AudioTrack
+     */
+    public SharedAudioEngine(Context context, AudioDeviceFactory deviceFactory) {
+        this.context = context != null ? context.getApplicationContext() : null;
+        this.deviceFactory = deviceFactory;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SharedAudioEngine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 最后一个会话关闭后多久释放设备，0 表示立即释放
+     */
+    public void setIdleReleaseMs(long idleReleaseMs) {
+        this.idleReleaseMs = Math.max(0, idleReleaseMs);
+    }
+
+    /**
+     * 异步打开会话（引擎线程），见 openSession
+     * @return 打开后的会话，设备初始化失败时异常完成
+     */
+    public CompletableFuture<AudioSession> openSessionAsync(String name, AudioConfig config) {
+        return CompletableFuture.supplyAsync(() -> openSession(name, config), scheduler);
+    }
+
+    /**
+     * 打开会话并设为当前会话，耗时操作（首次或重建时初始化设备），不要在主线程调用（可使用 openSessionAsync）
+     * @param name 会话名，用于日志
+     * @throws IllegalStateException 音频设备初始化失败
+     */
+    public synchronized AudioSession openSession(String name, AudioConfig config) {
+        cancelPendingRelease();
+        AudioConfig sessionConfig = config != null ? config : new AudioConfig();
+        ensureController(sessionConfig);
+
+        AudioSession session = new AudioSession(this, name, sessionConfig);
+        AudioSession previous = activeSession;
+        sessions.push(session);
+        handoff(previous, session);
+        return session;
+    }
+
+    /**
+     * 当前会话，没有打开的会话时为 null
+     */
+    public AudioSession getActiveSession() {
+        return activeSession;
+    }
+
+    /**
+     * 音频流水线指标，跨会话切换和引擎重建累计
+     */
+    public AudioMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 周期回调指标快照，listener 为 null 时停止
+     */
+    public void setOnMetricsListener(OnAudioMetricsListener listener, long periodMs) {
+        metrics.setOnMetricsListener(listener, periodMs);
+    }
+
+    /**
+     * 音频异常事件，跨会话有效，listener 为 null 时取消
+     */
+    public void setOnGlitchListener(OnAudioGlitchListener listener) {
+        metrics.setOnGlitchListener(listener);
+    }
+
+    /**
+     * 引擎统计，下标见 STAT_*
+     */
+    public synchronized long[] getStats() {
+        long[] stats = new long[STAT_COUNT];
+        stats[STAT_SESSIONS] = sessions.size();
+        stats[STAT_HANDOFFS] = handoffCount;
+        stats[STAT_REBUILDS] = rebuildCount;
+        stats[STAT_LAST_HANDOFF_US] = lastHandoffUs;
+        return stats;
+    }
+
+    /**
+     * 立即关闭所有会话并释放设备，之后仍可重新打开会话
+     */
+    public synchronized void release() {
+        cancelPendingRelease();
+        for (AudioSession session : sessions) {
+            session.closed = true;
+        }
+        sessions.clear();
+        activeSession = null;
+        releaseController();
+    }
+
+    // ==================== 会话调用 ====================
+
+    CompletableFuture<Void> runAsync(Runnable action) {
+        return CompletableFuture.runAsync(action, scheduler);
+    }
+
+    synchronized void closeSession(AudioSession session) {
+        if (session.closed) {
+            return;
+        }
+        session.closed = true;
+        sessions.remove(session);
+        if (session != activeSession) {
+            return;
+        }
+
+        AudioSession next = sessions.peek();
+        if (next != null) {
+            try {
+                ensureController(next.getConfig());
+            } catch (RuntimeException e) {
+                activeSession = next;
+                notifyRecordError(next, TalkAudioController.ERROR_AUDIO_RECORD_INIT, e.getMessage());
+                return;
+            }
+        }
+        handoff(session, next);
+    }
+
+    synchronized void setRecording(AudioSession session, boolean recording) {
+        if (session.closed) {
+            return;
+        }
+        session.recording = recording;
+        applyRecordState(session);
+    }
+
+    void play(AudioSession session, byte[] data, int sampleRate, int channels, AudioFormatType format) {
+        TalkAudioController current = controller;
+        if (session == activeSession && current != null) {
+            current.play(data, sampleRate, channels, format);
+        }
+    }
+
+    void warmUpPlayback(AudioSession session, int sampleRate, int channels, AudioFormatType format) {
+        TalkAudioController current = controller;
+        if (session == activeSession && current != null) {
+            current.warmUpPlayback(sampleRate, channels, format);
+        }
+    }
+
+    void stopPlay(AudioSession session) {
+        TalkAudioController current = controller;
+        if (session == activeSession && current != null) {
+            current.stopPlay();
+        }
+    }
+
+    synchronized void setMicMute(AudioSession session, boolean muted) {
+        session.micMuted = muted;
+        if (session == activeSession && controller != null) {
+            controller.setMicMute(muted);
+        }
+    }
+
+    void reportUplinkThroughput(AudioSession session, int bitsPerSecond) {
+        TalkAudioController current = controller;
+        if (session == activeSession && current != null) {
+            current.reportUplinkThroughput(bitsPerSecond);
+        }
+    }
+
+    AudioFormatType getUplinkFormat(AudioSession session) {
+        TalkAudioController current = controller;
+        if (session == activeSession && current != null) {
+            return current.getUplinkFormat();
+        }
+        return session.getConfig().formatType;
+    }
+
+    boolean isActive(AudioSession session) {
+        return session == activeSession;
+    }
+
+    // ==================== 内部实现 ====================
+
+    /**
+     * 确保控制器可用且与配置兼容，否则重建（调用方持有锁）
+     */
+    private void ensureController(AudioConfig config) {
+        TalkAudioController current = controller;
+        if (current != null && current.isInitialized() && current.getAudioConfig().canShareEngineWith(config)) {
+            return;
+        }
+
+        if (current != null) {
+            Log.i(TAG, "会话配置与当前引擎不兼容，重建音频设备");
+            rebuildCount++;
+            releaseController();
+        }
+
+        TalkAudioController created = new TalkAudioController(context, config, deviceFactory, metrics);
+        bindListeners(created);
+        created.init();
+        if (!created.isInitialized()) {
+            created.release();
+            throw new IllegalStateException("音频引擎初始化失败");
+        }
+        controller = created;
+    }
+
+    /**
+     * 数据路由切到 to（调用方持有锁），to 为 null 时停止采集播放并延迟释放
+     */
+    private void handoff(AudioSession from, AudioSession to) {
+        long startNs = System.nanoTime();
+        activeSession = to;
+        TalkAudioController current = controller;
+        if (current == null) {
+            return;
+        }
+
+        // 上一个会话未播完的音频不带入下一个会话，AudioTrack 保留
+        current.stopPlay();
+
+        if (to == null) {
+            current.stopRecord();
+            scheduleIdleRelease();
+            Log.i(TAG, "会话已全部关闭: last=" + nameOf(from) + ", idleReleaseMs=" + idleReleaseMs);
+            return;
+        }
+
+        try {
+            current.setUplinkFormat(to.getConfig().formatType);
+        } catch (RuntimeException e) {
+            notifyRecordError(to, TalkAudioController.ERROR_OPUS_ENCODER_INIT, e.getMessage());
+        }
+        current.setMicMute(to.micMuted);
+        applyRecordState(to);
+
+        lastHandoffUs = (System.nanoTime() - startNs) / 1000;
+        handoffCount++;
+        Log.i(TAG, "会话切换: " + nameOf(from) + " -> " + to.getName() +
+                ", recording=" + to.recording + ", sessions=" + sessions.size() +
+                ", costUs=" + lastHandoffUs);
+    }
+
+    /**
+     * 按当前会话的录音状态启停采集（调用方持有锁）
+     */
+    private void applyRecordState(AudioSession session) {
+        TalkAudioController current = controller;
+        if (session != activeSession || current == null) {
+            return;
+        }
+        if (session.recording && !current.isRecording()) {
+            current.startRecord();
+        } else if (!session.recording && current.isRecording()) {
+            current.stopRecord();
+        }
+    }
+
+    private void scheduleIdleRelease() {
+        cancelPendingRelease();
+        if (idleReleaseMs == 0) {
+            releaseController();
+            return;
+        }
+        pendingRelease = scheduler.schedule(this::releaseIfIdle, idleReleaseMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void releaseIfIdle() {
+        pendingRelease = null;
+        if (sessions.isEmpty()) {
+            releaseController();
+            Log.i(TAG, "空闲超时，已释放音频设备");
+        }
+    }
+
+    private void cancelPendingRelease() {
+        if (pendingRelease != null) {
+            pendingRelease.cancel(false);
+            pendingRelease = null;
+        }
+    }
+
+    private void releaseController() {
+        TalkAudioController current = controller;
+        controller = null;
+        if (current != null) {
+            current.release();
+        }
+    }
+
+    /**
+     * 控制器回调统一转发给当前会话
+     */
+    private void bindListeners(TalkAudioController target) {
+        target.setOnRecordDataListener(new OnRecordDataListener() {
+            @Override
+            public void onPcmData(byte[] data, int size) {
+                AudioSession session = activeSession;
+                OnRecordDataListener listener = session != null ? session.recordDataListener : null;
+                if (listener != null) {
+                    listener.onPcmData(data, size);
+                }
+            }
+
+            @Override
+            public void onOpusData(byte[] data, int size) {
+                AudioSession session = activeSession;
+                OnRecordDataListener listener = session != null ? session.recordDataListener : null;
+                if (listener != null) {
+                    listener.onOpusData(data, size);
+                }
+            }
+
+            @Override
+            public void onRecordError(int errorCode, String message) {
+                notifyRecordError(activeSession, errorCode, message);
+            }
+        });
+
+        target.setOnVoiceActivityListener(new OnVoiceActivityListener() {
+            @Override
+            public void onListeningModeChanged(boolean fullQuality) {
+                AudioSession session = activeSession;
+                OnVoiceActivityListener listener = session != null ? session.voiceActivityListener : null;
+                if (listener != null) {
+                    listener.onListeningModeChanged(fullQuality);
+                }
+            }
+
+            @Override
+            public void onSpeechStarted() {
+                AudioSession session = activeSession;
+                OnVoiceActivityListener listener = session != null ? session.voiceActivityListener : null;
+                if (listener != null) {
+                    listener.onSpeechStarted();
+                }
+            }
+
+            @Override
+            public void onEndOfUtterance(int reason, long utteranceMs) {
+                AudioSession session = activeSession;
+                OnVoiceActivityListener listener = session != null ? session.voiceActivityListener : null;
+                if (listener != null) {
+                    listener.onEndOfUtterance(reason, utteranceMs);
+                }
+            }
+        });
+
+        target.setOnUplinkFormatListener((format, reason) -> {
+            AudioSession session = activeSession;
+            OnUplinkFormatListener listener = session != null ? session.uplinkFormatListener : null;
+            if (listener != null) {
+                listener.onUplinkFormatChanged(format, reason);
+            }
+        });
+
+        target.setOnPlayStateListener(new OnPlayStateListener() {
+            @Override
+            public void onPlayError(int errorCode, String message) {
+                AudioSession session = activeSession;
+                OnPlayStateListener listener = session != null ? session.playStateListener : null;
+                if (listener != null) {
+                    listener.onPlayError(errorCode, message);
+                }
+            }
+
+            @Override
+            public void onFirstSampleRendered(long firstWriteNs, long renderedNs) {
+                AudioSession session = activeSession;
+                OnPlayStateListener listener = session != null ? session.playStateListener : null;
+                if (listener != null) {
+                    listener.onFirstSampleRendered(firstWriteNs, renderedNs);
+                }
+            }
+        });
+    }
+
+    private void notifyRecordError(AudioSession session, int errorCode, String message) {
+        OnRecordDataListener listener = session != null ? session.recordDataListener : null;
+        if (listener != null) {
+            listener.onRecordError(errorCode, message);
+        }
+    }
+
+    private static String nameOf(AudioSession session) {
+        return session != null ? session.getName() : "none";
+    }
+}
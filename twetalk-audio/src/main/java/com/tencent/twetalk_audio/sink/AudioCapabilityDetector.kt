@@ -1,15 +1,23 @@
 package com.tencent.twetalk_audio.sink
 
+import android.content.Context
 import android.media.MediaCodecList
 import android.media.audiofx.AcousticEchoCanceler
 import android.media.audiofx.AutomaticGainControl
 import android.media.audiofx.NoiseSuppressor
 import android.os.Build
+import com.tencent.twetalk_audio.opus.OpusEncoderFactory
 
 /**
  * 音频设备能力检测器
  */
 object AudioCapabilityDetector {
+    private const val PREFS_NAME = "twetalk_audio_capability"
+    private const val KEY_FINGERPRINT = "fingerprint"
+    private const val KEY_REPORT = "report"
+
+    // 进程内缓存，检测结果只与系统版本相关
+    @Volatile private var cachedReport: AudioCapabilityReport? = null
     
     /**
      * 检测设备是否支持 Opus 硬件编码
@@ -40,6 +48,17 @@ object AudioCapabilityDetector {
         }
     }
     
+    /**
+     * 检测设备是否有硬件（DSP）Opus 编码器，可将编码负载移出应用核心
+     */
+    fun isOpusHardwareSupported(): Boolean {
+        return try {
+            OpusEncoderFactory.listMediaCodecEncoders().any { OpusEncoderFactory.isHardware(it) }
+        } catch (e: Exception) {
+            false
+        }
+    }
+
     /**
      * 检测设备是否支持 AEC（回声消除）
      */
@@ -74,11 +93,42 @@ object AudioCapabilityDetector {
     }
     
     /**
-     * 获取设备音频能力报告
+     * 获取设备音频能力报告（带缓存）
+     * 枚举 MediaCodecList 较慢，结果按 Build.FINGERPRINT 持久化，系统升级后重新检测
+     */
+    @JvmStatic
+    fun getCapabilityReport(context: Context): AudioCapabilityReport {
+        cachedReport?.let { return it }
+
+        synchronized(this) {
+            cachedReport?.let { return it }
+
+            val prefs = context.applicationContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+            val saved = if (prefs.getString(KEY_FINGERPRINT, null) == Build.FINGERPRINT) {
+                AudioCapabilityReport.decode(prefs.getString(KEY_REPORT, null))
+            } else {
+                null
+            }
+
+            val report = saved ?: getCapabilityReport().also {
+                prefs.edit()
+                    .putString(KEY_FINGERPRINT, Build.FINGERPRINT)
+                    .putString(KEY_REPORT, it.encode())
+                    .apply()
+            }
+            cachedReport = report
+            return report
+        }
+    }
+
+    /**
+     * 重新检测设备音频能力（不使用缓存）
      */
+    @JvmStatic
     fun getCapabilityReport(): AudioCapabilityReport {
         return AudioCapabilityReport(
             opusSupported = isOpusSupported(),
+            opusHardwareSupported = isOpusHardwareSupported(),
             aecSupported = isAECSupported(),
             agcSupported = isAGCSupported(),
             nsSupported = isNSSupported()
@@ -91,6 +141,7 @@ object AudioCapabilityDetector {
  */
 data class AudioCapabilityReport(
     val opusSupported: Boolean,
+    val opusHardwareSupported: Boolean,
     val aecSupported: Boolean,
     val agcSupported: Boolean,
     val nsSupported: Boolean
@@ -98,10 +149,38 @@ data class AudioCapabilityReport(
     override fun toString(): String {
         return """
             音频设备能力报告:
-            - Opus 硬件编码: ${if (opusSupported) "支持" else "不支持"}
+            - Opus MediaCodec 编码: ${if (opusSupported) "支持" else "不支持"}
+            - Opus 硬件编码: ${if (opusHardwareSupported) "支持" else "不支持"}
             - AEC 回声消除: ${if (aecSupported) "支持" else "不支持"}
             - AGC 自动增益: ${if (agcSupported) "支持" else "不支持"}
             - NS 噪声抑制: ${if (nsSupported) "支持" else "不支持"}
         """.trimIndent()
     }
+
+    /**
+     * 序列化为持久化字符串
+     */
+    internal fun encode(): String {
+        return listOf(opusSupported, opusHardwareSupported, aecSupported, agcSupported, nsSupported)
+            .joinToString(",") { if (it) "1" else "0" }
+    }
+
+    companion object {
+        /**
+         * 解析 encode() 的结果，格式不符时返回 null
+         */
+        internal fun decode(value: String?): AudioCapabilityReport? {
+            val flags = value?.split(",") ?: return null
+            if (flags.size != 5 || flags.any { it != "0" && it != "1" }) {
+                return null
+            }
+            return AudioCapabilityReport(
+                opusSupported = flags[0] == "1",
+                opusHardwareSupported = flags[1] == "1",
+                aecSupported = flags[2] == "1",
+                agcSupported = flags[3] == "1",
+                nsSupported = flags[4] == "1"
+            )
+        }
+    }
 }
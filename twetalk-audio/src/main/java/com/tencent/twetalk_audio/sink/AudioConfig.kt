@@ -1,15 +1,16 @@
 package com.tencent.twetalk_audio.sink
 
+import com.tencent.twetalk_audio.config.AudioProfile
+import com.tencent.twetalk_audio.config.EncoderBackendType
+import com.tencent.twetalk_audio.config.FrameDurationType
+
 /**
- * 音频格式枚举
+ * 音频格式，与 TalkAudioController 共用同一定义
  */
-enum class AudioFormatType {
-    PCM,    // 原始 PCM 格式
-    OPUS    // Opus 编码格式
-}
+typealias AudioFormatType = com.tencent.twetalk_audio.config.AudioFormatType
 
 /**
- * 音频配置
+ * 音频配置（MicRecorder 使用），通过 toEngineConfig() 转换为引擎配置
  */
 data class AudioConfig(
     val sampleRate: Int = 16000,           // 采样率
@@ -17,6 +18,12 @@ data class AudioConfig(
     val bitDepth: Int = 16,                 // 位深度
     val chunkMs: Int = 20,                  // 每帧时长（毫秒）
     val formatType: AudioFormatType = AudioFormatType.PCM,  // 音频格式
+    val encoderBackend: EncoderBackendType = EncoderBackendType.LIBOPUS,  // Opus 编码后端，MediaCodec 需显式选择
+    val opusPadding: Boolean = true,        // Opus 包填充到目标字节数；关闭后为受限 VBR，目标字节数仅作上限
+    val opusBitrate: Int = 24000,           // Opus 码率，目标字节数按码率和 chunkMs 推算
+    val opusComplexity: Int = 5,            // Opus 编码复杂度（0~10）
+    val opusDtx: Boolean = false,           // Opus 静音不连续发送
+    val opusLowDelay: Boolean = false,      // Opus 使用 RESTRICTED_LOWDELAY 模式
     val enableAEC: Boolean = true,         // 回声消除
     val enableAGC: Boolean = true,         // 自动增益控制
     val enableNS: Boolean = true,          // 噪声抑制
@@ -24,14 +31,11 @@ data class AudioConfig(
     val filePath: String? = null            // 文件保存路径
 ) {
     /**
-     * Opus 特定配置
+     * Opus 包目标字节数
      */
-    object OpusConfig {
-        const val FRAME_DURATION_MS = 60    // 60ms 一帧
-        const val TARGET_BYTES = 180        // 180 字节一帧
-        const val BITRATE = 24000           // 比特率 24kbps
-    }
-    
+    val opusTargetBytes: Int
+        get() = opusBitrate * chunkMs / 8000
+
     /**
      * 验证配置有效性
      */
@@ -48,11 +52,55 @@ data class AudioConfig(
         if (chunkMs <= 0) {
             return Result.failure(IllegalArgumentException("帧时长必须大于0"))
         }
+        if (FrameDurationType.fromDuration(chunkMs) == null) {
+            return Result.failure(IllegalArgumentException("帧时长必须为 10/20/40/60 毫秒"))
+        }
         if (saveToFile && filePath.isNullOrBlank()) {
             return Result.failure(IllegalArgumentException("保存文件时必须指定文件路径"))
         }
         return Result.success(Unit)
     }
+
+    /**
+     * 转换为引擎配置
+     * AEC/AGC/NS 由 VOICE_COMMUNICATION 音源的系统前处理负责，不再单独创建音效
+     */
+    fun toEngineConfig(): com.tencent.twetalk_audio.config.AudioConfig {
+        val engineConfig = com.tencent.twetalk_audio.config.AudioConfig()
+        engineConfig.sampleRate = sampleRate
+        engineConfig.channelCount = channelCount
+        engineConfig.bitDepth = bitDepth
+        engineConfig.frameDuration = FrameDurationType.fromDuration(chunkMs) ?: FrameDurationType.MS_20
+        engineConfig.formatType = formatType
+        engineConfig.encoderBackend = encoderBackend
+        engineConfig.opusPadding = opusPadding
+        engineConfig.opusBitrate = opusBitrate
+        engineConfig.opusComplexity = opusComplexity
+        engineConfig.opusDtx = opusDtx
+        engineConfig.opusLowDelay = opusLowDelay
+        return engineConfig
+    }
+
+    companion object {
+        /**
+         * 按档位创建配置，其余参数取默认值
+         */
+        fun fromProfile(
+            profile: AudioProfile,
+            formatType: AudioFormatType = AudioFormatType.PCM
+        ): AudioConfig {
+            val defaults = AudioConfig()
+            return defaults.copy(
+                chunkMs = profile.frameDuration.duration,
+                formatType = formatType,
+                opusPadding = profile.isOpusPadding,
+                opusBitrate = if (profile.opusBitrate > 0) profile.opusBitrate else defaults.opusBitrate,
+                opusComplexity = profile.opusComplexity,
+                opusDtx = profile.isOpusDtx,
+                opusLowDelay = profile.isOpusLowDelay
+            )
+        }
+    }
 }
 
 //data class PlayConfig(
@@ -1,23 +1,13 @@
 package com.tencent.twetalk_audio.sink
 
-import android.annotation.SuppressLint
 import android.content.Context
-import android.media.AudioFormat
-import android.media.AudioManager
-import android.media.AudioRecord
-import android.media.MediaRecorder
-import android.media.audiofx.AcousticEchoCanceler
-import android.media.audiofx.AutomaticGainControl
-import android.media.audiofx.NoiseSuppressor
-import android.os.Build
-import android.os.Process
 import android.util.Log
-import com.tencent.twetalk_audio.opus.OpusBridge
-import com.tencent.twetalk_audio.opus.OpusEncoderParams
-import com.tencent.twetalk_audio.utils.PcmUtil
+import com.tencent.twetalk_audio.TalkAudioController
+import com.tencent.twetalk_audio.listener.OnRecordDataListener
 
 /**
  * 音频采集
+ * 基于 TalkAudioController 的采集通路（分帧、编码、时间戳等与其完全一致），仅保留简化的回调接口和文件保存
  */
 class MicRecorder(
     private val context: Context,
@@ -28,42 +18,24 @@ class MicRecorder(
         private const val TAG = "MicRecorder"
     }
 
-    // AudioRecord 相关
-    private var audioRecord: AudioRecord? = null
-    private var recordThread: Thread? = null
-    private val audioManager: AudioManager? = context.getSystemService(Context.AUDIO_SERVICE) as? AudioManager
-    private var previousAudioMode: Int? = null
-    private val audioSource: Int = MediaRecorder.AudioSource.VOICE_COMMUNICATION
-    
-    // 音频效果处理器
-    private var aec: AcousticEchoCanceler? = null
-    private var agc: AutomaticGainControl? = null
-    private var ns: NoiseSuppressor? = null
-    
-    // Opus 编码器
-    private var opusEncoderHandle: Long = 0
-    private val opusBridge = OpusBridge.getInstance()
+    private var controller: TalkAudioController? = null
 
     // 文件写入器
     private var fileWriter: AudioFileWriter? = null
-    
+
     // 状态标志
     @Volatile private var isInitialized = false
-    @Volatile private var isRecording = false
-    
-    // 音频参数
-    private var frameBytes: Int = 0
-    private var bufferSize: Int = 0
+
+    // 初始化期间的错误信息
+    @Volatile private var initError: String? = null
 
     /**
      * 初始化音频采集器
      * 
-     * @throws IllegalStateException 如果已经初始化
+     * @throws IllegalStateException 如果已经初始化或初始化失败
      * @throws IllegalArgumentException 如果配置无效
-     * @throws UnsupportedOperationException 如果设备不支持所需功能
      */
-    @SuppressLint("MissingPermission")
-    @Throws(IllegalStateException::class, IllegalArgumentException::class, UnsupportedOperationException::class)
+    @Throws(IllegalStateException::class, IllegalArgumentException::class)
     fun init() {
         if (isInitialized) {
             throw IllegalStateException("MicRecorder 已经初始化，请先调用 release()")
@@ -74,24 +46,33 @@ class MicRecorder(
         
         // 检查设备能力
         checkDeviceCapabilities()
-        
+
         try {
-            // 通话场景：提前切换到 MODE_IN_COMMUNICATION，避免录音/播放期间反复切换导致抖动
-            ensureCommunicationAudioMode()
+            initError = null
+            val engine = TalkAudioController(context, config.toEngineConfig())
+            engine.setOnRecordDataListener(object : OnRecordDataListener {
+                override fun onPcmData(data: ByteArray, size: Int) {
+                    if (config.formatType == AudioFormatType.PCM) {
+                        output(data)
+                    }
+                }
 
-            // 初始化 AudioRecord
-            initAudioRecord()
-            
-            // 初始化音频效果处理器
-            if (audioSource == MediaRecorder.AudioSource.VOICE_COMMUNICATION) {
-                Log.i(TAG, "使用 VOICE_COMMUNICATION 源，跳过 AEC/AGC/NS 以避免前处理冲突")
-            } else {
-                initAudioEffects()
-            }
-            
-            // 初始化编码器（如果需要）
-            if (config.formatType == AudioFormatType.OPUS) {
-                initOpusEncoder()
+                override fun onOpusData(data: ByteArray, size: Int) {
+                    output(data)
+                }
+
+                override fun onRecordError(errorCode: Int, message: String) {
+                    Log.e(TAG, "录音错误[$errorCode]: $message")
+                    if (!isInitialized) {
+                        initError = message
+                    }
+                }
+            })
+            controller = engine
+
+            engine.init()
+            if (!engine.isInitialized) {
+                throw IllegalStateException("MicRecorder 初始化失败: ${initError ?: "未知错误"}")
             }
 
             // 初始化文件写入器（如果需要）
@@ -99,10 +80,10 @@ class MicRecorder(
                 fileWriter = AudioFileWriter(config.filePath)
                 fileWriter?.open()
             }
-            
+
             isInitialized = true
             Log.i(TAG, "MicRecorder 初始化成功")
-            
+
         } catch (e: Exception) {
             // 初始化失败，清理资源
             releaseInternal()
@@ -120,46 +101,14 @@ class MicRecorder(
             throw IllegalStateException("MicRecorder 未初始化，请先调用 init()")
         }
 
-        if (isRecording) {
-            Log.d(TAG, "MicRecorder 已经在录音中，忽略重复启动")
-            return
-        }
-        
-        isRecording = true
-        audioRecord?.startRecording()
-        
-        // 启动录音线程
-        recordThread = Thread({
-            try {
-                Process.setThreadPriority(Process.THREAD_PRIORITY_AUDIO)
-            } catch (_: Throwable) {}
-            recordLoop()
-        }, "MicRecorder-Thread").apply { start() }
-        
-        Log.i(TAG, "开始录音")
+        controller?.startRecord()
     }
 
     /**
      * 停止录音
      */
     fun stop() {
-        if (!isRecording) {
-            return
-        }
-        
-        isRecording = false
-        
-        // 等待录音线程结束
-        recordThread?.join(1000)
-        recordThread = null
-        
-        try {
-            audioRecord?.stop()
-        } catch (e: Exception) {
-            Log.e(TAG, "停止录音失败", e)
-        }
-        
-        Log.i(TAG, "停止录音")
+        controller?.stopRecord()
     }
 
     /**
@@ -169,12 +118,7 @@ class MicRecorder(
         if (!isInitialized) {
             return
         }
-        
-        // 确保已停止录音
-        if (isRecording) {
-            stop()
-        }
-        
+
         releaseInternal()
         isInitialized = false
         
@@ -185,11 +129,12 @@ class MicRecorder(
      * 检查设备能力
      */
     private fun checkDeviceCapabilities() {
-        val report = AudioCapabilityDetector.getCapabilityReport()
+        val report = AudioCapabilityDetector.getCapabilityReport(context)
         
         // 检查 Opus 支持
-        if (config.formatType == AudioFormatType.OPUS && !report.opusSupported) {
-            Log.w(TAG, "设备不支持 Opus 硬件编码。将启用 OpusBridge")
+        if (config.formatType == AudioFormatType.OPUS) {
+            Log.i(TAG, "Opus 编码后端: ${config.encoderBackend}, " +
+                    "MediaCodec=${report.opusSupported}, 硬件=${report.opusHardwareSupported}")
         }
         
         // 检查 AEC 支持
@@ -209,295 +154,24 @@ class MicRecorder(
     }
 
     /**
-     * 初始化 AudioRecord
-     */
-    @SuppressLint("MissingPermission")
-    private fun initAudioRecord() {
-        val channelConfig = if (config.channelCount == 1) {
-            AudioFormat.CHANNEL_IN_MONO
-        } else {
-            AudioFormat.CHANNEL_IN_STEREO
-        }
-        
-        val audioFormat = if (config.bitDepth == 16) {
-            AudioFormat.ENCODING_PCM_16BIT
-        } else {
-            AudioFormat.ENCODING_PCM_8BIT
-        }
-        
-        // 计算帧大小
-        val bytesPerSample = config.bitDepth / 8
-        frameBytes = (config.sampleRate * bytesPerSample * config.channelCount * config.chunkMs) / 1000
-        
-        // 计算缓冲区大小
-        val minBuf = AudioRecord.getMinBufferSize(config.sampleRate, channelConfig, audioFormat)
-        bufferSize = maxOf(minBuf * 2, frameBytes * 2)
-        
-        // 创建 AudioRecord
-        audioRecord = AudioRecord(
-            audioSource,
-            config.sampleRate,
-            channelConfig,
-            audioFormat,
-            bufferSize
-        )
-        
-        if (audioRecord?.state != AudioRecord.STATE_INITIALIZED) {
-            throw IllegalStateException("AudioRecord 初始化失败")
-        }
-        
-        Log.i(TAG, "AudioRecord 初始化成功: source=$audioSource, sampleRate=${config.sampleRate}, " +
-                "channels=${config.channelCount}, bitDepth=${config.bitDepth}, " +
-                "frameBytes=$frameBytes, bufferSize=$bufferSize")
-
-        // 记录实际落地参数，便于排查系统回退或静音
-        audioRecord?.let { ar ->
-            val actualFormat = when (ar.audioFormat) {
-                AudioFormat.ENCODING_PCM_16BIT -> "PCM_16BIT"
-                AudioFormat.ENCODING_PCM_8BIT -> "PCM_8BIT"
-                AudioFormat.ENCODING_PCM_FLOAT -> "PCM_FLOAT"
-                else -> "UNKNOWN(${ar.audioFormat})"
-            }
-            val bufferFrames = if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                ar.bufferSizeInFrames.toString()
-            } else {
-                "N/A"
-            }
-            Log.i(TAG, "AudioRecord 实际参数: source=$audioSource, " +
-                    "sampleRate=${ar.sampleRate}, channels=${ar.channelCount}, " +
-                    "format=$actualFormat, bufferFrames=$bufferFrames, " +
-                    "sessionId=${ar.audioSessionId}")
-        }
-    }
-
-    /**
-     * 初始化音频效果处理器
-     */
-    private fun initAudioEffects() {
-        val audioSessionId = audioRecord?.audioSessionId ?: return
-        
-//        // 初始化 AEC（回声消除）
-//        if (config.enableAEC && AudioCapabilityDetector.isAECSupported()) {
-//            try {
-//                aec = AcousticEchoCanceler.create(audioSessionId)
-//                aec?.enabled = true
-//                Log.i(TAG, "AEC（回声消除）已启用")
-//            } catch (e: Exception) {
-//                Log.e(TAG, "AEC 初始化失败", e)
-//            }
-//        }
-        
-//        // 初始化 AGC（自动增益控制）
-//        if (config.enableAGC && AudioCapabilityDetector.isAGCSupported()) {
-//            try {
-//                agc = AutomaticGainControl.create(audioSessionId)
-//                agc?.enabled = true
-//                Log.i(TAG, "AGC（自动增益控制）已启用")
-//            } catch (e: Exception) {
-//                Log.e(TAG, "AGC 初始化失败", e)
-//            }
-//        }
-//
-//        // 初始化 NS（噪声抑制）
-//        if (config.enableNS && AudioCapabilityDetector.isNSSupported()) {
-//            try {
-//                ns = NoiseSuppressor.create(audioSessionId)
-//                ns?.enabled = true
-//                Log.i(TAG, "NS（噪声抑制）已启用")
-//            } catch (e: Exception) {
-//                Log.e(TAG, "NS 初始化失败", e)
-//            }
-//        }
-    }
-
-    private fun ensureCommunicationAudioMode() {
-        val am = audioManager ?: return
-        if (previousAudioMode == null) {
-            previousAudioMode = am.mode
-        }
-        if (am.mode != AudioManager.MODE_IN_COMMUNICATION) {
-            am.mode = AudioManager.MODE_IN_COMMUNICATION
-            Log.i(TAG, "AudioManager 已切换到 MODE_IN_COMMUNICATION，previous=$previousAudioMode")
-        }
-    }
-
-    private fun restoreAudioModeIfNeeded() {
-        val am = audioManager ?: return
-        val prev = previousAudioMode ?: return
-        if (am.mode != prev) {
-            am.mode = prev
-            Log.i(TAG, "AudioManager 已恢复为模式 $prev")
-        }
-        previousAudioMode = null
-    }
-
-    /**
-     * 初始化 Opus 编码器
-     */
-    private fun initOpusEncoder() {
-        try {
-            val params = OpusEncoderParams.Builder()
-                .sampleRate(config.sampleRate)
-                .channels(config.channelCount)
-                .targetBytes(AudioConfig.OpusConfig.TARGET_BYTES)
-                .bitrate(AudioConfig.OpusConfig.BITRATE)
-                .cbr(true)
-                .dtx(false)
-                .complexity(5)
-                .signalVoice(true)
-                .build()
-
-            opusEncoderHandle = opusBridge.createEncoder(params)
-
-            if (opusEncoderHandle == 0L) {
-                throw UnsupportedOperationException("OpusEncoder 创建失败")
-            }
-
-            Log.i(TAG, "==== OpusEncoder Init Success ====")
-            Log.i(TAG, "Handle: ${opusEncoderHandle}\n" +
-                    "Sample Rate: ${config.sampleRate}\n" +
-                    "Channels: ${config.channelCount}\n" +
-                    "Bitrate: ${AudioConfig.OpusConfig.BITRATE}\n" +
-                    "Target Bytes: ${AudioConfig.OpusConfig.TARGET_BYTES}\n" +
-                    "Frame Ms: ${AudioConfig.OpusConfig.FRAME_DURATION_MS}\n")
-        } catch (e: Exception) {
-            throw UnsupportedOperationException("OpusEncoder 初始化失败", e)
-        }
-    }
-
-    /**
-     * 录音循环
-     */
-    private fun recordLoop() {
-        val readBuffer = ByteArray(bufferSize)
-        val frameBuffer = ByteArray(frameBytes)
-        var frameOffset = 0
-
-        Log.i(TAG, "录音线程开始")
-        var totalReads = 0
-        var zeroReads = 0
-        var errorReads = 0
-
-        while (isRecording) {
-            try {
-                val readBytes = audioRecord?.read(readBuffer, 0, readBuffer.size) ?: break
-
-                if (readBytes <= 0) {
-                    if (readBytes == 0) zeroReads++ else errorReads++
-                    Log.w(TAG, "读取音频数据失败: $readBytes")
-                    continue
-                }
-                totalReads++
-
-                var cursor = 0
-                while (cursor < readBytes) {
-                    val copyLen = minOf(frameBytes - frameOffset, readBytes - cursor)
-                    System.arraycopy(readBuffer, cursor, frameBuffer, frameOffset, copyLen)
-                    frameOffset += copyLen
-                    cursor += copyLen
-
-                    if (frameOffset == frameBytes) {
-                        processAudioData(frameBuffer.copyOf())
-                        frameOffset = 0
-                    }
-                }
-
-            } catch (e: Exception) {
-                Log.e(TAG, "录音循环异常", e)
-                break
-            }
-        }
-
-        Log.i(TAG, "录音线程结束，统计: totalReads=$totalReads, zeroReads=$zeroReads, errorReads=$errorReads")
-    }
-
-    /**
-     * 处理音频数据
+     * 回调并保存一帧输出数据（采集线程）
      */
-    private fun processAudioData(pcmData: ByteArray) {
+    private fun output(data: ByteArray) {
         try {
-            val outputData = when (config.formatType) {
-                AudioFormatType.PCM -> {
-                    // PCM 格式直接输出
-                    pcmData
-                }
-
-                AudioFormatType.OPUS -> {
-                    // Opus 格式需要编码
-                    encodeToOpus(pcmData)
-                }
-            }
-            
-            if (outputData != null) {
-                // 回调音频数据
-                onAudioData(outputData)
-                
-                // 保存到文件（如果需要）
-                fileWriter?.write(outputData)
-            }
-            
+            onAudioData(data)
+            fileWriter?.write(data)
         } catch (e: Exception) {
             Log.e(TAG, "处理音频数据失败", e)
         }
     }
 
-    /**
-     * 编码 PCM 为 Opus
-     */
-    private fun encodeToOpus(pcmData: ByteArray): ByteArray? {
-        if (opusEncoderHandle == 0L) {
-            Log.e(TAG, "OpusEncoder isn't init!")
-            return null
-        }
-
-        try {
-            val shorts = PcmUtil.byteToShort(pcmData)
-            return opusBridge.encode(opusEncoderHandle, shorts)
-        } catch (e: Exception) {
-            Log.e(TAG, "Opus 编码失败", e)
-            return null
-        }
-    }
-
     /**
      * 内部释放资源
      */
     private fun releaseInternal() {
-        // 释放音频效果处理器
-        try {
-            aec?.release()
-            aec = null
-        } catch (e: Exception) {
-            Log.e(TAG, "释放 AEC 失败", e)
-        }
-        
-        try {
-            agc?.release()
-            agc = null
-        } catch (e: Exception) {
-            Log.e(TAG, "释放 AGC 失败", e)
-        }
-        
-        try {
-            ns?.release()
-            ns = null
-        } catch (e: Exception) {
-            Log.e(TAG, "释放 NS 失败", e)
-        }
-        
-        // 释放 Opus 编码器
-        if (opusEncoderHandle != 0L) {
-            opusBridge.releaseEncoder(opusEncoderHandle)
-            opusEncoderHandle = 0
-        }
-        
-        // 释放 AudioRecord
-        try {
-            audioRecord?.release()
-            audioRecord = null
-        } catch (e: Exception) {
-            Log.e(TAG, "释放 AudioRecord 失败", e)
-        }
+        // 停止采集并释放引擎
+        controller?.release()
+        controller = null
 
         // 关闭文件写入器
         try {
@@ -510,8 +184,6 @@ class MicRecorder(
         } catch (e: Exception) {
             Log.e(TAG, "关闭文件写入器失败", e)
         }
-
-        restoreAudioModeIfNeeded()
     }
 
     /**
@@ -519,7 +191,12 @@ class MicRecorder(
      */
     fun isInitialized(): Boolean = isInitialized
     
-    fun isRecording(): Boolean = isRecording
+    fun isRecording(): Boolean = controller?.isRecording == true
+
+    /**
+     * 获取 Opus 编码统计，下标见 OpusBridge.STAT_*
+     */
+    fun getEncoderStats(): LongArray? = controller?.encoderStats
     
     /**
      * 获取音频配置
@@ -0,0 +1,152 @@
+package com.tencent.twetalk_audio.uplink;
+
+import com.tencent.twetalk_audio.config.AudioFormatType;
+
+/**
+ * 上行格式自适应策略
+ * 根据上行吞吐量与 Opus 编码 CPU 占用在 PCM / Opus 之间切换，带滞回与最短驻留时间，避免来回抖动
+ * - PCM：吞吐量持续低于 PCM 码率的 keepPcmHeadroom 倍时切到 Opus
+ * - Opus：吞吐量持续高于 PCM 码率的 enterPcmHeadroom 倍时切回 PCM；
+ *   编码 CPU 占用持续过高且吞吐量足以承载 PCM 时也切到 PCM
+ * 吞吐量未知（从未上报）时不因带宽切换；带宽不足时优先保证可用性，不因 CPU 切到 PCM
+ * 按帧驱动，计时使用帧时长而非墙钟；非线程安全，仅在采集线程调用 onFrame
+ */
+public class UplinkFormatPolicy {
+    // onFrame() 返回的切换原因
+    public static final int REASON_NONE = 0;
+    public static final int REASON_LOW_BANDWIDTH = 1;      // 带宽不足，切到 Opus
+    public static final int REASON_BANDWIDTH_RECOVERED = 2;  // 带宽恢复，切回 PCM
+    public static final int REASON_CPU_OVERLOAD = 3;       // 编码 CPU 占用过高，切到 PCM
+
+    private static final float KEEP_PCM_HEADROOM = 1.25f;
+    private static final float ENTER_PCM_HEADROOM = 2.0f;
+    private static final int MIN_DWELL_MS = 5000;
+    private static final float CPU_LOAD_ALPHA = 0.1f;
+
+    private final int pcmBitrate;
+    private final int toOpusHoldMs;
+    private final int toPcmHoldMs;
+    private final float cpuHighLoad;
+
+    private volatile int throughputBps = 0;   // 0 表示未知
+    private AudioFormatType format;
+    private long dwellMs = 0;                 // 当前格式已持续时长
+    private long lowBandwidthMs = 0;
+    private long goodBandwidthMs = 0;
+    private long cpuOverloadMs = 0;
+    private float cpuLoad = 0f;               // 编码 CPU 时间 / 帧时长，滑动平均
+
+    /**
+     * @param pcmBitrate PCM 上行码率（bps）
+     * @param initialFormat 初始格式
+     * @param toOpusHoldMs 带宽不足持续多久切到 Opus
+     * @param toPcmHoldMs 带宽充足持续多久切回 PCM（CPU 过载按其一半计）
+     * @param cpuHighLoad 编码 CPU 占用阈值（编码耗时占帧时长的比例）
+     */
+    public UplinkFormatPolicy(int pcmBitrate, AudioFormatType initialFormat,
+                              int toOpusHoldMs, int toPcmHoldMs, float cpuHighLoad) {
+        this.pcmBitrate = pcmBitrate;
+        this.format = initialFormat != null ? initialFormat : AudioFormatType.PCM;
+        this.toOpusHoldMs = toOpusHoldMs;
+        this.toPcmHoldMs = toPcmHoldMs;
+        this.cpuHighLoad = cpuHighLoad;
+    }
+
+    /**
+     * 按当前吞吐量选择连接时协商的上行格式
+     * 供连接时确定格式、连接内无法逐包切换格式的传输使用：吞吐量足以宽裕承载 PCM 时选 PCM，否则选 Opus
+     * @param throughputBps 吞吐量（bps），<= 0 表示未知，此时返回 preferred
+     */
+    public static AudioFormatType chooseFormat(int pcmBitrate, int throughputBps, AudioFormatType preferred) {
+        if (throughputBps <= 0) {
+            return preferred;
+        }
+        return throughputBps >= pcmBitrate * ENTER_PCM_HEADROOM ? AudioFormatType.PCM : AudioFormatType.OPUS;
+    }
+
+    /**
+     * 上报上行吞吐量估计（任意线程）
+     * @param bitsPerSecond 吞吐量（bps），<= 0 表示未知
+     */
+    public void reportThroughput(int bitsPerSecond) {
+        throughputBps = Math.max(0, bitsPerSecond);
+    }
+
+    public int getThroughput() {
+        return throughputBps;
+    }
+
+    /**
+     * 每发送一帧调用一次
+     * @param frameMs 帧时长
+     * @param encodeCpuNs 本帧 Opus 编码 CPU 耗时，未编码时传 -1
+     * @return 切换原因，未切换返回 REASON_NONE；切换后 getFormat() 即为新格式，从下一帧生效
+     */
+    public int onFrame(int frameMs, long encodeCpuNs) {
+        dwellMs += frameMs;
+
+        if (encodeCpuNs >= 0 && frameMs > 0) {
+            float load = encodeCpuNs / (frameMs * 1_000_000f);
+            cpuLoad += (load - cpuLoad) * CPU_LOAD_ALPHA;
+        }
+
+        int throughput = throughputBps;
+        boolean known = throughput > 0;
+
+        if (format == AudioFormatType.PCM) {
+            lowBandwidthMs = known && throughput < pcmBitrate * KEEP_PCM_HEADROOM
+                    ? lowBandwidthMs + frameMs : 0;
+            if (lowBandwidthMs >= toOpusHoldMs && dwellMs >= MIN_DWELL_MS) {
+                return switchTo(AudioFormatType.OPUS, REASON_LOW_BANDWIDTH);
+            }
+            return REASON_NONE;
+        }
+
+        goodBandwidthMs = known && throughput >= pcmBitrate * ENTER_PCM_HEADROOM
+                ? goodBandwidthMs + frameMs : 0;
+        cpuOverloadMs = known && throughput >= pcmBitrate * KEEP_PCM_HEADROOM && cpuLoad >= cpuHighLoad
+                ? cpuOverloadMs + frameMs : 0;
+
+        if (dwellMs < MIN_DWELL_MS) {
+            return REASON_NONE;
+        }
+        if (cpuOverloadMs >= toPcmHoldMs / 2) {
+            return switchTo(AudioFormatType.PCM, REASON_CPU_OVERLOAD);
+        }
+        if (goodBandwidthMs >= toPcmHoldMs) {
+            return switchTo(AudioFormatType.PCM, REASON_BANDWIDTH_RECOVERED);
+        }
+        return REASON_NONE;
+    }
+
+    private int switchTo(AudioFormatType newFormat, int reason) {
+        format = newFormat;
+        resetCounters();
+        return reason;
+    }
+
+    private void resetCounters() {
+        dwellMs = 0;
+        lowBandwidthMs = 0;
+        goodBandwidthMs = 0;
+        cpuOverloadMs = 0;
+    }
+
+    /**
+     * 重置计时（保留当前格式、吞吐量与 CPU 占用估计）
+     */
+    public void reset() {
+        resetCounters();
+    }
+
+    public AudioFormatType getFormat() {
+        return format;
+    }
+
+    /**
+     * 编码 CPU 占用滑动平均（编码耗时占帧时长的比例）
+     */
+    public float getCpuLoad() {
+        return cpuLoad;
+    }
+}
@@ -0,0 +1,68 @@
+package com.tencent.twetalk_audio.utils;
+
+/**
+ * 固定容量的 PCM 字节环形缓冲区
+ * 写满后覆盖最旧的数据，仅供单线程（采集线程）使用
+ */
+public class PcmRingBuffer {
+    private final byte[] buffer;
+    private int writePos = 0;
+    private int size = 0;
+
+    public PcmRingBuffer(int capacityBytes) {
+        if (capacityBytes <= 0) {
+            throw new IllegalArgumentException("capacityBytes 必须大于0");
+        }
+        this.buffer = new byte[capacityBytes];
+    }
+
+    /**
+     * 写入数据，超出容量时覆盖最旧的数据
+     */
+    public void write(byte[] src, int offset, int length) {
+        if (length >= buffer.length) {
+            // 只保留最新的 capacity 字节
+            System.arraycopy(src, offset + length - buffer.length, buffer, 0, buffer.length);
+            writePos = 0;
+            size = buffer.length;
+            return;
+        }
+
+        int firstLen = Math.min(length, buffer.length - writePos);
+        System.arraycopy(src, offset, buffer, writePos, firstLen);
+        if (firstLen < length) {
+            System.arraycopy(src, offset + firstLen, buffer, 0, length - firstLen);
+        }
+
+        writePos = (writePos + length) % buffer.length;
+        size = Math.min(size + length, buffer.length);
+    }
+
+    /**
+     * 按时间顺序取出全部数据并清空缓冲区
+     */
+    public byte[] drain() {
+        byte[] out = new byte[size];
+        int start = (writePos - size + buffer.length) % buffer.length;
+        int firstLen = Math.min(size, buffer.length - start);
+        System.arraycopy(buffer, start, out, 0, firstLen);
+        if (firstLen < size) {
+            System.arraycopy(buffer, 0, out, firstLen, size - firstLen);
+        }
+        clear();
+        return out;
+    }
+
+    public void clear() {
+        writePos = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
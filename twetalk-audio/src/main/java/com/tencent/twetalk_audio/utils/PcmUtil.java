@@ -38,12 +38,29 @@ public class PcmUtil {
             throw new IllegalArgumentException("字节数组的大小必须是偶数!");
         }
         short[] shorts = new short[src.length >> 1];
-        for (int i = 0, j = 0; i < shorts.length; i++, j += 2) {
-            shorts[i] = (short) ((src[i * 2] & 0xFF) | (src[i * 2 + 1] << 8));
-        }
+        byteToShort(src, 0, src.length, shorts);
         return shorts;
     }
 
+    /**
+     * 16bit 小端 PCM 转 short[]，写入调用方提供的数组，不分配内存（热路径使用）
+     * @param src PCM 数据
+     * @param offset 起始字节
+     * @param length 字节数
+     * @param dst 目标数组，长度不小于 length / 2
+     * @return 转换的样本数
+     */
+    public static int byteToShort(byte[] src, int offset, int length, short[] dst) {
+        int samples = length >> 1;
+        if (dst.length < samples) {
+            throw new IllegalArgumentException("目标数组长度不足: " + dst.length + " < " + samples);
+        }
+        for (int i = 0, p = offset; i < samples; i++, p += 2) {
+            dst[i] = (short) ((src[p] & 0xFF) | (src[p + 1] << 8));
+        }
+        return samples;
+    }
+
     /**
      * short[] convert to byte[] by ByteBuffer
      * @param src
@@ -70,5 +87,74 @@ public class PcmUtil {
         ByteBuffer.wrap(src).order(order).asShortBuffer().get(out);
         return out;
     }
-}
 
+    /**
+     * 16bit 单声道 PCM 线性插值重采样（小端）
+     * 仅用于低功耗监听回看数据等短片段，不追求高保真
+     * @param src PCM 数据
+     * @param srcRate 源采样率
+     * @param dstRate 目标采样率
+     * @return 重采样后的 PCM 数据
+     */
+    public static byte[] resampleLinear16(byte[] src, int srcRate, int dstRate) {
+        if (src == null) throw new IllegalArgumentException("字节数组不能为空!");
+        if (srcRate == dstRate || src.length < 2) return src;
+
+        int srcSamples = src.length / 2;
+        int dstSamples = (int) ((long) srcSamples * dstRate / srcRate);
+        byte[] out = new byte[dstSamples * 2];
+
+        for (int i = 0; i < dstSamples; i++) {
+            long pos = (long) i * srcRate;
+            int idx = (int) (pos / dstRate);
+            int frac = (int) (pos % dstRate);
+            int s0 = (short) ((src[idx * 2] & 0xFF) | (src[idx * 2 + 1] << 8));
+            int s1 = idx + 1 < srcSamples
+                    ? (short) ((src[idx * 2 + 2] & 0xFF) | (src[idx * 2 + 3] << 8))
+                    : s0;
+            int v = s0 + (int) ((long) (s1 - s0) * frac / dstRate);
+            out[i * 2] = (byte) v;
+            out[i * 2 + 1] = (byte) (v >> 8);
+        }
+        return out;
+    }
+
+    /**
+     * float PCM 转 16bit 小端 PCM（越界限幅）
+     * @param src float 数据，取值范围 [-1, 1]
+     * @param length 有效样本数
+     * @return 16bit PCM 数据
+     */
+    public static byte[] floatToPcm16(float[] src, int length) {
+        if (src == null) throw new IllegalArgumentException("float数组不能为空!");
+        byte[] out = new byte[length * 2];
+        floatToPcm16(src, length, out);
+        return out;
+    }
+
+    /**
+     * float PCM 转 16bit 小端 PCM，写入调用方提供的数组，不分配内存（热路径使用）
+     * @param dst 目标数组，长度不小于 length * 2
+     */
+    public static void floatToPcm16(float[] src, int length, byte[] dst) {
+        for (int i = 0; i < length; i++) {
+            float f = src[i];
+            int v = f >= 1f ? Short.MAX_VALUE : (f <= -1f ? Short.MIN_VALUE : (int) (f * 32767f));
+            dst[i * 2] = (byte) v;
+            dst[i * 2 + 1] = (byte) (v >> 8);
+        }
+    }
+
+    /**
+     * float PCM 转小端字节序（用于 ENCODING_PCM_FLOAT 的 AudioTrack）
+     * @param src float 数据
+     * @param length 有效样本数
+     * @return 字节数据
+     */
+    public static byte[] floatToByte(float[] src, int length) {
+        if (src == null) throw new IllegalArgumentException("float数组不能为空!");
+        byte[] out = new byte[length * 4];
+        ByteBuffer.wrap(out).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(src, 0, length);
+        return out;
+    }
+}
@@ -0,0 +1,102 @@
+package com.tencent.twetalk_audio.vad;
+
+/**
+ * 端点检测（End-of-Utterance）
+ * 基于能量 VAD + 尾部静音计时 + 最长语句限制，在客户端判断用户一句话是否说完
+ */
+public class Endpointer {
+    // process() 返回的事件
+    public static final int EVENT_NONE = 0;
+    public static final int EVENT_SPEECH_START = 1;
+    public static final int EVENT_END_OF_UTTERANCE = 2;
+
+    // 语句结束原因
+    public static final int REASON_SILENCE = 1;      // 尾部静音超时
+    public static final int REASON_MAX_LENGTH = 2;   // 超过最长语句时长
+
+    private final EnergyVad vad;
+    private final int sampleRate;
+    private final int maxUtteranceMs;
+
+    private boolean inUtterance = false;
+    private long utteranceMs = 0;
+    private int lastReason = 0;
+    private long lastUtteranceMs = 0;
+
+    /**
+     * @param sampleRate 采样率
+     * @param trailingSilenceMs 尾部静音多久判定为说完
+     * @param maxUtteranceMs 单句最长时长，超过后强制结束
+     */
+    public Endpointer(int sampleRate, int trailingSilenceMs, int maxUtteranceMs) {
+        this.sampleRate = sampleRate;
+        this.maxUtteranceMs = maxUtteranceMs;
+        this.vad = new EnergyVad(sampleRate, 3.0f, 300f, 60, trailingSilenceMs);
+    }
+
+    /**
+     * 处理一段 16bit 单声道 PCM
+     * @return EVENT_NONE / EVENT_SPEECH_START / EVENT_END_OF_UTTERANCE
+     */
+    public int process(byte[] pcm, int offset, int length) {
+        boolean speech = vad.process(pcm, offset, length);
+
+        if (!inUtterance) {
+            if (speech) {
+                inUtterance = true;
+                utteranceMs = 0;
+                return EVENT_SPEECH_START;
+            }
+            return EVENT_NONE;
+        }
+
+        utteranceMs += (long) (length / 2) * 1000 / sampleRate;
+
+        if (!speech) {
+            return endUtterance(REASON_SILENCE);
+        }
+
+        if (maxUtteranceMs > 0 && utteranceMs >= maxUtteranceMs) {
+            // 强制结束后需重新检测起音，避免一直说话时连续触发
+            vad.reset(false);
+            return endUtterance(REASON_MAX_LENGTH);
+        }
+
+        return EVENT_NONE;
+    }
+
+    private int endUtterance(int reason) {
+        inUtterance = false;
+        lastReason = reason;
+        lastUtteranceMs = utteranceMs;
+        utteranceMs = 0;
+        return EVENT_END_OF_UTTERANCE;
+    }
+
+    /**
+     * 重置状态（保留噪声底）
+     */
+    public void reset() {
+        vad.reset(false);
+        inUtterance = false;
+        utteranceMs = 0;
+    }
+
+    public boolean isInUtterance() {
+        return inUtterance;
+    }
+
+    /**
+     * 最近一次语句结束原因
+     */
+    public int getLastReason() {
+        return lastReason;
+    }
+
+    /**
+     * 最近一次语句时长（毫秒，含尾部静音）
+     */
+    public long getLastUtteranceMs() {
+        return lastUtteranceMs;
+    }
+}
@@ -0,0 +1,116 @@
+package com.tencent.twetalk_audio.vad;
+
+/**
+ * 基于能量的轻量级语音活动检测（16bit 单声道 PCM）
+ * 使用自适应噪声底 + 起音/拖尾计时，每帧只需一次遍历求平均幅度
+ */
+public class EnergyVad {
+    private static final float NOISE_ADAPT_SILENCE = 0.05f;   // 静音时噪声底跟随速度
+    private static final float NOISE_ADAPT_SPEECH = 0.001f;   // 语音时噪声底缓慢上漂，避免锁死
+    private static final float MIN_NOISE_FLOOR = 1f;
+
+    private final int sampleRate;
+    private final float speechRatio;     // 判定为语音时电平需超过噪声底的倍数
+    private final float minSpeechLevel;  // 判定为语音的最低平均幅度
+    private final int attackMs;          // 连续多久有声才进入语音状态
+    private final int hangoverMs;        // 连续多久无声才退出语音状态
+
+    private float noiseFloor = 100f;
+    private float lastLevel = 0f;
+    private int activeRunMs = 0;
+    private int silentRunMs = 0;
+    private boolean speech = false;
+
+    public EnergyVad(int sampleRate) {
+        this(sampleRate, 3.0f, 300f, 40, 600);
+    }
+
+    public EnergyVad(int sampleRate, float speechRatio, float minSpeechLevel, int attackMs, int hangoverMs) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("采样率必须大于0");
+        }
+        this.sampleRate = sampleRate;
+        this.speechRatio = speechRatio;
+        this.minSpeechLevel = minSpeechLevel;
+        this.attackMs = attackMs;
+        this.hangoverMs = hangoverMs;
+    }
+
+    /**
+     * 处理一段 PCM 数据
+     * @param pcm 16bit 小端 PCM
+     * @param offset 起始偏移
+     * @param length 数据长度（字节）
+     * @return 当前是否处于语音状态
+     */
+    public boolean process(byte[] pcm, int offset, int length) {
+        int samples = length / 2;
+        if (samples == 0) {
+            return speech;
+        }
+
+        long sumAbs = 0;
+        for (int i = offset, end = offset + samples * 2; i < end; i += 2) {
+            int s = (short) ((pcm[i] & 0xFF) | (pcm[i + 1] << 8));
+            sumAbs += s < 0 ? -s : s;
+        }
+
+        float level = (float) sumAbs / samples;
+        int durationMs = samples * 1000 / sampleRate;
+        boolean active = level > Math.max(noiseFloor * speechRatio, minSpeechLevel);
+
+        noiseFloor += (level - noiseFloor) * (active ? NOISE_ADAPT_SPEECH : NOISE_ADAPT_SILENCE);
+        if (noiseFloor < MIN_NOISE_FLOOR) {
+            noiseFloor = MIN_NOISE_FLOOR;
+        }
+        lastLevel = level;
+
+        if (active) {
+            activeRunMs += durationMs;
+            silentRunMs = 0;
+            if (!speech && activeRunMs >= attackMs) {
+                speech = true;
+            }
+        } else {
+            silentRunMs += durationMs;
+            activeRunMs = 0;
+            if (speech && silentRunMs >= hangoverMs) {
+                speech = false;
+            }
+        }
+
+        return speech;
+    }
+
+    /**
+     * 重置语音状态，保留已学习的噪声底
+     * @param initialSpeech 重置后的初始状态
+     */
+    public void reset(boolean initialSpeech) {
+        speech = initialSpeech;
+        activeRunMs = 0;
+        silentRunMs = 0;
+    }
+
+    public boolean isSpeech() {
+        return speech;
+    }
+
+    /**
+     * 当前连续静音时长（毫秒）
+     */
+    public int getSilentRunMs() {
+        return silentRunMs;
+    }
+
+    /**
+     * 最近一帧的平均幅度
+     */
+    public float getLastLevel() {
+        return lastLevel;
+    }
+
+    public float getNoiseFloor() {
+        return noiseFloor;
+    }
+}
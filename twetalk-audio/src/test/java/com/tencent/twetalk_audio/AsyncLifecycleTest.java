@@ -0,0 +1,80 @@
+package com.tencent.twetalk_audio;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.twetalk_audio.config.AudioConfig;
+import com.tencent.twetalk_audio.config.FrameDurationType;
+import com.tencent.twetalk_audio.device.FakeAudioDeviceFactory;
+import com.tencent.twetalk_audio.device.FakeAudioInputDevice;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步生命周期按调用顺序执行
+ */
+public class AsyncLifecycleTest {
+    private static final int SAMPLE_RATE = 16000;
+
+    private TalkAudioController controller;
+
+    @Before
+    public void setUp() {
+        FakeAudioInputDevice input = new FakeAudioInputDevice(new byte[SAMPLE_RATE * 2], SAMPLE_RATE, 1, true);
+        input.setLoop(true);
+        AudioConfig config = new AudioConfig();
+        config.frameDuration = FrameDurationType.MS_20;
+        controller = new TalkAudioController(null, config, new FakeAudioDeviceFactory(input, false));
+    }
+
+    @After
+    public void tearDown() {
+        controller.release();
+    }
+
+    @Test(timeout = 10_000)
+    public void stopSubmittedDuringInitRunsAfterStart() throws Exception {
+        // 开始采集等待初始化期间提交的停止不能抢先执行
+        controller.initAsync();
+        CompletableFuture<Void> start = controller.startRecordAsync();
+        CompletableFuture<Void> stop = controller.stopRecordAsync();
+
+        stop.get(5, TimeUnit.SECONDS);
+        assertTrue(start.isDone());
+        assertFalse(start.isCompletedExceptionally());
+        assertFalse(controller.isRecording());
+    }
+
+    @Test(timeout = 10_000)
+    public void lastCallWins() throws Exception {
+        controller.initAsync();
+        controller.startRecordAsync();
+        controller.stopRecordAsync();
+        controller.startRecordAsync().get(5, TimeUnit.SECONDS);
+        assertTrue(controller.isRecording());
+
+        controller.stopRecordAsync().get(5, TimeUnit.SECONDS);
+        assertFalse(controller.isRecording());
+    }
+
+    @Test(timeout = 10_000)
+    public void failedStartDoesNotBlockLaterCalls() throws Exception {
+        // 没有输入设备时初始化失败，开始采集异常完成，之后的停止仍按顺序执行
+        TalkAudioController failing = new TalkAudioController(null, new AudioConfig(),
+                new FakeAudioDeviceFactory(null, false));
+        try {
+            failing.initAsync();
+            CompletableFuture<Void> start = failing.startRecordAsync();
+            failing.stopRecordAsync().get(5, TimeUnit.SECONDS);
+            assertTrue(start.isCompletedExceptionally());
+            assertFalse(failing.isRecording());
+        } finally {
+            failing.release();
+        }
+    }
+}
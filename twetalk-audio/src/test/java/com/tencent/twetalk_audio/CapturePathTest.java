@@ -0,0 +1,199 @@
+package com.tencent.twetalk_audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.twetalk_audio.config.AudioConfig;
+import com.tencent.twetalk_audio.config.AudioFormatType;
+import com.tencent.twetalk_audio.config.FrameDurationType;
+import com.tencent.twetalk_audio.device.FakeAudioDeviceFactory;
+import com.tencent.twetalk_audio.device.FakeAudioInputDevice;
+import com.tencent.twetalk_audio.frame.AudioFrame;
+import com.tencent.twetalk_audio.listener.OnAudioFrameListener;
+import com.tencent.twetalk_audio.listener.OnRecordDataListener;
+import com.tencent.twetalk_audio.metrics.AudioMetrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以假输入设备驱动 TalkAudioController 的采集通路（PCM 上行）
+ * 输入为逐样本递增的斜坡，拼接回调数据即可校验帧顺序和边界
+ */
+public class CapturePathTest {
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_COUNT = 40;
+
+    private TalkAudioController controller;
+
+    @After
+    public void tearDown() {
+        if (controller != null) {
+            controller.release();
+        }
+    }
+
+    @Test
+    public void framesArriveInOrderWithFixedSize() throws Exception {
+        runCapture(FrameDurationType.MS_20, 1);
+    }
+
+    @Test
+    public void frameSizeFollowsFrameDuration() throws Exception {
+        runCapture(FrameDurationType.MS_40, 1);
+    }
+
+    @Test
+    public void stereoFramesKeepInterleaving() throws Exception {
+        runCapture(FrameDurationType.MS_10, 2);
+    }
+
+    @Test
+    public void restartContinuesSequenceAndStream() throws Exception {
+        // 停止再开始录音沿用同一输入设备：数据从停止处继续，帧序号继续递增
+        int frameBytes = SAMPLE_RATE * 20 / 1000 * 2;
+        byte[] source = ramp(FRAME_COUNT * 4 * frameBytes / 2);
+        Collector collector = start(source, FrameDurationType.MS_20, 1, true);
+
+        collector.await(FRAME_COUNT / 2);
+        controller.stopRecord();
+        int firstRun = collector.count();
+
+        controller.startRecord();
+        collector.await(firstRun + FRAME_COUNT / 2);
+        controller.stopRecord();
+
+        int total = collector.count();
+        byte[] expected = new byte[total * frameBytes];
+        System.arraycopy(source, 0, expected, 0, expected.length);
+        assertArrayEquals(expected, collector.pcm(total));
+        long firstSequence = collector.frames.get(0).getSequence();
+        for (int i = 0; i < total; i++) {
+            assertEquals(firstSequence + i, collector.frames.get(i).getSequence());
+        }
+    }
+
+    private void runCapture(FrameDurationType duration, int channels) throws Exception {
+        int frameBytes = SAMPLE_RATE * duration.getDuration() / 1000 * 2 * channels;
+        byte[] source = ramp(FRAME_COUNT * frameBytes / 2);
+        Collector collector = start(source, duration, channels, false);
+
+        collector.await(FRAME_COUNT);
+        AudioMetrics.Snapshot snapshot = controller.getMetrics().snapshot();
+        controller.stopRecord();
+
+        // 数据按顺序、无缺漏、无重复
+        assertArrayEquals(source, collector.pcm(FRAME_COUNT));
+
+        long samplesPerFrame = frameBytes / 2 / channels;
+        long firstSequence = collector.frames.get(0).getSequence();
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            AudioFrame frame = collector.frames.get(i);
+            assertEquals(frameBytes, collector.sizes.get(i).intValue());
+            assertEquals(frameBytes, frame.getSize());
+            assertEquals(samplesPerFrame, frame.getSampleCount());
+            assertEquals(channels, frame.getChannels());
+            assertEquals(AudioFormatType.PCM, frame.getFormat());
+            assertEquals(firstSequence + i, frame.getSequence());
+            assertEquals(AudioFrame.ptsUsAt(samplesPerFrame * i, SAMPLE_RATE),
+                    frame.getPtsUs() - collector.frames.get(0).getPtsUs());
+        }
+        assertTrue(snapshot.getCounter(AudioMetrics.COUNTER_FRAMES_EMITTED) >= FRAME_COUNT);
+        assertEquals(0, snapshot.getCounter(AudioMetrics.COUNTER_CAPTURE_DISCONTINUITIES));
+        assertEquals(0, snapshot.getCounter(AudioMetrics.COUNTER_CAPTURE_REPEATED_FRAMES));
+    }
+
+    private Collector start(byte[] source, FrameDurationType duration, int channels, boolean realTime) {
+        FakeAudioInputDevice input = new FakeAudioInputDevice(source, SAMPLE_RATE, channels, realTime);
+        AudioConfig config = new AudioConfig();
+        config.sampleRate = SAMPLE_RATE;
+        config.channelCount = channels;
+        config.frameDuration = duration;
+        config.formatType = AudioFormatType.PCM;
+        controller = new TalkAudioController(null, config, new FakeAudioDeviceFactory(input, false));
+
+        Collector collector = new Collector();
+        controller.setOnRecordDataListener(collector);
+        controller.setOnAudioFrameListener(collector);
+        controller.init();
+        controller.startRecord();
+        assertTrue("录音未启动", controller.isRecording());
+        return collector;
+    }
+
+    /**
+     * 逐样本递增的 16bit 斜坡（相邻样本差很小，不会被判为跳变）
+     */
+    private static byte[] ramp(int samples) {
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short v = (short) (i % 20000 - 10000);
+            pcm[i * 2] = (byte) v;
+            pcm[i * 2 + 1] = (byte) (v >> 8);
+        }
+        return pcm;
+    }
+
+    /**
+     * 在采集线程收集回调的 PCM 和帧元信息
+     */
+    private static final class Collector implements OnRecordDataListener, OnAudioFrameListener {
+        final List<byte[]> pcm = new ArrayList<>();
+        final List<Integer> sizes = new ArrayList<>();
+        final List<AudioFrame> frames = new ArrayList<>();
+
+        @Override
+        public synchronized void onPcmData(byte[] data, int size) {
+            pcm.add(data.clone());
+            sizes.add(size);
+            notifyAll();
+        }
+
+        @Override
+        public void onOpusData(byte[] data, int size) {
+        }
+
+        @Override
+        public void onRecordError(int errorCode, String message) {
+        }
+
+        @Override
+        public synchronized void onCaptureFrame(AudioFrame frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public void onEncodedFrame(AudioFrame frame) {
+        }
+
+        @Override
+        public void onPlaybackFrame(AudioFrame frame, long lostFrames) {
+        }
+
+        synchronized void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (pcm.size() < count || frames.size() < count) {
+                long waitMs = deadline - System.currentTimeMillis();
+                assertTrue("等待 " + count + " 帧超时，当前 " + pcm.size(), waitMs > 0);
+                wait(waitMs);
+            }
+        }
+
+        synchronized byte[] pcm(int count) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int i = 0; i < count; i++) {
+                out.write(pcm.get(i), 0, sizes.get(i));
+            }
+            return out.toByteArray();
+        }
+
+        synchronized int count() {
+            return pcm.size();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.tencent.twetalk_audio;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.tencent.twetalk_audio.config.AudioConfig;
+import com.tencent.twetalk_audio.config.AudioFormatType;
+import com.tencent.twetalk_audio.config.FrameDurationType;
+import com.tencent.twetalk_audio.device.FakeAudioDeviceFactory;
+import com.tencent.twetalk_audio.device.FakeAudioInputDevice;
+import com.tencent.twetalk_audio.listener.OnRecordDataListener;
+import com.tencent.twetalk_audio.metrics.AudioMetrics;
+import com.tencent.twetalk_audio.metrics.JvmThreadResourceProbe;
+import com.tencent.twetalk_audio.metrics.ThreadResourceMeter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 采集 / 播放热路径的内存分配预算
+ * 以非实时的假设备驱动 16 kHz 单声道 20ms PCM 通路，预热后取稳态增量，按帧平均后与预算比较；
+ * 分配字节数与机器无关，严格断言；CPU 时间按帧时长的 5% 断言，本机实测不到其 1%，留足机器和负载波动的余量。
+ * Opus 编解码依赖 native 库，不在本地单元测试范围内
+ */
+public class HotPathBudgetTest {
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_MS = 20;
+    private static final int FRAME_BYTES = SAMPLE_RATE * FRAME_MS / 1000 * 2;
+
+    // 采集：每帧交给上层的 PCM 必须是新数组（上层可能持有），此外只允许少量对象头开销
+    private static final long CAPTURE_ALLOC_BUDGET_BYTES = FRAME_BYTES + 64;
+    // 采集但无人接收：分帧、检测都在复用的缓冲上完成，不复制帧
+    private static final long CAPTURE_NO_LISTENER_ALLOC_BUDGET_BYTES = 64;
+    // 播放：PCM 直接入队，播放线程只允许队列节点级别的分配
+    private static final long PLAYBACK_ALLOC_BUDGET_BYTES = 64;
+    // 每帧 CPU 不超过帧时长的 5%
+    private static final long CPU_BUDGET_NS = FRAME_MS * 1_000_000L / 20;
+
+    private static final int WARM_UP_FRAMES = 2000;
+    private static final int MEASURE_FRAMES = 5000;
+
+    private final JvmThreadResourceProbe probe = new JvmThreadResourceProbe();
+    private FakeAudioDeviceFactory factory;
+    private TalkAudioController controller;
+
+    @Before
+    public void setUp() {
+        assumeTrue("JVM 不支持线程 CPU / 分配统计", probe.isSupported());
+        ThreadResourceMeter.setProbe(probe);
+
+        FakeAudioInputDevice input = new FakeAudioInputDevice(tone(1000), SAMPLE_RATE, 1, false);
+        input.setLoop(true);
+        factory = new FakeAudioDeviceFactory(input, false);
+
+        AudioConfig config = new AudioConfig();
+        config.frameDuration = FrameDurationType.MS_20;
+        config.formatType = AudioFormatType.PCM;
+        controller = new TalkAudioController(null, config, factory);
+        // 假输出设备默认保存写入内容，关闭后播放线程的分配只来自流水线本身
+        factory.getLastOutput().setRecordWrites(false);
+    }
+
+    @After
+    public void tearDown() {
+        if (controller != null) {
+            controller.release();
+        }
+        ThreadResourceMeter.setProbe(null);
+    }
+
+    @Test
+    public void captureStaysWithinBudget() throws Exception {
+        AtomicLong frames = new AtomicLong();
+        controller.setOnRecordDataListener(new OnRecordDataListener() {
+            @Override
+            public void onPcmData(byte[] data, int size) {
+                frames.incrementAndGet();
+            }
+
+            @Override
+            public void onOpusData(byte[] data, int size) {
+            }
+
+            @Override
+            public void onRecordError(int errorCode, String message) {
+            }
+        });
+        controller.init();
+        controller.startRecord();
+
+        awaitCount(frames, WARM_UP_FRAMES);
+        AudioMetrics.Snapshot start = controller.getMetrics().snapshot();
+        awaitCount(frames, WARM_UP_FRAMES + MEASURE_FRAMES);
+        AudioMetrics.Snapshot delta = controller.getMetrics().snapshot().minus(start);
+        controller.stopRecord();
+
+        long emitted = delta.getCounter(AudioMetrics.COUNTER_FRAMES_EMITTED);
+        assertBudget("采集", emitted,
+                delta.getCounter(AudioMetrics.COUNTER_CAPTURE_CPU_NS),
+                delta.getCounter(AudioMetrics.COUNTER_CAPTURE_ALLOC_BYTES),
+                CAPTURE_ALLOC_BUDGET_BYTES);
+    }
+
+    @Test
+    public void captureWithoutListenerDoesNotCopyFrames() throws Exception {
+        controller.init();
+        controller.startRecord();
+
+        awaitEmitted(WARM_UP_FRAMES);
+        AudioMetrics.Snapshot start = controller.getMetrics().snapshot();
+        awaitEmitted(WARM_UP_FRAMES + MEASURE_FRAMES);
+        AudioMetrics.Snapshot delta = controller.getMetrics().snapshot().minus(start);
+        controller.stopRecord();
+
+        assertBudget("无回调采集", delta.getCounter(AudioMetrics.COUNTER_FRAMES_EMITTED),
+                delta.getCounter(AudioMetrics.COUNTER_CAPTURE_CPU_NS),
+                delta.getCounter(AudioMetrics.COUNTER_CAPTURE_ALLOC_BYTES),
+                CAPTURE_NO_LISTENER_ALLOC_BUDGET_BYTES);
+    }
+
+    @Test
+    public void playbackStaysWithinBudget() throws Exception {
+        controller.init();
+        byte[] frame = tone(FRAME_MS);
+
+        playFrames(frame, WARM_UP_FRAMES);
+        AudioMetrics.Snapshot start = controller.getMetrics().snapshot();
+        playFrames(frame, MEASURE_FRAMES);
+        AudioMetrics.Snapshot delta = controller.getMetrics().snapshot().minus(start);
+
+        long played = delta.getCounter(AudioMetrics.COUNTER_PLAYBACK_FRAMES);
+        assertBudget("播放", played,
+                delta.getCounter(AudioMetrics.COUNTER_PLAYBACK_CPU_NS),
+                delta.getCounter(AudioMetrics.COUNTER_PLAYBACK_ALLOC_BYTES),
+                PLAYBACK_ALLOC_BUDGET_BYTES);
+    }
+
+    /**
+     * 逐帧送入播放，等待全部处理完（帧序号计入指标后）再返回
+     */
+    private void playFrames(byte[] frame, int count) throws InterruptedException {
+        long target = controller.getMetrics().getCounter(AudioMetrics.COUNTER_PLAYBACK_FRAMES) + count;
+        for (int i = 0; i < count; i++) {
+            controller.play(frame, SAMPLE_RATE, 1, AudioFormatType.PCM);
+            // 控制入队速度，避免超出播放队列容量丢帧
+            if (i % 50 == 49) {
+                Thread.sleep(2);
+            }
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (controller.getMetrics().getCounter(AudioMetrics.COUNTER_PLAYBACK_FRAMES) < target
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        // 最后一次采样在下一帧处理完时，多等一帧的时间让播放循环收尾
+        Thread.sleep(FRAME_MS);
+    }
+
+    private static void assertBudget(String stage, long frames, long cpuNs, long allocBytes, long allocBudget) {
+        assertTrue(stage + "未处理任何帧", frames > 0);
+        long cpuPerFrame = cpuNs / frames;
+        long allocPerFrame = allocBytes / frames;
+        assertTrue(stage + "每帧分配 " + allocPerFrame + " 字节超出预算 " + allocBudget + " 字节（"
+                        + frames + " 帧，每帧 CPU " + cpuPerFrame + "ns）",
+                allocPerFrame <= allocBudget);
+        assertTrue(stage + "每帧 CPU " + cpuPerFrame + "ns 超出预算 " + CPU_BUDGET_NS + "ns",
+                cpuPerFrame <= CPU_BUDGET_NS);
+    }
+
+    private static void awaitCount(AtomicLong counter, long target) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (counter.get() < target) {
+            assertTrue("等待 " + target + " 帧超时，当前 " + counter.get(), System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitEmitted(long target) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        long emitted;
+        while ((emitted = controller.getMetrics().getCounter(AudioMetrics.COUNTER_FRAMES_EMITTED)) < target) {
+            assertTrue("等待 " + target + " 帧超时，当前 " + emitted, System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * 16bit 单声道 440 Hz 正弦
+     */
+    private static byte[] tone(int durationMs) {
+        int samples = SAMPLE_RATE * durationMs / 1000;
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short v = (short) (8000 * Math.sin(2 * Math.PI * 440 * i / SAMPLE_RATE));
+            pcm[i * 2] = (byte) v;
+            pcm[i * 2 + 1] = (byte) (v >> 8);
+        }
+        return pcm;
+    }
+}
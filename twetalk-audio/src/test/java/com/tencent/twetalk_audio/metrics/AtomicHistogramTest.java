@@ -0,0 +1,110 @@
+package com.tencent.twetalk_audio.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * AtomicHistogram 快照、快照相减、重置和并发记录（分桶精度见 HistogramBucketsTest）
+ */
+public class AtomicHistogramTest {
+
+    @Test
+    public void snapshotReportsDistribution() {
+        AtomicHistogram histogram = new AtomicHistogram();
+        assertEquals(0, histogram.snapshot().getPercentile(50));
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-1);
+
+        AtomicHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1001, snapshot.getCount());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500, snapshot.getMean());
+        assertEquals(0, snapshot.getPercentile(0));
+        assertWithin(500, snapshot.getPercentile(50));
+        assertWithin(990, snapshot.getPercentile(99));
+        assertEquals(1000, snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void minusGivesIntervalDistribution() {
+        AtomicHistogram histogram = new AtomicHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(10);
+        }
+        AtomicHistogram.Snapshot earlier = histogram.snapshot();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(5000);
+        }
+
+        // 区间内只有 5000，之前的 10 不再影响百分位
+        AtomicHistogram.Snapshot delta = histogram.snapshot().minus(earlier);
+        assertEquals(100, delta.getCount());
+        assertEquals(5000, delta.getMean());
+        assertWithin(5000, delta.getPercentile(1));
+        assertEquals(5000, delta.getMax());
+        assertEquals(200, histogram.snapshot().minus(null).getCount());
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        AtomicHistogram histogram = new AtomicHistogram();
+        histogram.record(123);
+        histogram.reset();
+        AtomicHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getMean());
+        assertEquals(0, snapshot.getPercentile(99));
+    }
+
+    @Test(timeout = 10_000)
+    public void concurrentRecordsAreNotLost() throws Exception {
+        int threads = 4;
+        int perThread = 50_000;
+        AtomicHistogram histogram = new AtomicHistogram();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long offset = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i % 1000 + offset);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        AtomicHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals((long) threads * perThread, snapshot.getCount());
+        assertEquals(999 + threads - 1, snapshot.getMax());
+        long expectedSum = 0;
+        for (int t = 0; t < threads; t++) {
+            expectedSum += (long) perThread / 1000 * (499_500 + 1000L * t);
+        }
+        assertEquals(expectedSum / ((long) threads * perThread), snapshot.getMean());
+    }
+
+    /**
+     * 桶上界：不低于真实值，且超出不多于 1/16
+     */
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected=" + expected + ", actual=" + actual,
+                actual >= expected && actual - expected <= expected / 16);
+    }
+}
@@ -0,0 +1,219 @@
+package com.tencent.twetalk_audio.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CaptureGlitchDetector 对全零帧、重复帧、削波和帧边界跳变的计数与回调
+ */
+public class CaptureGlitchDetectorTest {
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_SAMPLES = 320;
+    private static final int WARM_UP_FRAMES = 3;
+
+    private AudioMetrics metrics;
+    private CaptureGlitchDetector detector;
+    private final List<Integer> glitches = new ArrayList<>();
+    private long position;
+
+    @Before
+    public void setUp() {
+        metrics = new AudioMetrics();
+        metrics.setOnGlitchListener((type, timestampNs, detail) -> glitches.add(type));
+        detector = new CaptureGlitchDetector(metrics, 1, WARM_UP_FRAMES);
+    }
+
+    @Test
+    public void continuousSignalHasNoGlitches() {
+        for (int i = 0; i < 50; i++) {
+            process(nextSine());
+        }
+        assertCounters(0, 0, 0, 0);
+        assertGlitches();
+    }
+
+    @Test
+    public void silentFramesAfterWarmUpAreCounted() {
+        // 启动阶段的全零帧不计；启动后延续的全零帧只计数，视为同一段不回调
+        for (int i = 0; i < WARM_UP_FRAMES + 2; i++) {
+            process(silence());
+        }
+        assertCounters(2, 0, 0, 0);
+        assertGlitches();
+
+        // 有声之后的全零段：逐帧计数，每段回调一次
+        process(nextSine());
+        process(silence());
+        process(silence());
+        process(silence());
+        process(nextSine());
+        process(silence());
+        assertCounters(6, 0, 0, 0);
+        assertGlitches(AudioMetrics.GLITCH_CAPTURE_SILENCE, AudioMetrics.GLITCH_CAPTURE_SILENCE);
+    }
+
+    @Test
+    public void repeatedFramesAreCountedPerRun() {
+        byte[] first = nextSine();
+        process(first);
+        process(first);
+        process(first);
+        process(first);
+
+        byte[] second = nextSine();
+        process(second);
+        process(second);
+        assertCounters(0, 4, 0, 0);
+        assertGlitches(AudioMetrics.GLITCH_CAPTURE_REPEAT, AudioMetrics.GLITCH_CAPTURE_REPEAT);
+
+        // 重复的全零帧按全零帧计
+        for (int i = 0; i < 2; i++) {
+            process(silence());
+        }
+        assertEquals(4, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_REPEATED_FRAMES));
+    }
+
+    @Test
+    public void clippingRunsNeedThreeFullScaleSamples() {
+        // 两个满幅样本不算削波
+        short[] samples = ramp(0, 10);
+        samples[100] = 32767;
+        samples[101] = 32767;
+        process(pcm(samples));
+        assertCounters(0, 0, 0, 0);
+
+        // 一段持续满幅只记一次
+        samples = ramp(0, 10);
+        for (int i = 100; i < 110; i++) {
+            samples[i] = 32766;
+        }
+        process(pcm(samples));
+        assertEquals(1, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_CLIPPING_RUNS));
+
+        // 负向满幅跨帧连续同样计入
+        samples = ramp(0, 10);
+        samples[FRAME_SAMPLES - 2] = -32767;
+        samples[FRAME_SAMPLES - 1] = -32768;
+        process(pcm(samples));
+        samples = ramp(0, 10);
+        samples[0] = -32767;
+        process(pcm(samples));
+        assertCounters(0, 0, 2, 0);
+        assertGlitches(AudioMetrics.GLITCH_CAPTURE_CLIPPING, AudioMetrics.GLITCH_CAPTURE_CLIPPING);
+    }
+
+    @Test
+    public void boundaryJumpIsDiscontinuity() {
+        // 帧内斜率 10，帧间连续衔接
+        process(pcm(ramp(0, 10)));
+        process(pcm(ramp(FRAME_SAMPLES * 10, 10)));
+        assertCounters(0, 0, 0, 0);
+
+        // 衔接处跳变 >= 6000 且远大于帧内样本差
+        process(pcm(ramp(20000, 10)));
+        assertCounters(0, 0, 0, 1);
+        assertGlitches(AudioMetrics.GLITCH_CAPTURE_DISCONTINUITY);
+    }
+
+    @Test
+    public void largeInFrameDeltasSuppressDiscontinuity() {
+        // 帧内本身有 8000 的样本差时，9000 的边界跳变不足两倍，不计
+        process(pcm(ramp(0, 10)));
+        short[] samples = new short[FRAME_SAMPLES];
+        for (int i = 0; i < FRAME_SAMPLES; i++) {
+            samples[i] = (short) (i % 2 == 0 ? 12190 : 4190);
+        }
+        process(pcm(samples));
+        assertCounters(0, 0, 0, 0);
+
+        // 全零帧之后的起跳不计
+        process(silence());
+        process(pcm(ramp(20000, 10)));
+        assertEquals(0, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_DISCONTINUITIES));
+    }
+
+    @Test
+    public void resetStartsNewStream() {
+        // 重置后首帧不与重置前比较
+        byte[] frame = nextSine();
+        process(frame);
+        detector.reset();
+        process(frame);
+        assertEquals(0, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_REPEATED_FRAMES));
+
+        // 削波计数不跨重置累计
+        short[] tail = ramp(0, 10);
+        tail[FRAME_SAMPLES - 2] = 32767;
+        tail[FRAME_SAMPLES - 1] = 32767;
+        process(pcm(tail));
+        detector.reset();
+        short[] head = ramp(20000, 10);
+        head[0] = 32767;
+        process(pcm(head));
+        assertCounters(0, 0, 0, 0);
+
+        // 启动阶段的全零帧重新忽略
+        detector.reset();
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            process(silence());
+        }
+        assertEquals(0, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_SILENT_FRAMES));
+        process(silence());
+        assertEquals(1, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_SILENT_FRAMES));
+        assertGlitches();
+    }
+
+    private void process(byte[] frame) {
+        detector.process(frame, 0, frame.length);
+    }
+
+    private void assertCounters(long silent, long repeated, long clipping, long discontinuities) {
+        assertEquals(silent, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_SILENT_FRAMES));
+        assertEquals(repeated, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_REPEATED_FRAMES));
+        assertEquals(clipping, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_CLIPPING_RUNS));
+        assertEquals(discontinuities, metrics.getCounter(AudioMetrics.COUNTER_CAPTURE_DISCONTINUITIES));
+    }
+
+    private void assertGlitches(Integer... types) {
+        assertEquals(Arrays.asList(types), glitches);
+    }
+
+    /**
+     * 相位连续的 440 Hz 正弦，逐帧内容不同，相邻样本差约 1400
+     */
+    private byte[] nextSine() {
+        short[] samples = new short[FRAME_SAMPLES];
+        for (int i = 0; i < FRAME_SAMPLES; i++) {
+            samples[i] = (short) (8000 * Math.sin(2 * Math.PI * 440 * (position + i) / SAMPLE_RATE));
+        }
+        position += FRAME_SAMPLES;
+        return pcm(samples);
+    }
+
+    private static byte[] silence() {
+        return new byte[FRAME_SAMPLES * 2];
+    }
+
+    private static short[] ramp(int start, int step) {
+        short[] samples = new short[FRAME_SAMPLES];
+        for (int i = 0; i < FRAME_SAMPLES; i++) {
+            samples[i] = (short) (start + i * step);
+        }
+        return samples;
+    }
+
+    private static byte[] pcm(short[] samples) {
+        byte[] out = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            out[i * 2] = (byte) samples[i];
+            out[i * 2 + 1] = (byte) (samples[i] >> 8);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,44 @@
+package com.tencent.twetalk_audio.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * HistogramBuckets 分桶范围、精度和百分位取值
+ */
+public class HistogramBucketsTest {
+
+    @Test
+    public void bucketsCoverWholeRange() {
+        // 每个值落在上界不低于自身、且不超出 1/16 的桶内
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int index = HistogramBuckets.index(value);
+            assertTrue(index >= 0 && index < HistogramBuckets.BUCKETS);
+            long upper = HistogramBuckets.upperBound(index);
+            assertTrue("value=" + value + ", upper=" + upper, upper >= value);
+            assertTrue("value=" + value + ", upper=" + upper, upper - value <= value / 16);
+        }
+        assertEquals(HistogramBuckets.BUCKETS - 1, HistogramBuckets.index(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, HistogramBuckets.upperBound(HistogramBuckets.BUCKETS - 1));
+    }
+
+    @Test
+    public void percentileFollowsRankAndCapsAtMax() {
+        long[] counts = new long[HistogramBuckets.BUCKETS];
+        assertEquals(0, HistogramBuckets.percentile(counts, 0, 0, 50));
+
+        // 10 个 3、10 个 1000
+        counts[HistogramBuckets.index(3)] = 10;
+        counts[HistogramBuckets.index(1000)] = 10;
+        assertEquals(3, HistogramBuckets.percentile(counts, 20, 1000, 50));
+        assertEquals(1000, HistogramBuckets.percentile(counts, 20, 1000, 51));
+        assertEquals(3, HistogramBuckets.percentile(counts, 20, 1000, -5));
+        assertEquals(1000, HistogramBuckets.percentile(counts, 20, 1000, 150));
+    }
+}
@@ -0,0 +1,33 @@
+package com.tencent.twetalk_audio.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * JVM 上的计量来源：HotSpot ThreadMXBean 的线程 CPU 时间和线程分配字节数
+ */
+public class JvmThreadResourceProbe implements ThreadResourceProbe {
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public JvmThreadResourceProbe() {
+        threads.setThreadCpuTimeEnabled(true);
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * 当前 JVM 是否支持线程 CPU 时间和分配统计
+     */
+    public boolean isSupported() {
+        return threads.isCurrentThreadCpuTimeSupported() && threads.isThreadAllocatedMemorySupported();
+    }
+
+    @Override
+    public long currentThreadCpuNanos() {
+        return threads.getCurrentThreadCpuTime();
+    }
+
+    @Override
+    public long currentThreadAllocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,83 @@
+package com.tencent.twetalk_audio.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import com.tencent.twetalk_audio.listener.OnAudioMetricsListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分配统计随 AudioMetrics 周期回调的注册自动开关
+ */
+public class ThreadResourceMeterTest {
+    private static final OnAudioMetricsListener LISTENER = snapshot -> {
+    };
+
+    private final List<Boolean> switches = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        ThreadResourceMeter.setProbe(new ThreadResourceProbe() {
+            @Override
+            public long currentThreadCpuNanos() {
+                return UNSUPPORTED;
+            }
+
+            @Override
+            public long currentThreadAllocatedBytes() {
+                return UNSUPPORTED;
+            }
+
+            @Override
+            public void setAllocationCounting(boolean enabled) {
+                switches.add(enabled);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        ThreadResourceMeter.setAllocationCounting(false);
+        ThreadResourceMeter.setProbe(null);
+    }
+
+    @Test
+    public void listenerEnablesAllocationCounting() {
+        AudioMetrics metrics = new AudioMetrics();
+        metrics.setOnMetricsListener(LISTENER, 60_000);
+        assertEquals(1, switches.size());
+        assertEquals(Boolean.TRUE, switches.get(0));
+
+        // 更换回调不重复开关
+        metrics.setOnMetricsListener(LISTENER, 30_000);
+        assertEquals(1, switches.size());
+
+        metrics.setOnMetricsListener(null, 0);
+        assertEquals(2, switches.size());
+        assertEquals(Boolean.FALSE, switches.get(1));
+    }
+
+    @Test
+    public void countingStaysOnWhileAnyListenerIsRegistered() {
+        AudioMetrics first = new AudioMetrics();
+        AudioMetrics second = new AudioMetrics();
+        first.setOnMetricsListener(LISTENER, 60_000);
+        second.setOnMetricsListener(LISTENER, 60_000);
+
+        first.setOnMetricsListener(null, 0);
+        assertEquals(1, switches.size());
+
+        // 未注册过的实例取消不影响计数
+        new AudioMetrics().setOnMetricsListener(null, 0);
+        assertEquals(1, switches.size());
+
+        second.setOnMetricsListener(null, 0);
+        assertEquals(2, switches.size());
+        assertEquals(Boolean.FALSE, switches.get(1));
+    }
+}
@@ -0,0 +1,181 @@
+package com.tencent.twetalk_audio.pipeline;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.twetalk_audio.config.AudioFormatType;
+import com.tencent.twetalk_audio.device.FakeAudioDeviceFactory;
+import com.tencent.twetalk_audio.device.FakeAudioOutputDevice;
+import com.tencent.twetalk_audio.frame.AudioFrame;
+import com.tencent.twetalk_audio.listener.OnAudioFrameListener;
+import com.tencent.twetalk_audio.metrics.AudioMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以非实时的假输出设备驱动 PlaybackPipeline（PCM 下行）：写入顺序、帧大小和按序号的丢帧统计
+ */
+public class PlaybackPipelineTest {
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_BYTES = SAMPLE_RATE * 20 / 1000 * 2;
+
+    private FakeAudioDeviceFactory factory;
+    private PlaybackPipeline pipeline;
+    private final Recorder recorder = new Recorder();
+
+    @Before
+    public void setUp() {
+        factory = new FakeAudioDeviceFactory(null, false);
+        pipeline = new PlaybackPipeline("PlaybackPipelineTest", factory);
+        pipeline.setOnAudioFrameListener(recorder);
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.release();
+    }
+
+    @Test
+    public void pcmIsWrittenInArrivalOrder() throws Exception {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 20; i++) {
+            byte[] data = frame(i);
+            expected.write(data, 0, data.length);
+            pipeline.play(data, SAMPLE_RATE, 1, AudioFormatType.PCM);
+        }
+        awaitWritten(20);
+
+        assertArrayEquals(expected.toByteArray(), output().getWrittenData());
+        assertEquals(0, pipeline.getLostFrames());
+        assertEquals(20, recorder.count());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, recorder.frames.get(i).getSequence());
+            assertEquals(FRAME_BYTES, recorder.frames.get(i).getSize());
+            assertEquals(FRAME_BYTES / 2, recorder.frames.get(i).getSampleCount());
+            assertEquals(0, recorder.lost.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void sequenceGapsAreCountedAsLoss() throws Exception {
+        long[] sequences = {0, 1, 2, 5, 6, 9};
+        for (long sequence : sequences) {
+            pipeline.play(frame(sequence, (int) sequence));
+        }
+        awaitWritten(sequences.length);
+
+        assertEquals(4, pipeline.getLostFrames());
+        assertEquals(4, pipeline.getMetrics().getCounter(AudioMetrics.COUNTER_PLAYBACK_LOST));
+        long[] lost = new long[sequences.length];
+        for (int i = 0; i < sequences.length; i++) {
+            assertEquals(sequences[i], recorder.frames.get(i).getSequence());
+            lost[i] = recorder.lost.get(i);
+        }
+        assertArrayEquals(new long[]{0, 0, 0, 2, 0, 2}, lost);
+    }
+
+    @Test
+    public void lateFrameIsPlayedButNotCounted() throws Exception {
+        // 迟到的帧照常播放，不计丢帧，也不回退最新序号
+        long[] sequences = {0, 1, 3, 2, 4};
+        for (long sequence : sequences) {
+            pipeline.play(frame(sequence, (int) sequence));
+        }
+        awaitWritten(sequences.length);
+
+        assertEquals(1, pipeline.getLostFrames());
+        assertArrayEquals(new long[]{0, 0, 1, 0, 0}, recorder.lostArray());
+    }
+
+    @Test
+    public void stopRestartsSequence() throws Exception {
+        pipeline.play(frame(10, 0));
+        pipeline.play(frame(11, 1));
+        awaitWritten(2);
+        pipeline.stop();
+
+        // 停止后新一轮从头编号，不视为丢帧或迟到
+        pipeline.play(frame(0, 2));
+        pipeline.play(frame(1, 3));
+        awaitWritten(4);
+        assertEquals(0, pipeline.getLostFrames());
+        assertEquals(0, pipeline.getMetrics().getCounter(AudioMetrics.COUNTER_PLAYBACK_LOST));
+    }
+
+    private FakeAudioOutputDevice output() {
+        return factory.getLastOutput();
+    }
+
+    /**
+     * 等待播放线程写完 frames 帧
+     */
+    private void awaitWritten(int frames) throws InterruptedException {
+        long targetFrames = (long) frames * FRAME_BYTES / 2;
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (output().getWrittenFrames() < targetFrames) {
+            assertTrue("等待写入超时，已写入 " + output().getWrittenFrames() + " 帧",
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(2);
+        }
+    }
+
+    private static AudioFrame frame(long sequence, int fill) {
+        byte[] data = frame(fill);
+        return new AudioFrame(sequence, System.nanoTime(), 0, data, data.length, 0,
+                SAMPLE_RATE, 1, AudioFormatType.PCM);
+    }
+
+    /**
+     * 20ms 16bit 单声道帧，全部样本为 fill + 1，便于区分各帧
+     */
+    private static byte[] frame(int fill) {
+        byte[] pcm = new byte[FRAME_BYTES];
+        short v = (short) (fill + 1);
+        for (int i = 0; i < pcm.length; i += 2) {
+            pcm[i] = (byte) v;
+            pcm[i + 1] = (byte) (v >> 8);
+        }
+        return pcm;
+    }
+
+    /**
+     * 在播放线程记录每帧及其丢帧数
+     */
+    private static final class Recorder implements OnAudioFrameListener {
+        final List<AudioFrame> frames = new ArrayList<>();
+        final List<Long> lost = new ArrayList<>();
+
+        @Override
+        public void onCaptureFrame(AudioFrame frame) {
+        }
+
+        @Override
+        public void onEncodedFrame(AudioFrame frame) {
+        }
+
+        @Override
+        public synchronized void onPlaybackFrame(AudioFrame frame, long lostFrames) {
+            frames.add(frame);
+            lost.add(lostFrames);
+        }
+
+        synchronized int count() {
+            return frames.size();
+        }
+
+        synchronized long[] lostArray() {
+            long[] result = new long[lost.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = lost.get(i);
+            }
+            return result;
+        }
+    }
+}
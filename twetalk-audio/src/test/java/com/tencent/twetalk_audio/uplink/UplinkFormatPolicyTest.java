@@ -0,0 +1,146 @@
+package com.tencent.twetalk_audio.uplink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.tencent.twetalk_audio.config.AudioFormatType;
+
+import org.junit.Test;
+
+/**
+ * UplinkFormatPolicy 滞回、持续时长和最短驻留（16kHz 单声道 PCM 256kbps，20ms 帧）
+ */
+public class UplinkFormatPolicyTest {
+    private static final int PCM_BITRATE = 16000 * 16;
+    private static final int FRAME_MS = 20;
+    private static final int TO_OPUS_HOLD_MS = 2000;
+    private static final int TO_PCM_HOLD_MS = 10000;
+    private static final int MIN_DWELL_MS = 5000;
+
+    private static final int LOW = 100_000;       // 低于 1.25 倍 PCM 码率
+    private static final int MIDDLE = 400_000;    // 介于 1.25 倍和 2 倍之间
+    private static final int HIGH = 600_000;      // 高于 2 倍 PCM 码率
+
+    @Test
+    public void unknownThroughputNeverSwitches() {
+        UplinkFormatPolicy pcm = policy(AudioFormatType.PCM);
+        UplinkFormatPolicy opus = policy(AudioFormatType.OPUS);
+        assertEquals(-1, framesUntilSwitch(pcm, 1000, -1));
+        assertEquals(-1, framesUntilSwitch(opus, 1000, -1));
+    }
+
+    @Test
+    public void lowBandwidthSwitchesToOpusAfterDwell() {
+        // 带宽不足 2s 即满足持续时长，但开始后须驻留满 5s 才切换
+        UplinkFormatPolicy policy = policy(AudioFormatType.PCM);
+        policy.reportThroughput(LOW);
+        assertEquals(MIN_DWELL_MS / FRAME_MS, framesUntilSwitch(policy, 1000, -1));
+        assertEquals(AudioFormatType.OPUS, policy.getFormat());
+    }
+
+    @Test
+    public void lowBandwidthMustHoldBeforeSwitch() {
+        UplinkFormatPolicy policy = policy(AudioFormatType.PCM);
+        policy.reportThroughput(HIGH);
+        assertEquals(-1, framesUntilSwitch(policy, MIN_DWELL_MS / FRAME_MS, -1));
+
+        // 驻留已满足，带宽不足须持续 toOpusHoldMs，中途恢复一帧即重新计时
+        policy.reportThroughput(LOW);
+        assertEquals(-1, framesUntilSwitch(policy, TO_OPUS_HOLD_MS / FRAME_MS - 1, -1));
+        policy.reportThroughput(HIGH);
+        assertEquals(-1, framesUntilSwitch(policy, 1, -1));
+        policy.reportThroughput(LOW);
+        assertEquals(TO_OPUS_HOLD_MS / FRAME_MS, framesUntilSwitch(policy, 1000, -1));
+    }
+
+    @Test
+    public void throughputBetweenThresholdsKeepsEitherFormat() {
+        // 滞回区间内两种格式都保持不变
+        UplinkFormatPolicy pcm = policy(AudioFormatType.PCM);
+        UplinkFormatPolicy opus = policy(AudioFormatType.OPUS);
+        pcm.reportThroughput(MIDDLE);
+        opus.reportThroughput(MIDDLE);
+        assertEquals(-1, framesUntilSwitch(pcm, 2000, -1));
+        assertEquals(-1, framesUntilSwitch(opus, 2000, -1));
+    }
+
+    @Test
+    public void recoveredBandwidthSwitchesBackToPcm() {
+        UplinkFormatPolicy policy = policy(AudioFormatType.OPUS);
+        policy.reportThroughput(HIGH);
+        assertEquals(TO_PCM_HOLD_MS / FRAME_MS, framesUntilSwitch(policy, 1000, -1));
+        assertEquals(AudioFormatType.PCM, policy.getFormat());
+    }
+
+    @Test
+    public void switchRestartsDwell() {
+        UplinkFormatPolicy policy = new UplinkFormatPolicy(PCM_BITRATE, AudioFormatType.PCM, TO_OPUS_HOLD_MS, 1000, 0.3f);
+        policy.reportThroughput(LOW);
+        framesUntilSwitch(policy, 1000, -1);
+        assertEquals(AudioFormatType.OPUS, policy.getFormat());
+
+        // 切换后带宽立即恢复，持续时长 1s 已满足，仍须驻留满 5s
+        policy.reportThroughput(HIGH);
+        assertEquals(MIN_DWELL_MS / FRAME_MS, framesUntilSwitch(policy, 1000, -1));
+        assertEquals(AudioFormatType.PCM, policy.getFormat());
+    }
+
+    @Test
+    public void encodeCpuOverloadSwitchesToPcm() {
+        UplinkFormatPolicy policy = policy(AudioFormatType.OPUS);
+        policy.reportThroughput(MIDDLE);
+        // 每帧编码耗时为帧长的一半，滑动平均若干帧后超过阈值，再持续 toPcmHoldMs / 2
+        long cpuNs = FRAME_MS * 1_000_000L / 2;
+        int frames = framesUntilSwitch(policy, 1000, cpuNs);
+        assertTrue("frames=" + frames, frames > TO_PCM_HOLD_MS / 2 / FRAME_MS);
+        assertTrue("frames=" + frames, frames < TO_PCM_HOLD_MS / FRAME_MS);
+        assertEquals(AudioFormatType.PCM, policy.getFormat());
+        assertTrue(policy.getCpuLoad() >= 0.3f);
+    }
+
+    @Test
+    public void cpuOverloadIgnoredWhenBandwidthIsLow() {
+        // 带宽不足以承载 PCM 时优先保证可用性
+        UplinkFormatPolicy policy = policy(AudioFormatType.OPUS);
+        policy.reportThroughput(LOW);
+        assertEquals(-1, framesUntilSwitch(policy, 2000, FRAME_MS * 1_000_000L));
+        assertEquals(AudioFormatType.OPUS, policy.getFormat());
+    }
+
+    @Test
+    public void resetRestartsTimersAndKeepsFormat() {
+        UplinkFormatPolicy policy = policy(AudioFormatType.PCM);
+        policy.reportThroughput(LOW);
+        assertEquals(-1, framesUntilSwitch(policy, MIN_DWELL_MS / FRAME_MS - 1, -1));
+
+        policy.reset();
+        assertEquals(AudioFormatType.PCM, policy.getFormat());
+        assertEquals(LOW, policy.getThroughput());
+        assertEquals(MIN_DWELL_MS / FRAME_MS, framesUntilSwitch(policy, 1000, -1));
+    }
+
+    @Test
+    public void chooseFormatUsesEnterPcmHeadroom() {
+        assertEquals(AudioFormatType.OPUS, UplinkFormatPolicy.chooseFormat(PCM_BITRATE, 0, AudioFormatType.OPUS));
+        assertEquals(AudioFormatType.PCM, UplinkFormatPolicy.chooseFormat(PCM_BITRATE, -1, AudioFormatType.PCM));
+        assertEquals(AudioFormatType.PCM, UplinkFormatPolicy.chooseFormat(PCM_BITRATE, HIGH, AudioFormatType.OPUS));
+        assertEquals(AudioFormatType.OPUS, UplinkFormatPolicy.chooseFormat(PCM_BITRATE, MIDDLE, AudioFormatType.PCM));
+        assertEquals(AudioFormatType.OPUS, UplinkFormatPolicy.chooseFormat(PCM_BITRATE, LOW, AudioFormatType.PCM));
+    }
+
+    private static UplinkFormatPolicy policy(AudioFormatType initial) {
+        return new UplinkFormatPolicy(PCM_BITRATE, initial, TO_OPUS_HOLD_MS, TO_PCM_HOLD_MS, 0.3f);
+    }
+
+    /**
+     * 最多送入 maxFrames 帧，返回发生切换的帧序号（从 1 开始），未切换返回 -1
+     */
+    private static int framesUntilSwitch(UplinkFormatPolicy policy, int maxFrames, long encodeCpuNs) {
+        for (int i = 1; i <= maxFrames; i++) {
+            if (policy.onFrame(FRAME_MS, encodeCpuNs) != UplinkFormatPolicy.REASON_NONE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,117 @@
+package com.tencent.twetalk_audio.vad;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Endpointer 起音、尾部静音和最长语句判定（20ms 帧，起音 60ms）
+ */
+public class EndpointerTest {
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_MS = 20;
+    private static final int ATTACK_FRAMES = 3;
+
+    private final byte[] loud = EnergyVadTest.frame(3000);
+    private final byte[] silence = EnergyVadTest.frame(0);
+
+    @Test
+    public void speechStartIsReportedOnce() {
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, 300, 0);
+        assertEquals(Endpointer.EVENT_NONE, feed(endpointer, silence, 10));
+
+        for (int i = 1; i < ATTACK_FRAMES; i++) {
+            assertEquals(Endpointer.EVENT_NONE, endpointer.process(loud, 0, loud.length));
+        }
+        assertEquals(Endpointer.EVENT_SPEECH_START, endpointer.process(loud, 0, loud.length));
+        assertTrue(endpointer.isInUtterance());
+        assertEquals(Endpointer.EVENT_NONE, feed(endpointer, loud, 20));
+    }
+
+    @Test
+    public void trailingSilenceEndsUtterance() {
+        int trailingMs = 300;
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, trailingMs, 0);
+        startSpeech(endpointer);
+        feed(endpointer, loud, 10);
+
+        // 尾部静音不足 trailingMs 时仍在语句中，达到时结束
+        int trailingFrames = trailingMs / FRAME_MS;
+        for (int i = 1; i < trailingFrames; i++) {
+            assertEquals(Endpointer.EVENT_NONE, endpointer.process(silence, 0, silence.length));
+        }
+        assertEquals(Endpointer.EVENT_END_OF_UTTERANCE, endpointer.process(silence, 0, silence.length));
+        assertFalse(endpointer.isInUtterance());
+        assertEquals(Endpointer.REASON_SILENCE, endpointer.getLastReason());
+        // 语句时长含尾部静音
+        assertEquals((10 + trailingFrames) * FRAME_MS, endpointer.getLastUtteranceMs());
+    }
+
+    @Test
+    public void pauseShorterThanTrailingSilenceKeepsUtterance() {
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, 300, 0);
+        startSpeech(endpointer);
+        assertEquals(Endpointer.EVENT_NONE, feed(endpointer, silence, 10));
+        assertEquals(Endpointer.EVENT_NONE, feed(endpointer, loud, 5));
+        assertEquals(Endpointer.EVENT_NONE, feed(endpointer, silence, 10));
+        assertTrue(endpointer.isInUtterance());
+    }
+
+    @Test
+    public void maxLengthForcesEndAndRequiresNewAttack() {
+        int maxMs = 1000;
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, 300, maxMs);
+        startSpeech(endpointer);
+
+        int maxFrames = maxMs / FRAME_MS;
+        for (int i = 1; i < maxFrames; i++) {
+            assertEquals(Endpointer.EVENT_NONE, endpointer.process(loud, 0, loud.length));
+        }
+        assertEquals(Endpointer.EVENT_END_OF_UTTERANCE, endpointer.process(loud, 0, loud.length));
+        assertEquals(Endpointer.REASON_MAX_LENGTH, endpointer.getLastReason());
+        assertEquals(maxMs, endpointer.getLastUtteranceMs());
+
+        // 持续说话时须重新累计起音时长才开始下一句，不会逐帧连续触发
+        for (int i = 1; i < ATTACK_FRAMES; i++) {
+            assertEquals(Endpointer.EVENT_NONE, endpointer.process(loud, 0, loud.length));
+        }
+        assertEquals(Endpointer.EVENT_SPEECH_START, endpointer.process(loud, 0, loud.length));
+    }
+
+    @Test
+    public void resetLeavesUtterance() {
+        Endpointer endpointer = new Endpointer(SAMPLE_RATE, 300, 0);
+        startSpeech(endpointer);
+        endpointer.reset();
+        assertFalse(endpointer.isInUtterance());
+
+        // 重置后不补报结束事件，需重新起音
+        assertEquals(Endpointer.EVENT_NONE, feed(endpointer, silence, 30));
+        startSpeech(endpointer);
+    }
+
+    private void startSpeech(Endpointer endpointer) {
+        int event = Endpointer.EVENT_NONE;
+        for (int i = 0; i < ATTACK_FRAMES; i++) {
+            event = endpointer.process(loud, 0, loud.length);
+        }
+        assertEquals(Endpointer.EVENT_SPEECH_START, event);
+    }
+
+    /**
+     * 连续送入 count 帧，返回其中出现的事件（多个事件时断言失败）
+     */
+    private static int feed(Endpointer endpointer, byte[] frame, int count) {
+        int result = Endpointer.EVENT_NONE;
+        for (int i = 0; i < count; i++) {
+            int event = endpointer.process(frame, 0, frame.length);
+            if (event != Endpointer.EVENT_NONE) {
+                assertEquals("出现多个事件", Endpointer.EVENT_NONE, result);
+                result = event;
+            }
+        }
+        return result;
+    }
+}
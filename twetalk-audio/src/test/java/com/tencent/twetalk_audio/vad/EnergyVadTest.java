@@ -0,0 +1,160 @@
+package com.tencent.twetalk_audio.vad;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * EnergyVad 起音 / 拖尾计时和噪声底
+ */
+public class EnergyVadTest {
+    private static final int SAMPLE_RATE = 16000;
+    private static final int FRAME_MS = 20;
+
+    @Test
+    public void silenceNeverTriggers() {
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE);
+        byte[] silence = frame(0);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(vad.process(silence, 0, silence.length));
+        }
+        assertEquals(100 * FRAME_MS, vad.getSilentRunMs());
+    }
+
+    @Test
+    public void speechStartsAfterAttack() {
+        // 默认起音 40ms：第一帧有声仍未进入语音状态，第二帧进入
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE);
+        warmUp(vad);
+        byte[] loud = frame(3000);
+        assertFalse(vad.process(loud, 0, loud.length));
+        assertTrue(vad.process(loud, 0, loud.length));
+    }
+
+    @Test
+    public void shortBurstIsIgnored() {
+        // 有声不足起音时长即中断，不进入语音状态
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE);
+        warmUp(vad);
+        byte[] loud = frame(3000);
+        byte[] silence = frame(0);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(vad.process(loud, 0, loud.length));
+            assertFalse(vad.process(silence, 0, silence.length));
+        }
+    }
+
+    @Test
+    public void speechHoldsForHangover() {
+        int hangoverMs = 200;
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE, 3.0f, 300f, 40, hangoverMs);
+        warmUp(vad);
+        byte[] loud = frame(3000);
+        byte[] silence = frame(0);
+        vad.process(loud, 0, loud.length);
+        assertTrue(vad.process(loud, 0, loud.length));
+
+        // 拖尾期间保持语音状态，静音累计达到 hangoverMs 的那一帧退出
+        int hangoverFrames = hangoverMs / FRAME_MS;
+        for (int i = 1; i < hangoverFrames; i++) {
+            assertTrue("第 " + i + " 帧静音仍应处于拖尾", vad.process(silence, 0, silence.length));
+        }
+        assertFalse(vad.process(silence, 0, silence.length));
+    }
+
+    @Test
+    public void speechInsideHangoverRestartsIt() {
+        int hangoverMs = 200;
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE, 3.0f, 300f, 40, hangoverMs);
+        warmUp(vad);
+        byte[] loud = frame(3000);
+        byte[] silence = frame(0);
+        vad.process(loud, 0, loud.length);
+        vad.process(loud, 0, loud.length);
+
+        // 拖尾中途再次有声，静音计时清零，需重新累计完整的拖尾时长
+        for (int i = 0; i < hangoverMs / FRAME_MS - 1; i++) {
+            vad.process(silence, 0, silence.length);
+        }
+        assertTrue(vad.process(loud, 0, loud.length));
+        for (int i = 1; i < hangoverMs / FRAME_MS; i++) {
+            assertTrue(vad.process(silence, 0, silence.length));
+        }
+        assertFalse(vad.process(silence, 0, silence.length));
+    }
+
+    @Test
+    public void quietSignalBelowMinimumLevelIsNotSpeech() {
+        // 噪声底很低时，电平仍须超过 minSpeechLevel
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE);
+        warmUp(vad);
+        byte[] quiet = frame(200);
+        for (int i = 0; i < 20; i++) {
+            assertFalse(vad.process(quiet, 0, quiet.length));
+        }
+    }
+
+    @Test
+    public void noiseFloorFollowsStationaryNoise() {
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE);
+        byte[] noise = frame(50);
+        for (int i = 0; i < 200; i++) {
+            vad.process(noise, 0, noise.length);
+        }
+        assertEquals(50f, vad.getNoiseFloor(), 1f);
+        assertEquals(50f, vad.getLastLevel(), 0.01f);
+    }
+
+    @Test
+    public void resetKeepsNoiseFloor() {
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE);
+        byte[] noise = frame(50);
+        for (int i = 0; i < 200; i++) {
+            vad.process(noise, 0, noise.length);
+        }
+        float floor = vad.getNoiseFloor();
+
+        vad.reset(true);
+        assertTrue(vad.isSpeech());
+        assertEquals(0, vad.getSilentRunMs());
+        assertEquals(floor, vad.getNoiseFloor(), 0f);
+    }
+
+    @Test
+    public void honoursOffsetAndLength() {
+        EnergyVad vad = new EnergyVad(SAMPLE_RATE);
+        warmUp(vad);
+        // 前半段有声、后半段静音，只处理后半段时电平为 0
+        byte[] loud = frame(3000);
+        byte[] buffer = new byte[loud.length * 2];
+        System.arraycopy(loud, 0, buffer, 0, loud.length);
+        vad.process(buffer, loud.length, loud.length);
+        assertEquals(0f, vad.getLastLevel(), 0f);
+    }
+
+    /**
+     * 先用静音让噪声底降到最低
+     */
+    private static void warmUp(EnergyVad vad) {
+        byte[] silence = frame(0);
+        for (int i = 0; i < 100; i++) {
+            vad.process(silence, 0, silence.length);
+        }
+    }
+
+    /**
+     * 平均幅度为 amplitude 的一帧 16bit 单声道方波
+     */
+    static byte[] frame(int amplitude) {
+        int samples = SAMPLE_RATE * FRAME_MS / 1000;
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short v = (short) (i % 2 == 0 ? amplitude : -amplitude);
+            pcm[i * 2] = (byte) v;
+            pcm[i * 2 + 1] = (byte) (v >> 8);
+        }
+        return pcm;
+    }
+}